@@ -3,6 +3,7 @@ package net.mineles.library.connection;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.util.Objects;
 
 public final class HostAndPort {
     private final String host;
@@ -68,4 +69,9 @@ public final class HostAndPort {
         HostAndPort that = (HostAndPort) obj;
         return this.port == that.port && this.host.equals(that.host);
     }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.host, this.port);
+    }
 }
@@ -38,6 +38,7 @@ import net.mineles.library.menu.MenuManager;
 import net.mineles.library.metadata.store.MetadataStore;
 import net.mineles.library.plugin.scheduler.concurrent.ConcurrentTaskScheduler;
 import net.mineles.library.plugin.scheduler.concurrent.forkjoin.ForkJoinPoolBuilder;
+import net.mineles.library.server.ResourceSampler;
 import org.bukkit.Server;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.scheduler.BukkitScheduler;
@@ -182,6 +183,18 @@ public abstract class AbstractBukkitPlugin extends AbstractMinelesPlugin
         return HostAndPort.localhost(getServer().getPort());
     }
 
+    @Override
+    protected int getOnlinePlayerCount() {
+        return getServer().getOnlinePlayers().size();
+    }
+
+    // Paper keeps its own TPS and tick time averages, which are read from the
+    // sampler thread when spark isn't installed.
+    @Override
+    protected ResourceSampler.Source getResourceSource() {
+        return ResourceSampler.detect(ResourceSampler.system(() -> getServer().getTPS()[0], () -> getServer().getAverageTickTime()));
+    }
+
     private void setupTaskScheduler() {
         this.taskScheduler = new ConcurrentTaskScheduler(getLogger(), getPlugin().getName());
 
@@ -1,11 +1,22 @@
 package net.mineles.library.plugin;
 
 import com.google.gson.JsonObject;
+import net.mineles.library.redis.RedisAsyncOptions;
 import net.mineles.library.redis.RedisClient;
 import net.mineles.library.redis.RedisCredentials;
+import net.mineles.library.redis.RedisPoolOptions;
+import net.mineles.library.redis.RedisStreamOptions;
+import net.mineles.library.redis.backend.RedisBackend;
+import net.mineles.library.redis.cache.NearCacheOptions;
+import net.mineles.library.redis.compression.CompressionOptions;
+import net.mineles.library.redis.dispatch.DispatchOptions;
+import net.mineles.library.redis.message.EnvelopeFormat;
 import net.mineles.library.server.listeners.DispatchCommandListener;
+import net.mineles.library.server.ResourceSampler;
 import net.mineles.library.server.ServerManager;
 import net.mineles.library.server.constants.ServerKeys;
+import net.mineles.library.server.health.HealthOptions;
+import org.jetbrains.annotations.Nullable;
 
 import java.util.UUID;
 
@@ -26,12 +37,70 @@ public abstract class AbstractMinelesPlugin implements MinelesPlugin {
 
         log("Connecting to Redis...");
         String executorName = getPluginName() + "-" + UUID.randomUUID().toString().substring(0, 5);
-        this.redisClient = new RedisClient(getRedisCredentials(), executorName);
+        RedisBackend backend = getRedisBackend(executorName);
+        if (backend != null) {
+            this.redisClient = new RedisClient(executorName, backend);
+        } else {
+            this.redisClient = new RedisClient(getRedisCredentials(), executorName, getPoolOptions(), getBlockingPoolOptions());
+        }
         this.redisClient.connect();
+        this.redisClient.setEnvelopeFormat(getEnvelopeFormat());
+
+        DispatchOptions dispatchOptions = getDispatchOptions();
+        if (dispatchOptions != null) {
+            this.redisClient.enableDispatcher(dispatchOptions);
+        }
+
+        RedisAsyncOptions asyncOptions = getAsyncOptions();
+        if (asyncOptions != null) {
+            this.redisClient.enableAsync(asyncOptions);
+        }
+
+        CompressionOptions compressionOptions = getCompressionOptions();
+        if (compressionOptions != null) {
+            this.redisClient.enableCompression(compressionOptions);
+        }
+
+        RedisStreamOptions streamOptions = getStreamOptions();
+        // Streams only add durability across nodes, a local backend has none.
+        if (streamOptions != null && !this.redisClient.isLocal()) {
+            if (streamOptions.group() == null) {
+                streamOptions = new RedisStreamOptions(getPluginName() + "@" + getServerAddress(), streamOptions.channels(),
+                        streamOptions.maxLength(), streamOptions.batchSize(), streamOptions.block(), streamOptions.claimIdle(),
+                        streamOptions.maxDeliveries());
+            }
+            this.redisClient.enableStreams(streamOptions);
+        }
         this.redisClient.subscribe(ServerKeys.SERVERS_DISPATCH_COMMAND_REQUEST, new DispatchCommandListener(this));
+
+        NearCacheOptions nearCacheOptions = getNearCacheOptions();
+        if (nearCacheOptions != null) {
+            this.redisClient.enableNearCache(nearCacheOptions);
+        }
         log("Connected to Redis.");
 
         this.serverManager = new ServerManager(this.redisClient);
+        if (isServerRegistryEnabled()) {
+            this.serverManager.enableRegistry();
+        }
+
+        // Every node beats for its own server, looked up by address once it
+        // has been registered, so the health checkers can tell it is alive.
+        // Sampled usage only reaches other nodes through the heartbeat, so
+        // the sampler runs only alongside it.
+        HealthOptions heartbeatOptions = getHeartbeatOptions();
+        if (heartbeatOptions != null) {
+            ResourceSampler.Source resourceSource = getResourceSource();
+            if (resourceSource != null) {
+                this.serverManager.enableResourceSampling(resourceSource);
+            }
+            this.serverManager.startHeartbeat(getServerAddress(), heartbeatOptions, this::getOnlinePlayerCount);
+        }
+
+        HealthOptions healthOptions = getHealthCheckOptions();
+        if (healthOptions != null) {
+            this.serverManager.enableHealthChecks(healthOptions);
+        }
 
         log("Publishing server start...");
         JsonObject jsonObject = new JsonObject();
@@ -47,6 +116,7 @@ public abstract class AbstractMinelesPlugin implements MinelesPlugin {
         }
 
         this.disabled = true;
+        this.serverManager.shutdown();
         this.redisClient.disconnect();
     }
 
@@ -59,6 +129,62 @@ public abstract class AbstractMinelesPlugin implements MinelesPlugin {
 
     protected abstract RedisCredentials getRedisCredentials();
 
+    protected @Nullable RedisBackend getRedisBackend(String executorName) {
+        return null;
+    }
+
+    protected RedisPoolOptions getPoolOptions() {
+        return RedisPoolOptions.defaults();
+    }
+
+    protected RedisPoolOptions getBlockingPoolOptions() {
+        return RedisPoolOptions.blockingDefaults();
+    }
+
+    protected EnvelopeFormat getEnvelopeFormat() {
+        return EnvelopeFormat.LEGACY;
+    }
+
+    protected @Nullable NearCacheOptions getNearCacheOptions() {
+        return null;
+    }
+
+    protected @Nullable DispatchOptions getDispatchOptions() {
+        return null;
+    }
+
+    protected @Nullable RedisStreamOptions getStreamOptions() {
+        return null;
+    }
+
+    protected @Nullable CompressionOptions getCompressionOptions() {
+        return null;
+    }
+
+    protected @Nullable RedisAsyncOptions getAsyncOptions() {
+        return null;
+    }
+
+    protected boolean isServerRegistryEnabled() {
+        return false;
+    }
+
+    protected @Nullable HealthOptions getHeartbeatOptions() {
+        return HealthOptions.defaults();
+    }
+
+    protected @Nullable HealthOptions getHealthCheckOptions() {
+        return null;
+    }
+
+    protected int getOnlinePlayerCount() {
+        return 0;
+    }
+
+    protected @Nullable ResourceSampler.Source getResourceSource() {
+        return null;
+    }
+
     @Override
     public ServerManager getServerManager() {
         return this.serverManager;
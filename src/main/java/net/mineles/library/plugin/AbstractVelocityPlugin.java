@@ -4,7 +4,9 @@ import com.velocitypowered.api.proxy.ProxyServer;
 import net.mineles.library.configuration.ConfigManager;
 import net.mineles.library.connection.HostAndPort;
 import net.mineles.library.metadata.store.MetadataStore;
+import net.mineles.library.server.health.HealthOptions;
 import org.apache.hc.core5.net.Host;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 
 import java.net.InetSocketAddress;
@@ -110,6 +112,17 @@ public abstract class AbstractVelocityPlugin extends AbstractMinelesPlugin
         return HostAndPort.fromSocketAddress(this.proxyServer.getBoundAddress());
     }
 
+    // A proxy is never registered as a server, so it has nothing to beat for.
+    @Override
+    protected @Nullable HealthOptions getHeartbeatOptions() {
+        return null;
+    }
+
+    @Override
+    protected int getOnlinePlayerCount() {
+        return this.proxyServer.getPlayerCount();
+    }
+
     @Override
     public ConfigManager getConfigManager() {
         return this.configManager;
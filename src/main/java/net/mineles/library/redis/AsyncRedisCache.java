@@ -0,0 +1,419 @@
+package net.mineles.library.redis;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.mineles.library.redis.codec.Decoder;
+import net.mineles.library.redis.rpc.HashedWheelTimer;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public final class AsyncRedisCache {
+    private final RedisClient client;
+    private final RedisAsyncOptions options;
+    private final ExecutorService executor;
+    private final @Nullable Semaphore admission;
+    private final @Nullable Semaphore concurrency;
+    private final HashedWheelTimer timer;
+    private final Queue<BatchedCall<?>> pending;
+    private final AtomicBoolean flushing;
+
+    private volatile boolean closed;
+
+    AsyncRedisCache(@NotNull RedisClient client,
+                    @NotNull RedisAsyncOptions options) {
+        checkArgument(options.threads() > 0, "Thread count must be positive");
+        checkArgument(options.queueCapacity() > 0, "Queue capacity must be positive");
+        checkArgument(options.batchSize() > 0, "Batch size must be positive");
+
+        this.client = client;
+        this.options = options;
+        this.timer = new HashedWheelTimer(client.getExecutorName() + "-async");
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.flushing = new AtomicBoolean();
+
+        ExecutorService virtualExecutor = options.virtualThreads() ? newVirtualThreadExecutor() : null;
+        if (virtualExecutor != null) {
+            // Virtual threads are unbounded by themselves, so admission and
+            // concurrency are capped with permits to keep the same limits as
+            // the platform pool.
+            this.executor = virtualExecutor;
+            this.admission = new Semaphore(options.threads() + options.queueCapacity());
+            this.concurrency = new Semaphore(options.threads());
+        } else {
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(options.threads(), options.threads(),
+                    60L, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(options.queueCapacity()),
+                    new ThreadFactoryBuilder()
+                            .setNameFormat(client.getExecutorName() + "-redis-async-%d")
+                            .setDaemon(true)
+                            .build());
+            executor.allowCoreThreadTimeOut(true);
+
+            this.executor = executor;
+            this.admission = null;
+            this.concurrency = null;
+        }
+    }
+
+    private static @Nullable ExecutorService newVirtualThreadExecutor() {
+        // The library still targets Java 17, so the Java 21 factory is
+        // looked up reflectively and platform threads are used without it.
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    public <T> @NotNull CompletableFuture<T> supply(@NotNull Function<RedisCache, T> action) {
+        return supply(action, this.options.timeout());
+    }
+
+    public <T> @NotNull CompletableFuture<T> supply(@NotNull Function<RedisCache, T> action,
+                                                    @NotNull Duration timeout) {
+        CompletableFuture<T> future = withTimeout(new CompletableFuture<>(), timeout);
+        try {
+            execute(() -> {
+                // Cancelled or timed out while queued, so the command is
+                // never sent. A command already on the wire is not
+                // interrupted since that would leave the connection unusable.
+                if (future.isDone()) {
+                    return;
+                }
+
+                try {
+                    future.complete(action.apply(this.client.getCache()));
+                } catch (Throwable throwable) {
+                    future.completeExceptionally(throwable);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+
+        return future;
+    }
+
+    public @NotNull CompletableFuture<Void> run(@NotNull Runnable action) {
+        return supply(cache -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public @NotNull CompletableFuture<Void> pipelined(@NotNull Consumer<RedisBatch> consumer) {
+        return supply(cache -> {
+            cache.pipelined(consumer);
+            return null;
+        });
+    }
+
+    public <T> @NotNull CompletableFuture<T> query(@NotNull Function<RedisBatch, BatchResponse<T>> call) {
+        return query(call, this.options.timeout());
+    }
+
+    public <T> @NotNull CompletableFuture<T> query(@NotNull Function<RedisBatch, BatchResponse<T>> call,
+                                                   @NotNull Duration timeout) {
+        BatchedCall<T> batched = new BatchedCall<>(call, withTimeout(new CompletableFuture<>(), timeout));
+        if (this.closed) {
+            batched.future.completeExceptionally(new RejectedExecutionException("Redis client is closed"));
+            return batched.future;
+        }
+
+        this.pending.add(batched);
+        scheduleFlush();
+        return batched.future;
+    }
+
+    public @NotNull CompletableFuture<Void> queue(@NotNull Consumer<RedisBatch> call) {
+        return query(batch -> {
+            call.accept(batch);
+            return null;
+        });
+    }
+
+    public @NotNull CompletableFuture<Boolean> exists(@NotNull String key) {
+        return query(batch -> batch.exists(key));
+    }
+
+    public @NotNull CompletableFuture<String> get(@NotNull String key) {
+        return query(batch -> batch.get(key));
+    }
+
+    public <T> @NotNull CompletableFuture<T> getDecoded(@NotNull String key,
+                                                        @NotNull Class<T> type) {
+        return getDecoded(key, getDecoder(key, type));
+    }
+
+    public <T> @NotNull CompletableFuture<T> getDecoded(@NotNull String key,
+                                                        @NotNull Decoder<T> decoder) {
+        return query(batch -> batch.getDecoded(key, decoder));
+    }
+
+    public @NotNull CompletableFuture<List<String>> mget(@NotNull String... keys) {
+        return query(batch -> batch.mget(keys));
+    }
+
+    public <T> @NotNull CompletableFuture<Map<String, T>> mgetDecoded(@NotNull Decoder<T> decoder,
+                                                                      @NotNull String... keys) {
+        return query(batch -> batch.mgetDecoded(decoder, keys));
+    }
+
+    public @NotNull CompletableFuture<String> hget(@NotNull String key,
+                                                   @NotNull String field) {
+        return query(batch -> batch.hget(key, field));
+    }
+
+    public <T> @NotNull CompletableFuture<T> hgetDecoded(@NotNull String key,
+                                                         @NotNull String field,
+                                                         @NotNull Class<T> type) {
+        return hgetDecoded(key, field, getDecoder(key, type));
+    }
+
+    public <T> @NotNull CompletableFuture<T> hgetDecoded(@NotNull String key,
+                                                         @NotNull String field,
+                                                         @NotNull Decoder<T> decoder) {
+        return query(batch -> batch.hgetDecoded(key, field, decoder));
+    }
+
+    public <T> @NotNull CompletableFuture<Map<String, T>> hmgetDecoded(@NotNull String key,
+                                                                       @NotNull Decoder<T> decoder,
+                                                                       @NotNull String... fields) {
+        return query(batch -> batch.hmgetDecoded(key, decoder, fields));
+    }
+
+    public @NotNull CompletableFuture<Map<String, String>> hgetAll(@NotNull String key) {
+        return query(batch -> batch.hgetAll(key));
+    }
+
+    public <T> @NotNull CompletableFuture<Map<String, T>> hgetAllDecoded(@NotNull String key,
+                                                                         @NotNull Class<T> type) {
+        return hgetAllDecoded(key, getDecoder(key, type));
+    }
+
+    public <T> @NotNull CompletableFuture<Map<String, T>> hgetAllDecoded(@NotNull String key,
+                                                                         @NotNull Decoder<T> decoder) {
+        return query(batch -> batch.hgetAllDecoded(key, decoder));
+    }
+
+    public @NotNull CompletableFuture<Void> set(@NotNull String key,
+                                                @NotNull String value) {
+        return queue(batch -> batch.set(key, value));
+    }
+
+    public @NotNull CompletableFuture<Void> set(@NotNull String key,
+                                                @NotNull String value,
+                                                @NotNull Duration duration) {
+        return queue(batch -> batch.set(key, value, duration));
+    }
+
+    public <T> @NotNull CompletableFuture<Void> setDecoded(@NotNull String key,
+                                                           @NotNull T value,
+                                                           @NotNull Decoder<T> decoder) {
+        return queue(batch -> batch.setDecoded(key, value, decoder));
+    }
+
+    public @NotNull CompletableFuture<Void> hset(@NotNull String key,
+                                                 @NotNull String field,
+                                                 @NotNull String value) {
+        return queue(batch -> batch.hset(key, field, value));
+    }
+
+    public <T> @NotNull CompletableFuture<Void> hsetDecoded(@NotNull String key,
+                                                            @NotNull String field,
+                                                            @NotNull T value,
+                                                            @NotNull Decoder<T> decoder) {
+        return queue(batch -> batch.hsetDecoded(key, field, value, decoder));
+    }
+
+    public @NotNull CompletableFuture<Void> hdel(@NotNull String key,
+                                                 @NotNull String... fields) {
+        return queue(batch -> batch.hdel(key, fields));
+    }
+
+    public @NotNull CompletableFuture<Void> expire(@NotNull String key,
+                                                   long duration) {
+        return queue(batch -> batch.expire(key, duration));
+    }
+
+    public @NotNull CompletableFuture<Void> delete(@NotNull String... keys) {
+        return queue(batch -> batch.delete(keys));
+    }
+
+    public int getPendingCount() {
+        return this.pending.size();
+    }
+
+    public @NotNull RedisAsyncOptions getOptions() {
+        return this.options;
+    }
+
+    void shutdown() {
+        this.closed = true;
+        failPending(new RejectedExecutionException("Redis client is closed"));
+        this.executor.shutdown();
+        this.timer.stop();
+    }
+
+    private <T> @NotNull CompletableFuture<T> withTimeout(@NotNull CompletableFuture<T> future,
+                                                          @NotNull Duration timeout) {
+        HashedWheelTimer.Timeout task = this.timer.newTimeout(
+                () -> future.completeExceptionally(new TimeoutException("Redis call timed out after " + timeout.toMillis() + "ms")),
+                timeout.toMillis(), TimeUnit.MILLISECONDS);
+        future.whenComplete((value, throwable) -> task.cancel());
+        return future;
+    }
+
+    private void execute(@NotNull Runnable task) {
+        if (this.closed) {
+            throw new RejectedExecutionException("Redis client is closed");
+        }
+
+        if (this.admission == null || this.concurrency == null) {
+            this.executor.execute(task);
+            return;
+        }
+
+        if (!this.admission.tryAcquire()) {
+            throw new RejectedExecutionException("Async Redis queue is full");
+        }
+
+        Semaphore concurrency = this.concurrency;
+        try {
+            this.executor.execute(() -> {
+                concurrency.acquireUninterruptibly();
+                try {
+                    task.run();
+                } finally {
+                    concurrency.release();
+                    this.admission.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            this.admission.release();
+            throw e;
+        }
+    }
+
+    private void scheduleFlush() {
+        // Only one pipeline is in flight at a time; calls arriving meanwhile
+        // pile up and are sent together by the next flush.
+        if (!this.flushing.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            execute(this::flush);
+        } catch (RejectedExecutionException e) {
+            this.flushing.set(false);
+            failPending(e);
+        }
+    }
+
+    private void flush() {
+        try {
+            List<BatchedCall<?>> calls = Lists.newArrayListWithCapacity(Math.min(this.pending.size(), this.options.batchSize()));
+            BatchedCall<?> call;
+            while (calls.size() < this.options.batchSize() && (call = this.pending.poll()) != null) {
+                if (!call.future.isDone()) {
+                    calls.add(call);
+                }
+            }
+
+            if (!calls.isEmpty()) {
+                send(calls);
+            }
+        } finally {
+            this.flushing.set(false);
+            if (!this.pending.isEmpty()) {
+                scheduleFlush();
+            }
+        }
+    }
+
+    private void send(@NotNull List<BatchedCall<?>> calls) {
+        try {
+            this.client.getCache().pipelined(batch -> {
+                for (BatchedCall<?> call : calls) {
+                    call.prepare(batch);
+                }
+            });
+        } catch (RuntimeException e) {
+            calls.forEach(call -> call.future.completeExceptionally(e));
+            return;
+        }
+
+        calls.forEach(BatchedCall::complete);
+    }
+
+    private void failPending(@NotNull Throwable throwable) {
+        BatchedCall<?> call;
+        while ((call = this.pending.poll()) != null) {
+            call.future.completeExceptionally(throwable);
+        }
+    }
+
+    private <T> @NotNull Decoder<T> getDecoder(@NotNull String key,
+                                               @NotNull Class<T> type) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        return decoder;
+    }
+
+    private static final class BatchedCall<T> {
+        private final Function<RedisBatch, BatchResponse<T>> call;
+        private final CompletableFuture<T> future;
+
+        private BatchResponse<T> response;
+
+        private BatchedCall(@NotNull Function<RedisBatch, BatchResponse<T>> call,
+                            @NotNull CompletableFuture<T> future) {
+            this.call = call;
+            this.future = future;
+        }
+
+        private void prepare(@NotNull RedisBatch batch) {
+            // A call that fails while being queued only fails itself, the
+            // rest of the pipeline is still sent.
+            try {
+                this.response = this.call.apply(batch);
+            } catch (RuntimeException e) {
+                this.future.completeExceptionally(e);
+            }
+        }
+
+        private void complete() {
+            if (this.future.isDone()) {
+                return;
+            }
+
+            try {
+                this.future.complete(this.response == null ? null : this.response.get());
+            } catch (RuntimeException e) {
+                this.future.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package net.mineles.library.redis;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+public final class BatchResponse<T> implements Supplier<T> {
+    private final Supplier<?> response;
+    private final Function<Object, T> mapper;
+
+    private boolean mapped;
+    private T value;
+
+    @SuppressWarnings("unchecked")
+    <R> BatchResponse(@NotNull Supplier<R> response,
+                      @NotNull Function<R, T> mapper) {
+        this.response = response;
+        this.mapper = (Function<Object, T>) mapper;
+    }
+
+    static <R> BatchResponse<R> of(@NotNull Supplier<R> response) {
+        return new BatchResponse<>(response, Function.identity());
+    }
+
+    static <R, T> BatchResponse<T> of(@NotNull Supplier<R> response,
+                                      @NotNull Function<R, T> mapper) {
+        return new BatchResponse<>(response, mapper);
+    }
+
+    @Override
+    public T get() {
+        if (!this.mapped) {
+            Object raw = this.response.get();
+            this.value = raw == null ? null : this.mapper.apply(raw);
+            this.mapped = true;
+        }
+
+        return this.value;
+    }
+}
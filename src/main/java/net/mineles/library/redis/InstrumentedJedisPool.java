@@ -0,0 +1,46 @@
+package net.mineles.library.redis;
+
+import net.mineles.library.redis.metrics.RedisMetrics;
+import org.jetbrains.annotations.NotNull;
+import net.mineles.library.libs.jedis.Jedis;
+import net.mineles.library.libs.jedis.JedisPool;
+import net.mineles.library.libs.jedis.JedisPoolConfig;
+import net.mineles.library.libs.jedis.Protocol;
+import net.mineles.library.libs.jedis.exceptions.JedisException;
+
+import java.util.NoSuchElementException;
+
+final class InstrumentedJedisPool extends JedisPool {
+    private final RedisMetrics metrics;
+    private final boolean blocking;
+
+    InstrumentedJedisPool(@NotNull RedisCredentials credentials,
+                          @NotNull JedisPoolConfig config,
+                          @NotNull RedisMetrics metrics,
+                          boolean blocking) {
+        super(config,
+                credentials.hostAndPort().getHost(),
+                credentials.hostAndPort().getPort(),
+                Protocol.DEFAULT_TIMEOUT,
+                credentials.password(),
+                credentials.useSsl()
+        );
+        this.metrics = metrics;
+        this.blocking = blocking;
+    }
+
+    @Override
+    public Jedis getResource() {
+        long start = System.nanoTime();
+        try {
+            return super.getResource();
+        } catch (JedisException e) {
+            if (e.getCause() instanceof NoSuchElementException) {
+                this.metrics.recordExhausted();
+            }
+            throw e;
+        } finally {
+            this.metrics.recordBorrow(this.blocking, System.nanoTime() - start);
+        }
+    }
+}
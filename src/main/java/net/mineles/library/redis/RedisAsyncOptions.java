@@ -0,0 +1,27 @@
+package net.mineles.library.redis;
+
+import org.jetbrains.annotations.NotNull;
+import net.mineles.library.libs.configurate.ConfigurationNode;
+
+import java.time.Duration;
+
+public record RedisAsyncOptions(int threads,
+                                int queueCapacity,
+                                int batchSize,
+                                @NotNull Duration timeout,
+                                boolean virtualThreads) {
+
+    public static RedisAsyncOptions fromNode(@NotNull ConfigurationNode node) {
+        return new RedisAsyncOptions(
+                node.node("threads").getInt(8),
+                node.node("queue-capacity").getInt(4096),
+                node.node("batch-size").getInt(128),
+                Duration.ofMillis(node.node("timeout").getLong(5_000)),
+                node.node("virtual-threads").getBoolean(true)
+        );
+    }
+
+    public static RedisAsyncOptions defaults() {
+        return new RedisAsyncOptions(8, 4096, 128, Duration.ofSeconds(5), true);
+    }
+}
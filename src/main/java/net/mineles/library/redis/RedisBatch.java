@@ -0,0 +1,424 @@
+package net.mineles.library.redis;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import net.mineles.library.redis.backend.RedisPipeline;
+import net.mineles.library.redis.codec.Decoder;
+import net.mineles.library.redis.compression.ValueCompressor;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import net.mineles.library.libs.jedis.util.SafeEncoder;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public final class RedisBatch {
+    private final RedisClient client;
+    private final RedisPipeline pipeline;
+    private final List<Runnable> syncCallbacks;
+
+    RedisBatch(RedisClient client, RedisPipeline pipeline) {
+        this.client = client;
+        this.pipeline = pipeline;
+        this.syncCallbacks = Lists.newArrayList();
+    }
+
+    public void afterSync(@NotNull Runnable callback) {
+        this.syncCallbacks.add(callback);
+    }
+
+    public BatchResponse<Boolean> exists(@NotNull String key) {
+        return BatchResponse.of(this.pipeline.exists(key));
+    }
+
+    public BatchResponse<String> get(@NotNull String key) {
+        return get(key, Function.identity());
+    }
+
+    public <T> BatchResponse<T> getDecoded(@NotNull String key,
+                                           @NotNull Class<T> type) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        return getDecoded(key, decoder);
+    }
+
+    public <T> BatchResponse<T> getDecoded(@NotNull String key,
+                                           @NotNull Decoder<T> decoder) {
+        return get(key, value -> decoder.decode(value, this.client));
+    }
+
+    public BatchResponse<List<String>> mget(@NotNull String... keys) {
+        return mget(keys, Function.identity());
+    }
+
+    public <T> BatchResponse<Map<String, T>> mgetDecoded(@NotNull Class<T> type,
+                                                         @NotNull String... keys) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for " + type.getName() + " is not registered");
+
+        return mgetDecoded(decoder, keys);
+    }
+
+    public <T> BatchResponse<Map<String, T>> mgetDecoded(@NotNull Decoder<T> decoder,
+                                                         @NotNull String... keys) {
+        return mget(keys, values -> zipDecoded(this.client, keys, values, decoder));
+    }
+
+    public BatchResponse<Long> hlen(@NotNull String key) {
+        return BatchResponse.of(this.pipeline.hlen(key));
+    }
+
+    public BatchResponse<Boolean> hexists(@NotNull String key,
+                                          @NotNull String field) {
+        return BatchResponse.of(this.pipeline.hexists(key, field));
+    }
+
+    public BatchResponse<String> hget(@NotNull String key,
+                                      @NotNull String field) {
+        return hget(key, field, Function.identity());
+    }
+
+    public <T> BatchResponse<T> hgetDecoded(@NotNull String key,
+                                            @NotNull String field,
+                                            @NotNull Class<T> type) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        return hgetDecoded(key, field, decoder);
+    }
+
+    public <T> BatchResponse<T> hgetDecoded(@NotNull String key,
+                                            @NotNull String field,
+                                            @NotNull Decoder<T> decoder) {
+        return hget(key, field, value -> decoder.decode(value, this.client));
+    }
+
+    public BatchResponse<List<String>> hmget(@NotNull String key,
+                                             @NotNull String... fields) {
+        return hmget(key, fields, Function.identity());
+    }
+
+    public <T> BatchResponse<Map<String, T>> hmgetDecoded(@NotNull String key,
+                                                          @NotNull Class<T> type,
+                                                          @NotNull String... fields) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        return hmgetDecoded(key, decoder, fields);
+    }
+
+    public <T> BatchResponse<Map<String, T>> hmgetDecoded(@NotNull String key,
+                                                          @NotNull Decoder<T> decoder,
+                                                          @NotNull String... fields) {
+        return hmget(key, fields, values -> zipDecoded(this.client, fields, values, decoder));
+    }
+
+    public BatchResponse<Map<String, String>> hgetAll(@NotNull String key) {
+        return hgetAll(key, Function.identity());
+    }
+
+    public <T> BatchResponse<Map<String, T>> hgetAllDecoded(@NotNull String key,
+                                                            @NotNull Class<T> type) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        return hgetAllDecoded(key, decoder);
+    }
+
+    public <T> BatchResponse<Map<String, T>> hgetAllDecoded(@NotNull String key,
+                                                            @NotNull Decoder<T> decoder) {
+        return hgetAll(key, members -> {
+            Map<String, T> decoded = Maps.newHashMapWithExpectedSize(members.size());
+            for (Map.Entry<String, String> entry : members.entrySet()) {
+                decoded.put(entry.getKey(), decoder.decode(entry.getValue(), this.client));
+            }
+
+            return decoded;
+        });
+    }
+
+    public BatchResponse<Boolean> sismember(@NotNull String key,
+                                            @NotNull String member) {
+        return BatchResponse.of(this.pipeline.sismember(key, member));
+    }
+
+    public BatchResponse<Set<String>> smembers(@NotNull String key) {
+        return BatchResponse.of(this.pipeline.smembers(key));
+    }
+
+    public BatchResponse<Long> scard(@NotNull String key) {
+        return BatchResponse.of(this.pipeline.scard(key));
+    }
+
+    public BatchResponse<List<String>> lrange(@NotNull String key,
+                                              long start,
+                                              long end) {
+        return BatchResponse.of(this.pipeline.lrange(key, start, end));
+    }
+
+    public void set(@NotNull String key,
+                    @NotNull String value) {
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            this.pipeline.set(key, value);
+        } else {
+            this.pipeline.set(SafeEncoder.encode(key), compressor.compress(value));
+        }
+    }
+
+    public void set(@NotNull String key,
+                    @NotNull String value,
+                    @NotNull Duration duration) {
+        set(key, value, duration.toMillis());
+    }
+
+    public void set(@NotNull String key,
+                    @NotNull String value,
+                    long duration) {
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            this.pipeline.psetex(key, duration, value);
+        } else {
+            this.pipeline.psetex(SafeEncoder.encode(key), duration, compressor.compress(value));
+        }
+    }
+
+    public <T> void setDecoded(@NotNull String key,
+                               @NotNull T value,
+                               @NotNull Class<T> type) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        setDecoded(key, value, decoder);
+    }
+
+    public <T> void setDecoded(@NotNull String key,
+                               @NotNull T value,
+                               @NotNull Decoder<T> decoder) {
+        set(key, decoder.encode(value, this.client));
+    }
+
+    public <T> void setDecoded(@NotNull String key,
+                               @NotNull T value,
+                               @NotNull Decoder<T> decoder,
+                               long duration) {
+        set(key, decoder.encode(value, this.client), duration);
+    }
+
+    public void hset(@NotNull String key,
+                     @NotNull String field,
+                     @NotNull String value) {
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            this.pipeline.hset(key, field, value);
+        } else {
+            this.pipeline.hset(SafeEncoder.encode(key), SafeEncoder.encode(field), compressor.compress(value));
+        }
+    }
+
+    public void hset(@NotNull String key,
+                     @NotNull String field,
+                     @NotNull String value,
+                     long duration) {
+        hset(key, field, value);
+        this.pipeline.pexpire(key, duration);
+    }
+
+    public <T> void hsetDecoded(@NotNull String key,
+                                @NotNull String field,
+                                @NotNull T value,
+                                @NotNull Class<T> type) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        hsetDecoded(key, field, value, decoder);
+    }
+
+    public <T> void hsetDecoded(@NotNull String key,
+                                @NotNull String field,
+                                @NotNull T value,
+                                @NotNull Decoder<T> decoder) {
+        hset(key, field, decoder.encode(value, this.client));
+    }
+
+    public void hmset(@NotNull String key,
+                      @NotNull Map<String, String> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            this.pipeline.hset(key, values);
+        } else {
+            this.pipeline.hset(SafeEncoder.encode(key), RedisCache.compressAll(compressor, values));
+        }
+    }
+
+    public <T> void hmsetDecoded(@NotNull String key,
+                                 @NotNull Map<String, T> values,
+                                 @NotNull Class<T> type) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        hmsetDecoded(key, values, decoder);
+    }
+
+    public <T> void hmsetDecoded(@NotNull String key,
+                                 @NotNull Map<String, T> values,
+                                 @NotNull Decoder<T> decoder) {
+        hmset(key, encodeAll(this.client, values, decoder));
+    }
+
+    public void sadd(@NotNull String key,
+                     @NotNull String... members) {
+        this.pipeline.sadd(key, members);
+    }
+
+    public <T> void saddAllDecoded(@NotNull String key,
+                                   @NotNull Collection<T> members,
+                                   @NotNull Class<T> type) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        saddAllDecoded(key, members, decoder);
+    }
+
+    public <T> void saddAllDecoded(@NotNull String key,
+                                   @NotNull Collection<T> members,
+                                   @NotNull Decoder<T> decoder) {
+        if (members.isEmpty()) {
+            return;
+        }
+
+        List<String> encoded = Lists.newArrayListWithCapacity(members.size());
+        for (T member : members) {
+            encoded.add(decoder.encode(member, this.client));
+        }
+
+        sadd(key, encoded.toArray(new String[0]));
+    }
+
+    public void srem(@NotNull String key,
+                     @NotNull String... members) {
+        this.pipeline.srem(key, members);
+    }
+
+    public void hdel(@NotNull String key,
+                     @NotNull String... fields) {
+        this.pipeline.hdel(key, fields);
+    }
+
+    public void expire(@NotNull String key,
+                       long duration) {
+        this.pipeline.pexpire(key, duration);
+    }
+
+    public void delete(@NotNull String... keys) {
+        this.pipeline.del(keys);
+    }
+
+    private <T> BatchResponse<T> get(@NotNull String key,
+                                     @NotNull Function<String, T> mapper) {
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            return BatchResponse.of(this.pipeline.get(key), mapper);
+        }
+
+        return BatchResponse.of(this.pipeline.get(SafeEncoder.encode(key)),
+                value -> mapper.apply(compressor.decompressToString(value)));
+    }
+
+    private <T> BatchResponse<T> mget(@NotNull String[] keys,
+                                      @NotNull Function<List<String>, T> mapper) {
+        ValueCompressor compressor = this.client.getCompressor();
+        if (compressor == null || Arrays.stream(keys).noneMatch(compressor::appliesTo)) {
+            return BatchResponse.of(this.pipeline.mget(keys), mapper);
+        }
+
+        return BatchResponse.of(this.pipeline.mget(SafeEncoder.encodeMany(keys)),
+                values -> mapper.apply(RedisCache.decompressAll(compressor, values)));
+    }
+
+    private <T> BatchResponse<T> hget(@NotNull String key,
+                                      @NotNull String field,
+                                      @NotNull Function<String, T> mapper) {
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            return BatchResponse.of(this.pipeline.hget(key, field), mapper);
+        }
+
+        return BatchResponse.of(this.pipeline.hget(SafeEncoder.encode(key), SafeEncoder.encode(field)),
+                value -> mapper.apply(compressor.decompressToString(value)));
+    }
+
+    private <T> BatchResponse<T> hmget(@NotNull String key,
+                                       @NotNull String[] fields,
+                                       @NotNull Function<List<String>, T> mapper) {
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            return BatchResponse.of(this.pipeline.hmget(key, fields), mapper);
+        }
+
+        return BatchResponse.of(this.pipeline.hmget(SafeEncoder.encode(key), SafeEncoder.encodeMany(fields)),
+                values -> mapper.apply(RedisCache.decompressAll(compressor, values)));
+    }
+
+    private <T> BatchResponse<T> hgetAll(@NotNull String key,
+                                         @NotNull Function<Map<String, String>, T> mapper) {
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            return BatchResponse.of(this.pipeline.hgetAll(key), mapper);
+        }
+
+        return BatchResponse.of(this.pipeline.hgetAll(SafeEncoder.encode(key)),
+                members -> mapper.apply(RedisCache.decompressAll(compressor, members)));
+    }
+
+    private @Nullable ValueCompressor getCompressor(@NotNull String key) {
+        ValueCompressor compressor = this.client.getCompressor();
+        if (compressor == null || !compressor.appliesTo(key)) {
+            return null;
+        }
+
+        return compressor;
+    }
+
+    void synced() {
+        this.syncCallbacks.forEach(Runnable::run);
+    }
+
+    static <T> Map<String, T> zipDecoded(@NotNull RedisClient client,
+                                         @NotNull String[] names,
+                                         @NotNull List<String> values,
+                                         @NotNull Decoder<T> decoder) {
+        Map<String, T> decoded = Maps.newHashMapWithExpectedSize(names.length);
+        for (int i = 0; i < names.length; i++) {
+            String value = values.get(i);
+            if (value != null) {
+                decoded.put(names[i], decoder.decode(value, client));
+            }
+        }
+
+        return decoded;
+    }
+
+    static <T> Map<String, String> encodeAll(@NotNull RedisClient client,
+                                             @NotNull Map<String, T> values,
+                                             @NotNull Decoder<T> decoder) {
+        Map<String, String> encoded = Maps.newHashMapWithExpectedSize(values.size());
+        for (Map.Entry<String, T> entry : values.entrySet()) {
+            encoded.put(entry.getKey(), decoder.encode(entry.getValue(), client));
+        }
+
+        return encoded;
+    }
+}
@@ -3,34 +3,99 @@ package net.mineles.library.redis;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import net.mineles.library.redis.backend.RedisCommands;
+import net.mineles.library.redis.codec.BinaryCodec;
 import net.mineles.library.redis.codec.Decoder;
+import net.mineles.library.redis.compression.ValueCompressor;
 import org.jetbrains.annotations.NotNull;
-import net.mineles.library.libs.jedis.Jedis;
+import org.jetbrains.annotations.Nullable;
+import net.mineles.library.libs.jedis.params.ScanParams;
+import net.mineles.library.libs.jedis.resps.ScanResult;
+import net.mineles.library.libs.jedis.util.SafeEncoder;
 
 import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
 public final class RedisCache {
+    public static final int DEFAULT_SCAN_COUNT = 100;
+
     private final RedisClient client;
 
+    private AsyncRedisCache async;
+
     public RedisCache(RedisClient client) {
         this.client = client;
     }
 
-    public boolean exists(@NotNull String key) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            return jedis.exists(key);
+    public synchronized AsyncRedisCache async() {
+        if (this.async == null) {
+            this.async = new AsyncRedisCache(this.client, RedisAsyncOptions.defaults());
+        }
+
+        return this.async;
+    }
+
+    synchronized AsyncRedisCache enableAsync(@NotNull RedisAsyncOptions options) {
+        if (this.async == null) {
+            this.async = new AsyncRedisCache(this.client, options);
         }
+
+        return this.async;
+    }
+
+    synchronized void shutdownAsync() {
+        if (this.async != null) {
+            this.async.shutdown();
+        }
+    }
+
+    public void pipelined(@NotNull Consumer<RedisBatch> consumer) {
+        long start = System.nanoTime();
+        RedisBatch batch = this.client.getBackend().pipelined(pipeline -> {
+            RedisBatch queued = new RedisBatch(this.client, pipeline);
+            consumer.accept(queued);
+            return queued;
+        });
+        this.client.getMetrics().recordCommand("PIPELINE", System.nanoTime() - start);
+        batch.synced();
+    }
+
+    public <T> T execute(@NotNull String command,
+                         @NotNull Function<RedisCommands, T> action) {
+        // Borrow time is recorded by the pool itself, so only the round
+        // trip of the command is attributed to it here.
+        return this.client.getBackend().execute(commands -> {
+            long start = System.nanoTime();
+            try {
+                return action.apply(commands);
+            } finally {
+                this.client.getMetrics().recordCommand(command, System.nanoTime() - start);
+            }
+        });
+    }
+
+    public boolean exists(@NotNull String key) {
+        return execute("EXISTS", commands -> commands.exists(key));
     }
 
     public String get(@NotNull String key) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            return jedis.get(key);
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            return execute("GET", commands -> commands.get(key));
         }
+
+        byte[] value = execute("GET", commands -> commands.get(SafeEncoder.encode(key)));
+        return decompressToString(compressor, value);
     }
 
     public <T> T getDecoded(@NotNull String key,
@@ -51,23 +116,142 @@ public final class RedisCache {
         return decoder.decode(value, this.client);
     }
 
+    public List<String> mget(@NotNull String... keys) {
+        ValueCompressor compressor = this.client.getCompressor();
+        if (compressor == null || Arrays.stream(keys).noneMatch(compressor::appliesTo)) {
+            return execute("MGET", commands -> commands.mget(keys));
+        }
+
+        List<byte[]> values = execute("MGET", commands -> commands.mget(SafeEncoder.encodeMany(keys)));
+        return decompressAll(compressor, values);
+    }
+
+    public <T> Map<String, T> mgetDecoded(@NotNull Class<T> type,
+                                          @NotNull String... keys) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for " + type.getName() + " is not registered");
+
+        return mgetDecoded(decoder, keys);
+    }
+
+    public <T> Map<String, T> mgetDecoded(@NotNull Decoder<T> decoder,
+                                          @NotNull String... keys) {
+        if (keys.length == 0) {
+            return Maps.newHashMap();
+        }
+
+        return RedisBatch.zipDecoded(this.client, keys, mget(keys), decoder);
+    }
+
     public Set<String> keys(@NotNull String pattern) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            return jedis.keys(pattern);
+        try (Stream<String> keys = scan(pattern)) {
+            return keys.collect(Collectors.toSet());
+        }
+    }
+
+    public Stream<String> scan(@NotNull String pattern) {
+        return scan(pattern, DEFAULT_SCAN_COUNT);
+    }
+
+    public Stream<String> scan(@NotNull String pattern,
+                               int count) {
+        ScanParams params = new ScanParams().match(pattern).count(count);
+        return ScanIterator.stream(this.client, (commands, cursor) -> commands.scan(cursor, params));
+    }
+
+    public Stream<Map.Entry<String, String>> hscan(@NotNull String key) {
+        return hscan(key, DEFAULT_SCAN_COUNT);
+    }
+
+    public Stream<Map.Entry<String, String>> hscan(@NotNull String key,
+                                                   int count) {
+        return hscan(key, new ScanParams().count(count));
+    }
+
+    public Stream<Map.Entry<String, String>> hscan(@NotNull String key,
+                                                   @NotNull String pattern,
+                                                   int count) {
+        return hscan(key, new ScanParams().match(pattern).count(count));
+    }
+
+    private Stream<Map.Entry<String, String>> hscan(@NotNull String key,
+                                                    @NotNull ScanParams params) {
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            return ScanIterator.stream(this.client, (commands, cursor) -> commands.hscan(key, cursor, params));
         }
+
+        byte[] binaryKey = SafeEncoder.encode(key);
+        return ScanIterator.stream(this.client, (commands, cursor) -> {
+            ScanResult<Map.Entry<byte[], byte[]>> result = commands.hscan(binaryKey, SafeEncoder.encode(cursor), params);
+
+            List<Map.Entry<String, String>> entries = Lists.newArrayListWithCapacity(result.getResult().size());
+            for (Map.Entry<byte[], byte[]> entry : result.getResult()) {
+                entries.add(Map.entry(SafeEncoder.encode(entry.getKey()), compressor.decompressToString(entry.getValue())));
+            }
+
+            return new ScanResult<>(result.getCursor(), entries);
+        });
+    }
+
+    public <T> Stream<Map.Entry<String, T>> hscanDecoded(@NotNull String key,
+                                                         @NotNull Class<T> type) {
+        return hscanDecoded(key, type, DEFAULT_SCAN_COUNT);
+    }
+
+    public <T> Stream<Map.Entry<String, T>> hscanDecoded(@NotNull String key,
+                                                         @NotNull Class<T> type,
+                                                         int count) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        return hscanDecoded(key, decoder, count);
+    }
+
+    public <T> Stream<Map.Entry<String, T>> hscanDecoded(@NotNull String key,
+                                                         @NotNull Decoder<T> decoder,
+                                                         int count) {
+        return hscan(key, count)
+                .map(entry -> Map.entry(entry.getKey(), decoder.decode(entry.getValue(), this.client)));
+    }
+
+    public Stream<String> sscan(@NotNull String key) {
+        return sscan(key, DEFAULT_SCAN_COUNT);
+    }
+
+    public Stream<String> sscan(@NotNull String key,
+                                int count) {
+        ScanParams params = new ScanParams().count(count);
+        return ScanIterator.stream(this.client, (commands, cursor) -> commands.sscan(key, cursor, params));
+    }
+
+    public <T> Stream<T> sscanDecoded(@NotNull String key,
+                                      @NotNull Class<T> type) {
+        return sscanDecoded(key, type, DEFAULT_SCAN_COUNT);
+    }
+
+    public <T> Stream<T> sscanDecoded(@NotNull String key,
+                                      @NotNull Class<T> type,
+                                      int count) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        return sscanDecoded(key, decoder, count);
+    }
+
+    public <T> Stream<T> sscanDecoded(@NotNull String key,
+                                      @NotNull Decoder<T> decoder,
+                                      int count) {
+        return sscan(key, count).map(member -> decoder.decode(member, this.client));
     }
 
     public boolean sismember(@NotNull String key,
                              @NotNull String member) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            return jedis.sismember(key, member);
-        }
+        return execute("SISMEMBER", commands -> commands.sismember(key, member));
     }
 
     public Set<String> smembers(@NotNull String key) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            return jedis.smembers(key);
-        }
+        return execute("SMEMBERS", commands -> commands.smembers(key));
     }
 
     public <T> Set<T> smembersDecoded(@NotNull String key,
@@ -90,17 +274,13 @@ public final class RedisCache {
     }
 
     public long scard(@NotNull String key) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            return jedis.scard(key);
-        }
+        return execute("SCARD", commands -> commands.scard(key));
     }
 
     public List<String> lrange(@NotNull String key,
                                long start,
                                long end) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            return jedis.lrange(key, start, end);
-        }
+        return execute("LRANGE", commands -> commands.lrange(key, start, end));
     }
 
     public <T> List<T> lrangeDecoded(@NotNull String key,
@@ -128,9 +308,7 @@ public final class RedisCache {
 
     public String lindex(@NotNull String key,
                          long index) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            return jedis.lindex(key, index);
-        }
+        return execute("LINDEX", commands -> commands.lindex(key, index));
     }
 
     public <T> T lindexDecoded(@NotNull String key,
@@ -154,27 +332,25 @@ public final class RedisCache {
     }
 
     public long llen(@NotNull String key) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            return jedis.llen(key);
-        }
+        return execute("LLEN", commands -> commands.llen(key));
     }
 
     public long hlen(@NotNull String key) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            return jedis.hlen(key);
-        }
+        return execute("HLEN", commands -> commands.hlen(key));
     }
 
     public Set<String> hkeys(@NotNull String key) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            return jedis.hkeys(key);
-        }
+        return execute("HKEYS", commands -> commands.hkeys(key));
     }
 
     public Map<String, String> hgetAll(@NotNull String key) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            return jedis.hgetAll(key);
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            return execute("HGETALL", commands -> commands.hgetAll(key));
         }
+
+        Map<byte[], byte[]> members = execute("HGETALL", commands -> commands.hgetAll(SafeEncoder.encode(key)));
+        return decompressAll(compressor, members);
     }
 
     public <T> Map<String, T> hgetAllDecoded(@NotNull String key,
@@ -198,9 +374,13 @@ public final class RedisCache {
 
     public String hget(@NotNull String key,
                        @NotNull String field) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            return jedis.hget(key, field);
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            return execute("HGET", commands -> commands.hget(key, field));
         }
+
+        byte[] member = execute("HGET", commands -> commands.hget(SafeEncoder.encode(key), SafeEncoder.encode(field)));
+        return decompressToString(compressor, member);
     }
 
     public <T> T hgetDecoded(@NotNull String key,
@@ -223,17 +403,48 @@ public final class RedisCache {
         return decoder.decode(member, this.client);
     }
 
+    public List<String> hmget(@NotNull String key,
+                              @NotNull String... fields) {
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            return execute("HMGET", commands -> commands.hmget(key, fields));
+        }
+
+        List<byte[]> members = execute("HMGET", commands -> commands.hmget(SafeEncoder.encode(key), SafeEncoder.encodeMany(fields)));
+        return decompressAll(compressor, members);
+    }
+
+    public <T> Map<String, T> hmgetDecoded(@NotNull String key,
+                                           @NotNull Class<T> type,
+                                           @NotNull String... fields) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        return hmgetDecoded(key, decoder, fields);
+    }
+
+    public <T> Map<String, T> hmgetDecoded(@NotNull String key,
+                                           @NotNull Decoder<T> decoder,
+                                           @NotNull String... fields) {
+        if (fields.length == 0) {
+            return Maps.newHashMap();
+        }
+
+        return RedisBatch.zipDecoded(this.client, fields, hmget(key, fields), decoder);
+    }
+
     public boolean hexists(@NotNull String key,
                            @NotNull String field) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            return jedis.hexists(key, field);
-        }
+        return execute("HEXISTS", commands -> commands.hexists(key, field));
     }
 
     public void set(@NotNull String key,
                     @NotNull String value) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            jedis.set(key, value);
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            execute("SET", commands -> commands.set(key, value));
+        } else {
+            execute("SET", commands -> commands.set(SafeEncoder.encode(key), compressor.compress(value)));
         }
     }
 
@@ -246,8 +457,11 @@ public final class RedisCache {
     public void set(@NotNull String key,
                     @NotNull String value,
                     long duration) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            jedis.psetex(key, duration, value);
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            execute("PSETEX", commands -> commands.psetex(key, duration, value));
+        } else {
+            execute("PSETEX", commands -> commands.psetex(SafeEncoder.encode(key), duration, compressor.compress(value)));
         }
     }
 
@@ -282,9 +496,7 @@ public final class RedisCache {
 
     public void sadd(@NotNull String key,
                      @NotNull String... members) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            jedis.sadd(key, members);
-        }
+        execute("SADD", commands -> commands.sadd(key, members));
     }
 
     public <T> void saddDecoded(@NotNull String key,
@@ -307,11 +519,34 @@ public final class RedisCache {
         sadd(key, encoded);
     }
 
+    public <T> void saddAllDecoded(@NotNull String key,
+                                   @NotNull Collection<T> members,
+                                   @NotNull Class<T> type) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        saddAllDecoded(key, members, decoder);
+    }
+
+    public <T> void saddAllDecoded(@NotNull String key,
+                                   @NotNull Collection<T> members,
+                                   @NotNull Decoder<T> decoder) {
+        if (members.isEmpty()) {
+            return;
+        }
+
+        String[] encoded = new String[members.size()];
+        int i = 0;
+        for (T member : members) {
+            encoded[i++] = decoder.encode(member, this.client);
+        }
+
+        sadd(key, encoded);
+    }
+
     public void lpush(@NotNull String key,
                       @NotNull String... members) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            jedis.lpush(key, members);
-        }
+        execute("LPUSH", commands -> commands.lpush(key, members));
     }
 
     public <T> void lpushDecoded(@NotNull String key,
@@ -337,8 +572,11 @@ public final class RedisCache {
     public void hset(@NotNull String key,
                      @NotNull String field,
                      @NotNull String value) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            jedis.hset(key, field, value);
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            execute("HSET", commands -> commands.hset(key, field, value));
+        } else {
+            execute("HSET", commands -> commands.hset(SafeEncoder.encode(key), SafeEncoder.encode(field), compressor.compress(value)));
         }
     }
 
@@ -353,10 +591,15 @@ public final class RedisCache {
                      @NotNull String field,
                      @NotNull String value,
                      long duration) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            jedis.hset(key, field, value);
-            jedis.pexpire(key, duration);
-        }
+        ValueCompressor compressor = getCompressor(key);
+        execute("HSET", commands -> {
+            if (compressor == null) {
+                commands.hset(key, field, value);
+            } else {
+                commands.hset(SafeEncoder.encode(key), SafeEncoder.encode(field), compressor.compress(value));
+            }
+            return commands.pexpire(key, duration);
+        });
     }
 
     public <T> void hsetDecoded(@NotNull String key,
@@ -392,6 +635,35 @@ public final class RedisCache {
         hset(key, field, decoder.encode(value, this.client), duration);
     }
 
+    public void hmset(@NotNull String key,
+                      @NotNull Map<String, String> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+
+        ValueCompressor compressor = getCompressor(key);
+        if (compressor == null) {
+            execute("HSET", commands -> commands.hset(key, values));
+        } else {
+            execute("HSET", commands -> commands.hset(SafeEncoder.encode(key), compressAll(compressor, values)));
+        }
+    }
+
+    public <T> void hmsetDecoded(@NotNull String key,
+                                 @NotNull Map<String, T> values,
+                                 @NotNull Class<T> type) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        hmsetDecoded(key, values, decoder);
+    }
+
+    public <T> void hmsetDecoded(@NotNull String key,
+                                 @NotNull Map<String, T> values,
+                                 @NotNull Decoder<T> decoder) {
+        hmset(key, RedisBatch.encodeAll(this.client, values, decoder));
+    }
+
     public void expire(@NotNull String key,
                        @NotNull Duration duration) {
         expire(key, duration.toMillis());
@@ -399,42 +671,224 @@ public final class RedisCache {
 
     public void expire(@NotNull String key,
                        long duration) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            jedis.pexpire(key, duration);
-        }
+        execute("PEXPIRE", commands -> commands.pexpire(key, duration));
     }
 
     public void delete(@NotNull String key) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            jedis.del(key);
-        }
+        execute("DEL", commands -> commands.del(key));
     }
 
     public void delete(@NotNull String... keys) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            jedis.del(keys);
-        }
+        execute("DEL", commands -> commands.del(keys));
     }
 
     public void srem(@NotNull String key,
                      @NotNull String... members) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            jedis.srem(key, members);
-        }
+        execute("SREM", commands -> commands.srem(key, members));
     }
 
     public void lrem(@NotNull String key,
                      long count,
                      @NotNull String member) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            jedis.lrem(key, count, member);
-        }
+        execute("LREM", commands -> commands.lrem(key, count, member));
     }
 
     public void hdel(@NotNull String key,
                      @NotNull String... fields) {
-        try (Jedis jedis = this.client.getJedisPool().getResource()) {
-            jedis.hdel(key, fields);
+        execute("HDEL", commands -> commands.hdel(key, fields));
+    }
+
+    public byte[] getBinary(@NotNull String key) {
+        byte[] value = execute("GET", commands -> commands.get(SafeEncoder.encode(key)));
+        return decompress(key, value);
+    }
+
+    public <T> T getBinaryDecoded(@NotNull String key,
+                                  @NotNull Class<T> type) {
+        return getBinaryDecoded(key, getBinaryCodec(key, type));
+    }
+
+    public <T> T getBinaryDecoded(@NotNull String key,
+                                  @NotNull BinaryCodec<T> codec) {
+        byte[] value = getBinary(key);
+        if (value == null) {
+            return null;
+        }
+
+        return codec.decode(value, this.client);
+    }
+
+    public void setBinary(@NotNull String key,
+                          @NotNull byte[] value) {
+        execute("SET", commands -> commands.set(SafeEncoder.encode(key), compress(key, value)));
+    }
+
+    public void setBinary(@NotNull String key,
+                          @NotNull byte[] value,
+                          long duration) {
+        execute("PSETEX", commands -> commands.psetex(SafeEncoder.encode(key), duration, compress(key, value)));
+    }
+
+    public <T> void setBinaryDecoded(@NotNull String key,
+                                     @NotNull T value,
+                                     @NotNull Class<T> type) {
+        setBinaryDecoded(key, value, getBinaryCodec(key, type));
+    }
+
+    public <T> void setBinaryDecoded(@NotNull String key,
+                                     @NotNull T value,
+                                     @NotNull BinaryCodec<T> codec) {
+        setBinary(key, codec.encode(value, this.client));
+    }
+
+    public <T> void setBinaryDecoded(@NotNull String key,
+                                     @NotNull T value,
+                                     @NotNull BinaryCodec<T> codec,
+                                     @NotNull Duration duration) {
+        setBinary(key, codec.encode(value, this.client), duration.toMillis());
+    }
+
+    public byte[] hgetBinary(@NotNull String key,
+                             @NotNull String field) {
+        byte[] member = execute("HGET", commands -> commands.hget(SafeEncoder.encode(key), SafeEncoder.encode(field)));
+        return decompress(key, member);
+    }
+
+    public <T> T hgetBinaryDecoded(@NotNull String key,
+                                   @NotNull String field,
+                                   @NotNull Class<T> type) {
+        return hgetBinaryDecoded(key, field, getBinaryCodec(key, type));
+    }
+
+    public <T> T hgetBinaryDecoded(@NotNull String key,
+                                   @NotNull String field,
+                                   @NotNull BinaryCodec<T> codec) {
+        byte[] member = hgetBinary(key, field);
+        if (member == null) {
+            return null;
         }
+
+        return codec.decode(member, this.client);
+    }
+
+    public <T> Map<String, T> hmgetBinaryDecoded(@NotNull String key,
+                                                 @NotNull BinaryCodec<T> codec,
+                                                 @NotNull String... fields) {
+        Map<String, T> decoded = Maps.newHashMap();
+        if (fields.length == 0) {
+            return decoded;
+        }
+
+        List<byte[]> members = execute("HMGET", commands -> commands.hmget(SafeEncoder.encode(key), SafeEncoder.encodeMany(fields)));
+
+        for (int i = 0; i < fields.length; i++) {
+            byte[] member = decompress(key, members.get(i));
+            if (member != null) {
+                decoded.put(fields[i], codec.decode(member, this.client));
+            }
+        }
+
+        return decoded;
+    }
+
+    public <T> Map<String, T> hgetAllBinaryDecoded(@NotNull String key,
+                                                   @NotNull Class<T> type) {
+        return hgetAllBinaryDecoded(key, getBinaryCodec(key, type));
+    }
+
+    public <T> Map<String, T> hgetAllBinaryDecoded(@NotNull String key,
+                                                   @NotNull BinaryCodec<T> codec) {
+        Map<byte[], byte[]> members = execute("HGETALL", commands -> commands.hgetAll(SafeEncoder.encode(key)));
+
+        Map<String, T> decoded = Maps.newHashMap();
+        for (Map.Entry<byte[], byte[]> entry : members.entrySet()) {
+            decoded.put(SafeEncoder.encode(entry.getKey()), codec.decode(decompress(key, entry.getValue()), this.client));
+        }
+
+        return decoded;
+    }
+
+    public void hsetBinary(@NotNull String key,
+                           @NotNull String field,
+                           @NotNull byte[] value) {
+        execute("HSET", commands -> commands.hset(SafeEncoder.encode(key), SafeEncoder.encode(field), compress(key, value)));
+    }
+
+    public <T> void hsetBinaryDecoded(@NotNull String key,
+                                      @NotNull String field,
+                                      @NotNull T value,
+                                      @NotNull Class<T> type) {
+        hsetBinaryDecoded(key, field, value, getBinaryCodec(key, type));
+    }
+
+    public <T> void hsetBinaryDecoded(@NotNull String key,
+                                      @NotNull String field,
+                                      @NotNull T value,
+                                      @NotNull BinaryCodec<T> codec) {
+        hsetBinary(key, field, codec.encode(value, this.client));
+    }
+
+    private @Nullable ValueCompressor getCompressor(@NotNull String key) {
+        ValueCompressor compressor = this.client.getCompressor();
+        if (compressor == null || !compressor.appliesTo(key)) {
+            return null;
+        }
+
+        return compressor;
+    }
+
+    private @NotNull byte[] compress(@NotNull String key,
+                                     @NotNull byte[] value) {
+        ValueCompressor compressor = getCompressor(key);
+        return compressor == null ? value : compressor.compress(value);
+    }
+
+    private @Nullable byte[] decompress(@NotNull String key,
+                                        @Nullable byte[] value) {
+        ValueCompressor compressor = getCompressor(key);
+        return compressor == null || value == null ? value : compressor.decompress(value);
+    }
+
+    private static @Nullable String decompressToString(@NotNull ValueCompressor compressor,
+                                               @Nullable byte[] value) {
+        return value == null ? null : compressor.decompressToString(value);
+    }
+
+    static @NotNull List<String> decompressAll(@NotNull ValueCompressor compressor,
+                                               @NotNull List<byte[]> values) {
+        List<String> decompressed = Lists.newArrayListWithCapacity(values.size());
+        for (byte[] value : values) {
+            decompressed.add(decompressToString(compressor, value));
+        }
+
+        return decompressed;
+    }
+
+    static @NotNull Map<String, String> decompressAll(@NotNull ValueCompressor compressor,
+                                                      @NotNull Map<byte[], byte[]> values) {
+        Map<String, String> decompressed = Maps.newHashMapWithExpectedSize(values.size());
+        for (Map.Entry<byte[], byte[]> entry : values.entrySet()) {
+            decompressed.put(SafeEncoder.encode(entry.getKey()), compressor.decompressToString(entry.getValue()));
+        }
+
+        return decompressed;
+    }
+
+    static @NotNull Map<byte[], byte[]> compressAll(@NotNull ValueCompressor compressor,
+                                                    @NotNull Map<String, String> values) {
+        Map<byte[], byte[]> compressed = Maps.newHashMapWithExpectedSize(values.size());
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            compressed.put(SafeEncoder.encode(entry.getKey()), compressor.compress(entry.getValue()));
+        }
+
+        return compressed;
+    }
+
+    private <T> @NotNull BinaryCodec<T> getBinaryCodec(@NotNull String key,
+                                                       @NotNull Class<T> type) {
+        BinaryCodec<T> codec = this.client.getDecoders().getBinaryCodec(type);
+        checkNotNull(codec, "Binary codec for key " + key + " is not registered");
+
+        return codec;
     }
 }
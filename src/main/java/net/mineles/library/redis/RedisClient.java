@@ -1,18 +1,33 @@
 package net.mineles.library.redis;
 
-import com.google.common.collect.Maps;
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.mineles.library.redis.backend.JedisBackend;
+import net.mineles.library.redis.backend.MemoryBackend;
+import net.mineles.library.redis.backend.RedisBackend;
+import net.mineles.library.redis.cache.NearCache;
+import net.mineles.library.redis.cache.NearCacheOptions;
+import net.mineles.library.redis.codec.BinaryCodec;
 import net.mineles.library.redis.codec.Decoder;
 import net.mineles.library.redis.codec.DecoderCollection;
+import net.mineles.library.redis.compression.CompressionOptions;
+import net.mineles.library.redis.compression.ValueCompressor;
+import net.mineles.library.redis.dispatch.DispatchOptions;
+import net.mineles.library.redis.dispatch.StripedDispatcher;
+import net.mineles.library.redis.message.DeliveryListener;
+import net.mineles.library.redis.message.Envelope;
+import net.mineles.library.redis.message.EnvelopeFormat;
 import net.mineles.library.redis.message.Message;
 import net.mineles.library.redis.message.MessageListener;
+import net.mineles.library.redis.metrics.RedisMetrics;
+import net.mineles.library.redis.rpc.RedisRpc;
+import net.mineles.library.redis.script.RedisScripts;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import net.mineles.library.libs.jedis.JedisPool;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.CompletableFuture;
 
 public final class RedisClient {
     private final RedisCredentials credentials;
@@ -20,16 +35,51 @@ public final class RedisClient {
     private final RedisOperations operations;
     private final DecoderCollection decoders;
     private final String executorName;
+    private final RedisPoolOptions poolOptions;
+    private final RedisPoolOptions blockingPoolOptions;
+    private final RedisMetrics metrics;
+    private final RedisScripts scripts;
 
+    private RedisBackend backend;
     private JedisPool jedisPool;
+    private JedisPool blockingPool;
+    private NearCache nearCache;
+    private StripedDispatcher dispatcher;
+    private ValueCompressor compressor;
+    private RedisRpc rpc;
+    private volatile EnvelopeFormat envelopeFormat = EnvelopeFormat.LEGACY;
     private boolean closed;
 
     public RedisClient(RedisCredentials credentials, String executorName) {
+        this(credentials, executorName, RedisPoolOptions.defaults(), RedisPoolOptions.blockingDefaults());
+    }
+
+    public RedisClient(RedisCredentials credentials,
+                       String executorName,
+                       RedisPoolOptions poolOptions,
+                       RedisPoolOptions blockingPoolOptions) {
         this.credentials = credentials;
         this.cache = new RedisCache(this);
         this.operations = new RedisOperations(this);
         this.decoders = new DecoderCollection();
         this.executorName = executorName;
+        this.poolOptions = poolOptions;
+        this.blockingPoolOptions = blockingPoolOptions;
+        this.metrics = new RedisMetrics();
+        this.scripts = new RedisScripts(this);
+    }
+
+    public RedisClient(String executorName, RedisBackend backend) {
+        this(null, executorName);
+        this.backend = backend;
+    }
+
+    public static RedisClient inMemory(String executorName) {
+        return new RedisClient(executorName, new MemoryBackend(executorName));
+    }
+
+    public String getExecutorName() {
+        return this.executorName;
     }
 
     public RedisCredentials getCredentials() {
@@ -37,19 +87,73 @@ public final class RedisClient {
     }
 
     public void connect() {
-        this.jedisPool = RedisConnector.connect(this.credentials);
+        if (this.backend != null) {
+            // A supplied Jedis backend also serves the blocking connections.
+            if (this.backend instanceof JedisBackend jedisBackend) {
+                this.jedisPool = jedisBackend.getPool();
+                this.blockingPool = jedisBackend.getPool();
+            }
+            this.scripts.load();
+            return;
+        }
+
+        this.jedisPool = RedisConnector.connect(this.credentials, this.poolOptions, this.metrics, false);
+        this.blockingPool = RedisConnector.connect(this.credentials, this.blockingPoolOptions, this.metrics, true);
+        this.backend = new JedisBackend(this.jedisPool);
+        this.scripts.load();
     }
 
     public void disconnect() {
         this.closed = true;
+        if (this.nearCache != null) {
+            this.nearCache.invalidateAll();
+        }
+        if (this.rpc != null) {
+            this.rpc.shutdown();
+        }
+        this.cache.shutdownAsync();
         this.operations.unsubscribeAll();
-        this.jedisPool.close();
+        if (this.dispatcher != null) {
+            this.dispatcher.shutdown();
+        }
+        if (this.blockingPool != null && this.blockingPool != this.jedisPool) {
+            this.blockingPool.close();
+        }
+        this.backend.close();
+    }
+
+    public RedisBackend getBackend() {
+        return this.backend;
+    }
+
+    public boolean isLocal() {
+        return this.backend instanceof MemoryBackend;
     }
 
     public JedisPool getJedisPool() {
         return this.jedisPool;
     }
 
+    public JedisPool getBlockingPool() {
+        return this.blockingPool;
+    }
+
+    public RedisScripts getScripts() {
+        return this.scripts;
+    }
+
+    public RedisMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    public RedisPoolOptions getPoolOptions() {
+        return this.poolOptions;
+    }
+
+    public RedisPoolOptions getBlockingPoolOptions() {
+        return this.blockingPoolOptions;
+    }
+
     public boolean isClosed() {
         return this.closed;
     }
@@ -62,6 +166,114 @@ public final class RedisClient {
         return this.operations;
     }
 
+    public NearCache enableNearCache(@NotNull NearCacheOptions options) {
+        if (this.nearCache != null) {
+            return this.nearCache;
+        }
+
+        NearCache nearCache = new NearCache(this, options);
+        nearCache.subscribe();
+
+        this.nearCache = nearCache;
+        return nearCache;
+    }
+
+    public @Nullable NearCache getNearCache() {
+        return this.nearCache;
+    }
+
+    // Without a near cache of our own the default channel is assumed, which
+    // is what every node uses unless configured otherwise.
+    public void invalidateNearCache(@NotNull String key,
+                                    @Nullable String field) {
+        NearCache nearCache = this.nearCache;
+        if (nearCache == null) {
+            NearCache.publish(this, NearCacheOptions.DEFAULT_CHANNEL, key, field);
+        } else if (field == null) {
+            nearCache.invalidate(key);
+        } else {
+            nearCache.invalidate(key, field);
+        }
+    }
+
+    public void setEnvelopeFormat(@NotNull EnvelopeFormat envelopeFormat) {
+        this.envelopeFormat = envelopeFormat;
+    }
+
+    public @NotNull EnvelopeFormat getEnvelopeFormat() {
+        return this.envelopeFormat;
+    }
+
+    public StripedDispatcher enableDispatcher(@NotNull DispatchOptions options) {
+        if (this.dispatcher != null) {
+            return this.dispatcher;
+        }
+
+        this.dispatcher = new StripedDispatcher(this.executorName, options);
+        return this.dispatcher;
+    }
+
+    public @Nullable StripedDispatcher getDispatcher() {
+        return this.dispatcher;
+    }
+
+    public ValueCompressor enableCompression(@NotNull CompressionOptions options) {
+        if (this.compressor != null) {
+            return this.compressor;
+        }
+
+        this.compressor = new ValueCompressor(options);
+        return this.compressor;
+    }
+
+    public @Nullable ValueCompressor getCompressor() {
+        return this.compressor;
+    }
+
+    public AsyncRedisCache enableAsync(@NotNull RedisAsyncOptions options) {
+        return this.cache.enableAsync(options);
+    }
+
+    public AsyncRedisCache async() {
+        return this.cache.async();
+    }
+
+    public RedisStreams enableStreams(@NotNull RedisStreamOptions options) {
+        return this.operations.enableStreams(options);
+    }
+
+    public @Nullable RedisStreams getStreams() {
+        return this.operations.getStreams();
+    }
+
+    public synchronized RedisRpc getRpc() {
+        if (this.rpc == null) {
+            RedisRpc rpc = new RedisRpc(this);
+            rpc.subscribe();
+            this.rpc = rpc;
+        }
+
+        return this.rpc;
+    }
+
+    public CompletableFuture<Envelope> request(@NotNull String channel,
+                                               @NotNull String payload,
+                                               @NotNull Duration timeout) {
+        return getRpc().request(channel, payload, timeout);
+    }
+
+    public CompletableFuture<List<Envelope>> requestAll(@NotNull String channel,
+                                                        @NotNull String payload,
+                                                        int quorum,
+                                                        @NotNull Duration timeout) {
+        return getRpc().requestAll(channel, payload, quorum, timeout);
+    }
+
+    public void reply(@NotNull Envelope request,
+                      @NotNull String payload) {
+        getRpc().reply(request, payload);
+    }
+
     public void publish(@NotNull String channel,
                         @NotNull Message message) {
         if (channel.split(":").length == 2) {
@@ -72,6 +284,22 @@ public final class RedisClient {
         this.operations.publish(channel, message);
     }
 
+    public <T> void publishBinary(@NotNull String channel,
+                                  @NotNull T message) {
+        this.operations.publishBinary(channel, null, message);
+    }
+
+    public <T> void publishBinary(@NotNull String channel,
+                                  @Nullable String key,
+                                  @NotNull T message) {
+        this.operations.publishBinary(channel, key, message);
+    }
+
+    public void publish(@NotNull String channel,
+                        @NotNull Envelope envelope) {
+        this.operations.publish(channel, envelope);
+    }
+
     public <T> void publish(@NotNull String channel,
                             @NotNull T message) {
         if (channel.split(":").length == 2) {
@@ -102,48 +330,37 @@ public final class RedisClient {
         this.operations.publish(channel, key, message);
     }
 
-    public RedisSubscription subscribe(@NotNull String channel) {
-        ExecutorService executorService = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
-                .setNameFormat(this.executorName + "-redis-%d")
-                .setDaemon(true)
-                .build());
+    public CompletableFuture<Void> publishAsync(@NotNull String channel,
+                                                @NotNull String message) {
+        return async().run(() -> publish(channel, message));
+    }
+
+    public CompletableFuture<Void> publishAsync(@NotNull String channel,
+                                                @NotNull Envelope envelope) {
+        return async().run(() -> publish(channel, envelope));
+    }
 
+    public RedisSubscription subscribe(@NotNull String channel) {
         if (channel.split(":").length == 2) {
             channel = channel.split(":")[0];
         }
-        return this.operations.subscribe(executorService, channel);
+        return this.operations.subscribe(channel);
     }
 
     public RedisSubscription subscribe(@NotNull String channel, @NotNull MessageListener messageListener) {
-        ExecutorService executorService = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
-                .setNameFormat(this.executorName + "-redis-%d")
-                .setDaemon(true)
-                .build());
-
-        if (channel.split(":").length == 2) {
-            Map<String, MessageListener> listeners = Maps.newConcurrentMap();
-            listeners.put(channel.split(":")[1], messageListener);
-
-            return subscribe(channel.split(":")[0], listeners);
-        } else {
-            RedisSubscription subscription = this.operations.subscribe(executorService, channel);
-            subscription.setMainListener(messageListener);
-
-            return subscription;
-        }
+        return this.operations.subscribe(channel, messageListener);
     }
 
     public RedisSubscription subscribe(@NotNull String channel,
                                        @NotNull Map<String, MessageListener> listeners) {
-        ExecutorService executorService = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
-                .setNameFormat(this.executorName + "-redis-%d")
-                .setDaemon(true)
-                .build());
-
         if (channel.split(":").length == 2) {
             channel = channel.split(":")[0];
         }
-        return this.operations.subscribe(executorService, channel, listeners);
+        return this.operations.subscribe(channel, listeners);
+    }
+
+    public RedisSubscription psubscribe(@NotNull String pattern, @NotNull MessageListener messageListener) {
+        return this.operations.psubscribe(pattern, messageListener);
     }
 
     public void unsubscribe(@NotNull String channel) {
@@ -153,6 +370,10 @@ public final class RedisClient {
         this.operations.unsubscribe(channel);
     }
 
+    public void punsubscribe(@NotNull String pattern) {
+        this.operations.punsubscribe(pattern);
+    }
+
     public boolean isSubscribed(@NotNull String channel) {
         if (channel.split(":").length == 2) {
             channel = channel.split(":")[0];
@@ -160,6 +381,14 @@ public final class RedisClient {
         return this.operations.isSubscribed(channel);
     }
 
+    public void addDeliveryListener(@NotNull DeliveryListener listener) {
+        this.operations.addDeliveryListener(listener);
+    }
+
+    public void removeDeliveryListener(@NotNull DeliveryListener listener) {
+        this.operations.removeDeliveryListener(listener);
+    }
+
     public void registerListener(@NotNull String channel,
                                  @NotNull String key,
                                  @NotNull MessageListener listener) {
@@ -171,6 +400,18 @@ public final class RedisClient {
         this.operations.unregisterListener(channel, key);
     }
 
+    public <T> void registerBinaryCodec(@NotNull Class<T> type, @NotNull BinaryCodec<T> codec) {
+        this.decoders.registerBinaryCodec(type, codec);
+    }
+
+    public void unregisterBinaryCodec(@NotNull Class<?> type) {
+        this.decoders.unregisterBinaryCodec(type);
+    }
+
+    public <T> BinaryCodec<T> getBinaryCodec(@NotNull Class<?> type) {
+        return this.decoders.getBinaryCodec(type);
+    }
+
     public DecoderCollection getDecoders() {
         return this.decoders;
     }
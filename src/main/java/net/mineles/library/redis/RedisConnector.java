@@ -1,6 +1,7 @@
 package net.mineles.library.redis;
 
 import net.mineles.library.libs.commons.pool2.impl.GenericObjectPoolConfig;
+import net.mineles.library.redis.metrics.RedisMetrics;
 import org.jetbrains.annotations.NotNull;
 import net.mineles.library.libs.jedis.Jedis;
 import net.mineles.library.libs.jedis.JedisPool;
@@ -15,6 +16,13 @@ final class RedisConnector {
         return connect(credentials, new JedisPoolConfig());
     }
 
+    static @NotNull JedisPool connect(@NotNull RedisCredentials credentials,
+                                      @NotNull RedisPoolOptions options,
+                                      @NotNull RedisMetrics metrics,
+                                      boolean blocking) {
+        return new InstrumentedJedisPool(credentials, options.toConfig(), metrics, blocking);
+    }
+
     static @NotNull JedisPool connect(@NotNull RedisCredentials credentials,
                                       @NotNull GenericObjectPoolConfig<Jedis> config) {
         return new JedisPool(config,
@@ -1,21 +1,51 @@
 package net.mineles.library.redis;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.mineles.library.redis.backend.MemoryBackend;
+import net.mineles.library.redis.codec.BinaryCodec;
 import net.mineles.library.redis.codec.Decoder;
+import net.mineles.library.redis.message.DeliveryListener;
+import net.mineles.library.redis.message.Envelope;
 import net.mineles.library.redis.message.Message;
 import net.mineles.library.redis.message.MessageListener;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import net.mineles.library.libs.jedis.JedisPool;
 
+import java.time.Duration;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
 
 public final class RedisOperations {
+    public static final String ORIGIN_HEADER = "origin";
+    public static final String SEQUENCE_HEADER = "sequence";
+
     private final RedisClient client;
     private final Map<String, RedisSubscription> subscriptions;
+    private final Map<String, RedisSubscription> patternSubscriptions;
+    private final RedisSubscriber subscriber;
+    private final MemoryBackend.Subscriber localSubscriber;
+    private final String origin;
+    private final Map<String, AtomicLong> sequences;
+    private final Cache<String, SequenceWindow> lastSequences;
+    private final List<DeliveryListener> deliveryListeners;
+
+    private ExecutorService subscriberExecutor;
+    private RedisStreams streams;
 
     public RedisOperations(RedisClient client) {
         this(client, Maps.newConcurrentMap());
@@ -24,6 +54,15 @@ public final class RedisOperations {
     public RedisOperations(RedisClient client, Map<String, RedisSubscription> subscriptions) {
         this.client = client;
         this.subscriptions = subscriptions;
+        this.patternSubscriptions = Maps.newConcurrentMap();
+        this.subscriber = new RedisSubscriber(this);
+        this.localSubscriber = this::onLocalMessage;
+        this.origin = UUID.randomUUID().toString();
+        this.sequences = Maps.newConcurrentMap();
+        this.lastSequences = CacheBuilder.newBuilder()
+                .expireAfterAccess(1, TimeUnit.HOURS)
+                .build();
+        this.deliveryListeners = Lists.newCopyOnWriteArrayList();
     }
 
     public void publish(@NotNull String channel,
@@ -47,7 +86,7 @@ public final class RedisOperations {
         Decoder<T> decoder = this.client.getDecoder(message.getClass());
         checkNotNull(decoder, "Decoder for " + message.getClass().getName() + " is not registered");
 
-        publish(channel, key, decoder.encode(message, this.client));
+        publish(channel, Envelope.create(key, message.getClass().getName(), decoder.encode(message, this.client)));
     }
 
     public void publish(@NotNull String channel,
@@ -63,14 +102,72 @@ public final class RedisOperations {
             channel = channel.split(":")[0];
         }
 
-        RedisPublisher publisher = new RedisPublisher(this, channel);
-        publisher.publish(key, message);
+        publish(channel, Envelope.create(key, null, message));
+    }
+
+    public <T> void publishBinary(@NotNull String channel,
+                                  @Nullable String key,
+                                  @NotNull T message) {
+        if (channel.split(":").length == 2) {
+            key = channel.split(":")[1];
+            channel = channel.split(":")[0];
+        }
+
+        BinaryCodec<T> codec = this.client.getDecoders().getBinaryCodec(message.getClass());
+        checkNotNull(codec, "Binary codec for " + message.getClass().getName() + " is not registered");
+
+        publish(channel, Envelope.create(key, message.getClass().getName(), codec.encode(message, this.client)));
+    }
+
+    public void publish(@NotNull String channel,
+                        @NotNull Envelope envelope) {
+        if (isStreamChannel(channel)) {
+            this.streams.publish(channel, envelope);
+            return;
+        }
+
+        // Publishers don't wait on each other, so two threads may reach the
+        // server out of order; subscribers tolerate that within the window.
+        long sequence = this.sequences.computeIfAbsent(channel, key -> new AtomicLong()).incrementAndGet();
+        envelope.withHeader(ORIGIN_HEADER, this.origin)
+                .withHeader(SEQUENCE_HEADER, Long.toString(sequence));
+        new RedisPublisher(this, channel).publish(envelope);
+    }
+
+    public void addDeliveryListener(@NotNull DeliveryListener listener) {
+        this.deliveryListeners.add(listener);
+    }
+
+    public void removeDeliveryListener(@NotNull DeliveryListener listener) {
+        this.deliveryListeners.remove(listener);
+    }
+
+    public @NotNull String getOrigin() {
+        return this.origin;
+    }
+
+    public synchronized RedisStreams enableStreams(@NotNull RedisStreamOptions options) {
+        checkState(!this.client.isLocal(), "Streams are not supported by the in-memory backend");
+
+        if (this.streams == null) {
+            this.streams = new RedisStreams(this, options);
+        }
+
+        return this.streams;
+    }
+
+    public @Nullable RedisStreams getStreams() {
+        return this.streams;
     }
 
     public Map<String, RedisSubscription> getSubscriptions() {
         return this.subscriptions;
     }
 
+    public Map<String, RedisSubscription> getPatternSubscriptions() {
+        return this.patternSubscriptions;
+    }
+
     public boolean isSubscribed(@NotNull String channel) {
         if (channel.split(":").length == 2) {
             channel = channel.split(":")[0];
@@ -79,8 +176,7 @@ public final class RedisOperations {
         return this.subscriptions.containsKey(channel);
     }
 
-    public RedisSubscription subscribe(@NotNull ExecutorService executorService,
-                                       @NotNull String channel) {
+    public RedisSubscription subscribe(@NotNull String channel) {
         if (channel.split(":").length == 2) {
             channel = channel.split(":")[0];
         }
@@ -89,21 +185,16 @@ public final class RedisOperations {
             return this.subscriptions.get(channel);
         }
 
-        RedisSubscription subscription = new RedisSubscription(this, channel);
-        executorService.submit(subscription);
-
-        this.subscriptions.put(channel, subscription);
-        return subscription;
+        return register(new RedisSubscription(this, channel));
     }
 
-    public RedisSubscription subscribe(@NotNull ExecutorService executorService,
-                                       @NotNull String channel,
+    public RedisSubscription subscribe(@NotNull String channel,
                                        @NotNull MessageListener mainListener) {
         if (channel.split(":").length == 2) {
             Map<String, MessageListener> listeners = Maps.newConcurrentMap();
             listeners.put(channel.split(":")[1], mainListener);
 
-            return subscribe(executorService, channel.split(":")[0], listeners);
+            return subscribe(channel.split(":")[0], listeners);
         }
 
         if (isSubscribed(channel)) {
@@ -112,15 +203,10 @@ public final class RedisOperations {
             return subscription;
         }
 
-        RedisSubscription subscription = new RedisSubscription(this, channel, mainListener);
-        executorService.submit(subscription);
-
-        this.subscriptions.put(channel, subscription);
-        return subscription;
+        return register(new RedisSubscription(this, channel, mainListener));
     }
 
-    public RedisSubscription subscribe(@NotNull ExecutorService executorService,
-                                       @NotNull String channel,
+    public RedisSubscription subscribe(@NotNull String channel,
                                        @NotNull Map<String, MessageListener> listeners) {
         if (channel.split(":").length == 2) {
             channel = channel.split(":")[0];
@@ -132,15 +218,10 @@ public final class RedisOperations {
             return subscription;
         }
 
-        RedisSubscription subscription = new RedisSubscription(this, channel, listeners);
-        executorService.submit(subscription);
-
-        this.subscriptions.put(channel, subscription);
-        return subscription;
+        return register(new RedisSubscription(this, channel, listeners));
     }
 
-    public RedisSubscription subscribe(@NotNull ExecutorService executorService,
-                                       @NotNull String channel,
+    public RedisSubscription subscribe(@NotNull String channel,
                                        @NotNull MessageListener mainListener,
                                        @NotNull Map<String, MessageListener> listeners) {
         if (channel.split(":").length == 2) {
@@ -148,7 +229,7 @@ public final class RedisOperations {
             newListeners.put(channel.split(":")[1], mainListener);
             newListeners.putAll(listeners);
 
-            return subscribe(executorService, channel.split(":")[0], newListeners);
+            return subscribe(channel.split(":")[0], newListeners);
         }
 
         if (isSubscribed(channel)) {
@@ -158,11 +239,20 @@ public final class RedisOperations {
             return subscription;
         }
 
-        RedisSubscription subscription = new RedisSubscription(this, channel, mainListener, listeners);
-        executorService.submit(subscription);
+        return register(new RedisSubscription(this, channel, mainListener, listeners));
+    }
 
-        this.subscriptions.put(channel, subscription);
-        return subscription;
+    public RedisSubscription psubscribe(@NotNull String pattern,
+                                        @NotNull MessageListener mainListener) {
+        RedisSubscription subscription = this.patternSubscriptions.get(pattern);
+        if (subscription != null) {
+            subscription.setMainListener(mainListener);
+            return subscription;
+        }
+
+        subscription = new RedisSubscription(this, pattern, Maps.newConcurrentMap(), true);
+        subscription.setMainListener(mainListener);
+        return register(subscription);
     }
 
     public void unsubscribe(@NotNull String channel) {
@@ -170,12 +260,44 @@ public final class RedisOperations {
             channel = channel.split(":")[0];
         }
 
-        this.subscriptions.remove(channel).unsubscribe();
+        RedisSubscription subscription = this.subscriptions.remove(channel);
+        if (subscription == null) {
+            return;
+        }
+
+        if (isStreamBacked(subscription)) {
+            this.streams.unregister(subscription);
+        } else if (this.client.getBackend() instanceof MemoryBackend memory) {
+            memory.unsubscribe(channel, this.localSubscriber);
+        } else {
+            this.subscriber.unregister(subscription);
+        }
+    }
+
+    public void punsubscribe(@NotNull String pattern) {
+        RedisSubscription subscription = this.patternSubscriptions.remove(pattern);
+        if (subscription == null) {
+            return;
+        }
+
+        if (this.client.getBackend() instanceof MemoryBackend memory) {
+            memory.punsubscribe(pattern, this.localSubscriber);
+        } else {
+            this.subscriber.unregister(subscription);
+        }
     }
 
     public void unsubscribeAll() {
-        this.subscriptions.values().forEach(RedisSubscription::unsubscribe);
+        if (this.streams != null) {
+            this.streams.close();
+        }
+        this.subscriber.close();
         this.subscriptions.clear();
+        this.patternSubscriptions.clear();
+
+        if (this.subscriberExecutor != null) {
+            this.subscriberExecutor.shutdownNow();
+        }
     }
 
     public void registerListener(@NotNull String channel,
@@ -229,6 +351,114 @@ public final class RedisOperations {
         subscription.unregisterListener(key);
     }
 
+    private RedisSubscription register(@NotNull RedisSubscription subscription) {
+        if (subscription.isPattern()) {
+            this.patternSubscriptions.put(subscription.getChannel(), subscription);
+        } else {
+            this.subscriptions.put(subscription.getChannel(), subscription);
+        }
+
+        if (isStreamBacked(subscription)) {
+            this.streams.register(subscription);
+            return subscription;
+        }
+
+        if (this.client.getBackend() instanceof MemoryBackend memory) {
+            if (subscription.isPattern()) {
+                memory.psubscribe(subscription.getChannel(), this.localSubscriber);
+            } else {
+                memory.subscribe(subscription.getChannel(), this.localSubscriber);
+            }
+            return subscription;
+        }
+
+        startSubscriber();
+        this.subscriber.register(subscription);
+        return subscription;
+    }
+
+    private void onLocalMessage(@Nullable String pattern,
+                                @NotNull String channel,
+                                @NotNull byte[] message) {
+        RedisSubscription subscription = pattern == null
+                ? this.subscriptions.get(channel)
+                : this.patternSubscriptions.get(pattern);
+        if (subscription != null) {
+            subscription.onMessage(channel, message);
+        }
+    }
+
+    // Messages are delivered from a single subscriber thread, so the last
+    // sequence per publisher and channel needs no further coordination. A
+    // channel matched by both a subscription and a pattern is only counted
+    // once, as the second delivery is not newer than the first.
+    void checkSequence(@NotNull String channel,
+                       @NotNull Envelope envelope) {
+        String origin = envelope.getHeader(ORIGIN_HEADER);
+        String value = envelope.getHeader(SEQUENCE_HEADER);
+        if (origin == null || value == null) {
+            return;
+        }
+
+        long sequence;
+        try {
+            sequence = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return;
+        }
+
+        String key = origin + '\u0000' + channel;
+        SequenceWindow window;
+        try {
+            window = this.lastSequences.get(key, SequenceWindow::new);
+        } catch (ExecutionException e) {
+            return;
+        }
+
+        long missed = window.accept(sequence);
+        if (missed > 0) {
+            this.client.getMetrics().recordGap(missed);
+            notifyListeners(listener -> listener.onGap(channel, origin, missed));
+        }
+    }
+
+    void onReconnect(long downtimeNanos) {
+        this.client.getMetrics().recordReconnect(downtimeNanos);
+
+        Duration downtime = Duration.ofNanos(downtimeNanos);
+        notifyListeners(listener -> listener.onReconnect(downtime));
+    }
+
+    private void notifyListeners(@NotNull Consumer<DeliveryListener> action) {
+        for (DeliveryListener listener : this.deliveryListeners) {
+            try {
+                action.accept(listener);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private boolean isStreamBacked(@NotNull RedisSubscription subscription) {
+        return !subscription.isPattern() && isStreamChannel(subscription.getChannel());
+    }
+
+    boolean isStreamChannel(@NotNull String channel) {
+        return this.streams != null && this.streams.isStreamChannel(channel);
+    }
+
+    private synchronized void startSubscriber() {
+        if (this.subscriberExecutor != null) {
+            return;
+        }
+
+        this.subscriberExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat(this.client.getExecutorName() + "-redis-subscriber-%d")
+                .setDaemon(true)
+                .build());
+        this.subscriberExecutor.submit(this.subscriber);
+    }
+
     @NotNull RedisClient getClient() {
         return this.client;
     }
@@ -236,4 +466,8 @@ public final class RedisOperations {
     @NotNull JedisPool getJedisPool() {
         return this.client.getJedisPool();
     }
+
+    @NotNull JedisPool getBlockingPool() {
+        return this.client.getBlockingPool();
+    }
 }
@@ -0,0 +1,80 @@
+package net.mineles.library.redis;
+
+import org.jetbrains.annotations.NotNull;
+import net.mineles.library.libs.configurate.ConfigurationNode;
+import net.mineles.library.libs.jedis.JedisPoolConfig;
+
+import java.time.Duration;
+
+public record RedisPoolOptions(int maxTotal,
+                               int maxIdle,
+                               int minIdle,
+                               @NotNull Duration maxWait,
+                               boolean blockWhenExhausted,
+                               boolean testOnBorrow,
+                               boolean testWhileIdle,
+                               @NotNull Duration evictionInterval,
+                               @NotNull Duration minEvictableIdle) {
+
+    public static RedisPoolOptions fromNode(@NotNull ConfigurationNode node) {
+        return fromNode(node, defaults());
+    }
+
+    public static RedisPoolOptions fromNode(@NotNull ConfigurationNode node,
+                                            @NotNull RedisPoolOptions defaults) {
+        return new RedisPoolOptions(
+                node.node("max-total").getInt(defaults.maxTotal()),
+                node.node("max-idle").getInt(defaults.maxIdle()),
+                node.node("min-idle").getInt(defaults.minIdle()),
+                Duration.ofMillis(node.node("max-wait").getLong(defaults.maxWait().toMillis())),
+                node.node("block-when-exhausted").getBoolean(defaults.blockWhenExhausted()),
+                node.node("test-on-borrow").getBoolean(defaults.testOnBorrow()),
+                node.node("test-while-idle").getBoolean(defaults.testWhileIdle()),
+                Duration.ofMillis(node.node("eviction-interval").getLong(defaults.evictionInterval().toMillis())),
+                Duration.ofMillis(node.node("min-evictable-idle").getLong(defaults.minEvictableIdle().toMillis()))
+        );
+    }
+
+    public static RedisPoolOptions defaults() {
+        return new RedisPoolOptions(
+                16,
+                16,
+                2,
+                Duration.ofSeconds(2),
+                true,
+                false,
+                true,
+                Duration.ofSeconds(30),
+                Duration.ofMinutes(1)
+        );
+    }
+
+    public static RedisPoolOptions blockingDefaults() {
+        return new RedisPoolOptions(
+                4,
+                4,
+                0,
+                Duration.ofSeconds(5),
+                true,
+                false,
+                true,
+                Duration.ofSeconds(30),
+                Duration.ofMinutes(1)
+        );
+    }
+
+    public @NotNull JedisPoolConfig toConfig() {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setMaxTotal(this.maxTotal);
+        config.setMaxIdle(this.maxIdle);
+        config.setMinIdle(this.minIdle);
+        config.setMaxWait(this.maxWait);
+        config.setBlockWhenExhausted(this.blockWhenExhausted);
+        config.setTestOnBorrow(this.testOnBorrow);
+        config.setTestWhileIdle(this.testWhileIdle);
+        config.setTimeBetweenEvictionRuns(this.evictionInterval);
+        config.setMinEvictableIdleDuration(this.minEvictableIdle);
+        config.setJmxEnabled(false);
+        return config;
+    }
+}
@@ -1,12 +1,8 @@
 package net.mineles.library.redis;
 
-import com.google.gson.JsonObject;
-import net.mineles.library.utils.GsonProvider;
+import net.mineles.library.redis.message.Envelope;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
-import net.mineles.library.libs.jedis.Jedis;
-
-import static com.google.common.base.Preconditions.checkNotNull;
+import net.mineles.library.libs.jedis.util.SafeEncoder;
 
 final class RedisPublisher {
     private final RedisOperations pubSub;
@@ -17,16 +13,13 @@ final class RedisPublisher {
         this.channel = channel;
     }
 
-    void publish(@Nullable String key, @NotNull String message) {
-        JsonObject json = GsonProvider.getGson().fromJson(message, JsonObject.class);
-        checkNotNull(json, "Message is not a valid JSON object");
-
-        if (key != null && json.get("key") == null) {
-            json.addProperty("key", key);
-        }
+    void publish(@NotNull Envelope envelope) {
+        this.pubSub.getClient().getBackend().execute(commands -> {
+            if (envelope.isBinary()) {
+                return commands.publish(SafeEncoder.encode(this.channel), envelope.encodeBinary());
+            }
 
-        try (Jedis jedis = this.pubSub.getJedisPool().getResource()) {
-            jedis.publish(this.channel, json.toString());
-        }
+            return commands.publish(this.channel, envelope.encode(this.pubSub.getClient().getEnvelopeFormat()));
+        });
     }
 }
@@ -0,0 +1,48 @@
+package net.mineles.library.redis;
+
+import com.google.common.collect.Sets;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import net.mineles.library.libs.configurate.ConfigurationNode;
+import net.mineles.library.libs.configurate.serialize.SerializationException;
+
+import java.time.Duration;
+import java.util.Set;
+
+public record RedisStreamOptions(@Nullable String group,
+                                 @NotNull Set<String> channels,
+                                 long maxLength,
+                                 int batchSize,
+                                 @NotNull Duration block,
+                                 @NotNull Duration claimIdle,
+                                 int maxDeliveries) {
+
+    public static RedisStreamOptions fromNode(@NotNull ConfigurationNode node) {
+        try {
+            return new RedisStreamOptions(
+                    node.node("group").getString(),
+                    Sets.newHashSet(node.node("channels").getList(String.class)),
+                    node.node("max-length").getLong(10_000),
+                    node.node("batch-size").getInt(64),
+                    Duration.ofMillis(node.node("block").getLong(2_000)),
+                    Duration.ofMillis(node.node("claim-idle").getLong(30_000)),
+                    node.node("max-deliveries").getInt(5)
+            );
+        } catch (SerializationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static RedisStreamOptions defaults(@Nullable String group,
+                                              @NotNull String... channels) {
+        return new RedisStreamOptions(
+                group,
+                Sets.newHashSet(channels),
+                10_000,
+                64,
+                Duration.ofSeconds(2),
+                Duration.ofSeconds(30),
+                5
+        );
+    }
+}
@@ -0,0 +1,332 @@
+package net.mineles.library.redis;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.mineles.library.redis.message.Envelope;
+import org.jetbrains.annotations.NotNull;
+import net.mineles.library.libs.jedis.Jedis;
+import net.mineles.library.libs.jedis.StreamEntryID;
+import net.mineles.library.libs.jedis.exceptions.JedisConnectionException;
+import net.mineles.library.libs.jedis.exceptions.JedisDataException;
+import net.mineles.library.libs.jedis.params.XAddParams;
+import net.mineles.library.libs.jedis.params.XAutoClaimParams;
+import net.mineles.library.libs.jedis.params.XPendingParams;
+import net.mineles.library.libs.jedis.params.XReadGroupParams;
+import net.mineles.library.libs.jedis.resps.StreamConsumerInfo;
+import net.mineles.library.libs.jedis.resps.StreamEntry;
+import net.mineles.library.libs.jedis.resps.StreamPendingEntry;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public final class RedisStreams implements Runnable {
+    public static final String KEY_PREFIX = "streams:";
+    public static final String DEAD_LETTER_SUFFIX = ":dead-letter";
+
+    private static final String TEXT_FIELD = "m";
+    private static final String BINARY_FIELD = "b";
+
+    private final RedisOperations operations;
+    private final RedisStreamOptions options;
+    private final String group;
+    private final String consumer;
+    private final Set<String> channels;
+    private final Set<String> registered;
+    private final Queue<Acknowledgement> acknowledgements;
+
+    private ExecutorService executor;
+    private long lastClaim;
+    private volatile boolean closed;
+
+    RedisStreams(@NotNull RedisOperations operations,
+                 @NotNull RedisStreamOptions options) {
+        this.operations = operations;
+        this.options = options;
+        this.consumer = operations.getClient().getExecutorName();
+        this.group = options.group() == null ? this.consumer : options.group();
+        this.channels = Sets.newConcurrentHashSet(options.channels());
+        this.registered = Sets.newConcurrentHashSet();
+        this.acknowledgements = new ConcurrentLinkedQueue<>();
+    }
+
+    public boolean isStreamChannel(@NotNull String channel) {
+        return this.channels.contains(channel);
+    }
+
+    public void useStream(@NotNull String channel) {
+        this.channels.add(channel);
+    }
+
+    public @NotNull String getGroup() {
+        return this.group;
+    }
+
+    public @NotNull RedisStreamOptions getOptions() {
+        return this.options;
+    }
+
+    void publish(@NotNull String channel,
+                 @NotNull Envelope envelope) {
+        Map<String, String> fields = envelope.isBinary()
+                ? Map.of(BINARY_FIELD, Base64.getEncoder().encodeToString(envelope.encodeBinary()))
+                : Map.of(TEXT_FIELD, envelope.encode());
+
+        XAddParams params = XAddParams.xAddParams()
+                .maxLen(this.options.maxLength())
+                .approximateTrimming();
+        try (Jedis jedis = this.operations.getJedisPool().getResource()) {
+            jedis.xadd(KEY_PREFIX + channel, params, fields);
+        }
+    }
+
+    void register(@NotNull RedisSubscription subscription) {
+        try (Jedis jedis = this.operations.getJedisPool().getResource()) {
+            createGroup(jedis, subscription.getChannel());
+        }
+
+        this.registered.add(subscription.getChannel());
+        start();
+    }
+
+    void unregister(@NotNull RedisSubscription subscription) {
+        this.registered.remove(subscription.getChannel());
+    }
+
+    void close() {
+        this.closed = true;
+        this.registered.clear();
+
+        synchronized (this) {
+            if (this.executor != null) {
+                this.executor.shutdownNow();
+            }
+        }
+    }
+
+    private synchronized void start() {
+        if (this.executor != null || this.closed) {
+            return;
+        }
+
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat(this.consumer + "-redis-streams-%d")
+                .setDaemon(true)
+                .build());
+        this.executor.submit(this);
+    }
+
+    @Override
+    public void run() {
+        while (!this.closed && !Thread.currentThread().isInterrupted()) {
+            if (this.registered.isEmpty()) {
+                sleep(this.options.block().toMillis());
+                continue;
+            }
+
+            try (Jedis jedis = this.operations.getBlockingPool().getResource()) {
+                long now = System.currentTimeMillis();
+                if (now - this.lastClaim >= this.options.claimIdle().toMillis()) {
+                    this.lastClaim = now;
+                    claim(jedis);
+                }
+
+                read(jedis);
+                acknowledge(jedis);
+            } catch (JedisConnectionException e) {
+                if (this.closed || this.operations.getClient().isClosed()) {
+                    return;
+                }
+
+                sleep(1000);
+            } catch (JedisDataException e) {
+                // The stream or group was deleted behind our back; recreate
+                // the groups and keep reading.
+                if (e.getMessage() != null && e.getMessage().startsWith("NOGROUP")) {
+                    try (Jedis jedis = this.operations.getJedisPool().getResource()) {
+                        this.registered.forEach(channel -> createGroup(jedis, channel));
+                    }
+                } else {
+                    e.printStackTrace();
+                    sleep(1000);
+                }
+            }
+        }
+    }
+
+    private void read(@NotNull Jedis jedis) {
+        Map<String, StreamEntryID> streams = Maps.newHashMap();
+        for (String channel : this.registered) {
+            streams.put(KEY_PREFIX + channel, StreamEntryID.UNRECEIVED_ENTRY);
+        }
+
+        XReadGroupParams params = XReadGroupParams.xReadGroupParams()
+                .count(this.options.batchSize())
+                .block((int) this.options.block().toMillis());
+        List<Map.Entry<String, List<StreamEntry>>> result = jedis.xreadGroup(this.group, this.consumer, params, streams);
+        if (result == null) {
+            return;
+        }
+
+        for (Map.Entry<String, List<StreamEntry>> stream : result) {
+            deliver(stream.getKey(), stream.getValue());
+        }
+    }
+
+    private void claim(@NotNull Jedis jedis) {
+        // Entries left pending by a consumer that died (usually a previous run
+        // of this node) are taken over once they have been idle long enough.
+        for (String channel : this.registered) {
+            String key = KEY_PREFIX + channel;
+            StreamEntryID cursor = new StreamEntryID();
+            do {
+                Map.Entry<StreamEntryID, List<StreamEntry>> claimed = jedis.xautoclaim(key, this.group, this.consumer,
+                        this.options.claimIdle().toMillis(), cursor,
+                        XAutoClaimParams.xAutoClaimParams().count(this.options.batchSize()));
+                deliver(key, withinDeliveries(jedis, key, claimed.getValue()));
+                cursor = claimed.getKey();
+            } while (!cursor.equals(new StreamEntryID()) && !this.closed);
+
+            removeIdleConsumers(jedis, key);
+        }
+    }
+
+    // An entry that keeps failing would otherwise be claimed forever; after
+    // maxDeliveries it is moved to the channel's dead-letter stream instead.
+    private List<StreamEntry> withinDeliveries(@NotNull Jedis jedis,
+                                               @NotNull String key,
+                                               @NotNull List<StreamEntry> entries) {
+        List<StreamEntry> claimed = entries.stream()
+                .filter(Objects::nonNull)
+                .toList();
+        if (claimed.isEmpty()) {
+            return claimed;
+        }
+
+        Map<StreamEntryID, Long> deliveries = Maps.newHashMap();
+        XPendingParams params = XPendingParams.xPendingParams(claimed.get(0).getID(),
+                claimed.get(claimed.size() - 1).getID(), claimed.size()).consumer(this.consumer);
+        for (StreamPendingEntry pending : jedis.xpending(key, this.group, params)) {
+            deliveries.put(pending.getID(), pending.getDeliveredTimes());
+        }
+
+        List<StreamEntry> result = Lists.newArrayList();
+        List<StreamEntryID> dead = Lists.newArrayList();
+        for (StreamEntry entry : claimed) {
+            if (deliveries.getOrDefault(entry.getID(), 0L) > this.options.maxDeliveries()) {
+                jedis.xadd(key + DEAD_LETTER_SUFFIX, XAddParams.xAddParams()
+                        .maxLen(this.options.maxLength())
+                        .approximateTrimming(), entry.getFields());
+                dead.add(entry.getID());
+            } else {
+                result.add(entry);
+            }
+        }
+
+        if (!dead.isEmpty()) {
+            jedis.xack(key, this.group, dead.toArray(new StreamEntryID[0]));
+        }
+        return result;
+    }
+
+    // Every run of a node reads under a new consumer name. Once the entries
+    // of an old one have been claimed it is removed, so the group doesn't
+    // keep a consumer for every restart.
+    private void removeIdleConsumers(@NotNull Jedis jedis,
+                                     @NotNull String key) {
+        long claimIdle = this.options.claimIdle().toMillis();
+        for (StreamConsumerInfo info : jedis.xinfoConsumers2(key, this.group)) {
+            if (!info.getName().equals(this.consumer) && info.getPending() == 0 && info.getIdle() >= claimIdle) {
+                jedis.xgroupDelConsumer(key, this.group, info.getName());
+            }
+        }
+    }
+
+    // Entries are only acknowledged once their listener returns, which may
+    // be on a dispatcher thread; the acks are queued and sent from this
+    // thread after each read. Anything that failed stays pending and is
+    // claimed again once it has been idle for claimIdle.
+    private void deliver(@NotNull String key,
+                         @NotNull List<StreamEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        String channel = key.substring(KEY_PREFIX.length());
+        RedisSubscription subscription = this.operations.getSubscriptions().get(channel);
+        for (StreamEntry entry : entries) {
+            if (entry == null) {
+                continue;
+            }
+
+            Acknowledgement acknowledgement = new Acknowledgement(key, entry.getID());
+            byte[] message = decode(entry.getFields());
+            if (subscription == null || message == null) {
+                this.acknowledgements.add(acknowledgement);
+                continue;
+            }
+
+            try {
+                subscription.onMessage(channel, message, () -> this.acknowledgements.add(acknowledgement));
+            } catch (Throwable throwable) {
+                throwable.printStackTrace();
+            }
+        }
+    }
+
+    private void acknowledge(@NotNull Jedis jedis) {
+        if (this.acknowledgements.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<StreamEntryID>> ids = Maps.newHashMap();
+        Acknowledgement acknowledgement;
+        while ((acknowledgement = this.acknowledgements.poll()) != null) {
+            ids.computeIfAbsent(acknowledgement.key(), key -> Lists.newArrayList()).add(acknowledgement.id());
+        }
+
+        ids.forEach((key, entries) -> jedis.xack(key, this.group, entries.toArray(new StreamEntryID[0])));
+    }
+
+    private void createGroup(@NotNull Jedis jedis,
+                             @NotNull String channel) {
+        try {
+            jedis.xgroupCreate(KEY_PREFIX + channel, this.group, StreamEntryID.LAST_ENTRY, true);
+        } catch (JedisDataException e) {
+            if (e.getMessage() == null || !e.getMessage().startsWith("BUSYGROUP")) {
+                throw e;
+            }
+        }
+    }
+
+    private static byte[] decode(@NotNull Map<String, String> fields) {
+        String text = fields.get(TEXT_FIELD);
+        if (text != null) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+
+        String binary = fields.get(BINARY_FIELD);
+        return binary == null ? null : Base64.getDecoder().decode(binary);
+    }
+
+    private record Acknowledgement(@NotNull String key,
+                                   @NotNull StreamEntryID id) {
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package net.mineles.library.redis;
+
+import org.jetbrains.annotations.NotNull;
+import net.mineles.library.libs.jedis.Jedis;
+import net.mineles.library.libs.jedis.BinaryJedisPubSub;
+import net.mineles.library.libs.jedis.exceptions.JedisConnectionException;
+import net.mineles.library.libs.jedis.util.SafeEncoder;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+final class RedisSubscriber extends BinaryJedisPubSub implements Runnable {
+    private static final long INITIAL_BACKOFF = 25L;
+    private static final long MAX_BACKOFF = 5000L;
+
+    private final @NotNull RedisOperations operations;
+    private final @NotNull String controlChannel;
+    private final @NotNull Object lock;
+
+    private int attempts;
+    private long disconnectedAt;
+
+    RedisSubscriber(@NotNull RedisOperations operations) {
+        this.operations = operations;
+        this.controlChannel = "subscriber-" + UUID.randomUUID();
+        this.lock = new Object();
+    }
+
+    @Override
+    public void run() {
+        // The connection is always opened on a private control channel so it
+        // can be established before any real channel is registered. Every
+        // registered channel and pattern is (re)subscribed once the control
+        // subscription is confirmed, which also covers reconnects.
+        while (!this.operations.getClient().isClosed() && !Thread.interrupted() && !this.operations.getBlockingPool().isClosed()) {
+            try (Jedis jedis = this.operations.getBlockingPool().getResource()) {
+                jedis.subscribe(this, SafeEncoder.encode(this.controlChannel));
+            } catch (RuntimeException e) {
+                if (this.operations.getClient().isClosed()) {
+                    return;
+                }
+
+                // Anything other than a dropped connection is unexpected, but
+                // it must not end pub/sub for every channel.
+                if (!(e instanceof JedisConnectionException)) {
+                    e.printStackTrace();
+                }
+
+                if (this.disconnectedAt == 0) {
+                    this.disconnectedAt = System.nanoTime();
+                }
+
+                try {
+                    Thread.sleep(nextBackoff());
+                } catch (InterruptedException ignored) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    // Exponential backoff with equal jitter, so a failover is retried within
+    // milliseconds while a fleet of proxies doesn't reconnect in lockstep.
+    private long nextBackoff() {
+        long delay = Math.min(MAX_BACKOFF, INITIAL_BACKOFF << Math.min(this.attempts++, 16));
+        return delay / 2 + ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+    }
+
+    void register(@NotNull RedisSubscription subscription) {
+        send(() -> {
+            if (subscription.isPattern()) {
+                psubscribe(SafeEncoder.encode(subscription.getChannel()));
+            } else {
+                subscribe(SafeEncoder.encode(subscription.getChannel()));
+            }
+        });
+    }
+
+    void unregister(@NotNull RedisSubscription subscription) {
+        send(() -> {
+            if (subscription.isPattern()) {
+                punsubscribe(SafeEncoder.encode(subscription.getChannel()));
+            } else {
+                unsubscribe(SafeEncoder.encode(subscription.getChannel()));
+            }
+        });
+    }
+
+    void close() {
+        send(() -> {
+            unsubscribe();
+            if (!this.operations.getPatternSubscriptions().isEmpty()) {
+                punsubscribe();
+            }
+        });
+    }
+
+    private void send(@NotNull Runnable command) {
+        // Channels registered while the connection is down are picked up by
+        // the resubscribe in onSubscribe once the subscriber reconnects.
+        synchronized (this.lock) {
+            if (!isSubscribed()) {
+                return;
+            }
+
+            try {
+                command.run();
+            } catch (JedisConnectionException ignored) {
+            }
+        }
+    }
+
+    @Override
+    public void onSubscribe(byte[] channel, int subscribedChannels) {
+        if (!SafeEncoder.encode(channel).equals(this.controlChannel)) {
+            return;
+        }
+
+        synchronized (this.lock) {
+            String[] channels = this.operations.getSubscriptions().keySet().stream()
+                    .filter(name -> !this.operations.isStreamChannel(name))
+                    .toArray(String[]::new);
+            if (channels.length > 0) {
+                subscribe(SafeEncoder.encodeMany(channels));
+            }
+
+            Map<String, RedisSubscription> patterns = this.operations.getPatternSubscriptions();
+            if (!patterns.isEmpty()) {
+                psubscribe(SafeEncoder.encodeMany(patterns.keySet().toArray(new String[0])));
+            }
+        }
+
+        this.attempts = 0;
+        if (this.disconnectedAt != 0) {
+            long downtime = System.nanoTime() - this.disconnectedAt;
+            this.disconnectedAt = 0;
+            this.operations.onReconnect(downtime);
+        }
+    }
+
+    @Override
+    public void onMessage(byte[] channel, byte[] message) {
+        String name = SafeEncoder.encode(channel);
+        RedisSubscription subscription = this.operations.getSubscriptions().get(name);
+        if (subscription == null) {
+            return;
+        }
+
+        dispatch(subscription, name, message);
+    }
+
+    @Override
+    public void onPMessage(byte[] pattern, byte[] channel, byte[] message) {
+        RedisSubscription subscription = this.operations.getPatternSubscriptions().get(SafeEncoder.encode(pattern));
+        if (subscription == null) {
+            return;
+        }
+
+        dispatch(subscription, SafeEncoder.encode(channel), message);
+    }
+
+    private static void dispatch(@NotNull RedisSubscription subscription, @NotNull String channel, byte[] message) {
+        try {
+            subscription.onMessage(channel, message);
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
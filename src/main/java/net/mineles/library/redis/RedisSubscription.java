@@ -1,23 +1,19 @@
 package net.mineles.library.redis;
 
 import com.google.common.collect.Maps;
-import com.google.gson.JsonObject;
+import net.mineles.library.redis.dispatch.StripedDispatcher;
+import net.mineles.library.redis.message.Envelope;
 import net.mineles.library.redis.message.MessageListener;
-import net.mineles.library.utils.GsonProvider;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import net.mineles.library.libs.jedis.Jedis;
-import net.mineles.library.libs.jedis.JedisPubSub;
-import net.mineles.library.libs.jedis.exceptions.JedisConnectionException;
 
 import java.util.Map;
 
-import static com.google.common.base.Preconditions.checkNotNull;
-
-public final class RedisSubscription extends JedisPubSub implements Runnable {
+public final class RedisSubscription {
     private final @NotNull RedisOperations operations;
     private final @NotNull String channel;
     private final @NotNull Map<String, MessageListener> listeners;
+    private final boolean pattern;
 
     private MessageListener mainListener;
 
@@ -35,9 +31,17 @@ public final class RedisSubscription extends JedisPubSub implements Runnable {
     RedisSubscription(@NotNull RedisOperations operations,
                       @NotNull String channel,
                       @NotNull Map<String, MessageListener> listeners) {
+        this(operations, channel, listeners, false);
+    }
+
+    RedisSubscription(@NotNull RedisOperations operations,
+                      @NotNull String channel,
+                      @NotNull Map<String, MessageListener> listeners,
+                      boolean pattern) {
         this.operations = operations;
         this.channel = channel;
         this.listeners = listeners;
+        this.pattern = pattern;
     }
 
     RedisSubscription(@NotNull RedisOperations operations,
@@ -46,6 +50,7 @@ public final class RedisSubscription extends JedisPubSub implements Runnable {
                       @NotNull Map<String, MessageListener> listeners) {
         this.operations = operations;
         this.listeners = listeners;
+        this.pattern = false;
 
         if (channel.split(":").length == 2) {
             this.channel = channel.split(":")[0];
@@ -56,53 +61,91 @@ public final class RedisSubscription extends JedisPubSub implements Runnable {
         }
     }
 
-    @Override
-    public void run() {
-        while (!this.operations.getClient().isClosed() && !Thread.interrupted() && !this.operations.getJedisPool().isClosed()) {
-            try (Jedis jedis = this.operations.getJedisPool().getResource()) {
-                jedis.subscribe(this, this.channel);
-            } catch (JedisConnectionException e) {
-                if (this.operations.getClient().isClosed()) {
-                    return;
-                }
-
-                try {
-                    unsubscribe();
-                } catch (JedisConnectionException ignored) {
-                }
-
-                try {
-                    Thread.sleep(5000);
-                } catch (InterruptedException ignored) {
-                    Thread.currentThread().interrupt();
-                }
+    void onMessage(@NotNull String channel, @NotNull byte[] message) {
+        onMessage(channel, message, null);
+    }
+
+    // The acknowledgement only runs once a listener has handled the message,
+    // so stream entries whose listener failed stay pending and are retried.
+    // Entries no listener can handle are acknowledged right away.
+    void onMessage(@NotNull String channel,
+                   @NotNull byte[] message,
+                   @Nullable Runnable acknowledgement) {
+        if (!this.pattern && !channel.equals(this.channel)) {
+            if (acknowledgement != null) {
+                acknowledgement.run();
             }
+            return;
         }
-    }
 
-    @Override
-    public void onMessage(String channel, String message) {
-        if (!channel.equals(this.channel)) {
+        Envelope envelope = Envelope.parse(message);
+        if (envelope == null) {
+            // A malformed message can never be handled; redelivering it
+            // would only keep it pending forever.
+            if (acknowledgement != null) {
+                acknowledgement.run();
+            }
             return;
         }
 
-        JsonObject parsed = GsonProvider.getGson().fromJson(message, JsonObject.class);
+        this.operations.checkSequence(channel, envelope);
 
-        if (parsed.has("key")) {
-            String key = parsed.get("key").getAsString();
-            MessageListener listener = getListener(key);
-            if (listener == null) {
-                return;
+        MessageListener listener;
+        String routingKey = envelope.getKey();
+        if (routingKey != null) {
+            listener = getListener(routingKey);
+        } else {
+            routingKey = channel;
+            listener = getMainListener();
+        }
+
+        if (listener == null) {
+            if (acknowledgement != null) {
+                acknowledgement.run();
             }
+            return;
+        }
 
-            listener.onMessage(this.operations.getClient(), parsed);
+        RedisClient client = this.operations.getClient();
+        StripedDispatcher dispatcher = client.getDispatcher();
+        if (dispatcher == null) {
+            handle(client, listener, envelope, acknowledgement);
         } else {
-            MessageListener listener = getMainListener();
-            if (listener == null) {
-                return;
-            }
+            dispatcher.dispatch(routingKey, () -> handle(client, listener, envelope, acknowledgement));
+        }
+    }
+
+    // Without a dispatcher listeners run on the shared subscriber thread, so
+    // a failing listener (or a lazily parsed body) must not escape into it.
+    private static void handle(@NotNull RedisClient client,
+                               @NotNull MessageListener listener,
+                               @NotNull Envelope envelope,
+                               @Nullable Runnable acknowledgement) {
+        try {
+            listener.onEnvelope(client, envelope);
+        } catch (Throwable throwable) {
+            throwable.printStackTrace();
+            return;
+        }
+
+        if (acknowledgement != null) {
+            acknowledgement.run();
+        }
+    }
+
+    public @NotNull String getChannel() {
+        return this.channel;
+    }
 
-            listener.onMessage(this.operations.getClient(), parsed);
+    public boolean isPattern() {
+        return this.pattern;
+    }
+
+    public void unsubscribe() {
+        if (this.pattern) {
+            this.operations.punsubscribe(this.channel);
+        } else {
+            this.operations.unsubscribe(this.channel);
         }
     }
 
@@ -0,0 +1,69 @@
+package net.mineles.library.redis;
+
+import net.mineles.library.redis.backend.RedisCommands;
+import org.jetbrains.annotations.NotNull;
+import net.mineles.library.libs.jedis.params.ScanParams;
+import net.mineles.library.libs.jedis.resps.ScanResult;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.BiFunction;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+final class ScanIterator<T> implements Iterator<T> {
+    private final RedisClient client;
+    private final BiFunction<RedisCommands, String, ScanResult<T>> scanner;
+
+    private String cursor;
+    private Iterator<T> batch;
+    private boolean finished;
+
+    ScanIterator(@NotNull RedisClient client,
+                 @NotNull BiFunction<RedisCommands, String, ScanResult<T>> scanner) {
+        this.client = client;
+        this.scanner = scanner;
+        this.cursor = ScanParams.SCAN_POINTER_START;
+        this.batch = Collections.emptyIterator();
+    }
+
+    static <T> Stream<T> stream(@NotNull RedisClient client,
+                                @NotNull BiFunction<RedisCommands, String, ScanResult<T>> scanner) {
+        Iterator<T> iterator = new ScanIterator<>(client, scanner);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!this.batch.hasNext()) {
+            if (this.finished) {
+                return false;
+            }
+
+            fetch();
+        }
+
+        return true;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return this.batch.next();
+    }
+
+    private void fetch() {
+        // The connection is only held for a single SCAN call so a consumer
+        // that stops early or iterates slowly never pins a pooled connection.
+        ScanResult<T> result = this.client.getBackend().execute(commands -> this.scanner.apply(commands, this.cursor));
+        this.cursor = result.getCursor();
+        this.batch = result.getResult().iterator();
+        this.finished = result.isCompleteIteration();
+    }
+}
@@ -0,0 +1,41 @@
+package net.mineles.library.redis;
+
+import com.google.common.collect.Sets;
+
+import java.util.NavigableSet;
+
+// Numbers skipped over are held for a while in case they were only
+// overtaken; they count as missed once the newest number has moved more
+// than the window past them.
+final class SequenceWindow {
+    // How many sequence numbers a message may trail the newest one seen from
+    // its publisher before it counts as lost rather than reordered.
+    static final int REORDER_WINDOW = 64;
+
+    private final NavigableSet<Long> pending = Sets.newTreeSet();
+    private long last = -1;
+
+    synchronized long accept(long sequence) {
+        if (this.last < 0) {
+            this.last = sequence;
+            return 0;
+        }
+
+        if (sequence <= this.last) {
+            this.pending.remove(sequence);
+            return 0;
+        }
+
+        long missed = 0;
+        for (long skipped = Math.max(this.last + 1, sequence - REORDER_WINDOW); skipped < sequence; skipped++) {
+            this.pending.add(skipped);
+        }
+        missed += Math.max(0, sequence - REORDER_WINDOW - this.last - 1);
+        this.last = sequence;
+
+        NavigableSet<Long> expired = this.pending.headSet(sequence - REORDER_WINDOW, false);
+        missed += expired.size();
+        expired.clear();
+        return missed;
+    }
+}
@@ -0,0 +1,107 @@
+package net.mineles.library.redis.backend;
+
+import org.jetbrains.annotations.NotNull;
+
+final class GlobMatcher {
+
+    private GlobMatcher() {}
+
+    // Same syntax as Redis' stringmatchlen: *, ?, [abc], [^abc], [a-z] and
+    // backslash escapes.
+    static boolean matches(@NotNull String pattern,
+                           @NotNull String value) {
+        return matches(pattern, 0, value, 0);
+    }
+
+    private static boolean matches(@NotNull String pattern,
+                                   int patternIndex,
+                                   @NotNull String value,
+                                   int valueIndex) {
+        while (patternIndex < pattern.length()) {
+            char current = pattern.charAt(patternIndex);
+            if (current == '*') {
+                while (patternIndex + 1 < pattern.length() && pattern.charAt(patternIndex + 1) == '*') {
+                    patternIndex++;
+                }
+
+                if (patternIndex + 1 == pattern.length()) {
+                    return true;
+                }
+
+                for (int i = valueIndex; i <= value.length(); i++) {
+                    if (matches(pattern, patternIndex + 1, value, i)) {
+                        return true;
+                    }
+                }
+
+                return false;
+            }
+
+            if (valueIndex >= value.length()) {
+                return false;
+            }
+
+            if (current == '?') {
+                patternIndex++;
+                valueIndex++;
+                continue;
+            }
+
+            if (current == '[') {
+                int end = matchClass(pattern, patternIndex + 1, value.charAt(valueIndex));
+                if (end < 0) {
+                    return false;
+                }
+
+                patternIndex = end;
+                valueIndex++;
+                continue;
+            }
+
+            if (current == '\\' && patternIndex + 1 < pattern.length()) {
+                current = pattern.charAt(++patternIndex);
+            }
+
+            if (current != value.charAt(valueIndex)) {
+                return false;
+            }
+
+            patternIndex++;
+            valueIndex++;
+        }
+
+        return valueIndex == value.length();
+    }
+
+    private static int matchClass(@NotNull String pattern,
+                                  int index,
+                                  char value) {
+        boolean negated = index < pattern.length() && pattern.charAt(index) == '^';
+        if (negated) {
+            index++;
+        }
+
+        boolean matched = false;
+        while (index < pattern.length() && pattern.charAt(index) != ']') {
+            char current = pattern.charAt(index);
+            if (current == '\\' && index + 1 < pattern.length()) {
+                matched |= pattern.charAt(index + 1) == value;
+                index += 2;
+            } else if (index + 2 < pattern.length() && pattern.charAt(index + 1) == '-' && pattern.charAt(index + 2) != ']') {
+                char low = (char) Math.min(current, pattern.charAt(index + 2));
+                char high = (char) Math.max(current, pattern.charAt(index + 2));
+                matched |= value >= low && value <= high;
+                index += 3;
+            } else {
+                matched |= current == value;
+                index++;
+            }
+        }
+
+        if (matched == negated) {
+            return -1;
+        }
+
+        return index < pattern.length() ? index + 1 : index;
+    }
+}
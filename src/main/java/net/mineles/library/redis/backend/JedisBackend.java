@@ -0,0 +1,52 @@
+package net.mineles.library.redis.backend;
+
+import org.jetbrains.annotations.NotNull;
+import net.mineles.library.libs.jedis.Jedis;
+import net.mineles.library.libs.jedis.JedisPool;
+import net.mineles.library.libs.jedis.Pipeline;
+
+import java.util.function.Function;
+
+public final class JedisBackend implements RedisBackend {
+    private final JedisPool pool;
+
+    public JedisBackend(@NotNull JedisPool pool) {
+        this.pool = pool;
+    }
+
+    @Override
+    public <T> T execute(@NotNull Function<RedisCommands, T> action) {
+        try (Jedis jedis = this.pool.getResource()) {
+            return action.apply(new JedisCommandsAdapter(jedis));
+        }
+    }
+
+    @Override
+    public <T> T pipelined(@NotNull Function<RedisPipeline, T> action) {
+        try (Jedis jedis = this.pool.getResource();
+             Pipeline pipeline = jedis.pipelined()) {
+            T result = action.apply(new JedisPipelineAdapter(pipeline));
+            pipeline.sync();
+            return result;
+        }
+    }
+
+    @Override
+    public boolean isScriptingSupported() {
+        return true;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return this.pool.isClosed();
+    }
+
+    @Override
+    public void close() {
+        this.pool.close();
+    }
+
+    public @NotNull JedisPool getPool() {
+        return this.pool;
+    }
+}
@@ -0,0 +1,284 @@
+package net.mineles.library.redis.backend;
+
+import org.jetbrains.annotations.NotNull;
+import net.mineles.library.libs.jedis.Jedis;
+import net.mineles.library.libs.jedis.params.ScanParams;
+import net.mineles.library.libs.jedis.resps.ScanResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+final class JedisCommandsAdapter implements RedisCommands {
+    private final Jedis jedis;
+
+    JedisCommandsAdapter(@NotNull Jedis jedis) {
+        this.jedis = jedis;
+    }
+
+    @Override
+    public boolean exists(@NotNull String key) {
+        return this.jedis.exists(key);
+    }
+
+    @Override
+    public String get(@NotNull String key) {
+        return this.jedis.get(key);
+    }
+
+    @Override
+    public byte[] get(@NotNull byte[] key) {
+        return this.jedis.get(key);
+    }
+
+    @Override
+    public List<String> mget(@NotNull String... keys) {
+        return this.jedis.mget(keys);
+    }
+
+    @Override
+    public List<byte[]> mget(@NotNull byte[]... keys) {
+        return this.jedis.mget(keys);
+    }
+
+    @Override
+    public String set(@NotNull String key,
+                      @NotNull String value) {
+        return this.jedis.set(key, value);
+    }
+
+    @Override
+    public String set(@NotNull byte[] key,
+                      @NotNull byte[] value) {
+        return this.jedis.set(key, value);
+    }
+
+    @Override
+    public String psetex(@NotNull String key,
+                         long milliseconds,
+                         @NotNull String value) {
+        return this.jedis.psetex(key, milliseconds, value);
+    }
+
+    @Override
+    public String psetex(@NotNull byte[] key,
+                         long milliseconds,
+                         @NotNull byte[] value) {
+        return this.jedis.psetex(key, milliseconds, value);
+    }
+
+    @Override
+    public long del(@NotNull String key) {
+        return this.jedis.del(key);
+    }
+
+    @Override
+    public long del(@NotNull String... keys) {
+        return this.jedis.del(keys);
+    }
+
+    @Override
+    public long pexpire(@NotNull String key,
+                        long milliseconds) {
+        return this.jedis.pexpire(key, milliseconds);
+    }
+
+    @Override
+    public String hget(@NotNull String key,
+                       @NotNull String field) {
+        return this.jedis.hget(key, field);
+    }
+
+    @Override
+    public byte[] hget(@NotNull byte[] key,
+                       @NotNull byte[] field) {
+        return this.jedis.hget(key, field);
+    }
+
+    @Override
+    public List<String> hmget(@NotNull String key,
+                              @NotNull String... fields) {
+        return this.jedis.hmget(key, fields);
+    }
+
+    @Override
+    public List<byte[]> hmget(@NotNull byte[] key,
+                              @NotNull byte[]... fields) {
+        return this.jedis.hmget(key, fields);
+    }
+
+    @Override
+    public Map<String, String> hgetAll(@NotNull String key) {
+        return this.jedis.hgetAll(key);
+    }
+
+    @Override
+    public Map<byte[], byte[]> hgetAll(@NotNull byte[] key) {
+        return this.jedis.hgetAll(key);
+    }
+
+    @Override
+    public long hset(@NotNull String key,
+                     @NotNull String field,
+                     @NotNull String value) {
+        return this.jedis.hset(key, field, value);
+    }
+
+    @Override
+    public long hset(@NotNull byte[] key,
+                     @NotNull byte[] field,
+                     @NotNull byte[] value) {
+        return this.jedis.hset(key, field, value);
+    }
+
+    @Override
+    public long hset(@NotNull String key,
+                     @NotNull Map<String, String> values) {
+        return this.jedis.hset(key, values);
+    }
+
+    @Override
+    public long hset(@NotNull byte[] key,
+                     @NotNull Map<byte[], byte[]> values) {
+        return this.jedis.hset(key, values);
+    }
+
+    @Override
+    public long hdel(@NotNull String key,
+                     @NotNull String... fields) {
+        return this.jedis.hdel(key, fields);
+    }
+
+    @Override
+    public long hlen(@NotNull String key) {
+        return this.jedis.hlen(key);
+    }
+
+    @Override
+    public Set<String> hkeys(@NotNull String key) {
+        return this.jedis.hkeys(key);
+    }
+
+    @Override
+    public boolean hexists(@NotNull String key,
+                           @NotNull String field) {
+        return this.jedis.hexists(key, field);
+    }
+
+    @Override
+    public long sadd(@NotNull String key,
+                     @NotNull String... members) {
+        return this.jedis.sadd(key, members);
+    }
+
+    @Override
+    public long srem(@NotNull String key,
+                     @NotNull String... members) {
+        return this.jedis.srem(key, members);
+    }
+
+    @Override
+    public Set<String> smembers(@NotNull String key) {
+        return this.jedis.smembers(key);
+    }
+
+    @Override
+    public boolean sismember(@NotNull String key,
+                             @NotNull String member) {
+        return this.jedis.sismember(key, member);
+    }
+
+    @Override
+    public long scard(@NotNull String key) {
+        return this.jedis.scard(key);
+    }
+
+    @Override
+    public long lpush(@NotNull String key,
+                      @NotNull String... members) {
+        return this.jedis.lpush(key, members);
+    }
+
+    @Override
+    public List<String> lrange(@NotNull String key,
+                               long start,
+                               long stop) {
+        return this.jedis.lrange(key, start, stop);
+    }
+
+    @Override
+    public String lindex(@NotNull String key,
+                         long index) {
+        return this.jedis.lindex(key, index);
+    }
+
+    @Override
+    public long llen(@NotNull String key) {
+        return this.jedis.llen(key);
+    }
+
+    @Override
+    public long lrem(@NotNull String key,
+                     long count,
+                     @NotNull String member) {
+        return this.jedis.lrem(key, count, member);
+    }
+
+    @Override
+    public ScanResult<String> scan(@NotNull String cursor,
+                                   @NotNull ScanParams params) {
+        return this.jedis.scan(cursor, params);
+    }
+
+    @Override
+    public ScanResult<Map.Entry<String, String>> hscan(@NotNull String key,
+                                                       @NotNull String cursor,
+                                                       @NotNull ScanParams params) {
+        return this.jedis.hscan(key, cursor, params);
+    }
+
+    @Override
+    public ScanResult<Map.Entry<byte[], byte[]>> hscan(@NotNull byte[] key,
+                                                       @NotNull byte[] cursor,
+                                                       @NotNull ScanParams params) {
+        return this.jedis.hscan(key, cursor, params);
+    }
+
+    @Override
+    public ScanResult<String> sscan(@NotNull String key,
+                                    @NotNull String cursor,
+                                    @NotNull ScanParams params) {
+        return this.jedis.sscan(key, cursor, params);
+    }
+
+    @Override
+    public long publish(@NotNull String channel,
+                        @NotNull String message) {
+        return this.jedis.publish(channel, message);
+    }
+
+    @Override
+    public long publish(@NotNull byte[] channel,
+                        @NotNull byte[] message) {
+        return this.jedis.publish(channel, message);
+    }
+
+    @Override
+    public String scriptLoad(@NotNull String script) {
+        return this.jedis.scriptLoad(script);
+    }
+
+    @Override
+    public Object evalsha(@NotNull String sha,
+                          @NotNull List<String> keys,
+                          @NotNull List<String> args) {
+        return this.jedis.evalsha(sha, keys, args);
+    }
+
+    @Override
+    public Object eval(@NotNull String script,
+                       @NotNull List<String> keys,
+                       @NotNull List<String> args) {
+        return this.jedis.eval(script, keys, args);
+    }
+}
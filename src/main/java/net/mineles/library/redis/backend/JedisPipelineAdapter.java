@@ -0,0 +1,191 @@
+package net.mineles.library.redis.backend;
+
+import org.jetbrains.annotations.NotNull;
+import net.mineles.library.libs.jedis.PipeliningBase;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+final class JedisPipelineAdapter implements RedisPipeline {
+    private final PipeliningBase pipeline;
+
+    JedisPipelineAdapter(@NotNull PipeliningBase pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    @Override
+    public Supplier<Boolean> exists(@NotNull String key) {
+        return this.pipeline.exists(key);
+    }
+
+    @Override
+    public Supplier<String> get(@NotNull String key) {
+        return this.pipeline.get(key);
+    }
+
+    @Override
+    public Supplier<byte[]> get(@NotNull byte[] key) {
+        return this.pipeline.get(key);
+    }
+
+    @Override
+    public Supplier<List<String>> mget(@NotNull String... keys) {
+        return this.pipeline.mget(keys);
+    }
+
+    @Override
+    public Supplier<List<byte[]>> mget(@NotNull byte[]... keys) {
+        return this.pipeline.mget(keys);
+    }
+
+    @Override
+    public Supplier<String> set(@NotNull String key,
+                                @NotNull String value) {
+        return this.pipeline.set(key, value);
+    }
+
+    @Override
+    public Supplier<String> set(@NotNull byte[] key,
+                                @NotNull byte[] value) {
+        return this.pipeline.set(key, value);
+    }
+
+    @Override
+    public Supplier<String> psetex(@NotNull String key,
+                                   long milliseconds,
+                                   @NotNull String value) {
+        return this.pipeline.psetex(key, milliseconds, value);
+    }
+
+    @Override
+    public Supplier<String> psetex(@NotNull byte[] key,
+                                   long milliseconds,
+                                   @NotNull byte[] value) {
+        return this.pipeline.psetex(key, milliseconds, value);
+    }
+
+    @Override
+    public Supplier<Long> del(@NotNull String... keys) {
+        return this.pipeline.del(keys);
+    }
+
+    @Override
+    public Supplier<Long> pexpire(@NotNull String key,
+                                  long milliseconds) {
+        return this.pipeline.pexpire(key, milliseconds);
+    }
+
+    @Override
+    public Supplier<String> hget(@NotNull String key,
+                                 @NotNull String field) {
+        return this.pipeline.hget(key, field);
+    }
+
+    @Override
+    public Supplier<byte[]> hget(@NotNull byte[] key,
+                                 @NotNull byte[] field) {
+        return this.pipeline.hget(key, field);
+    }
+
+    @Override
+    public Supplier<List<String>> hmget(@NotNull String key,
+                                        @NotNull String... fields) {
+        return this.pipeline.hmget(key, fields);
+    }
+
+    @Override
+    public Supplier<List<byte[]>> hmget(@NotNull byte[] key,
+                                        @NotNull byte[]... fields) {
+        return this.pipeline.hmget(key, fields);
+    }
+
+    @Override
+    public Supplier<Map<String, String>> hgetAll(@NotNull String key) {
+        return this.pipeline.hgetAll(key);
+    }
+
+    @Override
+    public Supplier<Map<byte[], byte[]>> hgetAll(@NotNull byte[] key) {
+        return this.pipeline.hgetAll(key);
+    }
+
+    @Override
+    public Supplier<Long> hset(@NotNull String key,
+                               @NotNull String field,
+                               @NotNull String value) {
+        return this.pipeline.hset(key, field, value);
+    }
+
+    @Override
+    public Supplier<Long> hset(@NotNull byte[] key,
+                               @NotNull byte[] field,
+                               @NotNull byte[] value) {
+        return this.pipeline.hset(key, field, value);
+    }
+
+    @Override
+    public Supplier<Long> hset(@NotNull String key,
+                               @NotNull Map<String, String> values) {
+        return this.pipeline.hset(key, values);
+    }
+
+    @Override
+    public Supplier<Long> hset(@NotNull byte[] key,
+                               @NotNull Map<byte[], byte[]> values) {
+        return this.pipeline.hset(key, values);
+    }
+
+    @Override
+    public Supplier<Long> hdel(@NotNull String key,
+                               @NotNull String... fields) {
+        return this.pipeline.hdel(key, fields);
+    }
+
+    @Override
+    public Supplier<Long> hlen(@NotNull String key) {
+        return this.pipeline.hlen(key);
+    }
+
+    @Override
+    public Supplier<Boolean> hexists(@NotNull String key,
+                                     @NotNull String field) {
+        return this.pipeline.hexists(key, field);
+    }
+
+    @Override
+    public Supplier<Long> sadd(@NotNull String key,
+                               @NotNull String... members) {
+        return this.pipeline.sadd(key, members);
+    }
+
+    @Override
+    public Supplier<Long> srem(@NotNull String key,
+                               @NotNull String... members) {
+        return this.pipeline.srem(key, members);
+    }
+
+    @Override
+    public Supplier<Set<String>> smembers(@NotNull String key) {
+        return this.pipeline.smembers(key);
+    }
+
+    @Override
+    public Supplier<Boolean> sismember(@NotNull String key,
+                                       @NotNull String member) {
+        return this.pipeline.sismember(key, member);
+    }
+
+    @Override
+    public Supplier<Long> scard(@NotNull String key) {
+        return this.pipeline.scard(key);
+    }
+
+    @Override
+    public Supplier<List<String>> lrange(@NotNull String key,
+                                         long start,
+                                         long stop) {
+        return this.pipeline.lrange(key, start, stop);
+    }
+}
@@ -0,0 +1,162 @@
+package net.mineles.library.redis.backend;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkState;
+
+public final class MemoryBackend implements RedisBackend {
+    private static final long SWEEP_INTERVAL = 1000L;
+
+    private final Object lock;
+    private final MemoryCommands commands;
+    private final Map<String, Set<Subscriber>> channels;
+    private final Map<String, Set<Subscriber>> patterns;
+    private final ExecutorService delivery;
+
+    private long nextSweep;
+    private volatile boolean closed;
+
+    public MemoryBackend(@NotNull String executorName) {
+        this.lock = new Object();
+        this.commands = new MemoryCommands(this);
+        this.channels = Maps.newConcurrentMap();
+        this.patterns = Maps.newConcurrentMap();
+        this.delivery = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat(executorName + "-redis-local-%d")
+                .setDaemon(true)
+                .build());
+    }
+
+    // The whole action runs under a single lock, which makes any sequence of
+    // commands atomic the same way a Lua script is on a real server.
+    @Override
+    public <T> T execute(@NotNull Function<RedisCommands, T> action) {
+        synchronized (this.lock) {
+            checkState(!this.closed, "Backend is closed");
+
+            long now = System.currentTimeMillis();
+            if (now >= this.nextSweep) {
+                this.commands.removeExpired(now);
+                this.nextSweep = now + SWEEP_INTERVAL;
+            }
+
+            return action.apply(this.commands);
+        }
+    }
+
+    @Override
+    public <T> T pipelined(@NotNull Function<RedisPipeline, T> action) {
+        return action.apply(new MemoryPipeline(this));
+    }
+
+    @Override
+    public boolean isScriptingSupported() {
+        return false;
+    }
+
+    @Override
+    public boolean isClosed() {
+        return this.closed;
+    }
+
+    @Override
+    public void close() {
+        synchronized (this.lock) {
+            this.closed = true;
+            this.commands.clear();
+        }
+
+        this.channels.clear();
+        this.patterns.clear();
+        this.delivery.shutdown();
+    }
+
+    public void subscribe(@NotNull String channel,
+                          @NotNull Subscriber subscriber) {
+        this.channels.computeIfAbsent(channel, key -> Sets.newCopyOnWriteArraySet()).add(subscriber);
+    }
+
+    public void unsubscribe(@NotNull String channel,
+                            @NotNull Subscriber subscriber) {
+        remove(this.channels, channel, subscriber);
+    }
+
+    public void psubscribe(@NotNull String pattern,
+                           @NotNull Subscriber subscriber) {
+        this.patterns.computeIfAbsent(pattern, key -> Sets.newCopyOnWriteArraySet()).add(subscriber);
+    }
+
+    public void punsubscribe(@NotNull String pattern,
+                             @NotNull Subscriber subscriber) {
+        remove(this.patterns, pattern, subscriber);
+    }
+
+    public int getKeyCount() {
+        synchronized (this.lock) {
+            return this.commands.size();
+        }
+    }
+
+    long publish(@NotNull String channel,
+                 @NotNull byte[] message) {
+        List<Runnable> deliveries = Lists.newArrayList();
+
+        Set<Subscriber> subscribers = this.channels.get(channel);
+        if (subscribers != null) {
+            subscribers.forEach(subscriber -> deliveries.add(() -> subscriber.onMessage(null, channel, message)));
+        }
+
+        for (Map.Entry<String, Set<Subscriber>> entry : this.patterns.entrySet()) {
+            if (GlobMatcher.matches(entry.getKey(), channel)) {
+                entry.getValue().forEach(subscriber -> deliveries.add(() -> subscriber.onMessage(entry.getKey(), channel, message)));
+            }
+        }
+
+        if (deliveries.isEmpty() || this.closed) {
+            return 0;
+        }
+
+        // Listeners run on a separate thread, in publish order, as they do
+        // behind a real subscriber connection. Running them inline would also
+        // hold the backend lock for as long as the listener takes.
+        this.delivery.execute(() -> {
+            for (Runnable delivery : deliveries) {
+                try {
+                    delivery.run();
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        });
+        return deliveries.size();
+    }
+
+    private static void remove(@NotNull Map<String, Set<Subscriber>> subscriptions,
+                               @NotNull String name,
+                               @NotNull Subscriber subscriber) {
+        subscriptions.computeIfPresent(name, (key, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+    }
+
+    @FunctionalInterface
+    public interface Subscriber {
+
+        void onMessage(@Nullable String pattern,
+                       @NotNull String channel,
+                       @NotNull byte[] message);
+    }
+}
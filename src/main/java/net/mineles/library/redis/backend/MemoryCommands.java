@@ -0,0 +1,627 @@
+package net.mineles.library.redis.backend;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import net.mineles.library.libs.jedis.exceptions.JedisDataException;
+import net.mineles.library.libs.jedis.params.ScanParams;
+import net.mineles.library.libs.jedis.resps.ScanResult;
+import net.mineles.library.libs.jedis.util.SafeEncoder;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+// Every method expects the caller to hold the lock of the owning backend.
+final class MemoryCommands implements RedisCommands {
+    private static final String OK = "OK";
+    private static final String WRONG_TYPE = "WRONGTYPE Operation against a key holding the wrong kind of value";
+
+    private final MemoryBackend backend;
+    private final Map<String, Entry> entries;
+
+    MemoryCommands(@NotNull MemoryBackend backend) {
+        this.backend = backend;
+        this.entries = Maps.newHashMap();
+    }
+
+    @Override
+    public boolean exists(@NotNull String key) {
+        return getEntry(key) != null;
+    }
+
+    @Override
+    public String get(@NotNull String key) {
+        byte[] value = read(key, byte[].class);
+        return value == null ? null : SafeEncoder.encode(value);
+    }
+
+    @Override
+    public byte[] get(@NotNull byte[] key) {
+        byte[] value = read(SafeEncoder.encode(key), byte[].class);
+        return value == null ? null : value.clone();
+    }
+
+    @Override
+    public List<String> mget(@NotNull String... keys) {
+        List<String> values = Lists.newArrayListWithCapacity(keys.length);
+        for (String key : keys) {
+            byte[] value = getIfString(key);
+            values.add(value == null ? null : SafeEncoder.encode(value));
+        }
+
+        return values;
+    }
+
+    @Override
+    public List<byte[]> mget(@NotNull byte[]... keys) {
+        List<byte[]> values = Lists.newArrayListWithCapacity(keys.length);
+        for (byte[] key : keys) {
+            byte[] value = getIfString(SafeEncoder.encode(key));
+            values.add(value == null ? null : value.clone());
+        }
+
+        return values;
+    }
+
+    @Override
+    public String set(@NotNull String key,
+                      @NotNull String value) {
+        this.entries.put(key, new Entry(SafeEncoder.encode(value), 0L));
+        return OK;
+    }
+
+    @Override
+    public String set(@NotNull byte[] key,
+                      @NotNull byte[] value) {
+        this.entries.put(SafeEncoder.encode(key), new Entry(value.clone(), 0L));
+        return OK;
+    }
+
+    @Override
+    public String psetex(@NotNull String key,
+                         long milliseconds,
+                         @NotNull String value) {
+        return psetex(SafeEncoder.encode(key), milliseconds, SafeEncoder.encode(value));
+    }
+
+    @Override
+    public String psetex(@NotNull byte[] key,
+                         long milliseconds,
+                         @NotNull byte[] value) {
+        if (milliseconds <= 0) {
+            throw new JedisDataException("ERR invalid expire time in 'psetex' command");
+        }
+
+        this.entries.put(SafeEncoder.encode(key), new Entry(value.clone(), System.currentTimeMillis() + milliseconds));
+        return OK;
+    }
+
+    @Override
+    public long del(@NotNull String key) {
+        return getEntry(key) != null && this.entries.remove(key) != null ? 1 : 0;
+    }
+
+    @Override
+    public long del(@NotNull String... keys) {
+        long removed = 0;
+        for (String key : keys) {
+            removed += del(key);
+        }
+
+        return removed;
+    }
+
+    @Override
+    public long pexpire(@NotNull String key,
+                        long milliseconds) {
+        Entry entry = getEntry(key);
+        if (entry == null) {
+            return 0;
+        }
+
+        if (milliseconds <= 0) {
+            this.entries.remove(key);
+        } else {
+            entry.expiresAt = System.currentTimeMillis() + milliseconds;
+        }
+
+        return 1;
+    }
+
+    @Override
+    public String hget(@NotNull String key,
+                       @NotNull String field) {
+        Map<String, byte[]> hash = readHash(key);
+        byte[] value = hash == null ? null : hash.get(field);
+        return value == null ? null : SafeEncoder.encode(value);
+    }
+
+    @Override
+    public byte[] hget(@NotNull byte[] key,
+                       @NotNull byte[] field) {
+        Map<String, byte[]> hash = readHash(SafeEncoder.encode(key));
+        byte[] value = hash == null ? null : hash.get(SafeEncoder.encode(field));
+        return value == null ? null : value.clone();
+    }
+
+    @Override
+    public List<String> hmget(@NotNull String key,
+                              @NotNull String... fields) {
+        List<String> values = Lists.newArrayListWithCapacity(fields.length);
+        for (String field : fields) {
+            values.add(hget(key, field));
+        }
+
+        return values;
+    }
+
+    @Override
+    public List<byte[]> hmget(@NotNull byte[] key,
+                              @NotNull byte[]... fields) {
+        List<byte[]> values = Lists.newArrayListWithCapacity(fields.length);
+        for (byte[] field : fields) {
+            values.add(hget(key, field));
+        }
+
+        return values;
+    }
+
+    @Override
+    public Map<String, String> hgetAll(@NotNull String key) {
+        Map<String, byte[]> hash = readHash(key);
+        if (hash == null) {
+            return Maps.newHashMap();
+        }
+
+        Map<String, String> values = Maps.newHashMapWithExpectedSize(hash.size());
+        hash.forEach((field, value) -> values.put(field, SafeEncoder.encode(value)));
+        return values;
+    }
+
+    @Override
+    public Map<byte[], byte[]> hgetAll(@NotNull byte[] key) {
+        Map<String, byte[]> hash = readHash(SafeEncoder.encode(key));
+        if (hash == null) {
+            return Maps.newHashMap();
+        }
+
+        Map<byte[], byte[]> values = Maps.newLinkedHashMap();
+        hash.forEach((field, value) -> values.put(SafeEncoder.encode(field), value.clone()));
+        return values;
+    }
+
+    @Override
+    public long hset(@NotNull String key,
+                     @NotNull String field,
+                     @NotNull String value) {
+        return writeHash(key).put(field, SafeEncoder.encode(value)) == null ? 1 : 0;
+    }
+
+    @Override
+    public long hset(@NotNull byte[] key,
+                     @NotNull byte[] field,
+                     @NotNull byte[] value) {
+        return writeHash(SafeEncoder.encode(key)).put(SafeEncoder.encode(field), value.clone()) == null ? 1 : 0;
+    }
+
+    @Override
+    public long hset(@NotNull String key,
+                     @NotNull Map<String, String> values) {
+        Map<String, byte[]> hash = writeHash(key);
+        long added = 0;
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            if (hash.put(entry.getKey(), SafeEncoder.encode(entry.getValue())) == null) {
+                added++;
+            }
+        }
+
+        return added;
+    }
+
+    @Override
+    public long hset(@NotNull byte[] key,
+                     @NotNull Map<byte[], byte[]> values) {
+        Map<String, byte[]> hash = writeHash(SafeEncoder.encode(key));
+        long added = 0;
+        for (Map.Entry<byte[], byte[]> entry : values.entrySet()) {
+            if (hash.put(SafeEncoder.encode(entry.getKey()), entry.getValue().clone()) == null) {
+                added++;
+            }
+        }
+
+        return added;
+    }
+
+    @Override
+    public long hdel(@NotNull String key,
+                     @NotNull String... fields) {
+        Map<String, byte[]> hash = readHash(key);
+        if (hash == null) {
+            return 0;
+        }
+
+        long removed = 0;
+        for (String field : fields) {
+            if (hash.remove(field) != null) {
+                removed++;
+            }
+        }
+
+        removeIfEmpty(key, hash.isEmpty());
+        return removed;
+    }
+
+    @Override
+    public long hlen(@NotNull String key) {
+        Map<String, byte[]> hash = readHash(key);
+        return hash == null ? 0 : hash.size();
+    }
+
+    @Override
+    public Set<String> hkeys(@NotNull String key) {
+        Map<String, byte[]> hash = readHash(key);
+        return hash == null ? Sets.newHashSet() : Sets.newHashSet(hash.keySet());
+    }
+
+    @Override
+    public boolean hexists(@NotNull String key,
+                           @NotNull String field) {
+        Map<String, byte[]> hash = readHash(key);
+        return hash != null && hash.containsKey(field);
+    }
+
+    @Override
+    public long sadd(@NotNull String key,
+                     @NotNull String... members) {
+        Set<String> set = writeSet(key);
+        long added = 0;
+        for (String member : members) {
+            if (set.add(member)) {
+                added++;
+            }
+        }
+
+        return added;
+    }
+
+    @Override
+    public long srem(@NotNull String key,
+                     @NotNull String... members) {
+        Set<String> set = readSet(key);
+        if (set == null) {
+            return 0;
+        }
+
+        long removed = 0;
+        for (String member : members) {
+            if (set.remove(member)) {
+                removed++;
+            }
+        }
+
+        removeIfEmpty(key, set.isEmpty());
+        return removed;
+    }
+
+    @Override
+    public Set<String> smembers(@NotNull String key) {
+        Set<String> set = readSet(key);
+        return set == null ? Sets.newHashSet() : Sets.newHashSet(set);
+    }
+
+    @Override
+    public boolean sismember(@NotNull String key,
+                             @NotNull String member) {
+        Set<String> set = readSet(key);
+        return set != null && set.contains(member);
+    }
+
+    @Override
+    public long scard(@NotNull String key) {
+        Set<String> set = readSet(key);
+        return set == null ? 0 : set.size();
+    }
+
+    @Override
+    public long lpush(@NotNull String key,
+                      @NotNull String... members) {
+        List<String> list = writeList(key);
+        for (String member : members) {
+            list.add(0, member);
+        }
+
+        return list.size();
+    }
+
+    @Override
+    public List<String> lrange(@NotNull String key,
+                               long start,
+                               long stop) {
+        List<String> list = readList(key);
+        if (list == null) {
+            return Lists.newArrayList();
+        }
+
+        int size = list.size();
+        long from = start < 0 ? Math.max(size + start, 0) : start;
+        long to = stop < 0 ? size + stop : Math.min(stop, size - 1);
+        if (from > to || from >= size) {
+            return Lists.newArrayList();
+        }
+
+        return Lists.newArrayList(list.subList((int) from, (int) to + 1));
+    }
+
+    @Override
+    public String lindex(@NotNull String key,
+                         long index) {
+        List<String> list = readList(key);
+        if (list == null) {
+            return null;
+        }
+
+        long position = index < 0 ? list.size() + index : index;
+        return position < 0 || position >= list.size() ? null : list.get((int) position);
+    }
+
+    @Override
+    public long llen(@NotNull String key) {
+        List<String> list = readList(key);
+        return list == null ? 0 : list.size();
+    }
+
+    @Override
+    public long lrem(@NotNull String key,
+                     long count,
+                     @NotNull String member) {
+        List<String> list = readList(key);
+        if (list == null) {
+            return 0;
+        }
+
+        long limit = count == 0 ? Long.MAX_VALUE : Math.abs(count);
+        long removed = 0;
+        if (count >= 0) {
+            Iterator<String> iterator = list.iterator();
+            while (removed < limit && iterator.hasNext()) {
+                if (iterator.next().equals(member)) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        } else {
+            ListIterator<String> iterator = list.listIterator(list.size());
+            while (removed < limit && iterator.hasPrevious()) {
+                if (iterator.previous().equals(member)) {
+                    iterator.remove();
+                    removed++;
+                }
+            }
+        }
+
+        removeIfEmpty(key, list.isEmpty());
+        return removed;
+    }
+
+    // The whole keyspace is local, so every scan completes in a single page.
+    // COUNT is only a hint in Redis as well.
+    @Override
+    public ScanResult<String> scan(@NotNull String cursor,
+                                   @NotNull ScanParams params) {
+        List<String> keys = Lists.newArrayList();
+        for (String key : Lists.newArrayList(this.entries.keySet())) {
+            if (getEntry(key) != null && matches(params, key)) {
+                keys.add(key);
+            }
+        }
+
+        return new ScanResult<>(ScanParams.SCAN_POINTER_START, keys);
+    }
+
+    @Override
+    public ScanResult<Map.Entry<String, String>> hscan(@NotNull String key,
+                                                       @NotNull String cursor,
+                                                       @NotNull ScanParams params) {
+        List<Map.Entry<String, String>> fields = Lists.newArrayList();
+        Map<String, byte[]> hash = readHash(key);
+        if (hash != null) {
+            hash.forEach((field, value) -> {
+                if (matches(params, field)) {
+                    fields.add(Map.entry(field, SafeEncoder.encode(value)));
+                }
+            });
+        }
+
+        return new ScanResult<>(ScanParams.SCAN_POINTER_START, fields);
+    }
+
+    @Override
+    public ScanResult<Map.Entry<byte[], byte[]>> hscan(@NotNull byte[] key,
+                                                       @NotNull byte[] cursor,
+                                                       @NotNull ScanParams params) {
+        List<Map.Entry<byte[], byte[]>> fields = Lists.newArrayList();
+        Map<String, byte[]> hash = readHash(SafeEncoder.encode(key));
+        if (hash != null) {
+            hash.forEach((field, value) -> {
+                if (matches(params, field)) {
+                    fields.add(Map.entry(SafeEncoder.encode(field), value.clone()));
+                }
+            });
+        }
+
+        return new ScanResult<>(ScanParams.SCAN_POINTER_START_BINARY, fields);
+    }
+
+    @Override
+    public ScanResult<String> sscan(@NotNull String key,
+                                    @NotNull String cursor,
+                                    @NotNull ScanParams params) {
+        List<String> members = Lists.newArrayList();
+        Set<String> set = readSet(key);
+        if (set != null) {
+            for (String member : set) {
+                if (matches(params, member)) {
+                    members.add(member);
+                }
+            }
+        }
+
+        return new ScanResult<>(ScanParams.SCAN_POINTER_START, members);
+    }
+
+    @Override
+    public long publish(@NotNull String channel,
+                        @NotNull String message) {
+        return this.backend.publish(channel, SafeEncoder.encode(message));
+    }
+
+    @Override
+    public long publish(@NotNull byte[] channel,
+                        @NotNull byte[] message) {
+        return this.backend.publish(SafeEncoder.encode(channel), message.clone());
+    }
+
+    @Override
+    public String scriptLoad(@NotNull String script) {
+        throw new UnsupportedOperationException("Lua scripting is not supported by the in-memory backend");
+    }
+
+    @Override
+    public Object evalsha(@NotNull String sha,
+                          @NotNull List<String> keys,
+                          @NotNull List<String> args) {
+        throw new UnsupportedOperationException("Lua scripting is not supported by the in-memory backend");
+    }
+
+    @Override
+    public Object eval(@NotNull String script,
+                       @NotNull List<String> keys,
+                       @NotNull List<String> args) {
+        throw new UnsupportedOperationException("Lua scripting is not supported by the in-memory backend");
+    }
+
+    int size() {
+        return this.entries.size();
+    }
+
+    void clear() {
+        this.entries.clear();
+    }
+
+    void removeExpired(long now) {
+        this.entries.values().removeIf(entry -> entry.isExpired(now));
+    }
+
+    private @Nullable Entry getEntry(@NotNull String key) {
+        Entry entry = this.entries.get(key);
+        if (entry == null) {
+            return null;
+        }
+
+        if (entry.isExpired(System.currentTimeMillis())) {
+            this.entries.remove(key);
+            return null;
+        }
+
+        return entry;
+    }
+
+    private @Nullable byte[] getIfString(@NotNull String key) {
+        // MGET answers nil for keys holding other types instead of failing.
+        Entry entry = getEntry(key);
+        return entry != null && entry.value instanceof byte[] value ? value : null;
+    }
+
+    private <T> @Nullable T read(@NotNull String key,
+                                 @NotNull Class<T> type) {
+        Entry entry = getEntry(key);
+        if (entry == null) {
+            return null;
+        }
+
+        if (!type.isInstance(entry.value)) {
+            throw new JedisDataException(WRONG_TYPE);
+        }
+
+        return type.cast(entry.value);
+    }
+
+    private <T> @NotNull T write(@NotNull String key,
+                                 @NotNull Class<T> type,
+                                 @NotNull Supplier<T> factory) {
+        T value = read(key, type);
+        if (value == null) {
+            value = factory.get();
+            this.entries.put(key, new Entry(value, 0L));
+        }
+
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable Map<String, byte[]> readHash(@NotNull String key) {
+        return read(key, Map.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private @NotNull Map<String, byte[]> writeHash(@NotNull String key) {
+        return write(key, Map.class, Maps::newLinkedHashMap);
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable Set<String> readSet(@NotNull String key) {
+        return read(key, Set.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private @NotNull Set<String> writeSet(@NotNull String key) {
+        return write(key, Set.class, Sets::newLinkedHashSet);
+    }
+
+    @SuppressWarnings("unchecked")
+    private @Nullable List<String> readList(@NotNull String key) {
+        return read(key, List.class);
+    }
+
+    @SuppressWarnings("unchecked")
+    private @NotNull List<String> writeList(@NotNull String key) {
+        return write(key, List.class, Lists::newArrayList);
+    }
+
+    private void removeIfEmpty(@NotNull String key,
+                               boolean empty) {
+        // Redis never keeps empty aggregates around, EXISTS must see them
+        // as gone.
+        if (empty) {
+            this.entries.remove(key);
+        }
+    }
+
+    private static boolean matches(@NotNull ScanParams params,
+                                   @NotNull String value) {
+        String pattern = params.match();
+        return pattern == null || GlobMatcher.matches(pattern, value);
+    }
+
+    private static final class Entry {
+        private final Object value;
+
+        private long expiresAt;
+
+        private Entry(@NotNull Object value,
+                      long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return this.expiresAt > 0 && this.expiresAt <= now;
+        }
+    }
+}
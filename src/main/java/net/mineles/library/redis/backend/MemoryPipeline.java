@@ -0,0 +1,204 @@
+package net.mineles.library.redis.backend;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+final class MemoryPipeline implements RedisPipeline {
+    private final MemoryBackend backend;
+
+    MemoryPipeline(@NotNull MemoryBackend backend) {
+        this.backend = backend;
+    }
+
+    @Override
+    public Supplier<Boolean> exists(@NotNull String key) {
+        return call(commands -> commands.exists(key));
+    }
+
+    @Override
+    public Supplier<String> get(@NotNull String key) {
+        return call(commands -> commands.get(key));
+    }
+
+    @Override
+    public Supplier<byte[]> get(@NotNull byte[] key) {
+        return call(commands -> commands.get(key));
+    }
+
+    @Override
+    public Supplier<List<String>> mget(@NotNull String... keys) {
+        return call(commands -> commands.mget(keys));
+    }
+
+    @Override
+    public Supplier<List<byte[]>> mget(@NotNull byte[]... keys) {
+        return call(commands -> commands.mget(keys));
+    }
+
+    @Override
+    public Supplier<String> set(@NotNull String key,
+                                @NotNull String value) {
+        return call(commands -> commands.set(key, value));
+    }
+
+    @Override
+    public Supplier<String> set(@NotNull byte[] key,
+                                @NotNull byte[] value) {
+        return call(commands -> commands.set(key, value));
+    }
+
+    @Override
+    public Supplier<String> psetex(@NotNull String key,
+                                   long milliseconds,
+                                   @NotNull String value) {
+        return call(commands -> commands.psetex(key, milliseconds, value));
+    }
+
+    @Override
+    public Supplier<String> psetex(@NotNull byte[] key,
+                                   long milliseconds,
+                                   @NotNull byte[] value) {
+        return call(commands -> commands.psetex(key, milliseconds, value));
+    }
+
+    @Override
+    public Supplier<Long> del(@NotNull String... keys) {
+        return call(commands -> commands.del(keys));
+    }
+
+    @Override
+    public Supplier<Long> pexpire(@NotNull String key,
+                                  long milliseconds) {
+        return call(commands -> commands.pexpire(key, milliseconds));
+    }
+
+    @Override
+    public Supplier<String> hget(@NotNull String key,
+                                 @NotNull String field) {
+        return call(commands -> commands.hget(key, field));
+    }
+
+    @Override
+    public Supplier<byte[]> hget(@NotNull byte[] key,
+                                 @NotNull byte[] field) {
+        return call(commands -> commands.hget(key, field));
+    }
+
+    @Override
+    public Supplier<List<String>> hmget(@NotNull String key,
+                                        @NotNull String... fields) {
+        return call(commands -> commands.hmget(key, fields));
+    }
+
+    @Override
+    public Supplier<List<byte[]>> hmget(@NotNull byte[] key,
+                                        @NotNull byte[]... fields) {
+        return call(commands -> commands.hmget(key, fields));
+    }
+
+    @Override
+    public Supplier<Map<String, String>> hgetAll(@NotNull String key) {
+        return call(commands -> commands.hgetAll(key));
+    }
+
+    @Override
+    public Supplier<Map<byte[], byte[]>> hgetAll(@NotNull byte[] key) {
+        return call(commands -> commands.hgetAll(key));
+    }
+
+    @Override
+    public Supplier<Long> hset(@NotNull String key,
+                               @NotNull String field,
+                               @NotNull String value) {
+        return call(commands -> commands.hset(key, field, value));
+    }
+
+    @Override
+    public Supplier<Long> hset(@NotNull byte[] key,
+                               @NotNull byte[] field,
+                               @NotNull byte[] value) {
+        return call(commands -> commands.hset(key, field, value));
+    }
+
+    @Override
+    public Supplier<Long> hset(@NotNull String key,
+                               @NotNull Map<String, String> values) {
+        return call(commands -> commands.hset(key, values));
+    }
+
+    @Override
+    public Supplier<Long> hset(@NotNull byte[] key,
+                               @NotNull Map<byte[], byte[]> values) {
+        return call(commands -> commands.hset(key, values));
+    }
+
+    @Override
+    public Supplier<Long> hdel(@NotNull String key,
+                               @NotNull String... fields) {
+        return call(commands -> commands.hdel(key, fields));
+    }
+
+    @Override
+    public Supplier<Long> hlen(@NotNull String key) {
+        return call(commands -> commands.hlen(key));
+    }
+
+    @Override
+    public Supplier<Boolean> hexists(@NotNull String key,
+                                     @NotNull String field) {
+        return call(commands -> commands.hexists(key, field));
+    }
+
+    @Override
+    public Supplier<Long> sadd(@NotNull String key,
+                               @NotNull String... members) {
+        return call(commands -> commands.sadd(key, members));
+    }
+
+    @Override
+    public Supplier<Long> srem(@NotNull String key,
+                               @NotNull String... members) {
+        return call(commands -> commands.srem(key, members));
+    }
+
+    @Override
+    public Supplier<Set<String>> smembers(@NotNull String key) {
+        return call(commands -> commands.smembers(key));
+    }
+
+    @Override
+    public Supplier<Boolean> sismember(@NotNull String key,
+                                       @NotNull String member) {
+        return call(commands -> commands.sismember(key, member));
+    }
+
+    @Override
+    public Supplier<Long> scard(@NotNull String key) {
+        return call(commands -> commands.scard(key));
+    }
+
+    @Override
+    public Supplier<List<String>> lrange(@NotNull String key,
+                                         long start,
+                                         long stop) {
+        return call(commands -> commands.lrange(key, start, stop));
+    }
+
+    private <T> @NotNull Supplier<T> call(@NotNull Function<RedisCommands, T> command) {
+        // Commands run as they are queued, but errors are only raised when
+        // the response is read, the same way a Jedis pipeline reports them.
+        try {
+            T value = this.backend.execute(command);
+            return () -> value;
+        } catch (RuntimeException e) {
+            return () -> {
+                throw e;
+            };
+        }
+    }
+}
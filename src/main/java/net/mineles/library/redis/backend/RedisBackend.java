@@ -0,0 +1,18 @@
+package net.mineles.library.redis.backend;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Function;
+
+public interface RedisBackend {
+
+    <T> T execute(@NotNull Function<RedisCommands, T> action);
+
+    <T> T pipelined(@NotNull Function<RedisPipeline, T> action);
+
+    boolean isScriptingSupported();
+
+    boolean isClosed();
+
+    void close();
+}
@@ -0,0 +1,102 @@
+package net.mineles.library.redis.backend;
+
+import org.jetbrains.annotations.NotNull;
+import net.mineles.library.libs.jedis.params.ScanParams;
+import net.mineles.library.libs.jedis.resps.ScanResult;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface RedisCommands {
+
+    boolean exists(@NotNull String key);
+
+    String get(@NotNull String key);
+
+    byte[] get(@NotNull byte[] key);
+
+    List<String> mget(@NotNull String... keys);
+
+    List<byte[]> mget(@NotNull byte[]... keys);
+
+    String set(@NotNull String key, @NotNull String value);
+
+    String set(@NotNull byte[] key, @NotNull byte[] value);
+
+    String psetex(@NotNull String key, long milliseconds, @NotNull String value);
+
+    String psetex(@NotNull byte[] key, long milliseconds, @NotNull byte[] value);
+
+    long del(@NotNull String key);
+
+    long del(@NotNull String... keys);
+
+    long pexpire(@NotNull String key, long milliseconds);
+
+    String hget(@NotNull String key, @NotNull String field);
+
+    byte[] hget(@NotNull byte[] key, @NotNull byte[] field);
+
+    List<String> hmget(@NotNull String key, @NotNull String... fields);
+
+    List<byte[]> hmget(@NotNull byte[] key, @NotNull byte[]... fields);
+
+    Map<String, String> hgetAll(@NotNull String key);
+
+    Map<byte[], byte[]> hgetAll(@NotNull byte[] key);
+
+    long hset(@NotNull String key, @NotNull String field, @NotNull String value);
+
+    long hset(@NotNull byte[] key, @NotNull byte[] field, @NotNull byte[] value);
+
+    long hset(@NotNull String key, @NotNull Map<String, String> values);
+
+    long hset(@NotNull byte[] key, @NotNull Map<byte[], byte[]> values);
+
+    long hdel(@NotNull String key, @NotNull String... fields);
+
+    long hlen(@NotNull String key);
+
+    Set<String> hkeys(@NotNull String key);
+
+    boolean hexists(@NotNull String key, @NotNull String field);
+
+    long sadd(@NotNull String key, @NotNull String... members);
+
+    long srem(@NotNull String key, @NotNull String... members);
+
+    Set<String> smembers(@NotNull String key);
+
+    boolean sismember(@NotNull String key, @NotNull String member);
+
+    long scard(@NotNull String key);
+
+    long lpush(@NotNull String key, @NotNull String... members);
+
+    List<String> lrange(@NotNull String key, long start, long stop);
+
+    String lindex(@NotNull String key, long index);
+
+    long llen(@NotNull String key);
+
+    long lrem(@NotNull String key, long count, @NotNull String member);
+
+    ScanResult<String> scan(@NotNull String cursor, @NotNull ScanParams params);
+
+    ScanResult<Map.Entry<String, String>> hscan(@NotNull String key, @NotNull String cursor, @NotNull ScanParams params);
+
+    ScanResult<Map.Entry<byte[], byte[]>> hscan(@NotNull byte[] key, @NotNull byte[] cursor, @NotNull ScanParams params);
+
+    ScanResult<String> sscan(@NotNull String key, @NotNull String cursor, @NotNull ScanParams params);
+
+    long publish(@NotNull String channel, @NotNull String message);
+
+    long publish(@NotNull byte[] channel, @NotNull byte[] message);
+
+    String scriptLoad(@NotNull String script);
+
+    Object evalsha(@NotNull String sha, @NotNull List<String> keys, @NotNull List<String> args);
+
+    Object eval(@NotNull String script, @NotNull List<String> keys, @NotNull List<String> args);
+}
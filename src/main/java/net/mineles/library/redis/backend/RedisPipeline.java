@@ -0,0 +1,71 @@
+package net.mineles.library.redis.backend;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+public interface RedisPipeline {
+
+    Supplier<Boolean> exists(@NotNull String key);
+
+    Supplier<String> get(@NotNull String key);
+
+    Supplier<byte[]> get(@NotNull byte[] key);
+
+    Supplier<List<String>> mget(@NotNull String... keys);
+
+    Supplier<List<byte[]>> mget(@NotNull byte[]... keys);
+
+    Supplier<String> set(@NotNull String key, @NotNull String value);
+
+    Supplier<String> set(@NotNull byte[] key, @NotNull byte[] value);
+
+    Supplier<String> psetex(@NotNull String key, long milliseconds, @NotNull String value);
+
+    Supplier<String> psetex(@NotNull byte[] key, long milliseconds, @NotNull byte[] value);
+
+    Supplier<Long> del(@NotNull String... keys);
+
+    Supplier<Long> pexpire(@NotNull String key, long milliseconds);
+
+    Supplier<String> hget(@NotNull String key, @NotNull String field);
+
+    Supplier<byte[]> hget(@NotNull byte[] key, @NotNull byte[] field);
+
+    Supplier<List<String>> hmget(@NotNull String key, @NotNull String... fields);
+
+    Supplier<List<byte[]>> hmget(@NotNull byte[] key, @NotNull byte[]... fields);
+
+    Supplier<Map<String, String>> hgetAll(@NotNull String key);
+
+    Supplier<Map<byte[], byte[]>> hgetAll(@NotNull byte[] key);
+
+    Supplier<Long> hset(@NotNull String key, @NotNull String field, @NotNull String value);
+
+    Supplier<Long> hset(@NotNull byte[] key, @NotNull byte[] field, @NotNull byte[] value);
+
+    Supplier<Long> hset(@NotNull String key, @NotNull Map<String, String> values);
+
+    Supplier<Long> hset(@NotNull byte[] key, @NotNull Map<byte[], byte[]> values);
+
+    Supplier<Long> hdel(@NotNull String key, @NotNull String... fields);
+
+    Supplier<Long> hlen(@NotNull String key);
+
+    Supplier<Boolean> hexists(@NotNull String key, @NotNull String field);
+
+    Supplier<Long> sadd(@NotNull String key, @NotNull String... members);
+
+    Supplier<Long> srem(@NotNull String key, @NotNull String... members);
+
+    Supplier<Set<String>> smembers(@NotNull String key);
+
+    Supplier<Boolean> sismember(@NotNull String key, @NotNull String member);
+
+    Supplier<Long> scard(@NotNull String key);
+
+    Supplier<List<String>> lrange(@NotNull String key, long start, long stop);
+}
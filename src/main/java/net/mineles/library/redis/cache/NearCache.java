@@ -0,0 +1,299 @@
+package net.mineles.library.redis.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.gson.JsonObject;
+import net.mineles.library.redis.RedisCache;
+import net.mineles.library.redis.RedisClient;
+import net.mineles.library.redis.codec.Decoder;
+import net.mineles.library.redis.message.DeliveryListener;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public final class NearCache {
+    private static final String ALL_FIELDS = "\u0000*";
+    private static final int GENERATION_STRIPES = 256;
+
+    private final RedisClient client;
+    private final NearCacheOptions options;
+    private final Cache<CacheKey, Entry> entries;
+    private final AtomicLong generation;
+    private final AtomicLongArray keyGenerations;
+    private final AtomicLongArray fieldGenerations;
+
+    public NearCache(@NotNull RedisClient client, @NotNull NearCacheOptions options) {
+        this.client = client;
+        this.options = options;
+        this.entries = CacheBuilder.newBuilder()
+                .maximumSize(options.maximumSize())
+                .expireAfterWrite(options.ttl().toMillis(), TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+        this.generation = new AtomicLong();
+        this.keyGenerations = new AtomicLongArray(GENERATION_STRIPES);
+        this.fieldGenerations = new AtomicLongArray(GENERATION_STRIPES);
+    }
+
+    public void subscribe() {
+        this.client.subscribe(this.options.channel(), (client, message) -> {
+            String key = message.get("cacheKey").getAsString();
+            if (message.has("field")) {
+                invalidateLocally(key, message.get("field").getAsString());
+            } else {
+                invalidateLocally(key);
+            }
+        });
+
+        // Invalidations lost while the subscriber was down, or skipped by a
+        // gap in a publisher's sequence, leave entries nobody will evict.
+        this.client.addDeliveryListener(new DeliveryListener() {
+            @Override
+            public void onGap(@NotNull String channel, @NotNull String origin, long missed) {
+                if (channel.equals(NearCache.this.options.channel().split(":")[0])) {
+                    invalidateAll();
+                }
+            }
+
+            @Override
+            public void onReconnect(@NotNull Duration downtime) {
+                invalidateAll();
+            }
+        });
+    }
+
+    public <T> @Nullable T getDecoded(@NotNull String key,
+                                      @NotNull Class<T> type) {
+        return getDecoded(key, getDecoder(key, type));
+    }
+
+    public <T> @Nullable T getDecoded(@NotNull String key,
+                                      @NotNull Decoder<T> decoder) {
+        return load(new CacheKey(key, null), decoder, this.options.ttl().toMillis(),
+                () -> getCache().getDecoded(key, decoder));
+    }
+
+    public <T> @Nullable T getDecoded(@NotNull String key,
+                                      @NotNull Decoder<T> decoder,
+                                      long ttl) {
+        return load(new CacheKey(key, null), decoder, ttl, () -> getCache().getDecoded(key, decoder));
+    }
+
+    public <T> @Nullable T hgetDecoded(@NotNull String key,
+                                       @NotNull String field,
+                                       @NotNull Class<T> type) {
+        return hgetDecoded(key, field, getDecoder(key, type));
+    }
+
+    public <T> @Nullable T hgetDecoded(@NotNull String key,
+                                       @NotNull String field,
+                                       @NotNull Decoder<T> decoder) {
+        return hgetDecoded(key, field, decoder, this.options.ttl().toMillis());
+    }
+
+    public <T> @Nullable T hgetDecoded(@NotNull String key,
+                                       @NotNull String field,
+                                       @NotNull Decoder<T> decoder,
+                                       long ttl) {
+        return load(new CacheKey(key, field), decoder, ttl, () -> getCache().hgetDecoded(key, field, decoder));
+    }
+
+    public <T> @NotNull Map<String, T> hgetAllDecoded(@NotNull String key,
+                                                      @NotNull Class<T> type) {
+        return hgetAllDecoded(key, getDecoder(key, type));
+    }
+
+    public <T> @NotNull Map<String, T> hgetAllDecoded(@NotNull String key,
+                                                      @NotNull Decoder<T> decoder) {
+        return hgetAllDecoded(key, decoder, this.options.ttl().toMillis());
+    }
+
+    public <T> @NotNull Map<String, T> hgetAllDecoded(@NotNull String key,
+                                                      @NotNull Decoder<T> decoder,
+                                                      long ttl) {
+        Map<String, T> members = load(new CacheKey(key, ALL_FIELDS), decoder, ttl,
+                () -> Collections.unmodifiableMap(getCache().hgetAllDecoded(key, decoder)));
+        return members == null ? Collections.emptyMap() : members;
+    }
+
+    // For values assembled from more than one key, such as a record and its
+    // member sets. They are evicted with the field they are cached under, so
+    // every key the loader reads must invalidate that field when it changes.
+    public <T> @Nullable T hgetLoaded(@NotNull String key,
+                                      @NotNull String field,
+                                      @NotNull Object owner,
+                                      @NotNull Supplier<T> loader) {
+        return load(new CacheKey(key, field), owner, this.options.ttl().toMillis(), loader);
+    }
+
+    public <T> @NotNull Map<String, T> hgetAllLoaded(@NotNull String key,
+                                                     @NotNull Object owner,
+                                                     @NotNull Supplier<Map<String, T>> loader) {
+        Map<String, T> members = load(new CacheKey(key, ALL_FIELDS), owner, this.options.ttl().toMillis(),
+                () -> Collections.unmodifiableMap(loader.get()));
+        return members == null ? Collections.emptyMap() : members;
+    }
+
+    public <T> void setDecoded(@NotNull String key,
+                               @NotNull T value,
+                               @NotNull Class<T> type) {
+        getCache().setDecoded(key, value, getDecoder(key, type));
+        invalidate(key);
+    }
+
+    public <T> void hsetDecoded(@NotNull String key,
+                                @NotNull String field,
+                                @NotNull T value,
+                                @NotNull Class<T> type) {
+        getCache().hsetDecoded(key, field, value, getDecoder(key, type));
+        invalidate(key, field);
+    }
+
+    public void hdel(@NotNull String key,
+                     @NotNull String... fields) {
+        getCache().hdel(key, fields);
+        for (String field : fields) {
+            invalidate(key, field);
+        }
+    }
+
+    public void delete(@NotNull String key) {
+        getCache().delete(key);
+        invalidate(key);
+    }
+
+    public void invalidate(@NotNull String key) {
+        invalidateLocally(key);
+        publish(this.client, this.options.channel(), key, null);
+    }
+
+    public void invalidate(@NotNull String key,
+                           @NotNull String field) {
+        invalidateLocally(key, field);
+        publish(this.client, this.options.channel(), key, field);
+    }
+
+    // Writers publish invalidations whether or not they keep a near cache
+    // themselves, since other nodes reading the same keys may.
+    public static void publish(@NotNull RedisClient client,
+                               @NotNull String channel,
+                               @NotNull String key,
+                               @Nullable String field) {
+        JsonObject message = new JsonObject();
+        message.addProperty("cacheKey", key);
+        if (field != null) {
+            message.addProperty("field", field);
+        }
+        client.publish(channel, message.toString());
+    }
+
+    public void invalidateAll() {
+        this.generation.incrementAndGet();
+        this.entries.invalidateAll();
+    }
+
+    public long size() {
+        return this.entries.size();
+    }
+
+    public @NotNull CacheStats stats() {
+        return this.entries.stats();
+    }
+
+    public @NotNull NearCacheOptions getOptions() {
+        return this.options;
+    }
+
+    // Evicts without publishing, for callers that announce their writes on
+    // a channel of their own.
+    public void invalidateLocally(@NotNull String key) {
+        this.keyGenerations.incrementAndGet(keyStripe(key));
+        this.entries.asMap().keySet().removeIf(cacheKey -> cacheKey.key().equals(key));
+    }
+
+    public void invalidateLocally(@NotNull String key,
+                                  @NotNull String field) {
+        CacheKey cacheKey = new CacheKey(key, field);
+        CacheKey allFields = new CacheKey(key, ALL_FIELDS);
+        this.fieldGenerations.incrementAndGet(fieldStripe(cacheKey));
+        this.fieldGenerations.incrementAndGet(fieldStripe(allFields));
+        this.entries.invalidate(cacheKey);
+        this.entries.invalidate(allFields);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> @Nullable T load(@NotNull CacheKey cacheKey,
+                                 @NotNull Object owner,
+                                 long ttl,
+                                 @NotNull Supplier<T> loader) {
+        Entry entry = this.entries.getIfPresent(cacheKey);
+        if (entry != null && entry.owner() == owner && !entry.isExpired()) {
+            return (T) entry.value();
+        }
+
+        // Only publish the loaded value if no invalidation of the same key or
+        // field raced with the fetch, otherwise we could pin a value that is
+        // already stale. Generations are striped, so a collision at worst
+        // skips caching one load.
+        Generation generation = generation(cacheKey);
+        T value = loader.get();
+        if (value != null && generation.equals(generation(cacheKey))) {
+            this.entries.put(cacheKey, new Entry(value, owner, System.currentTimeMillis() + ttl));
+            if (!generation.equals(generation(cacheKey))) {
+                this.entries.invalidate(cacheKey);
+            }
+        }
+
+        return value;
+    }
+
+    private @NotNull Generation generation(@NotNull CacheKey cacheKey) {
+        return new Generation(this.generation.get(),
+                this.keyGenerations.get(keyStripe(cacheKey.key())),
+                this.fieldGenerations.get(fieldStripe(cacheKey)));
+    }
+
+    private static int keyStripe(@NotNull String key) {
+        return Math.floorMod(key.hashCode(), GENERATION_STRIPES);
+    }
+
+    private static int fieldStripe(@NotNull CacheKey cacheKey) {
+        return Math.floorMod(cacheKey.hashCode(), GENERATION_STRIPES);
+    }
+
+    private <T> @NotNull Decoder<T> getDecoder(@NotNull String key,
+                                               @NotNull Class<T> type) {
+        Decoder<T> decoder = this.client.getDecoders().getDecoder(type);
+        checkNotNull(decoder, "Decoder for key " + key + " is not registered");
+
+        return decoder;
+    }
+
+    private @NotNull RedisCache getCache() {
+        return this.client.getCache();
+    }
+
+    private record CacheKey(@NotNull String key, @Nullable String field) {
+    }
+
+    private record Generation(long all, long key, long field) {
+    }
+
+    // The owner is the decoder or caller the value was loaded for, so two
+    // readers of the same field never see each other's representation.
+    private record Entry(@NotNull Object value, @NotNull Object owner, long expiresAt) {
+        boolean isExpired() {
+            return System.currentTimeMillis() >= this.expiresAt;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package net.mineles.library.redis.cache;
+
+import org.jetbrains.annotations.NotNull;
+import net.mineles.library.libs.configurate.ConfigurationNode;
+
+import java.time.Duration;
+
+public record NearCacheOptions(long maximumSize,
+                               @NotNull Duration ttl,
+                               @NotNull String channel) {
+    public static final String DEFAULT_CHANNEL = "near-cache:invalidate";
+
+    public static NearCacheOptions fromNode(@NotNull ConfigurationNode node) {
+        return new NearCacheOptions(
+                node.node("maximum-size").getLong(10_000),
+                Duration.ofMillis(node.node("ttl").getLong(30_000)),
+                node.node("channel").getString(DEFAULT_CHANNEL)
+        );
+    }
+
+    public static NearCacheOptions defaults() {
+        return new NearCacheOptions(10_000, Duration.ofSeconds(30), DEFAULT_CHANNEL);
+    }
+}
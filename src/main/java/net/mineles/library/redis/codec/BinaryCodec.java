@@ -0,0 +1,26 @@
+package net.mineles.library.redis.codec;
+
+import net.mineles.library.redis.RedisClient;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+
+public interface BinaryCodec<T> {
+    void write(@NotNull T payload, @NotNull BinaryWriter writer, @NotNull RedisClient redisClient);
+
+    @NotNull T read(@NotNull BinaryReader reader, @NotNull RedisClient redisClient);
+
+    default @NotNull byte[] encode(@NotNull T payload, @NotNull RedisClient redisClient) {
+        BinaryWriter writer = new BinaryWriter();
+        write(payload, writer, redisClient);
+        return writer.toByteArray();
+    }
+
+    default @NotNull T decode(@NotNull byte[] payload, @NotNull RedisClient redisClient) {
+        return read(new BinaryReader(payload), redisClient);
+    }
+
+    default @NotNull T decode(@NotNull ByteBuffer payload, @NotNull RedisClient redisClient) {
+        return read(new BinaryReader(payload), redisClient);
+    }
+}
@@ -0,0 +1,105 @@
+package net.mineles.library.redis.codec;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.UUID;
+
+public final class BinaryReader {
+    private final ByteBuffer buffer;
+
+    public BinaryReader(@NotNull byte[] payload) {
+        this(ByteBuffer.wrap(payload));
+    }
+
+    public BinaryReader(@NotNull ByteBuffer buffer) {
+        this.buffer = buffer.slice();
+    }
+
+    public byte readByte() {
+        return this.buffer.get();
+    }
+
+    public boolean readBoolean() {
+        return this.buffer.get() != 0;
+    }
+
+    public @NotNull byte[] readBytes(int length) {
+        byte[] bytes = new byte[length];
+        this.buffer.get(bytes);
+        return bytes;
+    }
+
+    public @NotNull byte[] readByteArray() {
+        return readBytes(readVarInt());
+    }
+
+    public long readLong() {
+        return this.buffer.getLong();
+    }
+
+    public int readVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte current = this.buffer.get();
+            value |= (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalStateException("VarInt is too long");
+    }
+
+    public long readVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte current = this.buffer.get();
+            value |= (long) (current & 0x7F) << shift;
+            if ((current & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IllegalStateException("VarLong is too long");
+    }
+
+    public @NotNull UUID readUUID() {
+        return new UUID(this.buffer.getLong(), this.buffer.getLong());
+    }
+
+    public <C extends Collection<UUID>> @NotNull C readUUIDs(@NotNull C target) {
+        int size = readVarInt();
+        for (int i = 0; i < size; i++) {
+            target.add(readUUID());
+        }
+        return target;
+    }
+
+    public @NotNull String readString() {
+        int length = readVarInt();
+        if (this.buffer.hasArray()) {
+            int offset = this.buffer.arrayOffset() + this.buffer.position();
+            String value = new String(this.buffer.array(), offset, length, StandardCharsets.UTF_8);
+            this.buffer.position(this.buffer.position() + length);
+            return value;
+        }
+
+        return new String(readBytes(length), StandardCharsets.UTF_8);
+    }
+
+    public @Nullable String readNullableString() {
+        return readBoolean() ? readString() : null;
+    }
+
+    public int remaining() {
+        return this.buffer.remaining();
+    }
+
+    public boolean hasRemaining() {
+        return this.buffer.hasRemaining();
+    }
+}
@@ -0,0 +1,116 @@
+package net.mineles.library.redis.codec;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+
+public final class BinaryWriter {
+    private byte[] buffer;
+    private int position;
+
+    public BinaryWriter() {
+        this(64);
+    }
+
+    public BinaryWriter(int initialCapacity) {
+        this.buffer = new byte[Math.max(initialCapacity, 16)];
+    }
+
+    public @NotNull BinaryWriter writeByte(int value) {
+        ensureCapacity(1);
+        this.buffer[this.position++] = (byte) value;
+        return this;
+    }
+
+    public @NotNull BinaryWriter writeBoolean(boolean value) {
+        return writeByte(value ? 1 : 0);
+    }
+
+    public @NotNull BinaryWriter writeBytes(@NotNull byte[] value) {
+        ensureCapacity(value.length);
+        System.arraycopy(value, 0, this.buffer, this.position, value.length);
+        this.position += value.length;
+        return this;
+    }
+
+    public @NotNull BinaryWriter writeByteArray(@NotNull byte[] value) {
+        writeVarInt(value.length);
+        return writeBytes(value);
+    }
+
+    public @NotNull BinaryWriter writeLong(long value) {
+        ensureCapacity(8);
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            this.buffer[this.position++] = (byte) (value >>> shift);
+        }
+        return this;
+    }
+
+    public @NotNull BinaryWriter writeVarInt(int value) {
+        ensureCapacity(5);
+        while ((value & ~0x7F) != 0) {
+            this.buffer[this.position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.buffer[this.position++] = (byte) value;
+        return this;
+    }
+
+    public @NotNull BinaryWriter writeVarLong(long value) {
+        ensureCapacity(10);
+        while ((value & ~0x7FL) != 0) {
+            this.buffer[this.position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        this.buffer[this.position++] = (byte) value;
+        return this;
+    }
+
+    public @NotNull BinaryWriter writeUUID(@NotNull UUID value) {
+        writeLong(value.getMostSignificantBits());
+        return writeLong(value.getLeastSignificantBits());
+    }
+
+    public @NotNull BinaryWriter writeUUIDs(@NotNull Collection<UUID> values) {
+        writeVarInt(values.size());
+        for (UUID value : values) {
+            writeUUID(value);
+        }
+        return this;
+    }
+
+    public @NotNull BinaryWriter writeString(@NotNull String value) {
+        return writeByteArray(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public @NotNull BinaryWriter writeNullableString(@Nullable String value) {
+        writeBoolean(value != null);
+        if (value != null) {
+            writeString(value);
+        }
+        return this;
+    }
+
+    public int size() {
+        return this.position;
+    }
+
+    public @NotNull byte[] toByteArray() {
+        return Arrays.copyOf(this.buffer, this.position);
+    }
+
+    public @NotNull ByteBuffer toByteBuffer() {
+        return ByteBuffer.wrap(this.buffer, 0, this.position).asReadOnlyBuffer();
+    }
+
+    private void ensureCapacity(int length) {
+        if (this.position + length > this.buffer.length) {
+            this.buffer = Arrays.copyOf(this.buffer, Math.max(this.buffer.length << 1, this.position + length));
+        }
+    }
+}
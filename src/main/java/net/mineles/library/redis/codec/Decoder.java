@@ -1,16 +1,45 @@
 package net.mineles.library.redis.codec;
 
 import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import net.mineles.library.redis.RedisClient;
 import net.mineles.library.utils.GsonProvider;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.io.StringReader;
+
 public interface Decoder<T> {
     default @NotNull T decode(@NotNull String payload, @NotNull RedisClient redisClient) {
-        return decode(GsonProvider.getGson().fromJson(payload, JsonObject.class), redisClient);
+        try (JsonReader reader = new JsonReader(new StringReader(payload))) {
+            reader.setLenient(true);
+            T value = read(reader, redisClient);
+            // Leniency would otherwise let trailing garbage after the first
+            // value through unnoticed.
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new JsonSyntaxException("JSON document was not fully consumed");
+            }
+            return value;
+        } catch (IOException e) {
+            throw new JsonParseException(e);
+        }
     }
 
     @NotNull T decode(@NotNull JsonObject payload, @NotNull RedisClient redisClient);
 
     @NotNull String encode(@NotNull T payload, @NotNull RedisClient redisClient);
+
+    // Decoders that only implement the tree methods still work here; streaming
+    // decoders implement StreamingDecoder to skip the intermediate JsonObject.
+    default @NotNull T read(@NotNull JsonReader reader, @NotNull RedisClient redisClient) throws IOException {
+        return decode(GsonProvider.getGson().<JsonObject>fromJson(reader, JsonObject.class), redisClient);
+    }
+
+    default void write(@NotNull JsonWriter writer, @NotNull T payload, @NotNull RedisClient redisClient) throws IOException {
+        writer.jsonValue(encode(payload, redisClient));
+    }
 }
@@ -18,17 +18,23 @@ public final class DecoderCollection {
     }
 
     private final Map<Class<?>, Decoder<?>> decoders;
+    private final Map<Class<?>, BinaryCodec<?>> binaryCodecs;
 
     public DecoderCollection() {
         this(DecoderCollection.DEFAULTS);
     }
 
     public DecoderCollection(DecoderCollection collection) {
-        this(collection.getDecoders());
+        this(collection.getDecoders(), collection.getBinaryCodecs());
     }
 
     public DecoderCollection(Map<Class<?>, Decoder<?>> decoders) {
+        this(decoders, Maps.newHashMap());
+    }
+
+    public DecoderCollection(Map<Class<?>, Decoder<?>> decoders, Map<Class<?>, BinaryCodec<?>> binaryCodecs) {
         this.decoders = decoders;
+        this.binaryCodecs = binaryCodecs;
     }
 
     public Map<Class<?>, Decoder<?>> getDecoders() {
@@ -56,15 +62,38 @@ public final class DecoderCollection {
         this.decoders.remove(type);
     }
 
+    public Map<Class<?>, BinaryCodec<?>> getBinaryCodecs() {
+        return this.binaryCodecs;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> BinaryCodec<T> getBinaryCodec(@NotNull Class<?> type) {
+        return (BinaryCodec<T>) this.binaryCodecs.get(type);
+    }
+
+    public boolean isBinaryRegistered(@NotNull Class<?> type) {
+        return this.binaryCodecs.containsKey(type);
+    }
+
+    public <T> void registerBinaryCodec(@NotNull Class<T> type, @NotNull BinaryCodec<T> codec) {
+        this.binaryCodecs.put(type, codec);
+    }
+
+    public void unregisterBinaryCodec(@NotNull Class<?> type) {
+        this.binaryCodecs.remove(type);
+    }
+
     public static Builder newBuilder() {
         return new DecoderCollection.Builder();
     }
 
     public static final class Builder {
         private final @NotNull Map<Class<?>, Decoder<?>> decoders;
+        private final @NotNull Map<Class<?>, BinaryCodec<?>> binaryCodecs;
 
         private Builder() {
             this.decoders = Maps.newHashMap();
+            this.binaryCodecs = Maps.newHashMap();
         }
 
         public Builder registerDecoder(@NotNull Class<?> type, @NotNull Decoder<?> decoder) {
@@ -77,8 +106,18 @@ public final class DecoderCollection {
             return this;
         }
 
+        public Builder registerBinaryCodec(@NotNull Class<?> type, @NotNull BinaryCodec<?> codec) {
+            this.binaryCodecs.put(type, codec);
+            return this;
+        }
+
+        public Builder unregisterBinaryCodec(@NotNull Class<?> type) {
+            this.binaryCodecs.remove(type);
+            return this;
+        }
+
         public DecoderCollection build() {
-            return new DecoderCollection(this.decoders);
+            return new DecoderCollection(this.decoders, this.binaryCodecs);
         }
     }
 }
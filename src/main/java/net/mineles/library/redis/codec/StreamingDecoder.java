@@ -0,0 +1,33 @@
+package net.mineles.library.redis.codec;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import net.mineles.library.redis.RedisClient;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+// For decoders that read and write the stream directly. Here encode is
+// derived from write, the reverse of Decoder, so write has no default that
+// could loop back into it.
+public interface StreamingDecoder<T> extends Decoder<T> {
+    @Override
+    @NotNull T read(@NotNull JsonReader reader, @NotNull RedisClient redisClient) throws IOException;
+
+    @Override
+    void write(@NotNull JsonWriter writer, @NotNull T payload, @NotNull RedisClient redisClient) throws IOException;
+
+    @Override
+    default @NotNull String encode(@NotNull T payload, @NotNull RedisClient redisClient) {
+        StringWriter output = new StringWriter();
+        try (JsonWriter writer = new JsonWriter(output)) {
+            write(writer, payload, redisClient);
+        } catch (IOException e) {
+            throw new JsonParseException(e);
+        }
+
+        return output.toString();
+    }
+}
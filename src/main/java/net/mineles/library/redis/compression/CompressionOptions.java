@@ -0,0 +1,57 @@
+package net.mineles.library.redis.compression;
+
+import com.google.common.collect.Sets;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import net.mineles.library.libs.configurate.ConfigurationNode;
+import net.mineles.library.libs.configurate.serialize.SerializationException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public record CompressionOptions(int threshold,
+                                 int level,
+                                 @NotNull Set<String> keys,
+                                 @Nullable byte[] dictionary) {
+    // These hashes are read and rewritten by Lua scripts, which can't
+    // decompress values, so no prefix may cover them.
+    private static final Set<String> SCRIPTED_KEYS = Set.of("servers", "players");
+
+    public CompressionOptions {
+        for (String prefix : keys) {
+            for (String key : SCRIPTED_KEYS) {
+                checkArgument(!key.startsWith(prefix) && !prefix.startsWith(key),
+                        "Compression prefix " + prefix + " covers " + key + " keys, which are modified by scripts");
+            }
+        }
+    }
+
+    public static CompressionOptions fromNode(@NotNull ConfigurationNode node) {
+        String dictionaryFile = node.node("dictionary-file").getString();
+        try {
+            return new CompressionOptions(
+                    node.node("threshold").getInt(1024),
+                    node.node("level").getInt(3),
+                    Sets.newHashSet(node.node("keys").getList(String.class)),
+                    dictionaryFile == null ? null : Files.readAllBytes(Path.of(dictionaryFile))
+            );
+        } catch (SerializationException e) {
+            throw new RuntimeException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static CompressionOptions defaults(@NotNull String... keys) {
+        return new CompressionOptions(1024, 3, Sets.newHashSet(keys), null);
+    }
+
+    public @NotNull CompressionOptions withDictionary(@NotNull byte[] dictionary) {
+        return new CompressionOptions(this.threshold, this.level, this.keys, dictionary);
+    }
+}
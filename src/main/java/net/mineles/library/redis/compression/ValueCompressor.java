@@ -0,0 +1,133 @@
+package net.mineles.library.redis.compression;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import net.mineles.library.redis.codec.BinaryReader;
+import net.mineles.library.redis.codec.BinaryWriter;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class ValueCompressor {
+    private static final byte MARKER = 0x00;
+    private static final byte FORMAT = 'Z';
+    private static final int FLAG_DICTIONARY = 1;
+
+    private final CompressionOptions options;
+    private final ZstdDictCompress dictCompress;
+    private final ZstdDictDecompress dictDecompress;
+    private final LongAdder rawBytes;
+    private final LongAdder storedBytes;
+
+    public ValueCompressor(@NotNull CompressionOptions options) {
+        this.options = options;
+        if (options.dictionary() != null) {
+            this.dictCompress = new ZstdDictCompress(options.dictionary(), options.level());
+            this.dictDecompress = new ZstdDictDecompress(options.dictionary());
+        } else {
+            this.dictCompress = null;
+            this.dictDecompress = null;
+        }
+        this.rawBytes = new LongAdder();
+        this.storedBytes = new LongAdder();
+    }
+
+    public static @NotNull byte[] trainDictionary(@NotNull List<byte[]> samples,
+                                                   int size) {
+        byte[] dictionary = new byte[size];
+        long length = Zstd.trainFromBuffer(samples.toArray(new byte[0][]), dictionary);
+        if (Zstd.isError(length)) {
+            throw new IllegalStateException("Failed to train dictionary: " + Zstd.getErrorName(length));
+        }
+
+        return Arrays.copyOf(dictionary, (int) length);
+    }
+
+    public static boolean isCompressed(@NotNull byte[] value) {
+        return value.length > 3 && value[0] == MARKER && value[1] == FORMAT;
+    }
+
+    public boolean appliesTo(@NotNull String key) {
+        for (String prefix : this.options.keys()) {
+            if (key.startsWith(prefix)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public @NotNull byte[] compress(@NotNull String value) {
+        return compress(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public @NotNull byte[] compress(@NotNull byte[] value) {
+        if (value.length < this.options.threshold()) {
+            return value;
+        }
+
+        byte[] compressed = this.dictCompress == null
+                ? Zstd.compress(value, this.options.level())
+                : Zstd.compress(value, this.dictCompress);
+
+        BinaryWriter writer = new BinaryWriter(compressed.length + 8)
+                .writeByte(MARKER)
+                .writeByte(FORMAT)
+                .writeByte(this.dictCompress == null ? 0 : FLAG_DICTIONARY)
+                .writeVarInt(value.length)
+                .writeBytes(compressed);
+
+        // Incompressible payloads are stored as they are, which also keeps
+        // them readable by clients that never enabled compression.
+        if (writer.size() >= value.length) {
+            return value;
+        }
+
+        this.rawBytes.add(value.length);
+        this.storedBytes.add(writer.size());
+        return writer.toByteArray();
+    }
+
+    public @NotNull byte[] decompress(@NotNull byte[] value) {
+        if (!isCompressed(value)) {
+            return value;
+        }
+
+        BinaryReader reader = new BinaryReader(value);
+        reader.readByte();
+        reader.readByte();
+        int flags = reader.readByte();
+        int length = reader.readVarInt();
+        byte[] compressed = reader.readBytes(reader.remaining());
+
+        if ((flags & FLAG_DICTIONARY) != 0) {
+            if (this.dictDecompress == null) {
+                throw new IllegalStateException("Value was compressed with a dictionary but none is configured");
+            }
+
+            return Zstd.decompress(compressed, this.dictDecompress, length);
+        }
+
+        return Zstd.decompress(compressed, length);
+    }
+
+    public @NotNull String decompressToString(@NotNull byte[] value) {
+        return new String(decompress(value), StandardCharsets.UTF_8);
+    }
+
+    public long getRawBytes() {
+        return this.rawBytes.sum();
+    }
+
+    public long getStoredBytes() {
+        return this.storedBytes.sum();
+    }
+
+    public @NotNull CompressionOptions getOptions() {
+        return this.options;
+    }
+}
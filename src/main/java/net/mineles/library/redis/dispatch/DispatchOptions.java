@@ -0,0 +1,20 @@
+package net.mineles.library.redis.dispatch;
+
+import org.jetbrains.annotations.NotNull;
+import net.mineles.library.libs.configurate.ConfigurationNode;
+
+public record DispatchOptions(int stripes,
+                              int queueCapacity,
+                              @NotNull OverflowPolicy overflowPolicy) {
+    public static DispatchOptions fromNode(@NotNull ConfigurationNode node) {
+        return new DispatchOptions(
+                node.node("stripes").getInt(Runtime.getRuntime().availableProcessors()),
+                node.node("queue-capacity").getInt(1024),
+                OverflowPolicy.valueOf(node.node("overflow-policy").getString(OverflowPolicy.BLOCK.name()).toUpperCase())
+        );
+    }
+
+    public static DispatchOptions defaults() {
+        return new DispatchOptions(Runtime.getRuntime().availableProcessors(), 1024, OverflowPolicy.BLOCK);
+    }
+}
@@ -0,0 +1,9 @@
+package net.mineles.library.redis.dispatch;
+
+public enum OverflowPolicy {
+    // Parks the caller until the stripe has room. Messages are dispatched
+    // from the pub/sub reader thread, so a full stripe stalls every
+    // subscription on the connection, not only the slow key.
+    BLOCK,
+    DROP_OLDEST
+}
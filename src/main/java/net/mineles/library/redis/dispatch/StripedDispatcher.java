@@ -0,0 +1,160 @@
+package net.mineles.library.redis.dispatch;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class StripedDispatcher {
+    private final DispatchOptions options;
+    private final Stripe[] stripes;
+    private final AtomicLong dispatched;
+    private final AtomicLong dropped;
+
+    private volatile boolean closed;
+
+    public StripedDispatcher(@NotNull String executorName,
+                             @NotNull DispatchOptions options) {
+        checkArgument(options.stripes() > 0, "Stripe count must be positive");
+        checkArgument(options.queueCapacity() > 0, "Queue capacity must be positive");
+
+        this.options = options;
+        this.stripes = new Stripe[options.stripes()];
+        this.dispatched = new AtomicLong();
+        this.dropped = new AtomicLong();
+
+        ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat(executorName + "-redis-dispatch-%d")
+                .setDaemon(true)
+                .build();
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe(options.queueCapacity());
+            threadFactory.newThread(this.stripes[i]).start();
+        }
+    }
+
+    public void dispatch(@NotNull String key,
+                         @NotNull Runnable task) {
+        if (this.closed) {
+            return;
+        }
+
+        // Every message of a key always lands on the same single-threaded
+        // stripe, so per-key ordering holds while distinct keys run in parallel.
+        Stripe stripe = this.stripes[Math.floorMod(key.hashCode(), this.stripes.length)];
+        this.dispatched.incrementAndGet();
+
+        switch (this.options.overflowPolicy()) {
+            case BLOCK -> {
+                try {
+                    stripe.queue.putLast(task);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            case DROP_OLDEST -> {
+                while (!stripe.queue.offerLast(task)) {
+                    if (stripe.queue.pollFirst() != null) {
+                        this.dropped.incrementAndGet();
+                    }
+                }
+            }
+        }
+    }
+
+    public void shutdown() {
+        this.closed = true;
+        for (Stripe stripe : this.stripes) {
+            stripe.queue.clear();
+            stripe.queue.offerLast(Stripe.POISON);
+        }
+    }
+
+    public int getQueueDepth() {
+        int depth = 0;
+        for (Stripe stripe : this.stripes) {
+            depth += stripe.queue.size();
+        }
+
+        return depth;
+    }
+
+    public int getQueueDepth(int stripe) {
+        return this.stripes[stripe].queue.size();
+    }
+
+    public int getMaxQueueDepth() {
+        int depth = 0;
+        for (Stripe stripe : this.stripes) {
+            depth = Math.max(depth, stripe.queue.size());
+        }
+
+        return depth;
+    }
+
+    public int getStripeCount() {
+        return this.stripes.length;
+    }
+
+    public long getDispatchedCount() {
+        return this.dispatched.get();
+    }
+
+    public long getDroppedCount() {
+        return this.dropped.get();
+    }
+
+    public @NotNull DispatchOptions getOptions() {
+        return this.options;
+    }
+
+    private static void run(@NotNull Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable throwable) {
+            throwable.printStackTrace();
+        }
+    }
+
+    private final class Stripe implements Runnable {
+        private static final Runnable POISON = () -> {
+        };
+
+        private final BlockingDeque<Runnable> queue;
+
+        private Stripe(int capacity) {
+            this.queue = new LinkedBlockingDeque<>(capacity);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Runnable task;
+                try {
+                    task = this.queue.pollFirst(1, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+
+                if (task == POISON) {
+                    return;
+                }
+
+                if (task == null) {
+                    if (StripedDispatcher.this.closed) {
+                        return;
+                    }
+                    continue;
+                }
+
+                StripedDispatcher.run(task);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package net.mineles.library.redis.message;
+
+import com.google.gson.JsonObject;
+import net.mineles.library.redis.RedisClient;
+import net.mineles.library.redis.codec.BinaryCodec;
+import net.mineles.library.redis.codec.Decoder;
+import org.jetbrains.annotations.NotNull;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public interface BinaryMessageListener<T> extends MessageListener {
+    @NotNull Class<T> getType();
+
+    void onMessage(@NotNull RedisClient client, @NotNull T message);
+
+    @Override
+    default void onMessage(@NotNull RedisClient client, @NotNull JsonObject message) {
+        Decoder<T> decoder = client.getDecoder(getType());
+        checkNotNull(decoder, "Decoder for " + getType().getName() + " is not registered");
+
+        onMessage(client, decoder.decode(message, client));
+    }
+
+    @Override
+    default void onEnvelope(@NotNull RedisClient client, @NotNull Envelope envelope) {
+        if (!envelope.isBinary()) {
+            onMessage(client, envelope.getBody());
+            return;
+        }
+
+        BinaryCodec<T> codec = client.getBinaryCodec(getType());
+        checkNotNull(codec, "Binary codec for " + getType().getName() + " is not registered");
+
+        onMessage(client, envelope.getBody(codec, client));
+    }
+}
@@ -0,0 +1,13 @@
+package net.mineles.library.redis.message;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+
+public interface DeliveryListener {
+    default void onGap(@NotNull String channel, @NotNull String origin, long missed) {
+    }
+
+    default void onReconnect(@NotNull Duration downtime) {
+    }
+}
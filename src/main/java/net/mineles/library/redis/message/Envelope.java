@@ -0,0 +1,328 @@
+package net.mineles.library.redis.message;
+
+import com.google.common.collect.Maps;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import net.mineles.library.redis.RedisClient;
+import net.mineles.library.redis.codec.BinaryCodec;
+import net.mineles.library.redis.codec.BinaryReader;
+import net.mineles.library.redis.codec.BinaryWriter;
+import net.mineles.library.utils.GsonProvider;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+public final class Envelope {
+    private static final byte BINARY_MARKER = 0x1C;
+    private static final char MARKER = '\u001E';
+    private static final char VERSION = '1';
+    private static final char FIELD_SEPARATOR = '\u001F';
+    private static final char HEADER_SEPARATOR = '=';
+    private static final char BODY_SEPARATOR = '\u001D';
+    private static final String LEGACY_PROPERTY = "@envelope";
+
+    private final @Nullable String key;
+    private final @Nullable String type;
+    private final long timestamp;
+    private final @NotNull Map<String, String> headers;
+    private final @Nullable String body;
+    private final @Nullable byte[] binaryBody;
+
+    private JsonObject parsedBody;
+
+    private Envelope(@Nullable String key,
+                     @Nullable String type,
+                     long timestamp,
+                     @NotNull Map<String, String> headers,
+                     @Nullable String body,
+                     @Nullable byte[] binaryBody) {
+        checkArgument(key == null || isHeaderSafe(key), "Invalid key " + key);
+        checkArgument(type == null || isHeaderSafe(type), "Invalid type " + type);
+
+        this.key = key;
+        this.type = type;
+        this.timestamp = timestamp;
+        this.headers = headers;
+        this.body = body;
+        this.binaryBody = binaryBody;
+    }
+
+    @NotNull
+    public static Envelope create(@Nullable String key,
+                                  @Nullable String type,
+                                  @NotNull String body) {
+        return new Envelope(key, type, System.currentTimeMillis(), Maps.newLinkedHashMap(), body, null);
+    }
+
+    @NotNull
+    public static Envelope create(@Nullable String key,
+                                  @Nullable String type,
+                                  @NotNull Map<String, String> headers,
+                                  @NotNull String body) {
+        return new Envelope(key, type, System.currentTimeMillis(), Maps.newLinkedHashMap(headers), body, null);
+    }
+
+    @NotNull
+    public static Envelope create(@Nullable String key,
+                                  @Nullable String type,
+                                  @NotNull byte[] body) {
+        return new Envelope(key, type, System.currentTimeMillis(), Maps.newLinkedHashMap(), null, body);
+    }
+
+    public static @Nullable Envelope parse(@NotNull byte[] raw) {
+        if (raw.length == 0 || raw[0] != BINARY_MARKER) {
+            return parse(new String(raw, StandardCharsets.UTF_8));
+        }
+
+        try {
+            BinaryReader reader = new BinaryReader(raw);
+            reader.readByte();
+            if (reader.readByte() != VERSION) {
+                return null;
+            }
+
+            String key = reader.readNullableString();
+            String type = reader.readNullableString();
+            long timestamp = reader.readVarLong();
+
+            int headerCount = reader.readVarInt();
+            Map<String, String> headers = Maps.newLinkedHashMap();
+            for (int i = 0; i < headerCount; i++) {
+                headers.put(reader.readString(), reader.readString());
+            }
+
+            return new Envelope(key, type, timestamp, headers, null, reader.readBytes(reader.remaining()));
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    public static @Nullable Envelope parse(@NotNull String raw) {
+        if (raw.isEmpty() || raw.charAt(0) != MARKER) {
+            return parseLegacy(raw);
+        }
+
+        if (raw.length() < 2 || raw.charAt(1) != VERSION) {
+            return null;
+        }
+
+        // Only the header is scanned here; the body is kept as the raw
+        // string and parsed on demand by whichever listener receives it.
+        int bodyStart = raw.indexOf(BODY_SEPARATOR, 2);
+        if (bodyStart < 0) {
+            return null;
+        }
+
+        String[] fields = raw.substring(2, bodyStart).split(String.valueOf(FIELD_SEPARATOR), -1);
+        if (fields.length < 4) {
+            return null;
+        }
+
+        long timestamp;
+        try {
+            timestamp = Long.parseLong(fields[3]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+
+        Map<String, String> headers = Maps.newLinkedHashMap();
+        for (int i = 4; i < fields.length; i++) {
+            int separator = fields[i].indexOf(HEADER_SEPARATOR);
+            if (separator > 0) {
+                headers.put(fields[i].substring(0, separator), fields[i].substring(separator + 1));
+            }
+        }
+
+        return new Envelope(emptyToNull(fields[1]), emptyToNull(fields[2]), timestamp, headers, raw.substring(bodyStart + 1), null);
+    }
+
+    private static @Nullable Envelope parseLegacy(@NotNull String raw) {
+        JsonObject json;
+        try {
+            json = GsonProvider.getGson().fromJson(raw, JsonObject.class);
+        } catch (RuntimeException e) {
+            return null;
+        }
+
+        if (json == null) {
+            return null;
+        }
+
+        String key = json.has("key") ? json.get("key").getAsString() : null;
+        String type = null;
+        long timestamp = 0L;
+        Map<String, String> headers = Maps.newLinkedHashMap();
+
+        // Written by encodeLegacy; older publishers never set it.
+        JsonElement element = json.remove(LEGACY_PROPERTY);
+        try {
+            if (element != null && element.isJsonObject()) {
+                JsonObject envelope = element.getAsJsonObject();
+                type = envelope.has("type") ? envelope.get("type").getAsString() : null;
+                timestamp = envelope.has("timestamp") ? envelope.get("timestamp").getAsLong() : 0L;
+                if (envelope.has("headers")) {
+                    envelope.getAsJsonObject("headers").entrySet()
+                            .forEach(header -> headers.put(header.getKey(), header.getValue().getAsString()));
+                }
+            }
+
+            Envelope envelope = new Envelope(key, type, timestamp, headers, raw, null);
+            envelope.parsedBody = json;
+            return envelope;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static @Nullable String emptyToNull(@NotNull String value) {
+        return value.isEmpty() ? null : value;
+    }
+
+    public @NotNull String encode() {
+        checkState(this.body != null, "Envelope carries a binary body");
+
+        StringBuilder builder = new StringBuilder(this.body.length() + 64)
+                .append(MARKER)
+                .append(VERSION)
+                .append(FIELD_SEPARATOR).append(this.key == null ? "" : this.key)
+                .append(FIELD_SEPARATOR).append(this.type == null ? "" : this.type)
+                .append(FIELD_SEPARATOR).append(this.timestamp);
+
+        for (Map.Entry<String, String> header : this.headers.entrySet()) {
+            builder.append(FIELD_SEPARATOR)
+                    .append(header.getKey())
+                    .append(HEADER_SEPARATOR)
+                    .append(header.getValue());
+        }
+
+        return builder.append(BODY_SEPARATOR).append(this.body).toString();
+    }
+
+    // The plain JSON older nodes read: the body with the routing key added.
+    // Type, timestamp and headers ride along under a property they ignore.
+    public @NotNull String encodeLegacy() {
+        checkState(this.body != null, "Envelope carries a binary body");
+
+        JsonObject json = GsonProvider.getGson().fromJson(this.body, JsonObject.class);
+        checkArgument(json != null, "Message is not a valid JSON object");
+
+        if (this.key != null && !json.has("key")) {
+            json.addProperty("key", this.key);
+        }
+
+        JsonObject envelope = new JsonObject();
+        if (this.type != null) {
+            envelope.addProperty("type", this.type);
+        }
+        envelope.addProperty("timestamp", this.timestamp);
+        if (!this.headers.isEmpty()) {
+            JsonObject headers = new JsonObject();
+            this.headers.forEach(headers::addProperty);
+            envelope.add("headers", headers);
+        }
+        json.add(LEGACY_PROPERTY, envelope);
+
+        return json.toString();
+    }
+
+    public @NotNull String encode(@NotNull EnvelopeFormat format) {
+        return format == EnvelopeFormat.LEGACY ? encodeLegacy() : encode();
+    }
+
+    public @NotNull byte[] encodeBinary() {
+        checkState(this.binaryBody != null, "Envelope carries a text body");
+
+        BinaryWriter writer = new BinaryWriter(this.binaryBody.length + 64)
+                .writeByte(BINARY_MARKER)
+                .writeByte(VERSION)
+                .writeNullableString(this.key)
+                .writeNullableString(this.type)
+                .writeVarLong(this.timestamp)
+                .writeVarInt(this.headers.size());
+
+        for (Map.Entry<String, String> header : this.headers.entrySet()) {
+            writer.writeString(header.getKey()).writeString(header.getValue());
+        }
+
+        return writer.writeBytes(this.binaryBody).toByteArray();
+    }
+
+    public @NotNull Envelope withHeader(@NotNull String name,
+                                        @NotNull String value) {
+        checkArgument(isHeaderSafe(name) && name.indexOf(HEADER_SEPARATOR) < 0, "Invalid header name " + name);
+        checkArgument(isHeaderSafe(value), "Invalid header value for " + name);
+
+        this.headers.put(name, value);
+        return this;
+    }
+
+    private static boolean isHeaderSafe(@NotNull String value) {
+        return value.indexOf(FIELD_SEPARATOR) < 0 && value.indexOf(BODY_SEPARATOR) < 0;
+    }
+
+    public @Nullable String getKey() {
+        return this.key;
+    }
+
+    public @Nullable String getType() {
+        return this.type;
+    }
+
+    public long getTimestamp() {
+        return this.timestamp;
+    }
+
+    public @Nullable String getHeader(@NotNull String name) {
+        return this.headers.get(name);
+    }
+
+    public @NotNull Map<String, String> getHeaders() {
+        return Collections.unmodifiableMap(this.headers);
+    }
+
+    public boolean isBinary() {
+        return this.binaryBody != null;
+    }
+
+    public @NotNull String getRawBody() {
+        checkState(this.body != null, "Envelope carries a binary body");
+        return this.body;
+    }
+
+    public @NotNull byte[] getBinaryBody() {
+        checkState(this.binaryBody != null, "Envelope carries a text body");
+        return this.binaryBody;
+    }
+
+    public <T> @NotNull T getBody(@NotNull BinaryCodec<T> codec,
+                                  @NotNull RedisClient client) {
+        return codec.decode(getBinaryBody(), client);
+    }
+
+    public @NotNull JsonObject getBody() {
+        checkState(this.body != null, "Envelope carries a binary body");
+
+        if (this.parsedBody == null) {
+            JsonObject json = GsonProvider.getGson().fromJson(this.body, JsonObject.class);
+            if (json == null) {
+                json = new JsonObject();
+            }
+
+            // Listeners written against the old format still read the
+            // routing key from the body.
+            if (this.key != null && !json.has("key")) {
+                json.addProperty("key", this.key);
+            }
+
+            this.parsedBody = json;
+        }
+
+        return this.parsedBody;
+    }
+}
@@ -0,0 +1,9 @@
+package net.mineles.library.redis.message;
+
+// LEGACY publishes the plain JSON every node can read. FRAMED routes without
+// parsing the body but is only understood by nodes that know envelopes, so
+// it should be switched on once the whole fleet runs them.
+public enum EnvelopeFormat {
+    LEGACY,
+    FRAMED
+}
@@ -7,4 +7,8 @@ import org.jetbrains.annotations.NotNull;
 @FunctionalInterface
 public interface MessageListener {
     void onMessage(@NotNull RedisClient client, @NotNull JsonObject message);
+
+    default void onEnvelope(@NotNull RedisClient client, @NotNull Envelope envelope) {
+        onMessage(client, envelope.getBody());
+    }
 }
@@ -0,0 +1,98 @@
+package net.mineles.library.redis.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class LatencyHistogram {
+    private static final long[] BOUNDS = {
+            50, 100, 250, 500,
+            1_000, 2_500, 5_000, 10_000, 25_000, 50_000,
+            100_000, 250_000, 500_000, 1_000_000, 2_500_000, 5_000_000
+    };
+
+    private final LongAdder[] buckets;
+    private final LongAdder count;
+    private final LongAdder sum;
+    private final LongAccumulator max;
+
+    public LatencyHistogram() {
+        this.buckets = new LongAdder[BOUNDS.length + 1];
+        for (int i = 0; i < this.buckets.length; i++) {
+            this.buckets[i] = new LongAdder();
+        }
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.max = new LongAccumulator(Math::max, 0);
+    }
+
+    public void record(long nanos) {
+        long micros = Math.max(nanos / 1_000, 0);
+        this.buckets[bucketOf(micros)].increment();
+        this.count.increment();
+        this.sum.add(micros);
+        this.max.accumulate(micros);
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    public double getMeanMicros() {
+        long count = this.count.sum();
+        return count == 0 ? 0 : (double) this.sum.sum() / count;
+    }
+
+    public long getMaxMicros() {
+        return this.max.get();
+    }
+
+    public long getPercentileMicros(double percentile) {
+        long count = this.count.sum();
+        if (count == 0) {
+            return 0;
+        }
+
+        // Reported as the upper bound of the bucket holding the percentile,
+        // which is accurate to the bucket resolution.
+        long target = (long) Math.ceil(count * Math.min(Math.max(percentile, 0), 1));
+        long seen = 0;
+        for (int i = 0; i < BOUNDS.length; i++) {
+            seen += this.buckets[i].sum();
+            if (seen >= target) {
+                return BOUNDS[i];
+            }
+        }
+
+        return getMaxMicros();
+    }
+
+    public long[] getBucketBoundsMicros() {
+        return BOUNDS.clone();
+    }
+
+    public long[] getBucketCounts() {
+        long[] counts = new long[this.buckets.length];
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = this.buckets[i].sum();
+        }
+        return counts;
+    }
+
+    public void reset() {
+        for (LongAdder bucket : this.buckets) {
+            bucket.reset();
+        }
+        this.count.reset();
+        this.sum.reset();
+        this.max.reset();
+    }
+
+    private static int bucketOf(long micros) {
+        for (int i = 0; i < BOUNDS.length; i++) {
+            if (micros <= BOUNDS[i]) {
+                return i;
+            }
+        }
+        return BOUNDS.length;
+    }
+}
@@ -0,0 +1,99 @@
+package net.mineles.library.redis.metrics;
+
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class RedisMetrics {
+    private final LatencyHistogram borrowLatency;
+    private final LatencyHistogram blockingBorrowLatency;
+    private final LongAdder exhausted;
+    private final Map<String, LatencyHistogram> commands;
+    private final LatencyHistogram subscriberDowntime;
+    private final LongAdder reconnects;
+    private final LongAdder gaps;
+    private final LongAdder missedMessages;
+
+    public RedisMetrics() {
+        this.borrowLatency = new LatencyHistogram();
+        this.blockingBorrowLatency = new LatencyHistogram();
+        this.exhausted = new LongAdder();
+        this.commands = Maps.newConcurrentMap();
+        this.subscriberDowntime = new LatencyHistogram();
+        this.reconnects = new LongAdder();
+        this.gaps = new LongAdder();
+        this.missedMessages = new LongAdder();
+    }
+
+    public void recordBorrow(boolean blocking, long nanos) {
+        (blocking ? this.blockingBorrowLatency : this.borrowLatency).record(nanos);
+    }
+
+    public void recordExhausted() {
+        this.exhausted.increment();
+    }
+
+    public void recordCommand(@NotNull String command, long nanos) {
+        this.commands.computeIfAbsent(command, key -> new LatencyHistogram()).record(nanos);
+    }
+
+    public void recordReconnect(long downtimeNanos) {
+        this.reconnects.increment();
+        this.subscriberDowntime.record(downtimeNanos);
+    }
+
+    public void recordGap(long missed) {
+        this.gaps.increment();
+        this.missedMessages.add(missed);
+    }
+
+    public @NotNull LatencyHistogram getBorrowLatency() {
+        return this.borrowLatency;
+    }
+
+    public @NotNull LatencyHistogram getBlockingBorrowLatency() {
+        return this.blockingBorrowLatency;
+    }
+
+    public long getExhaustedCount() {
+        return this.exhausted.sum();
+    }
+
+    public @NotNull LatencyHistogram getCommandLatency(@NotNull String command) {
+        return this.commands.computeIfAbsent(command, key -> new LatencyHistogram());
+    }
+
+    public @NotNull Map<String, LatencyHistogram> getCommandLatencies() {
+        return Collections.unmodifiableMap(this.commands);
+    }
+
+    public @NotNull LatencyHistogram getSubscriberDowntime() {
+        return this.subscriberDowntime;
+    }
+
+    public long getReconnectCount() {
+        return this.reconnects.sum();
+    }
+
+    public long getGapCount() {
+        return this.gaps.sum();
+    }
+
+    public long getMissedMessageCount() {
+        return this.missedMessages.sum();
+    }
+
+    public void reset() {
+        this.borrowLatency.reset();
+        this.blockingBorrowLatency.reset();
+        this.exhausted.reset();
+        this.commands.clear();
+        this.subscriberDowntime.reset();
+        this.reconnects.reset();
+        this.gaps.reset();
+        this.missedMessages.reset();
+    }
+}
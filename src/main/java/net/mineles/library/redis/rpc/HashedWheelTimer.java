@@ -0,0 +1,159 @@
+package net.mineles.library.redis.rpc;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class HashedWheelTimer {
+    private final long tickNanos;
+    private final List<List<Timeout>> wheel;
+    private final int mask;
+    private final Queue<Timeout> pending;
+    private final Thread worker;
+
+    private volatile boolean stopped;
+    private long startTime;
+    private long tick;
+
+    public HashedWheelTimer(@NotNull String executorName) {
+        this(executorName, 10, TimeUnit.MILLISECONDS, 512);
+    }
+
+    public HashedWheelTimer(@NotNull String executorName,
+                            long tickDuration,
+                            @NotNull TimeUnit unit,
+                            int ticksPerWheel) {
+        checkArgument(tickDuration > 0, "Tick duration must be positive");
+        checkArgument(ticksPerWheel > 0, "Ticks per wheel must be positive");
+
+        int size = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        this.tickNanos = unit.toNanos(tickDuration);
+        this.wheel = Lists.newArrayListWithCapacity(Math.max(size, 1));
+        for (int i = 0; i < Math.max(size, 1); i++) {
+            this.wheel.add(Lists.newArrayList());
+        }
+        this.mask = this.wheel.size() - 1;
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.worker = new ThreadFactoryBuilder()
+                .setNameFormat(executorName + "-wheel-timer-%d")
+                .setDaemon(true)
+                .build()
+                .newThread(this::run);
+        this.startTime = System.nanoTime();
+        this.worker.start();
+    }
+
+    public @NotNull Timeout newTimeout(@NotNull Runnable task,
+                                       long delay,
+                                       @NotNull TimeUnit unit) {
+        Timeout timeout = new Timeout(task, System.nanoTime() + unit.toNanos(delay));
+        if (!this.stopped) {
+            this.pending.add(timeout);
+        }
+
+        return timeout;
+    }
+
+    public void stop() {
+        this.stopped = true;
+        this.worker.interrupt();
+    }
+
+    private void run() {
+        this.startTime = System.nanoTime();
+        while (!this.stopped) {
+            long deadline = this.startTime + (this.tick + 1) * this.tickNanos;
+            long sleep = deadline - System.nanoTime();
+            if (sleep > 0) {
+                LockSupport.parkNanos(this, sleep);
+                if (Thread.interrupted() && this.stopped) {
+                    return;
+                }
+                continue;
+            }
+
+            transferPending();
+            expire(this.wheel.get((int) (this.tick & this.mask)), System.nanoTime());
+            this.tick++;
+        }
+    }
+
+    private void transferPending() {
+        // Timeouts are only ever touched by the worker once scheduled, so
+        // the buckets need no synchronization.
+        Timeout timeout;
+        while ((timeout = this.pending.poll()) != null) {
+            if (timeout.cancelled) {
+                continue;
+            }
+
+            long ticks = Math.max((timeout.deadline - this.startTime) / this.tickNanos, this.tick);
+            timeout.remainingRounds = (ticks - this.tick) / this.wheel.size();
+            this.wheel.get((int) (ticks & this.mask)).add(timeout);
+        }
+    }
+
+    private void expire(@NotNull List<Timeout> bucket, long now) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+            } else if (timeout.deadline <= now) {
+                iterator.remove();
+                timeout.expire();
+            }
+        }
+    }
+
+    public static final class Timeout {
+        private final Runnable task;
+        private final long deadline;
+
+        private long remainingRounds;
+        private volatile boolean cancelled;
+        private volatile boolean expired;
+
+        private Timeout(@NotNull Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        public boolean cancel() {
+            if (this.expired) {
+                return false;
+            }
+
+            this.cancelled = true;
+            return true;
+        }
+
+        public boolean isCancelled() {
+            return this.cancelled;
+        }
+
+        public boolean isExpired() {
+            return this.expired;
+        }
+
+        private void expire() {
+            this.expired = true;
+            try {
+                this.task.run();
+            } catch (Throwable throwable) {
+                throwable.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package net.mineles.library.redis.rpc;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.gson.JsonObject;
+import net.mineles.library.redis.RedisClient;
+import net.mineles.library.redis.message.Envelope;
+import net.mineles.library.redis.message.MessageListener;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+public final class RedisRpc {
+    public static final String CORRELATION_ID_HEADER = "correlation-id";
+    public static final String REPLY_TO_HEADER = "reply-to";
+
+    private static final String REPLY_CHANNEL_PREFIX = "rpc-reply.";
+
+    private final RedisClient client;
+    private final String replyChannel;
+    private final HashedWheelTimer timer;
+    private final Map<String, PendingRequest> pending;
+
+    public RedisRpc(@NotNull RedisClient client) {
+        this.client = client;
+        this.replyChannel = REPLY_CHANNEL_PREFIX + client.getExecutorName();
+        this.timer = new HashedWheelTimer(client.getExecutorName() + "-rpc");
+        this.pending = Maps.newConcurrentMap();
+    }
+
+    public void subscribe() {
+        this.client.subscribe(this.replyChannel, new ReplyListener());
+    }
+
+    public @NotNull CompletableFuture<Envelope> request(@NotNull String channel,
+                                                        @NotNull String payload,
+                                                        @NotNull Duration timeout) {
+        return requestAll(channel, payload, 1, timeout).thenApply(replies -> {
+            if (replies.isEmpty()) {
+                throw new IllegalStateException("No reply received on " + channel);
+            }
+
+            return replies.get(0);
+        });
+    }
+
+    public @NotNull CompletableFuture<List<Envelope>> requestAll(@NotNull String channel,
+                                                                 @NotNull String payload,
+                                                                 int quorum,
+                                                                 @NotNull Duration timeout) {
+        checkArgument(quorum > 0, "Quorum must be positive");
+
+        String key = null;
+        if (channel.split(":").length == 2) {
+            key = channel.split(":")[1];
+            channel = channel.split(":")[0];
+        }
+
+        String correlationId = UUID.randomUUID().toString();
+        PendingRequest request = new PendingRequest(correlationId, quorum);
+        this.pending.put(correlationId, request);
+
+        String target = channel;
+        request.timeout = this.timer.newTimeout(() -> request.onTimeout(target), timeout.toMillis(), TimeUnit.MILLISECONDS);
+
+        Envelope envelope = Envelope.create(key, null, payload)
+                .withHeader(CORRELATION_ID_HEADER, correlationId)
+                .withHeader(REPLY_TO_HEADER, this.replyChannel);
+        try {
+            this.client.publish(channel, envelope);
+        } catch (RuntimeException e) {
+            request.fail(e);
+        }
+
+        return request.future;
+    }
+
+    public boolean isRequest(@NotNull Envelope envelope) {
+        return envelope.getHeader(CORRELATION_ID_HEADER) != null && envelope.getHeader(REPLY_TO_HEADER) != null;
+    }
+
+    public void reply(@NotNull Envelope request,
+                      @NotNull String payload) {
+        String correlationId = request.getHeader(CORRELATION_ID_HEADER);
+        String replyTo = request.getHeader(REPLY_TO_HEADER);
+        checkState(correlationId != null && replyTo != null, "Message is not an RPC request");
+
+        Envelope reply = Envelope.create(null, null, payload)
+                .withHeader(CORRELATION_ID_HEADER, correlationId);
+        this.client.publish(replyTo, reply);
+    }
+
+    public int getPendingCount() {
+        return this.pending.size();
+    }
+
+    public @NotNull String getReplyChannel() {
+        return this.replyChannel;
+    }
+
+    public void shutdown() {
+        this.timer.stop();
+        for (PendingRequest request : Lists.newArrayList(this.pending.values())) {
+            request.fail(new IllegalStateException("Redis client is closed"));
+        }
+    }
+
+    private final class ReplyListener implements MessageListener {
+        @Override
+        public void onMessage(@NotNull RedisClient client, @NotNull JsonObject message) {
+        }
+
+        @Override
+        public void onEnvelope(@NotNull RedisClient client, @NotNull Envelope envelope) {
+            String correlationId = envelope.getHeader(CORRELATION_ID_HEADER);
+            if (correlationId == null) {
+                return;
+            }
+
+            PendingRequest request = RedisRpc.this.pending.get(correlationId);
+            if (request != null) {
+                request.onReply(envelope);
+            }
+        }
+    }
+
+    private final class PendingRequest {
+        private final String correlationId;
+        private final int quorum;
+        private final List<Envelope> replies;
+        private final CompletableFuture<List<Envelope>> future;
+
+        private volatile HashedWheelTimer.Timeout timeout;
+
+        private PendingRequest(@NotNull String correlationId, int quorum) {
+            this.correlationId = correlationId;
+            this.quorum = quorum;
+            this.replies = Lists.newArrayListWithCapacity(quorum);
+            this.future = new CompletableFuture<>();
+        }
+
+        private void onReply(@NotNull Envelope reply) {
+            List<Envelope> completed = null;
+            synchronized (this) {
+                if (this.future.isDone()) {
+                    return;
+                }
+
+                this.replies.add(reply);
+                if (this.replies.size() >= this.quorum) {
+                    completed = List.copyOf(this.replies);
+                }
+            }
+
+            if (completed != null) {
+                complete(completed);
+            }
+        }
+
+        private void onTimeout(@NotNull String channel) {
+            // A scatter-gather request that reached at least one node completes
+            // with whatever it gathered; only silence is reported as a timeout.
+            List<Envelope> gathered;
+            synchronized (this) {
+                gathered = List.copyOf(this.replies);
+            }
+
+            if (gathered.isEmpty()) {
+                fail(new TimeoutException("Request on " + channel + " timed out"));
+            } else {
+                complete(gathered);
+            }
+        }
+
+        private void complete(@NotNull List<Envelope> replies) {
+            release();
+            this.future.complete(Collections.unmodifiableList(replies));
+        }
+
+        private void fail(@NotNull Throwable throwable) {
+            release();
+            this.future.completeExceptionally(throwable);
+        }
+
+        private void release() {
+            RedisRpc.this.pending.remove(this.correlationId);
+
+            HashedWheelTimer.Timeout timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+    }
+}
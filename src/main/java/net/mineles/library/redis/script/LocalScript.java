@@ -0,0 +1,14 @@
+package net.mineles.library.redis.script;
+
+import net.mineles.library.redis.backend.RedisCommands;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface LocalScript {
+
+    Object eval(@NotNull RedisCommands commands,
+                @NotNull List<String> keys,
+                @NotNull List<String> args);
+}
@@ -0,0 +1,27 @@
+package net.mineles.library.redis.script;
+
+import com.google.common.hash.Hashing;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+
+public record RedisScript(@NotNull String name,
+                          @NotNull String source,
+                          @NotNull String sha,
+                          @Nullable LocalScript local) {
+
+    public static RedisScript of(@NotNull String name,
+                                 @NotNull String source) {
+        return of(name, source, null);
+    }
+
+    @SuppressWarnings("deprecation")
+    public static RedisScript of(@NotNull String name,
+                                 @NotNull String source,
+                                 @Nullable LocalScript local) {
+        // Redis identifies scripts by the SHA-1 of their source, so the
+        // digest can be computed locally without a SCRIPT LOAD round trip.
+        return new RedisScript(name, source, Hashing.sha1().hashString(source, StandardCharsets.UTF_8).toString(), local);
+    }
+}
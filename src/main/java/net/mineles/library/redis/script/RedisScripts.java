@@ -0,0 +1,112 @@
+package net.mineles.library.redis.script;
+
+import com.google.common.collect.Maps;
+import net.mineles.library.redis.RedisClient;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import net.mineles.library.libs.jedis.exceptions.JedisNoScriptException;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+public final class RedisScripts {
+    private final RedisClient client;
+    private final Map<String, RedisScript> scripts;
+
+    public RedisScripts(@NotNull RedisClient client) {
+        this.client = client;
+        this.scripts = Maps.newConcurrentMap();
+    }
+
+    public @NotNull RedisScript register(@NotNull String name,
+                                         @NotNull String source) {
+        return register(name, source, null);
+    }
+
+    public @NotNull RedisScript register(@NotNull String name,
+                                         @NotNull String source,
+                                         @Nullable LocalScript local) {
+        RedisScript[] created = new RedisScript[1];
+        RedisScript script = this.scripts.computeIfAbsent(name, key -> created[0] = RedisScript.of(key, source, local));
+
+        // Scripts registered after connecting are loaded right away, so the
+        // first EVALSHA doesn't have to fall back to sending the source.
+        if (created[0] != null && this.client.getBackend() != null) {
+            load(List.of(created[0]));
+        }
+        return script;
+    }
+
+    public @Nullable RedisScript getScript(@NotNull String name) {
+        return this.scripts.get(name);
+    }
+
+    public @NotNull Collection<RedisScript> getScripts() {
+        return Collections.unmodifiableCollection(this.scripts.values());
+    }
+
+    public void load() {
+        load(this.scripts.values());
+    }
+
+    private void load(@NotNull Collection<RedisScript> scripts) {
+        if (scripts.isEmpty() || !this.client.getBackend().isScriptingSupported()) {
+            return;
+        }
+
+        this.client.getCache().execute("SCRIPT", commands -> {
+            scripts.forEach(script -> commands.scriptLoad(script.source()));
+            return null;
+        });
+    }
+
+    public Object eval(@NotNull String name,
+                       @NotNull List<String> keys,
+                       @NotNull List<String> args) {
+        RedisScript script = getScript(name);
+        checkNotNull(script, "Script " + name + " is not registered");
+
+        return eval(script, keys, args);
+    }
+
+    public Object eval(@NotNull RedisScript script,
+                       @NotNull List<String> keys,
+                       @NotNull List<String> args) {
+        if (!this.client.getBackend().isScriptingSupported()) {
+            LocalScript local = script.local();
+            checkState(local != null, "Script " + script.name() + " has no local implementation");
+
+            return this.client.getCache().execute("EVAL", commands -> local.eval(commands, keys, args));
+        }
+
+        return this.client.getCache().execute("EVALSHA", commands -> {
+            try {
+                return commands.evalsha(script.sha(), keys, args);
+            } catch (JedisNoScriptException e) {
+                // The script cache was flushed or this is a fresh server;
+                // EVAL runs it and caches it for the next EVALSHA.
+                return commands.eval(script.source(), keys, args);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public @NotNull List<String> evalList(@NotNull RedisScript script,
+                                          @NotNull List<String> keys,
+                                          @NotNull List<String> args) {
+        Object result = eval(script, keys, args);
+        return result instanceof List<?> ? (List<String>) result : Collections.emptyList();
+    }
+
+    public long evalLong(@NotNull RedisScript script,
+                         @NotNull List<String> keys,
+                         @NotNull List<String> args) {
+        Object result = eval(script, keys, args);
+        return result instanceof Long ? (Long) result : 0L;
+    }
+}
@@ -1,16 +1,155 @@
 package net.mineles.library.server;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import net.mineles.library.redis.BatchResponse;
+import net.mineles.library.redis.RedisBatch;
 import net.mineles.library.redis.RedisCache;
+import net.mineles.library.redis.RedisClient;
+import net.mineles.library.redis.backend.RedisCommands;
+import net.mineles.library.redis.cache.NearCache;
+import net.mineles.library.redis.codec.Decoder;
+import net.mineles.library.redis.script.RedisScript;
 import net.mineles.library.server.constants.ServerKeys;
+import net.mineles.library.utils.GsonProvider;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
 
 public final class PlayerCache {
+    private static final int INDEX_BATCH_SIZE = 500;
+
+    private static final String SET_PLAYER = """
+            local players, index = KEYS[1], KEYS[2]
+            local name, uuid, payload = ARGV[1], ARGV[2], ARGV[3]
+
+            local raw = redis.call('HGET', players, name)
+            if raw then
+                local previous = cjson.decode(raw).uuid
+                if previous and previous ~= uuid and redis.call('HGET', index, previous) == name then
+                    redis.call('HDEL', index, previous)
+                end
+            end
+
+            redis.call('HSET', players, name, payload)
+            redis.call('HSET', index, uuid, name)
+            return 1
+            """;
+
+    private static final String REMOVE_PLAYER = """
+            local players, index = KEYS[1], KEYS[2]
+            local name = ARGV[1]
+
+            local raw = redis.call('HGET', players, name)
+            if not raw then
+                return 0
+            end
+
+            local uuid = cjson.decode(raw).uuid
+            if uuid and redis.call('HGET', index, uuid) == name then
+                redis.call('HDEL', index, uuid)
+            end
+
+            redis.call('HDEL', players, name)
+            return 1
+            """;
+
+    // Takes uuid/name pairs and only drops the entries still pointing at that
+    // name, the same check REMOVE_PLAYER makes for a single player.
+    private static final String REMOVE_INDEX = """
+            local index = KEYS[1]
+
+            local removed = 0
+            for i = 1, #ARGV, 2 do
+                if redis.call('HGET', index, ARGV[i]) == ARGV[i + 1] then
+                    removed = removed + redis.call('HDEL', index, ARGV[i])
+                end
+            end
+            return removed
+            """;
+
+    // Takes uuid/name pairs and points each uuid at the name only if that
+    // player's record carries it, dropping the entry otherwise. An empty name
+    // checks whatever the index holds for the uuid.
+    private static final String VERIFY_INDEX = """
+            local players, index = KEYS[1], KEYS[2]
+
+            local changed = 0
+            for i = 1, #ARGV, 2 do
+                local uuid, name = ARGV[i], ARGV[i + 1]
+                if name == '' then
+                    name = redis.call('HGET', index, uuid)
+                end
+
+                if name then
+                    local raw = redis.call('HGET', players, name)
+                    if raw and cjson.decode(raw).uuid == uuid then
+                        changed = changed + redis.call('HSET', index, uuid, name)
+                    elseif redis.call('HGET', index, uuid) == name then
+                        changed = changed + redis.call('HDEL', index, uuid)
+                    end
+                end
+            end
+            return changed
+            """;
+
     private final RedisCache cache;
+    private final @Nullable NearCache nearCache;
+    private final @Nullable RedisClient client;
+    private final @Nullable RedisScript setPlayer;
+    private final @Nullable RedisScript removePlayer;
+    private final @Nullable RedisScript removeIndex;
+    private final @Nullable RedisScript verifyIndex;
+
+    private Cache<UUID, String> localIndex;
 
     public PlayerCache(RedisCache cache) {
+        this(cache, null);
+    }
+
+    public PlayerCache(RedisCache cache, @Nullable NearCache nearCache) {
         this.cache = cache;
+        this.nearCache = nearCache;
+        this.client = null;
+        this.setPlayer = null;
+        this.removePlayer = null;
+        this.removeIndex = null;
+        this.verifyIndex = null;
+    }
+
+    public PlayerCache(RedisClient client) {
+        this.cache = client.getCache();
+        this.nearCache = client.getNearCache();
+        this.client = client;
+        this.setPlayer = client.getScripts().register("players:set-player", SET_PLAYER, PlayerCache::setPlayerLocally);
+        this.removePlayer = client.getScripts().register("players:remove-player", REMOVE_PLAYER, PlayerCache::removePlayerLocally);
+        this.removeIndex = client.getScripts().register("players:remove-index", REMOVE_INDEX, PlayerCache::removeIndexLocally);
+        this.verifyIndex = client.getScripts().register("players:verify-index", VERIFY_INDEX, PlayerCache::verifyIndexLocally);
+    }
+
+    // The mirror maps a UUID to the last name it was seen under. Entries are
+    // verified against the player record on every read, so a stale one only
+    // costs the index lookup it would have saved.
+    public PlayerCache enableLocalIndex(long maximumSize) {
+        if (this.localIndex == null) {
+            this.localIndex = CacheBuilder.newBuilder()
+                    .maximumSize(maximumSize)
+                    .build();
+        }
+
+        return this;
     }
 
     public long getPlayerCount() {
@@ -22,13 +161,66 @@ public final class PlayerCache {
     }
 
     public Player getPlayer(String name) {
+        // Players are mutable, so callers get a copy of the cached record.
+        if (this.nearCache != null) {
+            Player player = this.nearCache.hgetDecoded(ServerKeys.PLAYERS, name, Player.class);
+            return player == null ? null : new Player(player.getUUID(), player.getName(),
+                    player.getCurrentProxy(), player.getCurrentServer(), player.isLoggedIn());
+        }
+
+        return fetchPlayer(name);
+    }
+
+    public Map<String, Player> getPlayers(Collection<String> names) {
+        return this.cache.hmgetDecoded(ServerKeys.PLAYERS, Player.class, names.toArray(new String[0]));
+    }
+
+    Player fetchPlayer(String name) {
         return this.cache.hgetDecoded(ServerKeys.PLAYERS, name, Player.class);
     }
 
+    // The raw record, for callers that must cope with fields the decoder
+    // requires being absent, such as a record written without a uuid.
+    @Nullable JsonObject fetchRecord(String name) {
+        String raw = this.cache.hget(ServerKeys.PLAYERS, name);
+        return raw == null ? null : GsonProvider.getGson().fromJson(raw, JsonObject.class);
+    }
+
+    public Stream<Map.Entry<String, Player>> streamPlayers() {
+        return this.cache.hscanDecoded(ServerKeys.PLAYERS, Player.class);
+    }
+
+    public @Nullable String getPlayerName(UUID uuid) {
+        return this.cache.hget(ServerKeys.PLAYERS_BY_UUID, uuid.toString());
+    }
+
     public Player getPlayer(UUID uuid) {
-        return this.getPlayers().values().stream()
-                .filter(player -> player.getUUID().equals(uuid))
-                .findFirst().orElse(null);
+        if (this.localIndex != null) {
+            String name = this.localIndex.getIfPresent(uuid);
+            if (name != null) {
+                Player player = getPlayer(name);
+                if (player != null && uuid.equals(player.getUUID())) {
+                    return player;
+                }
+
+                this.localIndex.invalidate(uuid);
+            }
+        }
+
+        String name = getPlayerName(uuid);
+        if (name == null) {
+            return null;
+        }
+
+        Player player = getPlayer(name);
+        if (player == null || !uuid.equals(player.getUUID())) {
+            return null;
+        }
+
+        if (this.localIndex != null) {
+            this.localIndex.put(uuid, name);
+        }
+        return player;
     }
 
     public boolean containsPlayer(String name) {
@@ -36,26 +228,254 @@ public final class PlayerCache {
     }
 
     public boolean containsPlayer(UUID uuid) {
-        return this.getPlayers().values().stream()
-                .anyMatch(player -> player.getUUID().equals(uuid));
+        return this.cache.hexists(ServerKeys.PLAYERS_BY_UUID, uuid.toString());
     }
 
     public void setPlayer(String name, Player player) {
-        this.cache.hsetDecoded(ServerKeys.PLAYERS, name, player, Player.class);
+        if (this.setPlayer == null) {
+            this.cache.pipelined(batch -> {
+                batch.hsetDecoded(ServerKeys.PLAYERS, name, player, Player.class);
+                batch.hset(ServerKeys.PLAYERS_BY_UUID, player.getUUID().toString(), name);
+            });
+        } else {
+            this.client.getScripts().evalLong(this.setPlayer,
+                    List.of(ServerKeys.PLAYERS, ServerKeys.PLAYERS_BY_UUID),
+                    List.of(name, player.getUUID().toString(), encode(player)));
+        }
+
+        invalidate(name);
+    }
+
+    // Pipelined writes can't run the script, so the index is written in the
+    // same batch instead. A previous UUID for the name is left behind and is
+    // filtered out by the record check in getPlayer(UUID).
+    public void setPlayer(RedisBatch batch, String name, Player player) {
+        batch.hsetDecoded(ServerKeys.PLAYERS, name, player, Player.class);
+        batch.hset(ServerKeys.PLAYERS_BY_UUID, player.getUUID().toString(), name);
+        batch.afterSync(() -> invalidate(name));
     }
 
     public void removePlayer(String name) {
-        this.cache.hdel(ServerKeys.PLAYERS, name);
+        if (this.removePlayer == null) {
+            Player player = fetchPlayer(name);
+            this.cache.pipelined(batch -> {
+                batch.hdel(ServerKeys.PLAYERS, name);
+                if (player != null) {
+                    batch.hdel(ServerKeys.PLAYERS_BY_UUID, player.getUUID().toString());
+                }
+            });
+        } else {
+            this.client.getScripts().evalLong(this.removePlayer,
+                    List.of(ServerKeys.PLAYERS, ServerKeys.PLAYERS_BY_UUID),
+                    List.of(name));
+        }
+
+        invalidate(name);
+    }
+
+    public void removePlayer(RedisBatch batch, String name) {
+        BatchResponse<Player> player = batch.hgetDecoded(ServerKeys.PLAYERS, name, Player.class);
+        batch.hdel(ServerKeys.PLAYERS, name);
+        batch.afterSync(() -> {
+            if (player.get() != null) {
+                removeIndexEntries(List.of(player.get()));
+            }
+            invalidate(name);
+        });
+    }
+
+    // The records are already known here, so the index entries are removed
+    // right after the batch instead of being looked up first. An entry that
+    // another name has taken over in the meantime is left alone.
+    public void removePlayers(RedisBatch batch, Collection<Player> players) {
+        if (players.isEmpty()) {
+            return;
+        }
+
+        batch.hdel(ServerKeys.PLAYERS, players.stream().map(Player::getName).toArray(String[]::new));
+        batch.afterSync(() -> {
+            removeIndexEntries(players);
+            players.forEach(player -> {
+                if (this.localIndex != null) {
+                    this.localIndex.invalidate(player.getUUID());
+                }
+                invalidate(player.getName());
+            });
+        });
     }
 
     public void removePlayer(UUID uuid) {
-        this.getPlayers().entrySet().stream()
-                .filter(entry -> entry.getValue().getUUID().equals(uuid))
-                .map(Map.Entry::getKey)
-                .forEach(this::removePlayer);
+        String name = getPlayerName(uuid);
+        if (name != null) {
+            removePlayer(name);
+        }
+    }
+
+    // Backfills the index from the players hash, for data written before the
+    // index existed or by clients that don't maintain it. The index is fixed
+    // in place and every entry is checked against the player record inside a
+    // script, so moves and removals racing with the rebuild are kept.
+    public void rebuildIndex() {
+        List<String> args = Lists.newArrayList();
+        Set<String> scanned = Sets.newHashSet();
+        streamPlayers().forEach(entry -> {
+            String uuid = entry.getValue().getUUID().toString();
+            scanned.add(uuid);
+            args.add(uuid);
+            args.add(entry.getKey());
+        });
+
+        // Entries for players that are gone or changed UUID since.
+        for (String uuid : this.cache.hkeys(ServerKeys.PLAYERS_BY_UUID)) {
+            if (!scanned.contains(uuid)) {
+                args.add(uuid);
+                args.add("");
+            }
+        }
+
+        for (int i = 0; i < args.size(); i += INDEX_BATCH_SIZE * 2) {
+            verifyIndexEntries(args.subList(i, Math.min(i + INDEX_BATCH_SIZE * 2, args.size())));
+        }
+
+        if (this.localIndex != null) {
+            this.localIndex.invalidateAll();
+        }
     }
 
     public void clear() {
-        this.cache.delete(ServerKeys.PLAYERS);
+        this.cache.delete(ServerKeys.PLAYERS, ServerKeys.PLAYERS_BY_UUID);
+        if (this.client != null) {
+            this.client.invalidateNearCache(ServerKeys.PLAYERS, null);
+        } else if (this.nearCache != null) {
+            this.nearCache.invalidate(ServerKeys.PLAYERS);
+        }
+        if (this.localIndex != null) {
+            this.localIndex.invalidateAll();
+        }
+    }
+
+    void invalidate(String name) {
+        if (this.client != null) {
+            this.client.invalidateNearCache(ServerKeys.PLAYERS, name);
+        } else if (this.nearCache != null) {
+            this.nearCache.invalidate(ServerKeys.PLAYERS, name);
+        }
+    }
+
+    private void removeIndexEntries(Collection<Player> players) {
+        List<String> args = Lists.newArrayListWithCapacity(players.size() * 2);
+        players.forEach(player -> {
+            args.add(player.getUUID().toString());
+            args.add(player.getName());
+        });
+
+        if (this.removeIndex != null) {
+            this.client.getScripts().evalLong(this.removeIndex, List.of(ServerKeys.PLAYERS_BY_UUID), args);
+        } else {
+            this.cache.execute("HDEL", commands -> removeIndexLocally(commands, List.of(ServerKeys.PLAYERS_BY_UUID), args));
+        }
+    }
+
+    private void verifyIndexEntries(List<String> args) {
+        List<String> keys = List.of(ServerKeys.PLAYERS, ServerKeys.PLAYERS_BY_UUID);
+        if (this.verifyIndex != null) {
+            this.client.getScripts().evalLong(this.verifyIndex, keys, args);
+        } else {
+            this.cache.execute("HSET", commands -> verifyIndexLocally(commands, keys, args));
+        }
+    }
+
+    private @NotNull String encode(@NotNull Player player) {
+        Decoder<Player> decoder = this.client.getDecoder(Player.class);
+        checkNotNull(decoder, "Decoder for " + Player.class.getName() + " is not registered");
+
+        return decoder.encode(player, this.client);
+    }
+
+    // The in-memory backend has no Lua interpreter; these mirror the scripts
+    // above and run atomically under the backend lock instead.
+    private static Object setPlayerLocally(@NotNull RedisCommands commands,
+                                           @NotNull List<String> keys,
+                                           @NotNull List<String> args) {
+        String players = keys.get(0);
+        String index = keys.get(1);
+        String name = args.get(0);
+        String uuid = args.get(1);
+
+        String previous = getUUID(commands.hget(players, name));
+        if (previous != null && !previous.equals(uuid) && name.equals(commands.hget(index, previous))) {
+            commands.hdel(index, previous);
+        }
+
+        commands.hset(players, name, args.get(2));
+        commands.hset(index, uuid, name);
+        return 1L;
+    }
+
+    private static Object removePlayerLocally(@NotNull RedisCommands commands,
+                                              @NotNull List<String> keys,
+                                              @NotNull List<String> args) {
+        String players = keys.get(0);
+        String index = keys.get(1);
+        String name = args.get(0);
+
+        String raw = commands.hget(players, name);
+        if (raw == null) {
+            return 0L;
+        }
+
+        String uuid = getUUID(raw);
+        if (uuid != null && name.equals(commands.hget(index, uuid))) {
+            commands.hdel(index, uuid);
+        }
+
+        commands.hdel(players, name);
+        return 1L;
+    }
+
+    private static Object removeIndexLocally(@NotNull RedisCommands commands,
+                                             @NotNull List<String> keys,
+                                             @NotNull List<String> args) {
+        String index = keys.get(0);
+
+        long removed = 0;
+        for (int i = 0; i + 1 < args.size(); i += 2) {
+            if (args.get(i + 1).equals(commands.hget(index, args.get(i)))) {
+                removed += commands.hdel(index, args.get(i));
+            }
+        }
+        return removed;
+    }
+
+    private static Object verifyIndexLocally(@NotNull RedisCommands commands,
+                                             @NotNull List<String> keys,
+                                             @NotNull List<String> args) {
+        String players = keys.get(0);
+        String index = keys.get(1);
+
+        long changed = 0;
+        for (int i = 0; i + 1 < args.size(); i += 2) {
+            String uuid = args.get(i);
+            String name = args.get(i + 1).isEmpty() ? commands.hget(index, uuid) : args.get(i + 1);
+            if (name == null) {
+                continue;
+            }
+
+            if (uuid.equals(getUUID(commands.hget(players, name)))) {
+                changed += commands.hset(index, uuid, name);
+            } else if (name.equals(commands.hget(index, uuid))) {
+                changed += commands.hdel(index, uuid);
+            }
+        }
+        return changed;
+    }
+
+    private static @Nullable String getUUID(@Nullable String raw) {
+        if (raw == null) {
+            return null;
+        }
+
+        JsonElement uuid = GsonProvider.getGson().fromJson(raw, JsonObject.class).get("uuid");
+        return uuid == null || uuid.isJsonNull() ? null : uuid.getAsString();
     }
 }
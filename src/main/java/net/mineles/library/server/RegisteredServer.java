@@ -21,7 +21,7 @@ public final class RegisteredServer extends Server {
     }
 
     public RegisteredServer(Server handle, HostAndPort hostAndPort, Set<UUID> players, Set<UUID> entries, long startTime) {
-        super(handle.getId(), handle.getName(), handle.getImage());
+        super(handle.getId(), handle.getName(), handle.getImage(), handle.getCreateTime());
         this.hostAndPort = hostAndPort;
         this.players = players;
         this.entries = entries;
@@ -0,0 +1,127 @@
+package net.mineles.library.server;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.sun.management.OperatingSystemMXBean;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+// Samples the node's resource usage on a fixed cadence and keeps an
+// exponentially weighted average of it, so a single slow tick or GC pause
+// doesn't send every player to another server.
+public final class ResourceSampler {
+    private final String executorName;
+    private final Source source;
+    private final Duration interval;
+    private final double alpha;
+
+    private volatile ResourceUsages usages;
+    private ScheduledExecutorService executor;
+
+    // The window is the EWMA's time constant: a sample's weight has dropped
+    // to about a third after one window.
+    public ResourceSampler(@NotNull String executorName,
+                           @NotNull Source source,
+                           @NotNull Duration interval,
+                           @NotNull Duration window) {
+        checkArgument(!interval.isNegative() && !interval.isZero(), "Interval must be positive");
+        checkArgument(window.compareTo(interval) >= 0, "Window must not be shorter than the interval");
+
+        this.executorName = executorName;
+        this.source = source;
+        this.interval = interval;
+        this.alpha = 1 - Math.exp(-(double) interval.toMillis() / window.toMillis());
+    }
+
+    public ResourceSampler(@NotNull String executorName,
+                           @NotNull Source source) {
+        this(executorName, source, Duration.ofSeconds(1), Duration.ofSeconds(10));
+    }
+
+    public synchronized void start() {
+        if (this.executor != null) {
+            return;
+        }
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat(this.executorName + "-resource-sampler-%d")
+                .setDaemon(true)
+                .build());
+
+        long interval = this.interval.toMillis();
+        this.executor.scheduleAtFixedRate(() -> {
+            try {
+                sample();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (this.executor == null) {
+            return;
+        }
+
+        this.executor.shutdownNow();
+        this.executor = null;
+    }
+
+    public void sample() {
+        ResourceUsages sample = this.source.sample();
+        ResourceUsages usages = this.usages;
+        this.usages = usages == null ? sample : usages.blend(sample, this.alpha);
+    }
+
+    public @NotNull ResourceUsages getUsages() {
+        ResourceUsages usages = this.usages;
+        return usages == null ? ResourceUsages.IDLE : usages;
+    }
+
+    // Uses spark when it is installed, and the JVM plus the given tick
+    // statistics otherwise. The spark classes are only loaded in here, so
+    // this works without spark on the classpath.
+    public static @NotNull Source detect(@NotNull Source fallback) {
+        try {
+            return SparkResourceSource.create(fallback);
+        } catch (IllegalStateException | NoClassDefFoundError e) {
+            return fallback;
+        }
+    }
+
+    public static @NotNull Source system(@NotNull DoubleSupplier tps,
+                                        @NotNull DoubleSupplier mspt) {
+        OperatingSystemMXBean os = ManagementFactory.getPlatformMXBean(OperatingSystemMXBean.class);
+        Runtime runtime = Runtime.getRuntime();
+        return () -> {
+            double memory = (double) (runtime.totalMemory() - runtime.freeMemory()) / runtime.maxMemory();
+
+            // Both loads are negative until the JVM has a first reading.
+            return new ResourceUsages(
+                    Math.max(os.getProcessCpuLoad(), 0),
+                    Math.max(os.getCpuLoad(), 0),
+                    memory,
+                    Math.min(tps.getAsDouble(), 20),
+                    mspt.getAsDouble()
+            );
+        };
+    }
+
+    // Proxies have no tick loop, so they report a server that always keeps up.
+    public static @NotNull Source system() {
+        return system(() -> 20, () -> 0);
+    }
+
+    @FunctionalInterface
+    public interface Source {
+
+        @NotNull ResourceUsages sample();
+    }
+}
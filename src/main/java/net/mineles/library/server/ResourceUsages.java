@@ -1,9 +1,10 @@
 package net.mineles.library.server;
 
-import me.lucko.spark.api.SparkProvider;
-import me.lucko.spark.api.statistic.StatisticWindow;
-
 public final class ResourceUsages {
+    public static final ResourceUsages IDLE = new ResourceUsages(0, 0, 0, 20, 0);
+
+    private static final double TICK_BUDGET = 50;
+
     private final double cpuProcess;
     private final double cpuSystem;
     private final double memory;
@@ -17,4 +18,48 @@ public final class ResourceUsages {
         this.tps = tps;
         this.mspt = mspt;
     }
+
+    public double getCpuProcess() {
+        return this.cpuProcess;
+    }
+
+    public double getCpuSystem() {
+        return this.cpuSystem;
+    }
+
+    public double getMemory() {
+        return this.memory;
+    }
+
+    public double getTps() {
+        return this.tps;
+    }
+
+    public double getMspt() {
+        return this.mspt;
+    }
+
+    // The share of the tick budget in use dominates the score, since that's
+    // what players notice first; CPU and memory break ties between servers
+    // that are still keeping up.
+    public double getLoad() {
+        double tick = Math.max(this.mspt / TICK_BUDGET, 1 - this.tps / 20);
+        return 0.6 * tick + 0.25 * this.cpuProcess + 0.15 * this.memory;
+    }
+
+    // Exponentially weighted moving average; alpha is the weight of the new
+    // sample.
+    public ResourceUsages blend(ResourceUsages sample, double alpha) {
+        return new ResourceUsages(
+                blend(this.cpuProcess, sample.cpuProcess, alpha),
+                blend(this.cpuSystem, sample.cpuSystem, alpha),
+                blend(this.memory, sample.memory, alpha),
+                blend(this.tps, sample.tps, alpha),
+                blend(this.mspt, sample.mspt, alpha)
+        );
+    }
+
+    private static double blend(double previous, double sample, double alpha) {
+        return previous + alpha * (sample - previous);
+    }
 }
@@ -1,29 +1,104 @@
 package net.mineles.library.server;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
 import net.mineles.library.connection.HostAndPort;
+import net.mineles.library.redis.BatchResponse;
+import net.mineles.library.redis.RedisBatch;
 import net.mineles.library.redis.RedisCache;
+import net.mineles.library.redis.RedisClient;
+import net.mineles.library.redis.cache.NearCache;
+import net.mineles.library.redis.message.DeliveryListener;
 import net.mineles.library.server.constants.ServerKeys;
+import net.mineles.library.server.query.Filters;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public final class ServerCache {
     private final RedisCache cache;
+    private final @Nullable NearCache nearCache;
+    private final @Nullable RedisClient client;
+
+    private final List<Consumer<JsonObject>> changeListeners;
+
+    private volatile @Nullable ServerRegistry registry;
+    private boolean subscribed;
 
     public ServerCache(RedisCache cache) {
+        this(cache, null);
+    }
+
+    public ServerCache(RedisCache cache, @Nullable NearCache nearCache) {
         this.cache = cache;
+        this.nearCache = nearCache;
+        this.client = null;
+        this.changeListeners = Lists.newCopyOnWriteArrayList();
+    }
+
+    public ServerCache(RedisClient client) {
+        this.cache = client.getCache();
+        this.nearCache = client.getNearCache();
+        this.client = client;
+        this.changeListeners = Lists.newCopyOnWriteArrayList();
+
+        // Server writes only publish servers:changed, so that is also what
+        // evicts the near cache on every node.
+        NearCache nearCache = this.nearCache;
+        if (nearCache != null) {
+            addChangeListener(message -> evict(nearCache, message));
+            client.addDeliveryListener(new DeliveryListener() {
+                @Override
+                public void onGap(@NotNull String channel, @NotNull String origin, long missed) {
+                    if (channel.equals(ServerKeys.SERVERS_CHANGED.split(":")[0])) {
+                        nearCache.invalidateLocally(ServerKeys.SERVERS);
+                    }
+                }
+            });
+        }
     }
 
     public long getServerCount() {
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            return registry.getSnapshot().size();
+        }
+
         return this.cache.hlen(ServerKeys.SERVERS);
     }
 
     public Map<String, Server> getServers() {
-        return this.cache.hgetAllDecoded(ServerKeys.SERVERS, Server.class);
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            return registry.getSnapshot().getServers();
+        }
+
+        if (this.nearCache != null) {
+            Map<String, Server> servers = this.nearCache.hgetAllLoaded(ServerKeys.SERVERS, ServerCache.class, this::fetchServers);
+            return Maps.newHashMap(Maps.transformValues(servers, ServerCache::copy));
+        }
+
+        return fetchServers();
     }
 
     public Map<String, RegisteredServer> getRegisteredServers() {
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            return registry.getSnapshot().getRegisteredServers();
+        }
+
         return getServers().values().stream()
                 .filter(server -> server instanceof RegisteredServer)
                 .map(server -> (RegisteredServer) server)
@@ -31,33 +106,460 @@ public final class ServerCache {
     }
 
     public Server getServer(String name) {
-        return this.cache.hgetDecoded(ServerKeys.SERVERS, name, Server.class);
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            return registry.getSnapshot().getServer(name);
+        }
+
+        // Cached entries hold the membership sets too, so a hit costs no
+        // round trip; callers get a copy they are free to modify.
+        if (this.nearCache != null) {
+            Server server = this.nearCache.hgetLoaded(ServerKeys.SERVERS, name, ServerCache.class, () -> fetchServer(name));
+            return server == null ? null : copy(server);
+        }
+
+        return fetchServer(name);
+    }
+
+    public Collection<RegisteredServer> getRegisteredServersByImage(String image) {
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            return registry.getSnapshot().getRegisteredServers(image);
+        }
+
+        String imageKey = Filters.imageKey(image);
+        return getRegisteredServers().values().stream()
+                .filter(server -> Filters.imageKey(server.getImage()).equals(imageKey))
+                .toList();
+    }
+
+    public Map<String, Server> getServers(Collection<String> names) {
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            ServerSnapshot snapshot = registry.getSnapshot();
+            return names.stream()
+                    .filter(name -> snapshot.getServer(name) != null)
+                    .collect(Collectors.toMap(Function.identity(), snapshot::getServer, (first, second) -> first));
+        }
+
+        return fetchServers(names);
+    }
+
+    public Map<String, RegisteredServer> getRegisteredServers(Collection<String> names) {
+        return getServers(names).entrySet().stream()
+                .filter(entry -> entry.getValue() instanceof RegisteredServer)
+                .collect(Collectors.toMap(Map.Entry::getKey, entry -> (RegisteredServer) entry.getValue()));
     }
 
     public RegisteredServer getRegisteredServer(String name) {
-        return getRegisteredServers().get(name);
+        Server server = getServer(name);
+        return server instanceof RegisteredServer ? (RegisteredServer) server : null;
     }
 
     public RegisteredServer getRegisteredServer(HostAndPort hostAndPort) {
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            return registry.getSnapshot().getRegisteredServer(hostAndPort);
+        }
+
         return getRegisteredServers().values().stream()
                 .filter(server -> server.getHostAndPort().equals(hostAndPort))
                 .findFirst()
                 .orElse(null);
     }
 
+    // Only the address is compared, so without a registry this reads the
+    // records alone instead of every server's players and entries.
+    public @Nullable String getServerName(HostAndPort hostAndPort) {
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            RegisteredServer server = registry.getSnapshot().getRegisteredServer(hostAndPort);
+            return server == null ? null : server.getName();
+        }
+
+        Map<String, Server> servers = this.cache.hgetAllDecoded(ServerKeys.SERVERS, Server.class);
+        for (Map.Entry<String, Server> entry : servers.entrySet()) {
+            if (entry.getValue() instanceof RegisteredServer server && server.getHostAndPort().equals(hostAndPort)) {
+                return entry.getKey();
+            }
+        }
+        return null;
+    }
+
+    public boolean isReplicated() {
+        return this.registry != null;
+    }
+
+    public long getPlayerCount(String name) {
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            RegisteredServer server = registry.getSnapshot().getRegisteredServer(name);
+            return server == null ? 0 : server.getPlayerCount();
+        }
+
+        return this.cache.scard(ServerKeys.serverPlayers(name));
+    }
+
+    public Set<UUID> getPlayers(String name) {
+        return toUUIDs(this.cache.smembers(ServerKeys.serverPlayers(name)));
+    }
+
+    public Set<UUID> getEntries(String name) {
+        return toUUIDs(this.cache.smembers(ServerKeys.serverEntries(name)));
+    }
+
+    public void addPlayer(String name, UUID uuid) {
+        this.cache.sadd(ServerKeys.serverPlayers(name), uuid.toString());
+        invalidate(name);
+    }
+
+    public void removePlayer(String name, UUID uuid) {
+        this.cache.srem(ServerKeys.serverPlayers(name), uuid.toString());
+        invalidate(name);
+    }
+
+    public void addEntry(String name, UUID uuid) {
+        this.cache.sadd(ServerKeys.serverEntries(name), uuid.toString());
+        invalidate(name);
+    }
+
+    public void removeEntry(String name, UUID uuid) {
+        this.cache.srem(ServerKeys.serverEntries(name), uuid.toString());
+        invalidate(name);
+    }
+
     public boolean existsServer(String name) {
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            return registry.getSnapshot().getServer(name) != null;
+        }
+
         return this.cache.hexists(ServerKeys.SERVERS, name);
     }
 
     public void setServer(String name, Server server) {
-        this.cache.hsetDecoded(ServerKeys.SERVERS, name, server, Server.class);
+        Map<String, Server> stored = fetchStoredMembers(Map.of(name, server));
+        this.cache.pipelined(batch -> writeServer(batch, name, server, stored.get(name)));
+
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            registry.apply(name, copy(server));
+        }
+        invalidate(name);
+    }
+
+    public void setServers(Map<String, ? extends Server> servers) {
+        this.cache.pipelined(batch -> setServers(batch, servers));
+    }
+
+    public void setServers(RedisBatch batch, Map<String, ? extends Server> servers) {
+        Map<String, Server> stored = fetchStoredMembers(servers);
+        servers.forEach((name, server) -> writeServer(batch, name, server, stored.get(name)));
+        batch.afterSync(() -> {
+            ServerRegistry registry = this.registry;
+            if (registry != null) {
+                servers.forEach((name, server) -> registry.apply(name, copy(server)));
+            }
+            invalidate(servers.keySet());
+        });
     }
 
     public void delServer(String name) {
-        this.cache.hdel(ServerKeys.SERVERS, name);
+        this.cache.pipelined(batch -> {
+            batch.hdel(ServerKeys.SERVERS, name);
+            batch.delete(ServerKeys.serverPlayers(name), ServerKeys.serverEntries(name));
+            batch.srem(ServerKeys.SERVERS_DRAINING, name);
+            batch.srem(ServerKeys.SERVERS_MONITORED, name);
+            batch.hdel(ServerKeys.SERVERS_STANDBY, name);
+        });
+
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            registry.apply(name, null);
+        }
+        invalidate(name);
+    }
+
+    // Removes several servers in one round trip, e.g. when the health checker
+    // evicts the ones that stopped sending heartbeats.
+    public void delServers(RedisBatch batch, Collection<String> names) {
+        names.forEach(name -> {
+            batch.hdel(ServerKeys.SERVERS, name);
+            batch.delete(ServerKeys.serverPlayers(name), ServerKeys.serverEntries(name), ServerKeys.serverHeartbeat(name));
+            batch.srem(ServerKeys.SERVERS_DRAINING, name);
+            batch.srem(ServerKeys.SERVERS_MONITORED, name);
+            batch.hdel(ServerKeys.SERVERS_STANDBY, name);
+        });
+        batch.afterSync(() -> {
+            ServerRegistry registry = this.registry;
+            if (registry != null) {
+                names.forEach(name -> registry.apply(name, null));
+            }
+            invalidate(names);
+        });
+    }
+
+    public Set<String> getDrainingServers() {
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            return registry.getSnapshot().getDrainingServers();
+        }
+
+        return this.cache.smembers(ServerKeys.SERVERS_DRAINING);
+    }
+
+    public void setDraining(String name, boolean draining) {
+        if (draining) {
+            this.cache.sadd(ServerKeys.SERVERS_DRAINING, name);
+        } else {
+            this.cache.srem(ServerKeys.SERVERS_DRAINING, name);
+        }
+
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            registry.applyDraining(name, draining);
+        }
+        publishRouting();
+    }
+
+    public Map<String, String> getStandbyServers() {
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            return registry.getSnapshot().getStandbyServers();
+        }
+
+        return this.cache.hgetAll(ServerKeys.SERVERS_STANDBY);
+    }
+
+    // Both routing sets in one snapshot read or one pipelined round trip.
+    ServerRouting getRouting() {
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            return registry.getSnapshot().getRouting();
+        }
+
+        return fetchRouting();
+    }
+
+    // A null template takes the server out of standby.
+    public void setStandby(String name, @Nullable String template) {
+        if (template != null) {
+            this.cache.hset(ServerKeys.SERVERS_STANDBY, name, template);
+        } else {
+            this.cache.hdel(ServerKeys.SERVERS_STANDBY, name);
+        }
+
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            registry.applyStandby(name, template);
+        }
+        publishRouting();
     }
 
     public void clear() {
-        this.cache.delete(ServerKeys.SERVERS);
+        Set<String> names = this.cache.hkeys(ServerKeys.SERVERS);
+        this.cache.pipelined(batch -> {
+            batch.delete(ServerKeys.SERVERS);
+            names.forEach(name -> batch.delete(ServerKeys.serverPlayers(name), ServerKeys.serverEntries(name)));
+        });
+        if (this.client == null && this.nearCache != null) {
+            this.nearCache.invalidate(ServerKeys.SERVERS);
+        } else if (this.nearCache != null) {
+            this.nearCache.invalidateLocally(ServerKeys.SERVERS);
+        }
+
+        ServerRegistry registry = this.registry;
+        if (registry != null) {
+            registry.reload();
+        }
+        if (this.client != null) {
+            JsonObject message = new JsonObject();
+            message.addProperty("all", true);
+            this.client.publish(ServerKeys.SERVERS_CHANGED, message.toString());
+        }
+    }
+
+    Map<String, Server> fetchServers() {
+        return withMembers(this.cache.hgetAllDecoded(ServerKeys.SERVERS, Server.class));
+    }
+
+    Server fetchServer(String name) {
+        Server server = this.cache.hgetDecoded(ServerKeys.SERVERS, name, Server.class);
+        return server == null ? null : withMembers(Map.of(name, server)).get(name);
+    }
+
+    Map<String, Server> fetchServers(Collection<String> names) {
+        return withMembers(this.cache.hmgetDecoded(ServerKeys.SERVERS, Server.class, names.toArray(new String[0])));
+    }
+
+    ServerRouting fetchRouting() {
+        Set<String> draining = Sets.newHashSet();
+        Map<String, String> standby = Maps.newHashMap();
+        this.cache.pipelined(batch -> {
+            BatchResponse<Set<String>> members = batch.smembers(ServerKeys.SERVERS_DRAINING);
+            BatchResponse<Map<String, String>> templates = batch.hgetAll(ServerKeys.SERVERS_STANDBY);
+            batch.afterSync(() -> {
+                draining.addAll(members.get());
+                standby.putAll(templates.get());
+            });
+        });
+        return new ServerRouting(draining, standby);
+    }
+
+    void setRegistry(@Nullable ServerRegistry registry) {
+        this.registry = registry;
+    }
+
+    void invalidate(String name) {
+        invalidate(List.of(name));
+    }
+
+    // Every change to the servers hash goes through here, so this is also
+    // where replicas on other nodes are told which servers to refetch.
+    void invalidate(Collection<String> names) {
+        if (names.isEmpty()) {
+            return;
+        }
+
+        if (this.client == null && this.nearCache != null) {
+            names.forEach(name -> this.nearCache.invalidate(ServerKeys.SERVERS, name));
+        } else if (this.nearCache != null) {
+            names.forEach(name -> this.nearCache.invalidateLocally(ServerKeys.SERVERS, name));
+        }
+
+        if (this.client != null) {
+            JsonArray array = new JsonArray();
+            names.forEach(array::add);
+
+            JsonObject message = new JsonObject();
+            message.add("names", array);
+            this.client.publish(ServerKeys.SERVERS_CHANGED, message.toString());
+        }
+    }
+
+    synchronized void addChangeListener(Consumer<JsonObject> listener) {
+        this.changeListeners.add(listener);
+        if (this.client != null && !this.subscribed) {
+            this.subscribed = true;
+            this.client.subscribe(ServerKeys.SERVERS_CHANGED,
+                    (client, message) -> this.changeListeners.forEach(changeListener -> changeListener.accept(message)));
+        }
+    }
+
+    void removeChangeListener(Consumer<JsonObject> listener) {
+        this.changeListeners.remove(listener);
+    }
+
+    private static void evict(NearCache nearCache, JsonObject message) {
+        if (message.has("all")) {
+            nearCache.invalidateLocally(ServerKeys.SERVERS);
+            return;
+        }
+
+        JsonElement names = message.get("names");
+        if (names != null && names.isJsonArray()) {
+            names.getAsJsonArray().forEach(name -> nearCache.invalidateLocally(ServerKeys.SERVERS, name.getAsString()));
+        }
+    }
+
+    private void publishRouting() {
+        if (this.client != null) {
+            JsonObject message = new JsonObject();
+            message.addProperty("routing", true);
+            this.client.publish(ServerKeys.SERVERS_CHANGED, message.toString());
+        }
+    }
+
+    // The record only holds the server itself. Players and entries live in
+    // their own sets that the scripts change with SADD/SREM, so a caller's
+    // members are written the same way, as the difference from the stored
+    // sets, instead of replacing the sets wholesale.
+    private void writeServer(RedisBatch batch, String name, Server server, @Nullable Server stored) {
+        if (!(server instanceof RegisteredServer registeredServer)) {
+            batch.hsetDecoded(ServerKeys.SERVERS, name, server, Server.class);
+            return;
+        }
+
+        RegisteredServer record = new RegisteredServer(registeredServer, registeredServer.getHostAndPort(),
+                Sets.newHashSet(), Sets.newHashSet(), registeredServer.getStartTime());
+        batch.hsetDecoded(ServerKeys.SERVERS, name, record, Server.class);
+
+        RegisteredServer current = stored instanceof RegisteredServer storedServer ? storedServer : null;
+        writeMembers(batch, ServerKeys.serverPlayers(name),
+                current == null ? Set.of() : current.getPlayers(), registeredServer.getPlayers());
+        writeMembers(batch, ServerKeys.serverEntries(name),
+                current == null ? Set.of() : current.getEntries(), registeredServer.getEntries());
+    }
+
+    private static void writeMembers(RedisBatch batch, String key, Set<UUID> stored, Set<UUID> members) {
+        String[] added = members.stream()
+                .filter(member -> !stored.contains(member))
+                .map(UUID::toString)
+                .toArray(String[]::new);
+        String[] removed = stored.stream()
+                .filter(member -> !members.contains(member))
+                .map(UUID::toString)
+                .toArray(String[]::new);
+
+        if (added.length > 0) {
+            batch.sadd(key, added);
+        }
+        if (removed.length > 0) {
+            batch.srem(key, removed);
+        }
+    }
+
+    private Map<String, Server> fetchStoredMembers(Map<String, ? extends Server> servers) {
+        Map<String, Server> registered = Maps.newHashMap();
+        servers.forEach((name, server) -> {
+            if (server instanceof RegisteredServer) {
+                registered.put(name, server);
+            }
+        });
+        return registered.isEmpty() ? registered : withMembers(registered);
+    }
+
+    private Map<String, Server> withMembers(Map<String, Server> servers) {
+        if (servers.values().stream().noneMatch(RegisteredServer.class::isInstance)) {
+            return servers;
+        }
+
+        Map<String, BatchResponse<Set<String>>> players = Maps.newHashMap();
+        Map<String, BatchResponse<Set<String>>> entries = Maps.newHashMap();
+        this.cache.pipelined(batch -> servers.forEach((name, server) -> {
+            if (server instanceof RegisteredServer) {
+                players.put(name, batch.smembers(ServerKeys.serverPlayers(name)));
+                entries.put(name, batch.smembers(ServerKeys.serverEntries(name)));
+            }
+        }));
+
+        Map<String, Server> result = Maps.newHashMapWithExpectedSize(servers.size());
+        servers.forEach((name, server) -> {
+            if (server instanceof RegisteredServer registeredServer) {
+                result.put(name, new RegisteredServer(registeredServer, registeredServer.getHostAndPort(),
+                        toUUIDs(players.get(name).get()), toUUIDs(entries.get(name).get()), registeredServer.getStartTime()));
+            } else {
+                result.put(name, server);
+            }
+        });
+        return result;
+    }
+
+    private static Server copy(Server server) {
+        if (!(server instanceof RegisteredServer registeredServer)) {
+            return server;
+        }
+
+        return new RegisteredServer(registeredServer, registeredServer.getHostAndPort(),
+                Sets.newHashSet(registeredServer.getPlayers()), Sets.newHashSet(registeredServer.getEntries()),
+                registeredServer.getStartTime());
+    }
+
+    private static Set<UUID> toUUIDs(@Nullable Set<String> members) {
+        Set<UUID> uuids = Sets.newHashSet();
+        if (members != null) {
+            members.forEach(member -> uuids.add(UUID.fromString(member)));
+        }
+        return uuids;
     }
 }
@@ -3,6 +3,7 @@ package net.mineles.library.server;
 import net.mineles.library.docker.client.DockerTemplate;
 import net.mineles.library.docker.container.ContainerTemplate;
 import net.mineles.library.docker.container.DockerContainerProperties;
+import net.mineles.library.server.pool.ContainerPool;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -15,7 +16,25 @@ public final class ServerController {
         this.dockerTemplate = dockerTemplate;
     }
 
-    public void startServer(@NotNull String name) {
+    // A standby server from the container pool is handed out when there is
+    // one, which skips the container start and the server boot.
+    public @NotNull Server startServer(@NotNull String name) {
+        ContainerPool containerPool = this.serverManager.getContainerPool();
+        if (containerPool != null) {
+            Server server = containerPool.allocate(name);
+            if (server != null) {
+                return server;
+            }
+        }
+
+        return createServer(name);
+    }
+
+    public @NotNull Server startServer(@NotNull ContainerTemplate template) {
+        return createServer(template);
+    }
+
+    public @NotNull Server createServer(@NotNull String name) {
         DockerTemplate dockerTemplate = this.dockerTemplate;
         if (dockerTemplate == null) {
             throw new NullPointerException("Docker template is null");
@@ -26,10 +45,10 @@ public final class ServerController {
             throw new NullPointerException("Container template not found for " + name);
         }
 
-        startServer(template);
+        return createServer(template);
     }
 
-    public void startServer(@NotNull ContainerTemplate template) {
+    public @NotNull Server createServer(@NotNull ContainerTemplate template) {
         DockerTemplate dockerTemplate = this.dockerTemplate;
         if (dockerTemplate == null) {
             throw new NullPointerException("Docker template is null");
@@ -55,6 +74,7 @@ public final class ServerController {
 
         Server server = new Server(id, name, properties.image());
         this.serverManager.getServerCache().setServer(name, server);
+        return server;
     }
 
     public void stopServer(@NotNull Server server) {
@@ -1,26 +1,55 @@
 package net.mineles.library.server;
 
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.gson.JsonObject;
+import net.mineles.library.connection.HostAndPort;
 import net.mineles.library.docker.client.DockerTemplate;
-import net.mineles.library.redis.RedisCache;
 import net.mineles.library.redis.RedisClient;
 import net.mineles.library.server.constants.ServerKeys;
 import net.mineles.library.server.decoders.PlayerDecoder;
 import net.mineles.library.server.decoders.ServerDecoder;
+import net.mineles.library.server.health.HealthChecker;
+import net.mineles.library.server.health.HealthOptions;
+import net.mineles.library.server.health.Heartbeat;
+import net.mineles.library.server.health.ScheduledHealthChecker;
 import net.mineles.library.server.query.Filter;
 import net.mineles.library.server.query.Filters;
+import net.mineles.library.server.query.ServerQuery;
 import net.mineles.library.server.query.Sort;
+import net.mineles.library.server.pool.ContainerPool;
+import net.mineles.library.server.pool.ContainerPoolOptions;
+import net.mineles.library.server.redirect.RedirectGroup;
+import net.mineles.library.server.redirect.RedirectPlan;
+import net.mineles.library.server.redirect.RedirectPlanner;
+import net.mineles.library.server.scaling.Autoscaler;
 import org.jetbrains.annotations.Nullable;
 
+import java.time.Duration;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntSupplier;
+import java.util.function.ToIntFunction;
 
 public final class ServerManager {
     private final ServerController serverController;
     private final RedisClient redisClient;
     private final ServerCache serverCache;
     private final PlayerCache playerCache;
+    private final ServerScripts serverScripts;
+
+    private ServerRegistry serverRegistry;
+    private volatile HealthChecker healthChecker;
+    private ScheduledHealthChecker scheduledHealthChecker;
+    private ResourceSampler resourceSampler;
+    private Autoscaler autoscaler;
+    private ContainerPool containerPool;
 
     public ServerManager(RedisClient redisClient) {
         this(redisClient, null);
@@ -30,9 +59,9 @@ public final class ServerManager {
         this.redisClient = redisClient;
         this.serverController = new ServerController(this, dockerTemplate);
 
-        RedisCache cache = redisClient.getCache();
-        this.serverCache = new ServerCache(cache);
-        this.playerCache = new PlayerCache(cache);
+        this.serverCache = new ServerCache(redisClient);
+        this.playerCache = new PlayerCache(redisClient);
+        this.serverScripts = new ServerScripts(redisClient.getScripts(), this.serverCache, this.playerCache);
 
         redisClient.registerDecoder(Player.class, new PlayerDecoder());
         redisClient.registerDecoder(Server.class, new ServerDecoder());
@@ -47,91 +76,142 @@ public final class ServerManager {
     }
 
     public void redirectPlayer(String playerName, Filter[] filters, Sort... sorts) {
-        List<? extends Server> servers = sortServers(filters, sorts);
-        if (servers.isEmpty()) {
+        RegisteredServer server = routingQuery()
+                .filter(filters)
+                .sort(sorts)
+                .first();
+        if (server == null) {
             return;
         }
 
-        Server server = servers.get(0);
-
         JsonObject object = new JsonObject();
         object.addProperty("player", playerName);
         object.addProperty("server", server.getName());
         this.redisClient.publish(ServerKeys.PLAYERS_SWITCH_SERVER_REQUEST, object.toString());
     }
 
-    public void redirectPlayerForCache(String playerName, UUID playerUniqueId, String proxyName, String serverName) {
-        Player player = this.playerCache.getPlayer(playerName);
-        if (player == null) {
-            player = new Player(playerUniqueId, playerName);
-        }
+    public RedirectPlan redirectPlayers(Collection<RedirectGroup> groups, String image, int capacity, Sort... sorts) {
+        ServerQuery query = routingQuery()
+                .filter(Filters.online(), Filters.image(image))
+                .sort(sorts);
+        return redirectPlayers(groups, query, server -> capacity);
+    }
 
-        if (player.getCurrentProxy() == null) {
-            player.setCurrentProxy(proxyName);
+    // Places every group against a single read of the servers, then sends
+    // each proxy one message with the moves of all its players instead of
+    // one message per player.
+    public RedirectPlan redirectPlayers(Collection<RedirectGroup> groups, ServerQuery query, ToIntFunction<RegisteredServer> capacity) {
+        RedirectPlan plan = RedirectPlanner.plan(query.list(), groups, capacity);
+        if (plan.getAssignments().isEmpty()) {
+            return plan;
         }
 
-        if (player.getCurrentServer() != null) {
-            RegisteredServer registeredServer = this.serverCache.getRegisteredServer(player.getCurrentServer());
-            if (registeredServer != null) {
-                registeredServer.getPlayers().remove(player.getUUID());
-                this.serverCache.setServer(player.getCurrentServer(), registeredServer);
+        Map<String, JsonObject> moves = Maps.newHashMap();
+        this.playerCache.getPlayers(plan.getAssignments().keySet()).forEach((name, player) -> {
+            if (player == null || player.getCurrentProxy() == null) {
+                return;
             }
-        }
 
-        RegisteredServer registeredServer = this.serverCache.getRegisteredServer(serverName);
-        if (registeredServer != null) {
-            registeredServer.getPlayers().add(playerUniqueId);
-            this.serverCache.setServer(serverName, registeredServer);
-            player.setCurrentServer(serverName);
-        }
+            moves.computeIfAbsent(player.getCurrentProxy(), proxy -> new JsonObject())
+                    .addProperty(name, plan.getServer(name));
+        });
 
-        this.playerCache.setPlayer(playerName, player);
+        moves.forEach((proxy, players) -> {
+            JsonObject object = new JsonObject();
+            object.addProperty("proxy", proxy);
+            object.add("players", players);
+            this.redisClient.publish(ServerKeys.PLAYERS_SWITCH_SERVER_BATCH_REQUEST, object.toString());
+        });
+        return plan;
     }
 
-    public void removePlayerFromCache(String playerName) {
-        Player player = this.playerCache.getPlayer(playerName);
-        if (player == null) {
-            return;
-        }
+    public void redirectPlayerForCache(String playerName, UUID playerUniqueId, String proxyName, String serverName) {
+        this.serverScripts.movePlayer(playerName, playerUniqueId, proxyName, serverName);
+    }
 
-        this.playerCache.removePlayer(playerName);
+    public void removePlayerFromCache(String playerName) {
+        this.serverScripts.removePlayer(playerName);
+    }
 
-        if (player.getCurrentProxy() != null) {
-            removePlayerFromServerCache(player.getCurrentProxy(), player.getUUID());
-        }
-        if (player.getCurrentServer() != null) {
-            removePlayerFromServerCache(player.getCurrentServer(), player.getUUID());
+    public boolean registerServer(String serverName, HostAndPort hostAndPort) {
+        boolean registered = this.serverScripts.registerServer(serverName, hostAndPort);
+        HealthChecker checker = this.healthChecker;
+        if (registered && checker != null) {
+            checker.onRegistered(serverName, hostAndPort);
         }
+        return registered;
     }
 
-    private void removePlayerFromServerCache(String serverName, UUID uniqueId) {
-        RegisteredServer server = this.serverCache.getRegisteredServer(serverName);
+    public void sendDispatchCommand(String serverName, String command) {
+        RegisteredServer server = getServerCache().getRegisteredServer(serverName);
         if (server == null) {
             return;
         }
 
-        server.getPlayers().remove(uniqueId);
-        this.serverCache.setServer(serverName, server);
+        JsonObject jsonObject = new JsonObject();
+        jsonObject.addProperty("host", server.getHostAndPort().toString());
+        jsonObject.addProperty("command", command);
+        this.redisClient.publish(ServerKeys.SERVERS_DISPATCH_COMMAND_REQUEST, jsonObject.toString());
     }
 
-    public void sendDispatchCommand(String serverName, String command) {
+    public CompletableFuture<Boolean> requestDispatchCommand(String serverName, String command, Duration timeout) {
         RegisteredServer server = getServerCache().getRegisteredServer(serverName);
         if (server == null) {
-            return;
+            return CompletableFuture.completedFuture(false);
         }
 
         JsonObject jsonObject = new JsonObject();
         jsonObject.addProperty("host", server.getHostAndPort().toString());
         jsonObject.addProperty("command", command);
-        this.redisClient.publish(ServerKeys.SERVERS_DISPATCH_COMMAND_REQUEST, jsonObject.toString());
+        // Only the node at the given host replies, so a host nobody answers
+        // for runs into the timeout; that is reported as a failed dispatch.
+        return this.redisClient.request(ServerKeys.SERVERS_DISPATCH_COMMAND_REQUEST, jsonObject.toString(), timeout)
+                .thenApply(reply -> {
+                    JsonObject body = reply.getBody();
+                    return body.has("success") && body.get("success").getAsBoolean();
+                })
+                .exceptionally(throwable -> {
+                    Throwable cause = throwable instanceof CompletionException ? throwable.getCause() : throwable;
+                    if (cause instanceof TimeoutException) {
+                        return false;
+                    }
+                    throw throwable instanceof CompletionException completion ? completion : new CompletionException(cause);
+                });
     }
 
     public List<? extends Server> sortServers(Filter[] filters, Sort... sorts) {
-        Stream<RegisteredServer> serverStream = this.serverCache.getServers().values().stream()
-                .filter(server -> Filter.test(filters, server))
-                .filter(server -> Filters.online().test(server))
-                .map(RegisteredServer.class::cast);
-        return Sort.sort(sorts, serverStream).toList();
+        return query()
+                .filter(filters)
+                .sort(sorts)
+                .list();
+    }
+
+    public ServerQuery query() {
+        return ServerQuery.of(this.serverCache);
+    }
+
+    // Draining servers are being emptied to be stopped and standby servers
+    // are held back by the container pool, so nothing new is routed to them.
+    public ServerQuery routingQuery() {
+        ServerRouting routing = this.serverCache.getRouting();
+        Set<String> excluded = Sets.newHashSet(routing.draining());
+        excluded.addAll(routing.standby().keySet());
+
+        return excluded.isEmpty() ? query() : query().filter(Filters.exclude(excluded));
+    }
+
+    // Both are served from the registry snapshot when it is enabled.
+    public Set<String> getDrainingServers() {
+        return this.serverCache.getDrainingServers();
+    }
+
+    // Standby server name to the template it was created from.
+    public Map<String, String> getStandbyServers() {
+        return this.serverCache.getStandbyServers();
+    }
+
+    public void setDraining(String serverName, boolean draining) {
+        this.serverCache.setDraining(serverName, draining);
     }
 
     public RedisClient getRedisClient() {
@@ -149,4 +229,142 @@ public final class ServerManager {
     public PlayerCache getPlayerCache() {
         return this.playerCache;
     }
+
+    public synchronized ServerRegistry enableRegistry() {
+        if (this.serverRegistry == null) {
+            ServerRegistry registry = new ServerRegistry(this.redisClient, this.serverCache);
+            registry.start();
+
+            this.serverCache.setRegistry(registry);
+            this.serverRegistry = registry;
+        }
+
+        return this.serverRegistry;
+    }
+
+    public @Nullable ServerRegistry getServerRegistry() {
+        return this.serverRegistry;
+    }
+
+    public synchronized HealthChecker startHeartbeat(String serverName, HealthOptions options, IntSupplier players) {
+        if (this.healthChecker == null) {
+            HealthChecker checker = new HealthChecker(this.redisClient, serverName, options, players, this.resourceSampler);
+            checker.start();
+
+            this.healthChecker = checker;
+        }
+
+        return this.healthChecker;
+    }
+
+    public synchronized HealthChecker startHeartbeat(HostAndPort address, HealthOptions options, IntSupplier players) {
+        if (this.healthChecker == null) {
+            HealthChecker checker = new HealthChecker(this.redisClient, this.serverCache, address, options, players, this.resourceSampler);
+            checker.start();
+
+            this.healthChecker = checker;
+        }
+
+        return this.healthChecker;
+    }
+
+    public @Nullable HealthChecker getHealthChecker() {
+        return this.healthChecker;
+    }
+
+    public synchronized ScheduledHealthChecker enableHealthChecks(HealthOptions options) {
+        if (this.scheduledHealthChecker == null) {
+            ScheduledHealthChecker checker = new ScheduledHealthChecker(this.redisClient, this.serverCache, this.playerCache, options);
+            checker.start();
+
+            this.scheduledHealthChecker = checker;
+        }
+
+        return this.scheduledHealthChecker;
+    }
+
+    public @Nullable ScheduledHealthChecker getScheduledHealthChecker() {
+        return this.scheduledHealthChecker;
+    }
+
+    public synchronized ResourceSampler enableResourceSampling(ResourceSampler.Source source) {
+        if (this.resourceSampler == null) {
+            ResourceSampler sampler = new ResourceSampler(this.redisClient.getExecutorName(), source);
+            sampler.start();
+
+            this.resourceSampler = sampler;
+        }
+
+        return this.resourceSampler;
+    }
+
+    public @Nullable ResourceSampler getResourceSampler() {
+        return this.resourceSampler;
+    }
+
+    // The scheduled checker already reads every heartbeat each interval, so
+    // its copy is used when it runs here; otherwise they are read in one
+    // pipeline.
+    public Map<String, Heartbeat> getHeartbeats() {
+        if (this.scheduledHealthChecker != null) {
+            return this.scheduledHealthChecker.getHeartbeats();
+        }
+
+        return Heartbeat.fetch(this.redisClient.getCache(), this.serverCache.getRegisteredServers().keySet());
+    }
+
+    public synchronized Autoscaler enableAutoscaler(Duration interval) {
+        if (this.autoscaler == null) {
+            Autoscaler autoscaler = new Autoscaler(this, interval);
+            autoscaler.start();
+
+            this.autoscaler = autoscaler;
+        }
+
+        return this.autoscaler;
+    }
+
+    public @Nullable Autoscaler getAutoscaler() {
+        return this.autoscaler;
+    }
+
+    public synchronized ContainerPool enableContainerPool(ContainerPoolOptions options) {
+        if (this.containerPool == null) {
+            ContainerPool containerPool = new ContainerPool(this, options);
+            containerPool.start();
+
+            this.containerPool = containerPool;
+        }
+
+        return this.containerPool;
+    }
+
+    public @Nullable ContainerPool getContainerPool() {
+        return this.containerPool;
+    }
+
+    public synchronized void shutdown() {
+        if (this.containerPool != null) {
+            this.containerPool.stop();
+        }
+        if (this.autoscaler != null) {
+            this.autoscaler.stop();
+        }
+        if (this.healthChecker != null) {
+            this.healthChecker.stop();
+        }
+        if (this.scheduledHealthChecker != null) {
+            this.scheduledHealthChecker.stop();
+        }
+        if (this.resourceSampler != null) {
+            this.resourceSampler.stop();
+        }
+        if (this.serverRegistry != null) {
+            this.serverRegistry.stop();
+        }
+    }
+
+    public ServerScripts getServerScripts() {
+        return this.serverScripts;
+    }
 }
@@ -0,0 +1,290 @@
+package net.mineles.library.server;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import net.mineles.library.redis.RedisClient;
+import net.mineles.library.redis.message.DeliveryListener;
+import net.mineles.library.server.constants.ServerKeys;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+public final class ServerRegistry {
+    private final RedisClient client;
+    private final ServerCache serverCache;
+    private final AtomicReference<ServerSnapshot> snapshot;
+    private final Set<String> dirty;
+    private final AtomicBoolean refreshing;
+    private final List<Listener> listeners;
+    private final DeliveryListener deliveryListener;
+    private final Consumer<JsonObject> changeListener;
+
+    private ExecutorService executor;
+    private volatile boolean reloadAll;
+    private volatile boolean reloadRouting;
+
+    public ServerRegistry(@NotNull RedisClient client,
+                          @NotNull ServerCache serverCache) {
+        this.client = client;
+        this.serverCache = serverCache;
+        this.snapshot = new AtomicReference<>(ServerSnapshot.EMPTY);
+        this.dirty = Sets.newConcurrentHashSet();
+        this.refreshing = new AtomicBoolean();
+        this.listeners = Lists.newCopyOnWriteArrayList();
+        this.changeListener = this::onChange;
+        this.deliveryListener = new DeliveryListener() {
+            @Override
+            public void onGap(@NotNull String channel, @NotNull String origin, long missed) {
+                if (channel.equals(ServerKeys.SERVERS_CHANGED.split(":")[0])) {
+                    reload();
+                }
+            }
+
+            @Override
+            public void onReconnect(@NotNull Duration downtime) {
+                reload();
+            }
+        };
+    }
+
+    // Subscribing before the initial load means a change that races with
+    // the bootstrap is applied afterwards rather than lost.
+    public synchronized void start() {
+        if (this.executor != null) {
+            return;
+        }
+
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                .setNameFormat(this.client.getExecutorName() + "-server-registry-%d")
+                .setDaemon(true)
+                .build());
+        this.serverCache.addChangeListener(this.changeListener);
+        this.client.addDeliveryListener(this.deliveryListener);
+
+        replace(fetchAll(), this.serverCache.fetchRouting());
+    }
+
+    public synchronized void stop() {
+        if (this.executor == null) {
+            return;
+        }
+
+        this.serverCache.removeChangeListener(this.changeListener);
+        this.client.removeDeliveryListener(this.deliveryListener);
+        this.executor.shutdownNow();
+        this.executor = null;
+    }
+
+    public @NotNull ServerSnapshot getSnapshot() {
+        return this.snapshot.get();
+    }
+
+    public void addListener(@NotNull Listener listener) {
+        this.listeners.add(listener);
+    }
+
+    public void removeListener(@NotNull Listener listener) {
+        this.listeners.remove(listener);
+    }
+
+    public void reload() {
+        this.reloadAll = true;
+        scheduleRefresh();
+    }
+
+    // Writes made by this node are applied right away so it reads its own
+    // writes; the change event it publishes confirms them shortly after.
+    void apply(@NotNull String name,
+               @Nullable Server server) {
+        if (server == null) {
+            update(Map.of(), Set.of(name));
+        } else {
+            update(Map.of(name, server), Set.of());
+        }
+    }
+
+    void applyDraining(@NotNull String name,
+                       boolean draining) {
+        ServerSnapshot previous;
+        ServerSnapshot next;
+        do {
+            previous = this.snapshot.get();
+            ServerRouting routing = previous.getRouting();
+            Set<String> names = Sets.newHashSet(routing.draining());
+            if (draining) {
+                names.add(name);
+            } else {
+                names.remove(name);
+            }
+            next = previous.withRouting(new ServerRouting(names, routing.standby()));
+        } while (!this.snapshot.compareAndSet(previous, next));
+    }
+
+    void applyStandby(@NotNull String name,
+                      @Nullable String template) {
+        ServerSnapshot previous;
+        ServerSnapshot next;
+        do {
+            previous = this.snapshot.get();
+            ServerRouting routing = previous.getRouting();
+            Map<String, String> standby = Maps.newHashMap(routing.standby());
+            if (template != null) {
+                standby.put(name, template);
+            } else {
+                standby.remove(name);
+            }
+            next = previous.withRouting(new ServerRouting(routing.draining(), standby));
+        } while (!this.snapshot.compareAndSet(previous, next));
+    }
+
+    private void onChange(@NotNull JsonObject message) {
+        if (message.has("all")) {
+            reload();
+            return;
+        }
+
+        // Routing changes (draining and standby servers) are small sets, so
+        // they are refetched whole rather than tracked per server.
+        if (message.has("routing")) {
+            this.reloadRouting = true;
+        }
+
+        JsonElement names = message.get("names");
+        if (names != null && names.isJsonArray()) {
+            names.getAsJsonArray().forEach(name -> this.dirty.add(name.getAsString()));
+        }
+        scheduleRefresh();
+    }
+
+    private void scheduleRefresh() {
+        ExecutorService executor = this.executor;
+        if (executor != null && this.refreshing.compareAndSet(false, true)) {
+            executor.execute(this::refresh);
+        }
+    }
+
+    // Events are coalesced: however many arrive while a fetch is running,
+    // the next pass reads each dirty server once, in a single HMGET plus
+    // one pipelined round trip for the membership sets.
+    private void refresh() {
+        boolean failed = false;
+        try {
+            while (true) {
+                if (this.reloadAll) {
+                    this.reloadAll = false;
+                    this.reloadRouting = false;
+                    this.dirty.clear();
+                    replace(fetchAll(), this.serverCache.fetchRouting());
+                    continue;
+                }
+
+                if (this.reloadRouting) {
+                    this.reloadRouting = false;
+                    replaceRouting(this.serverCache.fetchRouting());
+                    continue;
+                }
+
+                List<String> names = Lists.newArrayList(this.dirty);
+                if (names.isEmpty()) {
+                    break;
+                }
+                this.dirty.removeAll(names);
+
+                Map<String, Server> servers = this.serverCache.fetchServers(names);
+                update(servers, names.stream().filter(name -> !servers.containsKey(name)).toList());
+            }
+        } catch (Exception e) {
+            // A missed refresh can't be retried blindly while Redis is down;
+            // the next event or the reconnect resyncs everything instead.
+            this.reloadAll = true;
+            failed = true;
+            e.printStackTrace();
+        } finally {
+            this.refreshing.set(false);
+        }
+
+        if (!failed && (this.reloadRouting || !this.dirty.isEmpty())) {
+            scheduleRefresh();
+        }
+    }
+
+    private @NotNull Map<String, Server> fetchAll() {
+        return this.serverCache.fetchServers();
+    }
+
+    private void replace(@NotNull Map<String, Server> servers,
+                         @NotNull ServerRouting routing) {
+        ServerSnapshot next = ServerSnapshot.of(servers, routing);
+        ServerSnapshot previous = this.snapshot.getAndSet(next);
+
+        Set<String> names = Sets.union(previous.getServers().keySet(), next.getServers().keySet());
+        notifyListeners(previous, next, names);
+    }
+
+    private void replaceRouting(@NotNull ServerRouting routing) {
+        ServerSnapshot previous;
+        do {
+            previous = this.snapshot.get();
+        } while (!this.snapshot.compareAndSet(previous, previous.withRouting(routing)));
+    }
+
+    private void update(@NotNull Map<String, Server> changed,
+                        @NotNull Collection<String> removed) {
+        ServerSnapshot previous;
+        ServerSnapshot next;
+        do {
+            previous = this.snapshot.get();
+            next = previous.with(changed, removed);
+        } while (!this.snapshot.compareAndSet(previous, next));
+
+        Set<String> names = Sets.newHashSet(changed.keySet());
+        names.addAll(removed);
+        notifyListeners(previous, next, names);
+    }
+
+    private void notifyListeners(@NotNull ServerSnapshot previous,
+                                 @NotNull ServerSnapshot next,
+                                 @NotNull Set<String> names) {
+        if (this.listeners.isEmpty()) {
+            return;
+        }
+
+        for (String name : names) {
+            Server before = previous.getServer(name);
+            Server after = next.getServer(name);
+            if (before == after) {
+                continue;
+            }
+
+            for (Listener listener : this.listeners) {
+                try {
+                    listener.onChange(name, before, after);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Listener {
+
+        void onChange(@NotNull String name,
+                      @Nullable Server previous,
+                      @Nullable Server current);
+    }
+}
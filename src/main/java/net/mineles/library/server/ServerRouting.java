@@ -0,0 +1,13 @@
+package net.mineles.library.server;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Map;
+import java.util.Set;
+
+// Servers that stay registered but must not be routed to: draining ones are
+// being emptied to be stopped and standby ones are held by the container pool.
+record ServerRouting(@NotNull Set<String> draining,
+                     @NotNull Map<String, String> standby) {
+    static final ServerRouting EMPTY = new ServerRouting(Set.of(), Map.of());
+}
@@ -0,0 +1,326 @@
+package net.mineles.library.server;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.Lists;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import net.mineles.library.connection.HostAndPort;
+import net.mineles.library.redis.backend.RedisCommands;
+import net.mineles.library.redis.script.RedisScript;
+import net.mineles.library.redis.script.RedisScripts;
+import net.mineles.library.server.constants.ServerKeys;
+import net.mineles.library.utils.GsonProvider;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.UUID;
+
+public final class ServerScripts {
+    private static final int MAX_ATTEMPTS = 5;
+
+    private static final String IS_REGISTERED = """
+            local function isRegistered(servers, name)
+                local raw = redis.call('HGET', servers, name)
+                return raw and cjson.decode(raw).host ~= nil
+            end
+            """;
+
+    // The member sets depend on where the player currently is, so the caller
+    // reads that first and passes the sets in KEYS. If the player moved in
+    // between, the script changes nothing and returns 0 so it can be retried.
+    // The record, the member set and the index all take the uuid the player
+    // is moving with; an older uuid under the same name is cleaned up.
+    private static final String MOVE_PLAYER = IS_REGISTERED + """
+            local players, servers, index, previousMembers, targetMembers = KEYS[1], KEYS[2], KEYS[3], KEYS[4], KEYS[5]
+            local name, uuid, proxy, target, expected = ARGV[1], ARGV[2], ARGV[3], ARGV[4], ARGV[5]
+
+            local player
+            local raw = redis.call('HGET', players, name)
+            if raw then
+                player = cjson.decode(raw)
+            else
+                player = { uuid = uuid, name = name, loggedIn = false }
+            end
+
+            local previous = player.currentServer
+            if (previous or '') ~= expected then
+                return 0
+            end
+
+            if player.currentProxy == nil then
+                player.currentProxy = proxy
+            end
+
+            local changed = {}
+            if previous ~= nil and player.uuid and redis.call('SREM', previousMembers, player.uuid) == 1 then
+                changed[#changed + 1] = previous
+            end
+
+            if player.uuid and player.uuid ~= uuid and redis.call('HGET', index, player.uuid) == name then
+                redis.call('HDEL', index, player.uuid)
+            end
+            player.uuid = uuid
+
+            if isRegistered(servers, target) then
+                redis.call('SADD', targetMembers, uuid)
+                player.currentServer = target
+                changed[#changed + 1] = target
+            end
+
+            redis.call('HSET', players, name, cjson.encode(player))
+            redis.call('HSET', index, uuid, name)
+            return changed
+            """;
+
+    private static final String REMOVE_PLAYER = """
+            local players, index, proxyMembers, serverMembers = KEYS[1], KEYS[2], KEYS[3], KEYS[4]
+            local name, expectedProxy, expectedServer = ARGV[1], ARGV[2], ARGV[3]
+
+            local raw = redis.call('HGET', players, name)
+            if not raw then
+                return {}
+            end
+
+            local player = cjson.decode(raw)
+            if (player.currentProxy or '') ~= expectedProxy or (player.currentServer or '') ~= expectedServer then
+                return 0
+            end
+
+            local changed = {}
+            if player.uuid then
+                if player.currentProxy and redis.call('SREM', proxyMembers, player.uuid) == 1 then
+                    changed[#changed + 1] = player.currentProxy
+                end
+                if player.currentServer and redis.call('SREM', serverMembers, player.uuid) == 1 then
+                    changed[#changed + 1] = player.currentServer
+                end
+                if redis.call('HGET', index, player.uuid) == name then
+                    redis.call('HDEL', index, player.uuid)
+                end
+            end
+
+            redis.call('HDEL', players, name)
+            return changed
+            """;
+
+    // Membership lives in the servers:<name>:players and :entries sets, so
+    // registration drops any arrays an older writer left in the record and
+    // starts the server with empty sets.
+    private static final String REGISTER_SERVER = """
+            local servers, players, entries = KEYS[1], KEYS[2], KEYS[3]
+            local name, host = ARGV[1], ARGV[2]
+
+            local raw = redis.call('HGET', servers, name)
+            if not raw then
+                return 0
+            end
+
+            local server = cjson.decode(raw)
+            server.host = host
+            server.players = nil
+            server.entries = nil
+
+            redis.call('HSET', servers, name, cjson.encode(server))
+            redis.call('DEL', players, entries)
+            return 1
+            """;
+
+    private final RedisScripts scripts;
+    private final ServerCache serverCache;
+    private final PlayerCache playerCache;
+    private final RedisScript movePlayer;
+    private final RedisScript removePlayer;
+    private final RedisScript registerServer;
+
+    public ServerScripts(RedisScripts scripts, ServerCache serverCache, PlayerCache playerCache) {
+        this.scripts = scripts;
+        this.serverCache = serverCache;
+        this.playerCache = playerCache;
+        this.movePlayer = scripts.register("servers:move-player", MOVE_PLAYER, ServerScripts::movePlayerLocally);
+        this.removePlayer = scripts.register("servers:remove-player", REMOVE_PLAYER, ServerScripts::removePlayerLocally);
+        this.registerServer = scripts.register("servers:register-server", REGISTER_SERVER, ServerScripts::registerServerLocally);
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> movePlayer(String playerName, UUID playerUniqueId, String proxyName, String serverName) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            JsonObject player = this.playerCache.fetchRecord(playerName);
+            String previous = player == null ? null : getString(player, "currentServer");
+
+            Object result = this.scripts.eval(this.movePlayer,
+                    List.of(ServerKeys.PLAYERS, ServerKeys.SERVERS, ServerKeys.PLAYERS_BY_UUID,
+                            ServerKeys.serverPlayers(previous == null ? serverName : previous), ServerKeys.serverPlayers(serverName)),
+                    List.of(playerName, playerUniqueId.toString(), proxyName, serverName, Strings.nullToEmpty(previous)));
+            if (result instanceof List<?>) {
+                List<String> changed = (List<String>) result;
+                this.playerCache.invalidate(playerName);
+                this.serverCache.invalidate(changed);
+                return changed;
+            }
+        }
+
+        throw new IllegalStateException("Player " + playerName + " changed servers during every move attempt");
+    }
+
+    @SuppressWarnings("unchecked")
+    public List<String> removePlayer(String playerName) {
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            JsonObject player = this.playerCache.fetchRecord(playerName);
+            String proxy = player == null ? null : getString(player, "currentProxy");
+            String server = player == null ? null : getString(player, "currentServer");
+
+            Object result = this.scripts.eval(this.removePlayer,
+                    List.of(ServerKeys.PLAYERS, ServerKeys.PLAYERS_BY_UUID,
+                            ServerKeys.serverPlayers(Strings.nullToEmpty(proxy)), ServerKeys.serverPlayers(Strings.nullToEmpty(server))),
+                    List.of(playerName, Strings.nullToEmpty(proxy), Strings.nullToEmpty(server)));
+            if (result instanceof List<?>) {
+                List<String> changed = (List<String>) result;
+                this.playerCache.invalidate(playerName);
+                this.serverCache.invalidate(changed);
+                return changed;
+            }
+        }
+
+        throw new IllegalStateException("Player " + playerName + " changed servers during every removal attempt");
+    }
+
+    public boolean registerServer(String serverName, HostAndPort hostAndPort) {
+        long registered = this.scripts.evalLong(this.registerServer,
+                List.of(ServerKeys.SERVERS, ServerKeys.serverPlayers(serverName), ServerKeys.serverEntries(serverName)),
+                List.of(serverName, hostAndPort.toString()));
+
+        this.serverCache.invalidate(serverName);
+        return registered == 1;
+    }
+
+    // The in-memory backend has no Lua interpreter; these mirror the scripts
+    // above and run atomically under the backend lock instead.
+    private static Object movePlayerLocally(@NotNull RedisCommands commands,
+                                            @NotNull List<String> keys,
+                                            @NotNull List<String> args) {
+        String players = keys.get(0);
+        String servers = keys.get(1);
+        String index = keys.get(2);
+        String previousMembers = keys.get(3);
+        String targetMembers = keys.get(4);
+        String name = args.get(0);
+        String uuid = args.get(1);
+        String proxy = args.get(2);
+        String target = args.get(3);
+
+        JsonObject player;
+        String raw = commands.hget(players, name);
+        if (raw != null) {
+            player = GsonProvider.getGson().fromJson(raw, JsonObject.class);
+        } else {
+            player = new JsonObject();
+            player.addProperty("uuid", uuid);
+            player.addProperty("name", name);
+            player.addProperty("loggedIn", false);
+        }
+
+        String previous = getString(player, "currentServer");
+        if (!Strings.nullToEmpty(previous).equals(args.get(4))) {
+            return 0L;
+        }
+
+        if (getString(player, "currentProxy") == null) {
+            player.addProperty("currentProxy", proxy);
+        }
+
+        List<String> changed = Lists.newArrayList();
+        String playerId = getString(player, "uuid");
+        if (previous != null && playerId != null && commands.srem(previousMembers, playerId) == 1) {
+            changed.add(previous);
+        }
+
+        if (playerId != null && !playerId.equals(uuid) && name.equals(commands.hget(index, playerId))) {
+            commands.hdel(index, playerId);
+        }
+        player.addProperty("uuid", uuid);
+
+        if (isRegistered(commands, servers, target)) {
+            commands.sadd(targetMembers, uuid);
+            player.addProperty("currentServer", target);
+            changed.add(target);
+        }
+
+        commands.hset(players, name, player.toString());
+        commands.hset(index, uuid, name);
+        return changed;
+    }
+
+    private static Object removePlayerLocally(@NotNull RedisCommands commands,
+                                              @NotNull List<String> keys,
+                                              @NotNull List<String> args) {
+        String players = keys.get(0);
+        String index = keys.get(1);
+        String proxyMembers = keys.get(2);
+        String serverMembers = keys.get(3);
+        String name = args.get(0);
+
+        String raw = commands.hget(players, name);
+        if (raw == null) {
+            return Lists.newArrayList();
+        }
+
+        JsonObject player = GsonProvider.getGson().fromJson(raw, JsonObject.class);
+        String proxy = getString(player, "currentProxy");
+        String server = getString(player, "currentServer");
+        if (!Strings.nullToEmpty(proxy).equals(args.get(1)) || !Strings.nullToEmpty(server).equals(args.get(2))) {
+            return 0L;
+        }
+
+        List<String> changed = Lists.newArrayList();
+        String playerId = getString(player, "uuid");
+        if (playerId != null) {
+            if (proxy != null && commands.srem(proxyMembers, playerId) == 1) {
+                changed.add(proxy);
+            }
+            if (server != null && commands.srem(serverMembers, playerId) == 1) {
+                changed.add(server);
+            }
+            if (name.equals(commands.hget(index, playerId))) {
+                commands.hdel(index, playerId);
+            }
+        }
+
+        commands.hdel(players, name);
+        return changed;
+    }
+
+    private static Object registerServerLocally(@NotNull RedisCommands commands,
+                                                @NotNull List<String> keys,
+                                                @NotNull List<String> args) {
+        String servers = keys.get(0);
+        String name = args.get(0);
+
+        String raw = commands.hget(servers, name);
+        if (raw == null) {
+            return 0L;
+        }
+
+        JsonObject server = GsonProvider.getGson().fromJson(raw, JsonObject.class);
+        server.addProperty("host", args.get(1));
+        server.remove("players");
+        server.remove("entries");
+
+        commands.hset(servers, name, server.toString());
+        commands.del(keys.get(1), keys.get(2));
+        return 1L;
+    }
+
+    private static boolean isRegistered(@NotNull RedisCommands commands,
+                                        @NotNull String servers,
+                                        @NotNull String name) {
+        String raw = commands.hget(servers, name);
+        return raw != null && getString(GsonProvider.getGson().fromJson(raw, JsonObject.class), "host") != null;
+    }
+
+    private static @Nullable String getString(@NotNull JsonObject object,
+                                              @NotNull String name) {
+        JsonElement element = object.get(name);
+        return element == null || element.isJsonNull() ? null : element.getAsString();
+    }
+}
@@ -0,0 +1,111 @@
+package net.mineles.library.server;
+
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import net.mineles.library.connection.HostAndPort;
+import net.mineles.library.server.query.Filters;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public final class ServerSnapshot {
+    static final ServerSnapshot EMPTY = new ServerSnapshot(Map.of(), ServerRouting.EMPTY);
+
+    private final Map<String, Server> servers;
+    private final Map<String, RegisteredServer> registeredServers;
+    private final Map<HostAndPort, RegisteredServer> byHostAndPort;
+    private final ImmutableListMultimap<String, RegisteredServer> byImage;
+    private final Set<String> draining;
+    private final Map<String, String> standby;
+
+    private ServerSnapshot(@NotNull Map<String, ? extends Server> servers,
+                           @NotNull ServerRouting routing) {
+        this.servers = ImmutableMap.copyOf(servers);
+        this.draining = ImmutableSet.copyOf(routing.draining());
+        this.standby = ImmutableMap.copyOf(routing.standby());
+
+        Map<String, RegisteredServer> registeredServers = Maps.newHashMap();
+        Map<HostAndPort, RegisteredServer> byHostAndPort = Maps.newHashMap();
+        ImmutableListMultimap.Builder<String, RegisteredServer> byImage = ImmutableListMultimap.builder();
+        for (Map.Entry<String, ? extends Server> entry : servers.entrySet()) {
+            if (entry.getValue() instanceof RegisteredServer server) {
+                registeredServers.put(entry.getKey(), server);
+                byHostAndPort.put(server.getHostAndPort(), server);
+                byImage.put(Filters.imageKey(server.getImage()), server);
+            }
+        }
+
+        this.registeredServers = ImmutableMap.copyOf(registeredServers);
+        this.byHostAndPort = ImmutableMap.copyOf(byHostAndPort);
+        this.byImage = byImage.build();
+    }
+
+    static @NotNull ServerSnapshot of(@NotNull Map<String, ? extends Server> servers,
+                                      @NotNull ServerRouting routing) {
+        return new ServerSnapshot(servers, routing);
+    }
+
+    // Snapshots are never modified; a change copies the current servers
+    // and builds the indexes again, which is cheap at registry sizes.
+    @NotNull ServerSnapshot with(@NotNull Map<String, Server> changed,
+                                 @NotNull Collection<String> removed) {
+        Map<String, Server> servers = Maps.newHashMap(this.servers);
+        servers.keySet().removeAll(removed);
+        servers.putAll(changed);
+        Map<String, String> standby = Maps.newHashMap(this.standby);
+        standby.keySet().removeAll(removed);
+        return new ServerSnapshot(servers, new ServerRouting(Sets.difference(this.draining, Set.copyOf(removed)), standby));
+    }
+
+    @NotNull ServerSnapshot withRouting(@NotNull ServerRouting routing) {
+        return new ServerSnapshot(this.servers, routing);
+    }
+
+    @NotNull ServerRouting getRouting() {
+        return new ServerRouting(this.draining, this.standby);
+    }
+
+    public @NotNull Map<String, Server> getServers() {
+        return this.servers;
+    }
+
+    public @Nullable Server getServer(@NotNull String name) {
+        return this.servers.get(name);
+    }
+
+    public @NotNull Map<String, RegisteredServer> getRegisteredServers() {
+        return this.registeredServers;
+    }
+
+    public @Nullable RegisteredServer getRegisteredServer(@NotNull String name) {
+        return this.registeredServers.get(name);
+    }
+
+    public @Nullable RegisteredServer getRegisteredServer(@NotNull HostAndPort hostAndPort) {
+        return this.byHostAndPort.get(hostAndPort);
+    }
+
+    public @NotNull List<RegisteredServer> getRegisteredServers(@NotNull String image) {
+        return this.byImage.get(Filters.imageKey(image));
+    }
+
+    public @NotNull Set<String> getDrainingServers() {
+        return this.draining;
+    }
+
+    // Standby server name to the template it was created from.
+    public @NotNull Map<String, String> getStandbyServers() {
+        return this.standby;
+    }
+
+    public int size() {
+        return this.servers.size();
+    }
+}
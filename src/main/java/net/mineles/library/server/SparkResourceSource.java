@@ -0,0 +1,41 @@
+package net.mineles.library.server;
+
+import me.lucko.spark.api.Spark;
+import me.lucko.spark.api.SparkProvider;
+import me.lucko.spark.api.statistic.StatisticWindow;
+import me.lucko.spark.api.statistic.misc.DoubleAverageInfo;
+import me.lucko.spark.api.statistic.types.DoubleStatistic;
+import me.lucko.spark.api.statistic.types.GenericStatistic;
+import org.jetbrains.annotations.NotNull;
+
+// spark has no memory statistic, and no tick statistics on a proxy, so
+// those are taken from the fallback source.
+final class SparkResourceSource implements ResourceSampler.Source {
+    private final Spark spark;
+    private final ResourceSampler.Source fallback;
+
+    private SparkResourceSource(@NotNull Spark spark,
+                                @NotNull ResourceSampler.Source fallback) {
+        this.spark = spark;
+        this.fallback = fallback;
+    }
+
+    static @NotNull ResourceSampler.Source create(@NotNull ResourceSampler.Source fallback) {
+        return new SparkResourceSource(SparkProvider.get(), fallback);
+    }
+
+    @Override
+    public @NotNull ResourceUsages sample() {
+        ResourceUsages system = this.fallback.sample();
+
+        DoubleStatistic<StatisticWindow.TicksPerSecond> tps = this.spark.tps();
+        GenericStatistic<DoubleAverageInfo, StatisticWindow.MillisPerTick> mspt = this.spark.mspt();
+        return new ResourceUsages(
+                this.spark.cpuProcess().poll(StatisticWindow.CpuUsage.SECONDS_10),
+                this.spark.cpuSystem().poll(StatisticWindow.CpuUsage.SECONDS_10),
+                system.getMemory(),
+                tps == null ? system.getTps() : tps.poll(StatisticWindow.TicksPerSecond.SECONDS_5),
+                mspt == null ? system.getMspt() : mspt.poll(StatisticWindow.MillisPerTick.SECONDS_10).mean()
+        );
+    }
+}
@@ -7,12 +7,30 @@ public final class ServerKeys {
     public static final String MAINTENANCE = "maintenance";
 
     public static final String SERVERS = "servers";
+    public static final String SERVERS_CHANGED = "servers:changed";
+    public static final String SERVERS_DRAINING = "servers:draining";
+    public static final String SERVERS_MONITORED = "servers:monitored";
+    public static final String SERVERS_STANDBY = "servers:standby";
     public static final String SERVERS_DISPATCH_COMMAND_REQUEST = "servers:dispatch-command-request";
 
     public static final String PLAYERS = "players";
+    public static final String PLAYERS_BY_UUID = "players:uuid";
     public static final String PLAYERS_SWITCH_SERVER_REQUEST = "players:switch-server-request";
+    public static final String PLAYERS_SWITCH_SERVER_BATCH_REQUEST = "players:switch-server-batch-request";
 
     public static final String PROXY_SERVER_START = "proxy:server-start";
 
     public static final String APP_SERVER_START = "app:server-start";
+
+    public static String serverPlayers(String server) {
+        return SERVERS + ":" + server + ":players";
+    }
+
+    public static String serverEntries(String server) {
+        return SERVERS + ":" + server + ":entries";
+    }
+
+    public static String serverHeartbeat(String server) {
+        return SERVERS + ":" + server + ":heartbeat";
+    }
 }
@@ -1,14 +1,21 @@
 package net.mineles.library.server.decoders;
 
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import net.mineles.library.redis.RedisClient;
-import net.mineles.library.redis.codec.Decoder;
+import net.mineles.library.redis.codec.StreamingDecoder;
 import net.mineles.library.server.Player;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.io.IOException;
 import java.util.UUID;
 
-public final class PlayerDecoder implements Decoder<Player> {
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public final class PlayerDecoder implements StreamingDecoder<Player> {
     @Override
     public @NotNull Player decode(@NotNull JsonObject payload, @NotNull RedisClient redisClient) {
         UUID uuid = UUID.fromString(payload.get("uuid").getAsString());
@@ -29,18 +36,58 @@ public final class PlayerDecoder implements Decoder<Player> {
     }
 
     @Override
-    public @NotNull String encode(@NotNull Player payload, @NotNull RedisClient redisClient) {
-        JsonObject object = new JsonObject();
-        object.addProperty("uuid", payload.getUUID().toString());
-        object.addProperty("name", payload.getName());
+    public @NotNull Player read(@NotNull JsonReader reader, @NotNull RedisClient redisClient) throws IOException {
+        String uuid = null;
+        String name = null;
+        String currentProxy = null;
+        String currentServer = null;
+        boolean loggedIn = false;
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "uuid" -> uuid = nextString(reader);
+                case "name" -> name = nextString(reader);
+                case "currentProxy" -> currentProxy = nextString(reader);
+                case "currentServer" -> currentServer = nextString(reader);
+                case "loggedIn" -> loggedIn = reader.nextBoolean();
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        checkNotNull(uuid, "Player payload is missing uuid");
+        checkNotNull(name, "Player payload is missing name");
+
+        Player player = new Player(UUID.fromString(uuid), name);
+        player.setCurrentProxy(currentProxy);
+        player.setCurrentServer(currentServer);
+        player.setLoggedIn(loggedIn);
+        return player;
+    }
+
+    @Override
+    public void write(@NotNull JsonWriter writer, @NotNull Player payload, @NotNull RedisClient redisClient) throws IOException {
+        writer.beginObject();
+        writer.name("uuid").value(payload.getUUID().toString());
+        writer.name("name").value(payload.getName());
 
         if (payload.getCurrentProxy() != null) {
-            object.addProperty("currentProxy", payload.getCurrentProxy());
+            writer.name("currentProxy").value(payload.getCurrentProxy());
         }
         if (payload.getCurrentServer() != null) {
-            object.addProperty("currentServer", payload.getCurrentServer());
+            writer.name("currentServer").value(payload.getCurrentServer());
+        }
+        writer.name("loggedIn").value(payload.isLoggedIn());
+        writer.endObject();
+    }
+
+    private static @Nullable String nextString(@NotNull JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
         }
-        object.addProperty("loggedIn", payload.isLoggedIn());
-        return object.toString();
+
+        return reader.nextString();
     }
 }
@@ -3,17 +3,23 @@ package net.mineles.library.server.decoders;
 import com.google.common.collect.Sets;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
 import net.mineles.library.connection.HostAndPort;
 import net.mineles.library.redis.RedisClient;
-import net.mineles.library.redis.codec.Decoder;
+import net.mineles.library.redis.codec.StreamingDecoder;
 import net.mineles.library.server.RegisteredServer;
 import net.mineles.library.server.Server;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
 import java.util.Set;
 import java.util.UUID;
 
-public final class ServerDecoder implements Decoder<Server> {
+import static com.google.common.base.Preconditions.checkNotNull;
+
+public final class ServerDecoder implements StreamingDecoder<Server> {
     @Override
     public @NotNull Server decode(@NotNull JsonObject payload, @NotNull RedisClient redisClient) {
         String id = payload.get("id").getAsString();
@@ -28,13 +34,15 @@ public final class ServerDecoder implements Decoder<Server> {
         String host = payload.get("host").getAsString();
 
         Set<UUID> players = Sets.newHashSet();
-        if (payload.has("players")) {
+        // Lua's cjson encodes an empty table as an object, so anything other
+        // than an array is treated as an empty set.
+        if (payload.has("players") && payload.get("players").isJsonArray()) {
             JsonArray playersArray = payload.get("players").getAsJsonArray();
             playersArray.forEach(player -> players.add(UUID.fromString(player.getAsString())));
         }
 
         Set<UUID> entries = Sets.newHashSet();
-        if (payload.has("entries")) {
+        if (payload.has("entries") && payload.get("entries").isJsonArray()) {
             JsonArray entriesArray = payload.get("entries").getAsJsonArray();
             entriesArray.forEach(entry -> entries.add(UUID.fromString(entry.getAsString())));
         }
@@ -43,25 +51,78 @@ public final class ServerDecoder implements Decoder<Server> {
     }
 
     @Override
-    public @NotNull String encode(@NotNull Server payload, @NotNull RedisClient redisClient) {
-        JsonObject object = new JsonObject();
-        object.addProperty("id", payload.getId());
-        object.addProperty("name", payload.getName());
-        object.addProperty("image", payload.getImage());
-
-        if (payload instanceof RegisteredServer) {
-            RegisteredServer registeredServer = (RegisteredServer) payload;
-            object.addProperty("host", registeredServer.getHostAndPort().toString());
-
-            JsonArray players = new JsonArray();
-            registeredServer.getPlayers().forEach(player -> players.add(player.toString()));
-            object.add("players", players);
-
-            JsonArray entries = new JsonArray();
-            registeredServer.getEntries().forEach(entry -> entries.add(entry.toString()));
-            object.add("entries", entries);
+    public @NotNull Server read(@NotNull JsonReader reader, @NotNull RedisClient redisClient) throws IOException {
+        String id = null;
+        String name = null;
+        String image = null;
+        String host = null;
+        Set<UUID> players = Sets.newHashSet();
+        Set<UUID> entries = Sets.newHashSet();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "id" -> id = reader.nextString();
+                case "name" -> name = reader.nextString();
+                case "image" -> image = reader.nextString();
+                case "host" -> host = reader.nextString();
+                case "players" -> readUUIDs(reader, players);
+                case "entries" -> readUUIDs(reader, entries);
+                default -> reader.skipValue();
+            }
+        }
+        reader.endObject();
+
+        checkNotNull(id, "Server payload is missing id");
+        checkNotNull(name, "Server payload is missing name");
+        checkNotNull(image, "Server payload is missing image");
+
+        Server server = new Server(id, name, image);
+        if (host == null) {
+            return server;
+        }
+
+        return server.asRegisteredServer(HostAndPort.of(host), players, entries);
+    }
+
+    @Override
+    public void write(@NotNull JsonWriter writer, @NotNull Server payload, @NotNull RedisClient redisClient) throws IOException {
+        writer.beginObject();
+        writer.name("id").value(payload.getId());
+        writer.name("name").value(payload.getName());
+        writer.name("image").value(payload.getImage());
+
+        if (payload instanceof RegisteredServer registeredServer) {
+            writer.name("host").value(registeredServer.getHostAndPort().toString());
+            writeUUIDs(writer.name("players"), registeredServer.getPlayers());
+            writeUUIDs(writer.name("entries"), registeredServer.getEntries());
+        }
+
+        writer.endObject();
+    }
+
+    private static void readUUIDs(@NotNull JsonReader reader,
+                                  @NotNull Set<UUID> target) throws IOException {
+        // Lua's cjson encodes an empty table as an object, so anything other
+        // than an array is treated as an empty set.
+        if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            return;
+        }
+
+        reader.beginArray();
+        while (reader.hasNext()) {
+            target.add(UUID.fromString(reader.nextString()));
         }
+        reader.endArray();
+    }
 
-        return object.toString();
+    private static void writeUUIDs(@NotNull JsonWriter writer,
+                                   @NotNull Set<UUID> uuids) throws IOException {
+        writer.beginArray();
+        for (UUID uuid : uuids) {
+            writer.value(uuid.toString());
+        }
+        writer.endArray();
     }
 }
@@ -1,4 +1,174 @@
 package net.mineles.library.server.health;
 
-public class HealthChecker {
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.mineles.library.connection.HostAndPort;
+import net.mineles.library.redis.RedisClient;
+import net.mineles.library.server.RegisteredServer;
+import net.mineles.library.server.ResourceSampler;
+import net.mineles.library.server.ResourceUsages;
+import net.mineles.library.server.ServerCache;
+import net.mineles.library.server.constants.ServerKeys;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+// Runs on every node and keeps its heartbeat key alive. The key expires on
+// its own once the node stops writing it, which is what the scheduled
+// checker looks for. Every beat also adds the server to servers:monitored,
+// so the checker never mistakes a node that doesn't beat at all for one
+// that stopped.
+public final class HealthChecker {
+    private static final long MAX_LOOKUP_DELAY = TimeUnit.SECONDS.toMillis(30);
+
+    private final RedisClient client;
+    private final @Nullable ServerCache serverCache;
+    private final @Nullable HostAndPort address;
+    private final HealthOptions options;
+    private final IntSupplier players;
+    private final @Nullable ResourceSampler sampler;
+
+    private volatile @Nullable String serverName;
+    private ScheduledExecutorService executor;
+
+    private long lookupDelay;
+    private long nextLookup;
+
+    public HealthChecker(@NotNull RedisClient client,
+                         @NotNull String serverName,
+                         @NotNull HealthOptions options,
+                         @NotNull IntSupplier players) {
+        this(client, serverName, options, players, null);
+    }
+
+    public HealthChecker(@NotNull RedisClient client,
+                         @NotNull String serverName,
+                         @NotNull HealthOptions options,
+                         @NotNull IntSupplier players,
+                         @Nullable ResourceSampler sampler) {
+        this(client, null, null, serverName, options, players, sampler);
+    }
+
+    // A node doesn't know its own server name when it starts; it is taken
+    // from the registration when that happens on this node, and otherwise
+    // looked up by address until the server has been registered.
+    public HealthChecker(@NotNull RedisClient client,
+                         @NotNull ServerCache serverCache,
+                         @NotNull HostAndPort address,
+                         @NotNull HealthOptions options,
+                         @NotNull IntSupplier players,
+                         @Nullable ResourceSampler sampler) {
+        this(client, serverCache, address, null, options, players, sampler);
+    }
+
+    private HealthChecker(@NotNull RedisClient client,
+                          @Nullable ServerCache serverCache,
+                          @Nullable HostAndPort address,
+                          @Nullable String serverName,
+                          @NotNull HealthOptions options,
+                          @NotNull IntSupplier players,
+                          @Nullable ResourceSampler sampler) {
+        checkArgument(options.ttl().compareTo(options.interval()) > 0, "TTL must be longer than the interval");
+
+        this.client = client;
+        this.serverCache = serverCache;
+        this.address = address;
+        this.serverName = serverName;
+        this.options = options;
+        this.players = players;
+        this.sampler = sampler;
+    }
+
+    public synchronized void start() {
+        if (this.executor != null) {
+            return;
+        }
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat(this.client.getExecutorName() + "-server-heartbeat-%d")
+                .setDaemon(true)
+                .build());
+
+        long interval = this.options.interval().toMillis();
+        this.executor.scheduleAtFixedRate(() -> {
+            try {
+                beat();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // Deleting the key on a clean shutdown lets the checkers evict the server
+    // right away instead of waiting for the TTL.
+    public synchronized void stop() {
+        if (this.executor == null) {
+            return;
+        }
+
+        this.executor.shutdownNow();
+        this.executor = null;
+
+        String serverName = this.serverName;
+        if (serverName != null) {
+            this.client.getCache().delete(ServerKeys.serverHeartbeat(serverName));
+        }
+    }
+
+    public void beat() {
+        String serverName = resolveServerName();
+        if (serverName == null) {
+            return;
+        }
+
+        ResourceUsages usages = this.sampler == null ? null : this.sampler.getUsages();
+        Heartbeat heartbeat = new Heartbeat(System.currentTimeMillis(), this.players.getAsInt(),
+                usages == null ? 0 : usages.getLoad(), usages);
+        this.client.getCache().pipelined(batch -> {
+            batch.set(ServerKeys.serverHeartbeat(serverName), heartbeat.encode(), this.options.ttl());
+            batch.sadd(ServerKeys.SERVERS_MONITORED, serverName);
+        });
+    }
+
+    public @Nullable String getServerName() {
+        return this.serverName;
+    }
+
+    public void onRegistered(@NotNull String serverName, @NotNull HostAndPort hostAndPort) {
+        if (this.serverName == null && hostAndPort.equals(this.address)) {
+            this.serverName = serverName;
+        }
+    }
+
+    private @Nullable String resolveServerName() {
+        String serverName = this.serverName;
+        if (serverName != null || this.serverCache == null || this.address == null) {
+            return serverName;
+        }
+
+        // Without a registry every lookup reads the whole servers hash, so
+        // misses back off instead of repeating it on every beat.
+        boolean replicated = this.serverCache.isReplicated();
+        long now = System.currentTimeMillis();
+        if (!replicated && now < this.nextLookup) {
+            return null;
+        }
+
+        serverName = this.serverCache.getServerName(this.address);
+        if (serverName != null) {
+            this.serverName = serverName;
+            return serverName;
+        }
+
+        this.lookupDelay = this.lookupDelay == 0
+                ? this.options.interval().toMillis()
+                : Math.min(MAX_LOOKUP_DELAY, this.lookupDelay * 2);
+        this.nextLookup = now + this.lookupDelay;
+        return null;
+    }
 }
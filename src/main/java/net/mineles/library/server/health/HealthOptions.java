@@ -0,0 +1,32 @@
+package net.mineles.library.server.health;
+
+import org.jetbrains.annotations.NotNull;
+import net.mineles.library.libs.configurate.ConfigurationNode;
+
+import java.time.Duration;
+
+public record HealthOptions(@NotNull Duration interval,
+                            @NotNull Duration ttl,
+                            @NotNull Duration grace,
+                            @NotNull Duration evictAfter,
+                            @NotNull Duration probeTimeout,
+                            int probeConcurrency,
+                            int batchSize) {
+
+    public static HealthOptions fromNode(@NotNull ConfigurationNode node) {
+        return new HealthOptions(
+                Duration.ofMillis(node.node("interval").getLong(1_000)),
+                Duration.ofMillis(node.node("ttl").getLong(3_000)),
+                Duration.ofMillis(node.node("grace").getLong(5_000)),
+                Duration.ofMillis(node.node("evict-after").getLong(60_000)),
+                Duration.ofMillis(node.node("probe-timeout").getLong(1_000)),
+                node.node("probe-concurrency").getInt(16),
+                node.node("batch-size").getInt(100)
+        );
+    }
+
+    public static HealthOptions defaults() {
+        return new HealthOptions(Duration.ofSeconds(1), Duration.ofSeconds(3), Duration.ofSeconds(5),
+                Duration.ofMinutes(1), Duration.ofSeconds(1), 16, 100);
+    }
+}
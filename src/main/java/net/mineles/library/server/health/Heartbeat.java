@@ -0,0 +1,76 @@
+package net.mineles.library.server.health;
+
+import com.google.common.collect.Maps;
+import net.mineles.library.redis.BatchResponse;
+import net.mineles.library.redis.RedisCache;
+import net.mineles.library.server.ResourceUsages;
+import net.mineles.library.server.constants.ServerKeys;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Map;
+
+// Written on every beat by every node, so it is kept to a short
+// "timestamp;players;load" string rather than a JSON record. Nodes that
+// sample their resources append the five ResourceUsages values.
+public record Heartbeat(long timestamp,
+                        int players,
+                        double load,
+                        @Nullable ResourceUsages usages) {
+
+    public static @Nullable Heartbeat parse(@Nullable String value) {
+        if (value == null) {
+            return null;
+        }
+
+        String[] split = value.split(";");
+        if (split.length != 3 && split.length != 8) {
+            return null;
+        }
+
+        try {
+            ResourceUsages usages = null;
+            if (split.length == 8) {
+                usages = new ResourceUsages(Double.parseDouble(split[3]), Double.parseDouble(split[4]),
+                        Double.parseDouble(split[5]), Double.parseDouble(split[6]), Double.parseDouble(split[7]));
+            }
+            return new Heartbeat(Long.parseLong(split[0]), Integer.parseInt(split[1]), Double.parseDouble(split[2]), usages);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public static @NotNull Map<String, Heartbeat> fetch(@NotNull RedisCache cache,
+                                                        @NotNull Collection<String> names) {
+        if (names.isEmpty()) {
+            return Map.of();
+        }
+
+        Map<String, BatchResponse<String>> responses = Maps.newHashMapWithExpectedSize(names.size());
+        cache.pipelined(batch -> names.forEach(name -> responses.put(name, batch.get(ServerKeys.serverHeartbeat(name)))));
+
+        Map<String, Heartbeat> heartbeats = Maps.newHashMapWithExpectedSize(names.size());
+        responses.forEach((name, response) -> {
+            Heartbeat heartbeat = parse(response.get());
+            if (heartbeat != null) {
+                heartbeats.put(name, heartbeat);
+            }
+        });
+        return heartbeats;
+    }
+
+    public long getAge() {
+        return System.currentTimeMillis() - this.timestamp;
+    }
+
+    public @NotNull String encode() {
+        String value = this.timestamp + ";" + this.players + ";" + this.load;
+        if (this.usages == null) {
+            return value;
+        }
+
+        return value + ";" + this.usages.getCpuProcess() + ";" + this.usages.getCpuSystem() + ";"
+                + this.usages.getMemory() + ";" + this.usages.getTps() + ";" + this.usages.getMspt();
+    }
+}
@@ -1,4 +1,231 @@
 package net.mineles.library.server.health;
 
-public class ScheduledHealthChecker {
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.mineles.library.redis.BatchResponse;
+import net.mineles.library.redis.RedisClient;
+import net.mineles.library.server.Player;
+import net.mineles.library.server.PlayerCache;
+import net.mineles.library.server.RegisteredServer;
+import net.mineles.library.server.ServerCache;
+import net.mineles.library.server.constants.ServerKeys;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.net.Socket;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Reads every registered server's heartbeat in one pipeline and evicts the
+// servers whose key has expired, along with the players they held. Several
+// nodes may run this at once; an eviction is idempotent.
+public final class ScheduledHealthChecker {
+    private final RedisClient client;
+    private final ServerCache serverCache;
+    private final PlayerCache playerCache;
+    private final HealthOptions options;
+    private final Map<String, Long> missingSince;
+    private final List<Listener> listeners;
+
+    private volatile Map<String, Heartbeat> heartbeats;
+    private ScheduledExecutorService executor;
+    private ExecutorService probes;
+
+    public ScheduledHealthChecker(@NotNull RedisClient client,
+                                  @NotNull ServerCache serverCache,
+                                  @NotNull PlayerCache playerCache,
+                                  @NotNull HealthOptions options) {
+        this.client = client;
+        this.serverCache = serverCache;
+        this.playerCache = playerCache;
+        this.options = options;
+        this.missingSince = Maps.newConcurrentMap();
+        this.listeners = Lists.newCopyOnWriteArrayList();
+        this.heartbeats = ImmutableMap.of();
+    }
+
+    public synchronized void start() {
+        if (this.executor != null) {
+            return;
+        }
+
+        String executorName = this.client.getExecutorName();
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat(executorName + "-server-health-%d")
+                .setDaemon(true)
+                .build());
+        this.probes = Executors.newFixedThreadPool(this.options.probeConcurrency(), new ThreadFactoryBuilder()
+                .setNameFormat(executorName + "-server-probe-%d")
+                .setDaemon(true)
+                .build());
+
+        long interval = this.options.interval().toMillis();
+        this.executor.scheduleWithFixedDelay(() -> {
+            try {
+                check();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (this.executor == null) {
+            return;
+        }
+
+        this.executor.shutdownNow();
+        this.probes.shutdownNow();
+        this.executor = null;
+        this.probes = null;
+    }
+
+    public @Nullable Heartbeat getHeartbeat(@NotNull String name) {
+        return this.heartbeats.get(name);
+    }
+
+    public @NotNull Map<String, Heartbeat> getHeartbeats() {
+        return this.heartbeats;
+    }
+
+    public void addListener(@NotNull Listener listener) {
+        this.listeners.add(listener);
+    }
+
+    public void removeListener(@NotNull Listener listener) {
+        this.listeners.remove(listener);
+    }
+
+    // Only servers that have beaten at least once are checked; a node that
+    // doesn't run a HealthChecker, like one on an older build, is left alone.
+    // A server is only suspected once its heartbeat has been missing for the
+    // grace period. Suspects whose port still accepts connections are kept
+    // until evictAfter, in case only their heartbeat writes are failing.
+    public @NotNull Set<String> check() {
+        Map<String, RegisteredServer> servers = this.serverCache.getRegisteredServers();
+        this.missingSince.keySet().retainAll(servers.keySet());
+        if (servers.isEmpty()) {
+            this.heartbeats = ImmutableMap.of();
+            return Set.of();
+        }
+
+        Map<String, BatchResponse<String>> responses = Maps.newHashMapWithExpectedSize(servers.size());
+        List<BatchResponse<Set<String>>> monitored = Lists.newArrayListWithCapacity(1);
+        this.client.getCache().pipelined(batch -> {
+            monitored.add(batch.smembers(ServerKeys.SERVERS_MONITORED));
+            servers.keySet().forEach(name -> responses.put(name, batch.get(ServerKeys.serverHeartbeat(name))));
+        });
+        Set<String> beating = monitored.get(0).get();
+
+        long now = System.currentTimeMillis();
+        Map<String, Heartbeat> heartbeats = Maps.newHashMapWithExpectedSize(servers.size());
+        List<RegisteredServer> suspects = Lists.newArrayList();
+        Set<String> dead = Sets.newHashSet();
+        for (String name : servers.keySet()) {
+            Heartbeat heartbeat = Heartbeat.parse(responses.get(name).get());
+            if (heartbeat != null) {
+                heartbeats.put(name, heartbeat);
+            }
+            if (heartbeat != null || !beating.contains(name)) {
+                this.missingSince.remove(name);
+                continue;
+            }
+
+            long missing = now - this.missingSince.computeIfAbsent(name, key -> now);
+            if (missing >= this.options.evictAfter().toMillis()) {
+                dead.add(name);
+            } else if (missing >= this.options.grace().toMillis()) {
+                suspects.add(servers.get(name));
+            }
+        }
+        this.heartbeats = ImmutableMap.copyOf(heartbeats);
+
+        dead.addAll(probe(suspects));
+        if (!dead.isEmpty()) {
+            evict(dead);
+        }
+        return dead;
+    }
+
+    public void evict(@NotNull Collection<String> names) {
+        List<String> servers = List.copyOf(names);
+        Set<String> lookup = Sets.newHashSet(names);
+
+        // Players don't have a per-proxy index, so their records are found
+        // with one scan per round of evictions rather than one per server.
+        List<Player> players = this.playerCache.streamPlayers()
+                .map(Map.Entry::getValue)
+                .filter(player -> lookup.contains(player.getCurrentServer()) || lookup.contains(player.getCurrentProxy()))
+                .toList();
+
+        int batchSize = this.options.batchSize();
+        for (int i = 0; i < servers.size(); i += batchSize) {
+            List<String> chunk = servers.subList(i, Math.min(i + batchSize, servers.size()));
+            this.client.getCache().pipelined(batch -> this.serverCache.delServers(batch, chunk));
+        }
+
+        for (int i = 0; i < players.size(); i += batchSize) {
+            List<Player> chunk = players.subList(i, Math.min(i + batchSize, players.size()));
+            this.client.getCache().pipelined(batch -> this.playerCache.removePlayers(batch, chunk));
+        }
+
+        servers.forEach(this.missingSince::remove);
+        for (Listener listener : this.listeners) {
+            try {
+                listener.onEvict(servers);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // The probes run on a pool as large as the concurrency cap, so a burst of
+    // suspects never opens more connections than that at once.
+    private @NotNull Set<String> probe(@NotNull List<RegisteredServer> suspects) {
+        if (suspects.isEmpty()) {
+            return Set.of();
+        }
+
+        ExecutorService probes = this.probes;
+        Map<String, CompletableFuture<Boolean>> futures = Maps.newHashMapWithExpectedSize(suspects.size());
+        for (RegisteredServer server : suspects) {
+            futures.put(server.getName(), probes == null
+                    ? CompletableFuture.completedFuture(isReachable(server))
+                    : CompletableFuture.supplyAsync(() -> isReachable(server), probes));
+        }
+
+        Set<String> dead = Sets.newHashSet();
+        futures.forEach((name, future) -> {
+            if (!future.join()) {
+                dead.add(name);
+            }
+        });
+        return dead;
+    }
+
+    private boolean isReachable(@NotNull RegisteredServer server) {
+        try (Socket socket = new Socket()) {
+            socket.connect(server.getHostAndPort().asSocketAddress(), (int) this.options.probeTimeout().toMillis());
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Listener {
+
+        void onEvict(@NotNull List<String> names);
+    }
 }
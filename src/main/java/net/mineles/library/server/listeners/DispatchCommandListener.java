@@ -4,6 +4,7 @@ import com.google.gson.JsonObject;
 import net.mineles.library.connection.HostAndPort;
 import net.mineles.library.plugin.MinelesPlugin;
 import net.mineles.library.redis.RedisClient;
+import net.mineles.library.redis.message.Envelope;
 import net.mineles.library.redis.message.MessageListener;
 import org.jetbrains.annotations.NotNull;
 
@@ -16,12 +17,29 @@ public final class DispatchCommandListener implements MessageListener {
 
     @Override
     public void onMessage(@NotNull RedisClient client, @NotNull JsonObject message) {
+        dispatch(message);
+    }
+
+    @Override
+    public void onEnvelope(@NotNull RedisClient client, @NotNull Envelope envelope) {
+        if (!dispatch(envelope.getBody()) || !client.getRpc().isRequest(envelope)) {
+            return;
+        }
+
+        JsonObject reply = new JsonObject();
+        reply.addProperty("host", this.plugin.getServerAddress().toString());
+        reply.addProperty("success", true);
+        client.reply(envelope, reply.toString());
+    }
+
+    private boolean dispatch(@NotNull JsonObject message) {
         HostAndPort hostAndPort = HostAndPort.of(message.get("host").getAsString());
         if (!hostAndPort.equals(plugin.getServerAddress())) {
-            return;
+            return false;
         }
 
         String command = message.get("command").getAsString();
         this.plugin.dispatchCommand(command);
+        return true;
     }
 }
@@ -0,0 +1,267 @@
+package net.mineles.library.server.pool;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.mineles.library.server.RegisteredServer;
+import net.mineles.library.server.Server;
+import net.mineles.library.server.ServerManager;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+// Keeps started standby servers per container template so one can be handed
+// out without waiting for the container and the server to boot. Standby
+// servers are listed in the servers:standby hash, which keeps routing and the
+// autoscaler away from them until they are allocated. Allocation is local to
+// the node running the pool, like the autoscaler.
+public final class ContainerPool {
+    private static final long INITIAL_BOOT_TIME = 60_000;
+
+    private final ServerManager serverManager;
+    private final ContainerPoolOptions options;
+    private final Map<String, TemplatePool> pools;
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService creators;
+
+    public ContainerPool(@NotNull ServerManager serverManager,
+                         @NotNull ContainerPoolOptions options) {
+        checkArgument(options.concurrency() > 0, "Concurrency must be positive");
+
+        this.serverManager = serverManager;
+        this.options = options;
+        this.pools = Maps.newConcurrentMap();
+    }
+
+    public void addTemplate(@NotNull String template,
+                            int minSize,
+                            int maxSize) {
+        checkArgument(minSize >= 0 && maxSize >= minSize, "Invalid pool bounds");
+
+        TemplatePool pool = new TemplatePool(template, minSize, maxSize);
+        this.pools.put(template, pool);
+
+        ScheduledExecutorService scheduler = this.scheduler;
+        if (scheduler != null) {
+            scheduler.execute(() -> recover(pool));
+        }
+    }
+
+    public synchronized void start() {
+        if (this.scheduler != null) {
+            return;
+        }
+
+        String executorName = this.serverManager.getRedisClient().getExecutorName();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat(executorName + "-container-pool-%d")
+                .setDaemon(true)
+                .build());
+        this.creators = Executors.newFixedThreadPool(this.options.concurrency(), new ThreadFactoryBuilder()
+                .setNameFormat(executorName + "-container-pool-create-%d")
+                .setDaemon(true)
+                .build());
+
+        this.pools.values().forEach(pool -> this.scheduler.execute(() -> recover(pool)));
+
+        long interval = this.options.interval().toMillis();
+        this.scheduler.scheduleWithFixedDelay(this::maintain, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    // Standby servers keep running on stop; the next start picks them up
+    // again from the standby hash.
+    public synchronized void stop() {
+        if (this.scheduler == null) {
+            return;
+        }
+
+        this.scheduler.shutdownNow();
+        this.creators.shutdownNow();
+        this.scheduler = null;
+        this.creators = null;
+    }
+
+    // Returns null when the template has no ready standby server; the caller
+    // is expected to start one the slow way then.
+    public @Nullable RegisteredServer allocate(@NotNull String template) {
+        TemplatePool pool = this.pools.get(template);
+        if (pool == null) {
+            return null;
+        }
+
+        pool.allocations.incrementAndGet();
+        try {
+            String name;
+            while ((name = pool.ready.poll()) != null) {
+                this.serverManager.getServerCache().setStandby(name, null);
+
+                RegisteredServer server = this.serverManager.getServerCache().getRegisteredServer(name);
+                if (server != null) {
+                    return server;
+                }
+            }
+            return null;
+        } finally {
+            ScheduledExecutorService scheduler = this.scheduler;
+            if (scheduler != null) {
+                scheduler.execute(() -> maintain(pool, System.currentTimeMillis()));
+            }
+        }
+    }
+
+    public int getReadyCount(@NotNull String template) {
+        TemplatePool pool = this.pools.get(template);
+        return pool == null ? 0 : pool.ready.size();
+    }
+
+    public int getTargetSize(@NotNull String template) {
+        TemplatePool pool = this.pools.get(template);
+        return pool == null ? 0 : pool.target;
+    }
+
+    private void recover(@NotNull TemplatePool pool) {
+        try {
+            long now = System.currentTimeMillis();
+            this.serverManager.getStandbyServers().forEach((name, template) -> {
+                if (!template.equals(pool.template) || pool.ready.contains(name) || pool.warming.containsKey(name)) {
+                    return;
+                }
+
+                if (this.serverManager.getServerCache().getRegisteredServer(name) != null) {
+                    pool.ready.add(name);
+                } else {
+                    pool.warming.put(name, now);
+                }
+            });
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void maintain() {
+        long now = System.currentTimeMillis();
+        for (TemplatePool pool : this.pools.values()) {
+            try {
+                maintain(pool, now);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    // Runs on the scheduler thread only. The target is the number of servers
+    // that are allocated, at the recent rate, in the time one takes to boot,
+    // so the pool refills about as fast as it drains.
+    private void maintain(@NotNull TemplatePool pool, long now) {
+        List<String> names = Lists.newArrayList(pool.ready);
+        names.addAll(pool.warming.keySet());
+        Map<String, Server> servers = names.isEmpty() ? Map.of() : this.serverManager.getServerCache().getServers(names);
+
+        pool.ready.removeIf(name -> !(servers.get(name) instanceof RegisteredServer));
+        pool.warming.entrySet().removeIf(entry -> {
+            String name = entry.getKey();
+            Server server = servers.get(name);
+            if (server instanceof RegisteredServer) {
+                pool.bootTime += 0.3 * (now - entry.getValue() - pool.bootTime);
+                pool.ready.add(name);
+                return true;
+            }
+
+            if (server == null || now - entry.getValue() >= this.options.startTimeout().toMillis()) {
+                discard(name, server);
+                return true;
+            }
+            return false;
+        });
+
+        long elapsed = now - pool.lastSample;
+        if (elapsed >= this.options.interval().toMillis()) {
+            double rate = (double) pool.allocations.getAndSet(0) / elapsed;
+            pool.allocationRate += (1 - Math.exp(-(double) elapsed / this.options.demandWindow().toMillis())) * (rate - pool.allocationRate);
+            pool.lastSample = now;
+        }
+
+        int target = (int) Math.ceil(pool.allocationRate * pool.bootTime);
+        pool.target = Math.min(Math.max(target, pool.minSize), pool.maxSize);
+
+        int missing = pool.target - pool.ready.size() - pool.warming.size() - pool.creating.get();
+        for (int i = 0; i < missing; i++) {
+            pool.creating.incrementAndGet();
+            this.creators.execute(() -> create(pool));
+        }
+
+        // Surplus standbys are stopped one per demand window, so a short lull
+        // doesn't throw away servers the next burst needs.
+        if (pool.ready.size() > pool.target
+                && now - pool.lastShrink >= this.options.demandWindow().toMillis()) {
+            String name = pool.ready.pollLast();
+            if (name != null) {
+                pool.lastShrink = now;
+                discard(name, servers.get(name));
+            }
+        }
+    }
+
+    private void create(@NotNull TemplatePool pool) {
+        try {
+            Server server = this.serverManager.getServerController().createServer(pool.template);
+            this.serverManager.getServerCache().setStandby(server.getName(), pool.template);
+            pool.warming.put(server.getName(), System.currentTimeMillis());
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            pool.creating.decrementAndGet();
+        }
+    }
+
+    private void discard(@NotNull String name,
+                         @Nullable Server server) {
+        this.serverManager.getServerCache().setStandby(name, null);
+        if (server != null) {
+            this.serverManager.getServerController().stopServer(server);
+        }
+    }
+
+    private static final class TemplatePool {
+        private final String template;
+        private final int minSize;
+        private final int maxSize;
+        private final Deque<String> ready;
+        private final Map<String, Long> warming;
+        private final AtomicInteger creating;
+        private final AtomicInteger allocations;
+
+        private volatile int target;
+        private double allocationRate;
+        private double bootTime;
+        private long lastSample;
+        private long lastShrink;
+
+        private TemplatePool(@NotNull String template,
+                             int minSize,
+                             int maxSize) {
+            this.template = template;
+            this.minSize = minSize;
+            this.maxSize = maxSize;
+            this.ready = new ConcurrentLinkedDeque<>();
+            this.warming = Maps.newConcurrentMap();
+            this.creating = new AtomicInteger();
+            this.allocations = new AtomicInteger();
+            this.target = minSize;
+            this.bootTime = INITIAL_BOOT_TIME;
+            this.lastSample = System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package net.mineles.library.server.pool;
+
+import org.jetbrains.annotations.NotNull;
+import net.mineles.library.libs.configurate.ConfigurationNode;
+
+import java.time.Duration;
+
+public record ContainerPoolOptions(int concurrency,
+                                   @NotNull Duration interval,
+                                   @NotNull Duration demandWindow,
+                                   @NotNull Duration startTimeout) {
+
+    public static ContainerPoolOptions fromNode(@NotNull ConfigurationNode node) {
+        return new ContainerPoolOptions(
+                node.node("concurrency").getInt(2),
+                Duration.ofMillis(node.node("interval").getLong(5_000)),
+                Duration.ofMillis(node.node("demand-window").getLong(300_000)),
+                Duration.ofMillis(node.node("start-timeout").getLong(300_000))
+        );
+    }
+
+    public static ContainerPoolOptions defaults() {
+        return new ContainerPoolOptions(2, Duration.ofSeconds(5), Duration.ofMinutes(5), Duration.ofMinutes(5));
+    }
+}
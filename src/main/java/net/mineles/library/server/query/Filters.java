@@ -2,29 +2,66 @@ package net.mineles.library.server.query;
 
 import net.mineles.library.server.Server;
 
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Set;
+
 public final class Filters {
     private Filters() {
     }
 
     public static Filter name(String name) {
-        return server -> server.getName().equalsIgnoreCase(name);
+        return new NameFilter(name);
     }
 
     public static Filter image(String image) {
-        if (image.split(":").length > 1) {
-            image = image.split(":")[1];
-        }
-        String finalImage = image;
-        return server -> {
-            String serverImage = server.getImage();
-            if (serverImage.split(":").length > 1) {
-                serverImage = serverImage.split(":")[1];
-            }
-            return serverImage.equalsIgnoreCase(finalImage);
-        };
+        return new ImageFilter(imageKey(image));
     }
 
     public static Filter online() {
-        return Server::isStarted;
+        return OnlineFilter.INSTANCE;
+    }
+
+    public static Filter exclude(Collection<String> names) {
+        return new ExcludeFilter(Set.copyOf(names));
+    }
+
+    // Images are matched on the part after the first colon, ignoring case;
+    // the server registry indexes images by the same key.
+    public static String imageKey(String image) {
+        String[] split = image.split(":");
+        return (split.length > 1 ? split[1] : image).toLowerCase(Locale.ROOT);
+    }
+
+    // The built-in filters are records so ServerQuery can recognise them and
+    // look candidates up in an index instead of testing every server.
+    record NameFilter(String name) implements Filter {
+        @Override
+        public boolean test(Server server) {
+            return server.getName().equalsIgnoreCase(this.name);
+        }
+    }
+
+    record ImageFilter(String image) implements Filter {
+        @Override
+        public boolean test(Server server) {
+            return imageKey(server.getImage()).equals(this.image);
+        }
+    }
+
+    record OnlineFilter() implements Filter {
+        static final OnlineFilter INSTANCE = new OnlineFilter();
+
+        @Override
+        public boolean test(Server server) {
+            return server.isStarted();
+        }
+    }
+
+    record ExcludeFilter(Set<String> names) implements Filter {
+        @Override
+        public boolean test(Server server) {
+            return !this.names.contains(server.getName());
+        }
     }
 }
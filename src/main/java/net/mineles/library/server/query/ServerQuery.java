@@ -0,0 +1,186 @@
+package net.mineles.library.server.query;
+
+import com.google.common.collect.Lists;
+import net.mineles.library.server.RegisteredServer;
+import net.mineles.library.server.ServerCache;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToDoubleFunction;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public final class ServerQuery {
+    private final ServerCache serverCache;
+    private final List<Filter> filters;
+    private final List<Sort> sorts;
+
+    private int limit;
+
+    private ServerQuery(@NotNull ServerCache serverCache) {
+        this.serverCache = serverCache;
+        this.filters = Lists.newArrayList();
+        this.sorts = Lists.newArrayList();
+        this.limit = Integer.MAX_VALUE;
+    }
+
+    public static ServerQuery of(@NotNull ServerCache serverCache) {
+        return new ServerQuery(serverCache);
+    }
+
+    public ServerQuery filter(@NotNull Filter... filters) {
+        Collections.addAll(this.filters, filters);
+        return this;
+    }
+
+    public ServerQuery sort(@NotNull Sort... sorts) {
+        Collections.addAll(this.sorts, sorts);
+        return this;
+    }
+
+    public ServerQuery limit(int limit) {
+        checkArgument(limit > 0, "Limit must be positive");
+
+        this.limit = limit;
+        return this;
+    }
+
+    public @NotNull List<RegisteredServer> list() {
+        List<RegisteredServer> candidates = candidates();
+        if (this.sorts.isEmpty()) {
+            return candidates.size() > this.limit ? candidates.subList(0, this.limit) : candidates;
+        }
+
+        Sort sort = Sort.combine(this.sorts.toArray(new Sort[0]));
+        if (this.limit >= candidates.size()) {
+            candidates.sort(sort);
+            return candidates;
+        }
+
+        return top(candidates, sort, this.limit);
+    }
+
+    public @Nullable RegisteredServer first() {
+        List<RegisteredServer> candidates = candidates();
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        if (this.sorts.isEmpty()) {
+            return candidates.get(0);
+        }
+
+        Sort sort = Sort.combine(this.sorts.toArray(new Sort[0]));
+        RegisteredServer best = candidates.get(0);
+        for (int i = 1; i < candidates.size(); i++) {
+            if (sort.compare(candidates.get(i), best) < 0) {
+                best = candidates.get(i);
+            }
+        }
+        return best;
+    }
+
+    // Picks one of the best servers at random, the better ones more often,
+    // so nodes routing at the same moment don't all choose the same server.
+    // The candidates are the top `limit` servers, weighted by rank.
+    public @Nullable RegisteredServer pick() {
+        List<RegisteredServer> servers = list();
+        double[] weights = new double[servers.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = weights.length - i;
+        }
+        return pick(servers, weights);
+    }
+
+    public @Nullable RegisteredServer pick(@NotNull ToDoubleFunction<RegisteredServer> weight) {
+        List<RegisteredServer> servers = list();
+        double[] weights = new double[servers.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = Math.max(weight.applyAsDouble(servers.get(i)), 0);
+        }
+        return pick(servers, weights);
+    }
+
+    private @NotNull List<RegisteredServer> candidates() {
+        Collection<RegisteredServer> servers = null;
+        for (Filter filter : this.filters) {
+            if (filter instanceof Filters.ImageFilter imageFilter) {
+                servers = this.serverCache.getRegisteredServersByImage(imageFilter.image());
+                break;
+            }
+        }
+
+        // Only registered servers are ever returned, which already covers
+        // the online filter.
+        if (servers == null) {
+            servers = this.serverCache.getRegisteredServers().values();
+        }
+
+        List<RegisteredServer> candidates = Lists.newArrayListWithCapacity(servers.size());
+        for (RegisteredServer server : servers) {
+            if (matches(server)) {
+                candidates.add(server);
+            }
+        }
+        return candidates;
+    }
+
+    private boolean matches(@NotNull RegisteredServer server) {
+        for (Filter filter : this.filters) {
+            if (!(filter instanceof Filters.OnlineFilter) && !filter.test(server)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // A max-heap of the best `limit` servers seen so far: each server either
+    // replaces the current worst or is dropped, so this runs in O(n log k).
+    private static @NotNull List<RegisteredServer> top(@NotNull List<RegisteredServer> servers,
+                                                       @NotNull Sort sort,
+                                                       int limit) {
+        PriorityQueue<RegisteredServer> heap = new PriorityQueue<>(limit + 1, sort.descending());
+        for (RegisteredServer server : servers) {
+            if (heap.size() < limit) {
+                heap.add(server);
+            } else if (sort.compare(server, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(server);
+            }
+        }
+
+        List<RegisteredServer> result = Lists.newArrayList(heap);
+        result.sort(sort);
+        return result;
+    }
+
+    private static @Nullable RegisteredServer pick(@NotNull List<RegisteredServer> servers,
+                                                   @NotNull double[] weights) {
+        if (servers.isEmpty()) {
+            return null;
+        }
+
+        double total = 0;
+        for (double weight : weights) {
+            total += weight;
+        }
+
+        if (total <= 0) {
+            return servers.get(0);
+        }
+
+        double target = ThreadLocalRandom.current().nextDouble(total);
+        for (int i = 0; i < weights.length; i++) {
+            target -= weights[i];
+            if (target < 0) {
+                return servers.get(i);
+            }
+        }
+        return servers.get(weights.length - 1);
+    }
+}
@@ -11,10 +11,37 @@ public interface Sort extends Comparator<RegisteredServer> {
         return servers.sorted(sort);
     }
 
+    // Later sorts only break ties left by earlier ones; sorting the stream
+    // once per sort would let the last one override the rest.
     static Stream<RegisteredServer> sort(Sort[] sorts, Stream<RegisteredServer> servers) {
-        for (Sort sort : sorts) {
-            servers = sort(sort, servers);
+        if (sorts.length == 0) {
+            return servers;
         }
-        return servers;
+
+        return sort(combine(sorts), servers);
+    }
+
+    static Sort combine(Sort... sorts) {
+        if (sorts.length == 1) {
+            return sorts[0];
+        }
+
+        return (server1, server2) -> {
+            for (Sort sort : sorts) {
+                int result = sort.compare(server1, server2);
+                if (result != 0) {
+                    return result;
+                }
+            }
+            return 0;
+        };
+    }
+
+    default Sort then(Sort next) {
+        return combine(this, next);
+    }
+
+    default Sort descending() {
+        return (server1, server2) -> compare(server2, server1);
     }
 }
@@ -1,5 +1,11 @@
 package net.mineles.library.server.query;
 
+import net.mineles.library.server.RegisteredServer;
+import net.mineles.library.server.health.Heartbeat;
+
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
 public final class Sorts {
     private Sorts() {
     }
@@ -11,4 +17,26 @@ public final class Sorts {
     public static Sort entries() {
         return (server1, server2) -> Integer.compare(server1.getEntryCount(), server2.getEntryCount());
     }
+
+    public static Sort score(ToDoubleFunction<RegisteredServer> score) {
+        return (server1, server2) -> Double.compare(score.applyAsDouble(server1), score.applyAsDouble(server2));
+    }
+
+    public static Sort load(Map<String, Heartbeat> heartbeats) {
+        return load(heartbeats, 0);
+    }
+
+    // Scores each server by its smoothed load plus playerWeight per player,
+    // so a small weight still spreads players across equally idle servers.
+    // Servers without a heartbeat sort last.
+    public static Sort load(Map<String, Heartbeat> heartbeats, double playerWeight) {
+        return score(server -> {
+            Heartbeat heartbeat = heartbeats.get(server.getName());
+            if (heartbeat == null) {
+                return Double.MAX_VALUE;
+            }
+
+            return heartbeat.load() + playerWeight * server.getPlayerCount();
+        });
+    }
 }
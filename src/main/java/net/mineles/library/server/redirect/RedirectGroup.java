@@ -0,0 +1,29 @@
+package net.mineles.library.server.redirect;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+// Players that must end up on the same server, such as a party.
+public record RedirectGroup(@NotNull List<String> players) {
+
+    public RedirectGroup {
+        checkArgument(!players.isEmpty(), "Group must not be empty");
+        players = List.copyOf(players);
+    }
+
+    public static RedirectGroup of(@NotNull String... players) {
+        return new RedirectGroup(List.of(players));
+    }
+
+    public static RedirectGroup of(@NotNull Collection<String> players) {
+        return new RedirectGroup(List.copyOf(players));
+    }
+
+    public int size() {
+        return this.players.size();
+    }
+}
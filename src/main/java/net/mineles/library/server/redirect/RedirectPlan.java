@@ -0,0 +1,38 @@
+package net.mineles.library.server.redirect;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+
+public final class RedirectPlan {
+    private final Map<String, String> assignments;
+    private final List<RedirectGroup> unplaced;
+
+    RedirectPlan(@NotNull Map<String, String> assignments,
+                 @NotNull List<RedirectGroup> unplaced) {
+        this.assignments = ImmutableMap.copyOf(assignments);
+        this.unplaced = ImmutableList.copyOf(unplaced);
+    }
+
+    // Player name to the name of the server it was placed on.
+    public @NotNull Map<String, String> getAssignments() {
+        return this.assignments;
+    }
+
+    public @Nullable String getServer(@NotNull String player) {
+        return this.assignments.get(player);
+    }
+
+    // Groups no candidate server had room for; they are left where they are.
+    public @NotNull List<RedirectGroup> getUnplaced() {
+        return this.unplaced;
+    }
+
+    public boolean isComplete() {
+        return this.unplaced.isEmpty();
+    }
+}
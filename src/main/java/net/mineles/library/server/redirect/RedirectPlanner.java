@@ -0,0 +1,63 @@
+package net.mineles.library.server.redirect;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import net.mineles.library.server.RegisteredServer;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+public final class RedirectPlanner {
+    private RedirectPlanner() {
+    }
+
+    // First-fit decreasing over the servers in the order given, which is the
+    // caller's order of preference. Placing the largest groups first keeps a
+    // party from finding every server half filled by single players. Full
+    // servers are skipped from then on, so a mass transfer of single players
+    // is one pass over the servers and one over the players.
+    public static @NotNull RedirectPlan plan(@NotNull List<RegisteredServer> servers,
+                                             @NotNull Collection<RedirectGroup> groups,
+                                             @NotNull ToIntFunction<RegisteredServer> capacity) {
+        int[] remaining = new int[servers.size()];
+        for (int i = 0; i < remaining.length; i++) {
+            RegisteredServer server = servers.get(i);
+            remaining[i] = Math.max(capacity.applyAsInt(server) - server.getPlayerCount(), 0);
+        }
+
+        List<RedirectGroup> sorted = Lists.newArrayList(groups);
+        sorted.sort(Comparator.comparingInt(RedirectGroup::size).reversed());
+
+        Map<String, String> assignments = Maps.newHashMap();
+        List<RedirectGroup> unplaced = Lists.newArrayList();
+        int firstOpen = 0;
+        for (RedirectGroup group : sorted) {
+            while (firstOpen < remaining.length && remaining[firstOpen] == 0) {
+                firstOpen++;
+            }
+
+            int target = -1;
+            for (int i = firstOpen; i < remaining.length; i++) {
+                if (remaining[i] >= group.size()) {
+                    target = i;
+                    break;
+                }
+            }
+
+            if (target == -1) {
+                unplaced.add(group);
+                continue;
+            }
+
+            remaining[target] -= group.size();
+            String server = servers.get(target).getName();
+            group.players().forEach(player -> assignments.put(player, server));
+        }
+
+        return new RedirectPlan(assignments, unplaced);
+    }
+}
@@ -0,0 +1,235 @@
+package net.mineles.library.server.scaling;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import net.mineles.library.server.RegisteredServer;
+import net.mineles.library.server.Server;
+import net.mineles.library.server.ServerManager;
+import net.mineles.library.server.query.Filters;
+import net.mineles.library.server.strategy.ServerPlayersBalancingStrategy;
+import net.mineles.library.server.strategy.Strategy;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Keeps the number of servers per template between its bounds, following
+// the player count. Only one node should run it, since two would both start
+// servers for the same demand.
+public final class Autoscaler {
+    private static final double JOIN_RATE_WINDOW = 30_000;
+
+    private final ServerManager serverManager;
+    private final Duration interval;
+    private final Map<String, Policy> policies;
+
+    private ScheduledExecutorService executor;
+
+    public Autoscaler(@NotNull ServerManager serverManager,
+                      @NotNull Duration interval) {
+        this.serverManager = serverManager;
+        this.interval = interval;
+        this.policies = Maps.newConcurrentMap();
+    }
+
+    public void addTemplate(@NotNull ScalingOptions options) {
+        addTemplate(options, new ServerPlayersBalancingStrategy(this.serverManager.getRedisClient().getCache(),
+                this.serverManager.getServerCache(), options.capacity()));
+    }
+
+    public void addTemplate(@NotNull ScalingOptions options,
+                            @NotNull Strategy strategy) {
+        this.policies.put(options.template(), new Policy(options, strategy));
+    }
+
+    public void removeTemplate(@NotNull String template) {
+        this.policies.remove(template);
+    }
+
+    public synchronized void start() {
+        if (this.executor != null) {
+            return;
+        }
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactoryBuilder()
+                .setNameFormat(this.serverManager.getRedisClient().getExecutorName() + "-autoscaler-%d")
+                .setDaemon(true)
+                .build());
+
+        long interval = this.interval.toMillis();
+        this.executor.scheduleWithFixedDelay(() -> {
+            try {
+                tick();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void stop() {
+        if (this.executor == null) {
+            return;
+        }
+
+        this.executor.shutdownNow();
+        this.executor = null;
+    }
+
+    public void tick() {
+        if (this.policies.isEmpty()) {
+            return;
+        }
+
+        Map<String, Server> servers = this.serverManager.getServerCache().getServers();
+        Set<String> draining = this.serverManager.getDrainingServers();
+        Set<String> standby = this.serverManager.getStandbyServers().keySet();
+        long now = System.currentTimeMillis();
+        for (Policy policy : this.policies.values()) {
+            try {
+                scale(policy, servers, draining, standby, now);
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void scale(@NotNull Policy policy,
+                       @NotNull Map<String, Server> servers,
+                       @NotNull Set<String> draining,
+                       @NotNull Set<String> standby,
+                       long now) {
+        ScalingOptions options = policy.options;
+        String image = Filters.imageKey(options.image());
+
+        // Servers that were created but haven't registered yet count towards
+        // the total, or every tick during a start would start another one.
+        // Standby servers belong to the container pool until handed out.
+        List<RegisteredServer> active = Lists.newArrayList();
+        List<RegisteredServer> drained = Lists.newArrayList();
+        int pending = 0;
+        int players = 0;
+        for (Server server : servers.values()) {
+            if (standby.contains(server.getName()) || !Filters.imageKey(server.getImage()).equals(image)) {
+                continue;
+            }
+
+            if (server instanceof RegisteredServer registeredServer) {
+                players += registeredServer.getPlayerCount();
+                if (draining.contains(server.getName())) {
+                    drained.add(registeredServer);
+                } else {
+                    active.add(registeredServer);
+                }
+            } else if (now - server.getCreateTime() < options.startTimeout().toMillis()) {
+                pending++;
+            }
+        }
+        policy.stopping.retainAll(servers.keySet());
+
+        double predicted = players + Math.max(policy.sample(players, now), 0) * options.lookahead().toMillis() / 1000;
+        int desired = (int) Math.ceil(predicted / (options.capacity() * options.scaleUpThreshold()));
+        if (pending == 0 && active.stream().noneMatch(server -> policy.strategy.checkForNewServer(server.getName()))) {
+            desired = Math.max(desired, active.size() + 1);
+        }
+        desired = Math.min(Math.max(desired, options.minServers()), options.maxServers());
+
+        for (RegisteredServer server : drained) {
+            if (server.getPlayerCount() == 0 && server.getEntryCount() == 0 && policy.stopping.add(server.getName())) {
+                this.serverManager.getServerController().stopServer(server);
+            }
+        }
+
+        int current = active.size() + pending;
+        if (desired > current) {
+            scaleUp(policy, drained, desired - current, current < options.minServers(), now);
+            return;
+        }
+
+        // Hysteresis: a server is only drained once the rest could take its
+        // players without crossing the scale up threshold, so the two
+        // thresholds can't trigger each other back and forth.
+        if (pending > 0 || active.size() <= options.minServers()
+                || now - policy.lastScaleUp < options.scaleDownCooldown().toMillis()
+                || now - policy.lastScaleDown < options.scaleDownCooldown().toMillis()) {
+            return;
+        }
+
+        double fill = predicted / (active.size() * options.capacity());
+        if (fill < options.scaleDownThreshold()
+                && predicted <= (active.size() - 1) * options.capacity() * options.scaleUpThreshold()) {
+            RegisteredServer server = active.stream()
+                    .min(Comparator.comparingInt(RegisteredServer::getPlayerCount))
+                    .orElseThrow();
+            this.serverManager.setDraining(server.getName(), true);
+            policy.lastScaleDown = now;
+        }
+    }
+
+    // Servers still draining are already running, so they are put back into
+    // rotation before any new one is started.
+    private void scaleUp(@NotNull Policy policy,
+                         @NotNull List<RegisteredServer> drained,
+                         int missing,
+                         boolean belowMinimum,
+                         long now) {
+        for (RegisteredServer server : drained) {
+            if (missing == 0) {
+                return;
+            }
+            if (!policy.stopping.contains(server.getName())) {
+                this.serverManager.setDraining(server.getName(), false);
+                missing--;
+            }
+        }
+
+        if (missing == 0 || !belowMinimum && now - policy.lastScaleUp < policy.options.scaleUpCooldown().toMillis()) {
+            return;
+        }
+
+        for (int i = 0; i < missing; i++) {
+            this.serverManager.getServerController().startServer(policy.options.template());
+        }
+        policy.lastScaleUp = now;
+    }
+
+    private static final class Policy {
+        private final ScalingOptions options;
+        private final Strategy strategy;
+        private final Set<String> stopping;
+
+        private int lastPlayers = -1;
+        private long lastSample;
+        private double joinRate;
+        private long lastScaleUp;
+        private long lastScaleDown;
+
+        private Policy(@NotNull ScalingOptions options,
+                       @NotNull Strategy strategy) {
+            this.options = options;
+            this.strategy = strategy;
+            this.stopping = Sets.newHashSet();
+        }
+
+        // Players per second, smoothed so a single party joining doesn't look
+        // like a trend.
+        private double sample(int players, long now) {
+            if (this.lastPlayers >= 0 && now > this.lastSample) {
+                long elapsed = now - this.lastSample;
+                double rate = (players - this.lastPlayers) * 1000D / elapsed;
+                this.joinRate += (1 - Math.exp(-elapsed / JOIN_RATE_WINDOW)) * (rate - this.joinRate);
+            }
+
+            this.lastPlayers = players;
+            this.lastSample = now;
+            return this.joinRate;
+        }
+    }
+}
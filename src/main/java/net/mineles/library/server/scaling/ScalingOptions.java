@@ -0,0 +1,49 @@
+package net.mineles.library.server.scaling;
+
+import org.jetbrains.annotations.NotNull;
+import net.mineles.library.libs.configurate.ConfigurationNode;
+
+import java.time.Duration;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+public record ScalingOptions(@NotNull String template,
+                             @NotNull String image,
+                             int minServers,
+                             int maxServers,
+                             int capacity,
+                             double scaleUpThreshold,
+                             double scaleDownThreshold,
+                             @NotNull Duration scaleUpCooldown,
+                             @NotNull Duration scaleDownCooldown,
+                             @NotNull Duration lookahead,
+                             @NotNull Duration startTimeout) {
+
+    public ScalingOptions {
+        checkArgument(minServers >= 0 && maxServers >= minServers, "Invalid server bounds");
+        checkArgument(capacity > 0, "Capacity must be positive");
+        checkArgument(scaleDownThreshold < scaleUpThreshold, "Scale down threshold must be below the scale up threshold");
+    }
+
+    public static ScalingOptions fromNode(@NotNull ConfigurationNode node) {
+        return new ScalingOptions(
+                node.node("template").getString(""),
+                node.node("image").getString(""),
+                node.node("min-servers").getInt(1),
+                node.node("max-servers").getInt(10),
+                node.node("capacity").getInt(100),
+                node.node("scale-up-threshold").getDouble(0.75),
+                node.node("scale-down-threshold").getDouble(0.3),
+                Duration.ofMillis(node.node("scale-up-cooldown").getLong(30_000)),
+                Duration.ofMillis(node.node("scale-down-cooldown").getLong(300_000)),
+                Duration.ofMillis(node.node("lookahead").getLong(60_000)),
+                Duration.ofMillis(node.node("start-timeout").getLong(120_000))
+        );
+    }
+
+    public static ScalingOptions defaults(@NotNull String template,
+                                          @NotNull String image) {
+        return new ScalingOptions(template, image, 1, 10, 100, 0.75, 0.3,
+                Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofMinutes(1), Duration.ofMinutes(2));
+    }
+}
@@ -1,15 +1,33 @@
 package net.mineles.library.server.strategy;
 
+import net.mineles.library.redis.RedisCache;
+import net.mineles.library.server.constants.ServerKeys;
+import net.mineles.library.server.health.Heartbeat;
+
 public final class ResourceUsagesStrategy implements Strategy {
+    private final RedisCache cache;
+    private final double maxLoad;
 
+    public ResourceUsagesStrategy(RedisCache cache, double maxLoad) {
+        this.cache = cache;
+        this.maxLoad = maxLoad;
+    }
 
     @Override
     public boolean check(String serverName) {
-        return false;
+        return getLoad(serverName) < this.maxLoad;
     }
 
     @Override
     public boolean checkForNewServer(String serverName) {
-        return false;
+        return getLoad(serverName) < this.maxLoad * 0.75;
+    }
+
+    // Without a heartbeat there is no usage to judge, whether the server
+    // stopped sending them or never did, so it is treated as full the same
+    // way Sorts.load ranks it last.
+    private double getLoad(String serverName) {
+        Heartbeat heartbeat = Heartbeat.parse(this.cache.get(ServerKeys.serverHeartbeat(serverName)));
+        return heartbeat == null ? Double.MAX_VALUE : heartbeat.load();
     }
 }
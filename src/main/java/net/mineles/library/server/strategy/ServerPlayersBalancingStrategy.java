@@ -0,0 +1,18 @@
+package net.mineles.library.server.strategy;
+
+import net.mineles.library.redis.RedisCache;
+import net.mineles.library.server.ServerCache;
+
+public final class ServerPlayersBalancingStrategy extends BalancingStrategy {
+    private final ServerCache serverCache;
+
+    public ServerPlayersBalancingStrategy(RedisCache cache, ServerCache serverCache, int max) {
+        super(cache, max);
+        this.serverCache = serverCache;
+    }
+
+    @Override
+    protected int getCount(String serverName) {
+        return (int) this.serverCache.getPlayerCount(serverName);
+    }
+}
@@ -0,0 +1,67 @@
+package net.mineles.library.redis;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+final class SequenceWindowTest {
+    @Test
+    void inOrderSequencesMissNothing() {
+        SequenceWindow window = new SequenceWindow();
+        for (long sequence = 1; sequence <= 500; sequence++) {
+            assertEquals(0, window.accept(sequence));
+        }
+    }
+
+    @Test
+    void firstSequenceIsTakenAsTheStart() {
+        SequenceWindow window = new SequenceWindow();
+        assertEquals(0, window.accept(1000));
+        assertEquals(0, window.accept(1001));
+    }
+
+    @Test
+    void reorderedSequencesMissNothing() {
+        SequenceWindow window = new SequenceWindow();
+        long missed = 0;
+        for (long sequence : new long[]{1, 3, 2, 5, 4, 6, 8}) {
+            missed += window.accept(sequence);
+        }
+        assertEquals(0, missed);
+    }
+
+    @Test
+    void gapsCountOnceTheyLeaveTheWindow() {
+        SequenceWindow window = new SequenceWindow();
+        for (long sequence : new long[]{1, 3, 2, 5, 4, 6, 8}) {
+            window.accept(sequence);
+        }
+
+        // 9..35 are already past the window, and so is 7, still pending
+        assertEquals(28, window.accept(100));
+        // too late to be counted twice
+        assertEquals(0, window.accept(7));
+        // 101..135 jumped over, plus 36..99 expiring from pending
+        assertEquals(99, window.accept(200));
+    }
+
+    @Test
+    void lateArrivalsInsideTheWindowAreNotMissed() {
+        SequenceWindow window = new SequenceWindow();
+        window.accept(1);
+        assertEquals(0, window.accept(10));
+        assertEquals(0, window.accept(5));
+        // 2..9 pending, 5 arrived late
+        assertEquals(7, window.accept(10 + SequenceWindow.REORDER_WINDOW + 1));
+    }
+
+    @Test
+    void duplicatesMissNothing() {
+        SequenceWindow window = new SequenceWindow();
+        window.accept(1);
+        window.accept(2);
+        assertEquals(0, window.accept(2));
+        assertEquals(0, window.accept(1));
+        assertEquals(0, window.accept(3));
+    }
+}
@@ -0,0 +1,181 @@
+package net.mineles.library.redis.backend;
+
+import com.google.common.collect.ImmutableMap;
+import net.mineles.library.libs.jedis.exceptions.JedisDataException;
+import net.mineles.library.libs.jedis.params.ScanParams;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class MemoryBackendTest {
+    private final MemoryBackend backend = new MemoryBackend("memory-test");
+
+    @AfterEach
+    void tearDown() {
+        this.backend.close();
+    }
+
+    @Test
+    void stringCommands() {
+        assertEquals("OK", run(commands -> commands.set("a", "1")));
+        run(commands -> commands.set("b".getBytes(StandardCharsets.UTF_8), new byte[]{1, 2}));
+
+        assertEquals("1", run(commands -> commands.get("a")));
+        assertArrayEquals(new byte[]{1, 2}, run(commands -> commands.get("b".getBytes(StandardCharsets.UTF_8))));
+        assertEquals(Arrays.asList("1", null), run(commands -> commands.mget("a", "missing")));
+        assertTrue((boolean) run(commands -> commands.exists("a")));
+        assertEquals(1L, (long) run(commands -> commands.del("a", "missing")));
+        assertFalse((boolean) run(commands -> commands.exists("a")));
+    }
+
+    @Test
+    void hashCommands() {
+        assertEquals(1L, (long) run(commands -> commands.hset("h", "f1", "v1")));
+        assertEquals(0L, (long) run(commands -> commands.hset("h", "f1", "v2")));
+        assertEquals(1L, (long) run(commands -> commands.hset("h", ImmutableMap.of("f1", "v3", "f2", "v4"))));
+
+        assertEquals("v3", run(commands -> commands.hget("h", "f1")));
+        assertEquals(Arrays.asList("v4", null), run(commands -> commands.hmget("h", "f2", "f3")));
+        assertEquals(ImmutableMap.of("f1", "v3", "f2", "v4"), run(commands -> commands.hgetAll("h")));
+        assertEquals(Set.of("f1", "f2"), run(commands -> commands.hkeys("h")));
+        assertEquals(2L, (long) run(commands -> commands.hlen("h")));
+        assertTrue((boolean) run(commands -> commands.hexists("h", "f2")));
+
+        assertEquals(2L, (long) run(commands -> commands.hdel("h", "f1", "f2", "f3")));
+        // an emptied hash is gone, as in Redis
+        assertFalse((boolean) run(commands -> commands.exists("h")));
+    }
+
+    @Test
+    void setCommands() {
+        assertEquals(2L, (long) run(commands -> commands.sadd("s", "a", "b", "a")));
+        assertEquals(0L, (long) run(commands -> commands.sadd("s", "b")));
+        assertEquals(Set.of("a", "b"), run(commands -> commands.smembers("s")));
+        assertTrue((boolean) run(commands -> commands.sismember("s", "a")));
+        assertEquals(2L, (long) run(commands -> commands.scard("s")));
+
+        assertEquals(1L, (long) run(commands -> commands.srem("s", "a", "c")));
+        assertEquals(1L, (long) run(commands -> commands.srem("s", "b")));
+        assertFalse((boolean) run(commands -> commands.exists("s")));
+        assertTrue(run(commands -> commands.smembers("s")).isEmpty());
+    }
+
+    @Test
+    void listCommands() {
+        assertEquals(3L, (long) run(commands -> commands.lpush("l", "a", "b", "c")));
+        assertEquals(List.of("c", "b", "a"), run(commands -> commands.lrange("l", 0, -1)));
+        assertEquals(List.of("b", "a"), run(commands -> commands.lrange("l", -2, 10)));
+        assertTrue(run(commands -> commands.lrange("l", 5, 10)).isEmpty());
+        assertEquals("a", run(commands -> commands.lindex("l", -1)));
+        assertNull(run(commands -> commands.lindex("l", 3)));
+
+        run(commands -> commands.lpush("l", "a"));
+        assertEquals(1L, (long) run(commands -> commands.lrem("l", -1, "a")));
+        assertEquals(List.of("a", "c", "b"), run(commands -> commands.lrange("l", 0, -1)));
+        assertEquals(1L, (long) run(commands -> commands.lrem("l", 0, "a")));
+        assertEquals(2L, (long) run(commands -> commands.llen("l")));
+    }
+
+    @Test
+    void wrongTypeFailsLikeRedis() {
+        run(commands -> commands.set("a", "1"));
+
+        assertThrows(JedisDataException.class, () -> run(commands -> commands.hget("a", "f")));
+        assertThrows(JedisDataException.class, () -> run(commands -> commands.sadd("a", "m")));
+        // MGET answers nil instead
+        run(commands -> commands.sadd("s", "m"));
+        assertEquals(Arrays.asList("1", null), run(commands -> commands.mget("a", "s")));
+    }
+
+    @Test
+    void keysExpire() throws InterruptedException {
+        run(commands -> commands.psetex("a", 50, "1"));
+        run(commands -> commands.set("b", "2"));
+        assertEquals(1L, (long) run(commands -> commands.pexpire("b", 50)));
+        assertEquals(0L, (long) run(commands -> commands.pexpire("missing", 50)));
+        assertEquals("1", run(commands -> commands.get("a")));
+
+        Thread.sleep(100);
+
+        assertNull(run(commands -> commands.get("a")));
+        assertFalse((boolean) run(commands -> commands.exists("b")));
+        assertThrows(JedisDataException.class, () -> run(commands -> commands.psetex("c", 0, "1")));
+    }
+
+    @Test
+    void scanMatchesKeysOnce() {
+        run(commands -> commands.set("servers:1", "a"));
+        run(commands -> commands.set("servers:2", "b"));
+        run(commands -> commands.set("players:1", "c"));
+
+        ScanParams params = new ScanParams().match("servers:*");
+        List<String> keys = run(commands -> commands.scan(ScanParams.SCAN_POINTER_START, params)).getResult();
+
+        assertEquals(Set.of("servers:1", "servers:2"), Set.copyOf(keys));
+        assertEquals(2, keys.size());
+    }
+
+    @Test
+    void pipelineRaisesErrorsWhenRead() {
+        run(commands -> commands.set("a", "1"));
+
+        List<Supplier<?>> responses = this.backend.pipelined(pipeline -> List.of(
+                pipeline.hget("a", "f"),
+                pipeline.get("a")));
+
+        assertThrows(JedisDataException.class, () -> responses.get(0).get());
+        assertEquals("1", responses.get(1).get());
+    }
+
+    @Test
+    void publishDeliversToChannelAndPatternSubscribers() throws InterruptedException {
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch latch = new CountDownLatch(2);
+        MemoryBackend.Subscriber subscriber = (pattern, channel, message) -> {
+            received.add(pattern + " " + channel + " " + new String(message, StandardCharsets.UTF_8));
+            latch.countDown();
+        };
+
+        this.backend.subscribe("servers", subscriber);
+        this.backend.psubscribe("serv*", subscriber);
+
+        assertEquals(2L, (long) run(commands -> commands.publish("servers", "hello")));
+        assertEquals(0L, (long) run(commands -> commands.publish("players", "hello")));
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(Set.of("null servers hello", "serv* servers hello"), Set.copyOf(received));
+
+        this.backend.unsubscribe("servers", subscriber);
+        this.backend.punsubscribe("serv*", subscriber);
+        assertEquals(0L, (long) run(commands -> commands.publish("servers", "hello")));
+    }
+
+    @Test
+    void closedBackendRejectsCommands() {
+        run(commands -> commands.set("a", "1"));
+        this.backend.close();
+
+        assertTrue(this.backend.isClosed());
+        assertEquals(0, this.backend.getKeyCount());
+        assertThrows(IllegalStateException.class, () -> run(commands -> commands.get("a")));
+    }
+
+    private <T> T run(Function<RedisCommands, T> action) {
+        return this.backend.execute(action);
+    }
+}
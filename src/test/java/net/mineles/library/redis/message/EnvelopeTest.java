@@ -0,0 +1,138 @@
+package net.mineles.library.redis.message;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.gson.JsonObject;
+import net.mineles.library.utils.GsonProvider;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class EnvelopeTest {
+    private static final String BODY = "{\"player\":\"Notch\",\"count\":3}";
+
+    @Test
+    void framedRoundTrip() {
+        Envelope envelope = Envelope.create("servers", "move", ImmutableMap.of("origin", "lobby-1"), BODY)
+                .withHeader("sequence", "42");
+
+        Envelope parsed = Envelope.parse(envelope.encode());
+
+        assertNotNull(parsed);
+        assertEquals("servers", parsed.getKey());
+        assertEquals("move", parsed.getType());
+        assertEquals(envelope.getTimestamp(), parsed.getTimestamp());
+        assertEquals(ImmutableMap.of("origin", "lobby-1", "sequence", "42"), parsed.getHeaders());
+        assertEquals(BODY, parsed.getRawBody());
+        assertEquals("Notch", parsed.getBody().get("player").getAsString());
+        assertEquals("servers", parsed.getBody().get("key").getAsString());
+    }
+
+    @Test
+    void framedRoundTripWithoutKeyOrType() {
+        Envelope parsed = Envelope.parse(Envelope.create(null, null, BODY).encode());
+
+        assertNotNull(parsed);
+        assertNull(parsed.getKey());
+        assertNull(parsed.getType());
+        assertTrue(parsed.getHeaders().isEmpty());
+        assertFalse(parsed.getBody().has("key"));
+    }
+
+    @Test
+    void binaryRoundTrip() {
+        byte[] body = {0, 1, 2, (byte) 0xFF, 0x1C, 0x1E};
+        Envelope envelope = Envelope.create("players", "sync", body)
+                .withHeader("origin", "proxy");
+
+        Envelope parsed = Envelope.parse(envelope.encodeBinary());
+
+        assertNotNull(parsed);
+        assertTrue(parsed.isBinary());
+        assertEquals("players", parsed.getKey());
+        assertEquals("sync", parsed.getType());
+        assertEquals(envelope.getTimestamp(), parsed.getTimestamp());
+        assertEquals("proxy", parsed.getHeader("origin"));
+        assertArrayEquals(body, parsed.getBinaryBody());
+    }
+
+    @Test
+    void textBytesFallBackToTextParsing() {
+        String encoded = Envelope.create("servers", "move", BODY).encode();
+
+        Envelope parsed = Envelope.parse(encoded.getBytes(StandardCharsets.UTF_8));
+
+        assertNotNull(parsed);
+        assertFalse(parsed.isBinary());
+        assertEquals("move", parsed.getType());
+        assertEquals(BODY, parsed.getRawBody());
+    }
+
+    @Test
+    void parsesLegacyJson() {
+        Envelope parsed = Envelope.parse("{\"key\":\"servers\",\"player\":\"Notch\"}");
+
+        assertNotNull(parsed);
+        assertEquals("servers", parsed.getKey());
+        assertNull(parsed.getType());
+        assertEquals(0L, parsed.getTimestamp());
+        assertTrue(parsed.getHeaders().isEmpty());
+        assertEquals("Notch", parsed.getBody().get("player").getAsString());
+    }
+
+    @Test
+    void legacyRoundTrip() {
+        Envelope envelope = Envelope.create("servers", "move", BODY)
+                .withHeader("origin", "lobby-1");
+
+        String encoded = envelope.encode(EnvelopeFormat.LEGACY);
+        Envelope parsed = Envelope.parse(encoded);
+
+        assertNotNull(parsed);
+        assertEquals("servers", parsed.getKey());
+        assertEquals("move", parsed.getType());
+        assertEquals(envelope.getTimestamp(), parsed.getTimestamp());
+        assertEquals(ImmutableMap.of("origin", "lobby-1"), parsed.getHeaders());
+
+        JsonObject body = parsed.getBody();
+        assertEquals("Notch", body.get("player").getAsString());
+        assertEquals(3, body.get("count").getAsInt());
+        assertEquals("servers", body.get("key").getAsString());
+        assertFalse(body.has("@envelope"));
+    }
+
+    @Test
+    void legacyOutputIsPlainJson() {
+        String encoded = Envelope.create("servers", "move", BODY).encodeLegacy();
+
+        // older nodes parse the message as JSON and read the key from it
+        JsonObject json = GsonProvider.getGson().fromJson(encoded, JsonObject.class);
+        assertEquals("servers", json.get("key").getAsString());
+        assertEquals("Notch", json.get("player").getAsString());
+        assertEquals("move", json.getAsJsonObject("@envelope").get("type").getAsString());
+    }
+
+    @Test
+    void rejectsSeparatorsInKeyTypeAndHeaders() {
+        assertThrows(IllegalArgumentException.class, () -> Envelope.create("a\u001Fb", "move", BODY));
+        assertThrows(IllegalArgumentException.class, () -> Envelope.create("servers", "a\u001Db", BODY));
+        assertThrows(IllegalArgumentException.class, () -> Envelope.create("servers", "move", BODY).withHeader("a=b", "c"));
+        assertThrows(IllegalArgumentException.class, () -> Envelope.create("servers", "move", BODY).withHeader("origin", "a\u001Fb"));
+    }
+
+    @Test
+    void rejectsMalformedInput() {
+        assertNull(Envelope.parse("not json"));
+        assertNull(Envelope.parse("\u001E2\u001Fk\u001Ft\u001F1\u001D{}"));
+        assertNull(Envelope.parse("\u001E1\u001Fk\u001Ft\u001F1"));
+        assertNull(Envelope.parse("\u001E1\u001Fk\u001Ft\u001Fnow\u001D{}"));
+        assertNull(Envelope.parse(new byte[]{0x1C, '1', 5}));
+    }
+}
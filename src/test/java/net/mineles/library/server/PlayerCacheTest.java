@@ -0,0 +1,149 @@
+package net.mineles.library.server;
+
+import net.mineles.library.redis.RedisCache;
+import net.mineles.library.redis.RedisClient;
+import net.mineles.library.server.constants.ServerKeys;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs against the in-memory backend, so this covers the local mirrors of
+// the index scripts.
+final class PlayerCacheTest {
+    private RedisClient client;
+    private ServerManager serverManager;
+    private PlayerCache playerCache;
+    private RedisCache cache;
+
+    @BeforeEach
+    void setUp() {
+        this.client = RedisClient.inMemory("players-test");
+        this.client.connect();
+        this.serverManager = new ServerManager(this.client);
+        this.playerCache = this.serverManager.getPlayerCache();
+        this.cache = this.client.getCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.serverManager.shutdown();
+        this.client.disconnect();
+    }
+
+    @Test
+    void setPlayerIndexesTheUuid() {
+        UUID uuid = UUID.randomUUID();
+
+        this.playerCache.setPlayer("Notch", new Player(uuid, "Notch"));
+
+        assertEquals("Notch", this.playerCache.getPlayerName(uuid));
+        assertEquals("Notch", this.playerCache.getPlayer(uuid).getName());
+        assertTrue(this.playerCache.containsPlayer(uuid));
+    }
+
+    @Test
+    void setPlayerDropsThePreviousUuid() {
+        UUID oldUuid = UUID.randomUUID();
+        UUID newUuid = UUID.randomUUID();
+        this.playerCache.setPlayer("Notch", new Player(oldUuid, "Notch"));
+
+        this.playerCache.setPlayer("Notch", new Player(newUuid, "Notch"));
+
+        assertNull(this.playerCache.getPlayerName(oldUuid));
+        assertEquals("Notch", this.playerCache.getPlayerName(newUuid));
+    }
+
+    @Test
+    void setPlayerKeepsAnEntryAnotherNameTookOver() {
+        UUID uuid = UUID.randomUUID();
+        this.playerCache.setPlayer("Notch", new Player(uuid, "Notch"));
+        this.playerCache.setPlayer("Jeb", new Player(uuid, "Jeb"));
+
+        this.playerCache.setPlayer("Notch", new Player(UUID.randomUUID(), "Notch"));
+
+        assertEquals("Jeb", this.playerCache.getPlayerName(uuid));
+    }
+
+    @Test
+    void removePlayerDropsTheIndexEntry() {
+        UUID uuid = UUID.randomUUID();
+        UUID otherUuid = UUID.randomUUID();
+        this.playerCache.setPlayer("Notch", new Player(uuid, "Notch"));
+        this.playerCache.setPlayer("Jeb", new Player(otherUuid, "Jeb"));
+
+        this.playerCache.removePlayer("Notch");
+        this.playerCache.removePlayer(otherUuid);
+
+        assertNull(this.playerCache.getPlayer("Notch"));
+        assertNull(this.playerCache.getPlayerName(uuid));
+        assertNull(this.playerCache.getPlayer("Jeb"));
+        assertFalse(this.playerCache.containsPlayer(otherUuid));
+    }
+
+    @Test
+    void batchRemovalKeepsEntriesAnotherNameTookOver() {
+        Player notch = new Player(UUID.randomUUID(), "Notch");
+        Player jeb = new Player(UUID.randomUUID(), "Jeb");
+        this.playerCache.setPlayer("Notch", notch);
+        this.playerCache.setPlayer("Jeb", jeb);
+        this.cache.hset(ServerKeys.PLAYERS_BY_UUID, jeb.getUUID().toString(), "Dinnerbone");
+
+        this.cache.pipelined(batch -> this.playerCache.removePlayers(batch, List.of(notch, jeb)));
+
+        assertEquals(0, this.playerCache.getPlayerCount());
+        assertNull(this.playerCache.getPlayerName(notch.getUUID()));
+        assertEquals("Dinnerbone", this.playerCache.getPlayerName(jeb.getUUID()));
+    }
+
+    @Test
+    void staleEntriesAreNotResolved() {
+        UUID uuid = UUID.randomUUID();
+        this.playerCache.setPlayer("Notch", new Player(UUID.randomUUID(), "Notch"));
+        this.cache.hset(ServerKeys.PLAYERS_BY_UUID, uuid.toString(), "Notch");
+
+        assertNull(this.playerCache.getPlayer(uuid));
+    }
+
+    @Test
+    void rebuildIndexRepairsEntries() {
+        Player notch = new Player(UUID.randomUUID(), "Notch");
+        Player jeb = new Player(UUID.randomUUID(), "Jeb");
+        UUID gone = UUID.randomUUID();
+        UUID replaced = UUID.randomUUID();
+
+        // records written without the index, plus entries for a removed
+        // player and for a uuid the record no longer carries
+        this.cache.hsetDecoded(ServerKeys.PLAYERS, "Notch", notch, Player.class);
+        this.cache.hsetDecoded(ServerKeys.PLAYERS, "Jeb", jeb, Player.class);
+        this.cache.hset(ServerKeys.PLAYERS_BY_UUID, gone.toString(), "Dinnerbone");
+        this.cache.hset(ServerKeys.PLAYERS_BY_UUID, replaced.toString(), "Jeb");
+
+        this.playerCache.rebuildIndex();
+
+        assertEquals(Map.of(notch.getUUID().toString(), "Notch", jeb.getUUID().toString(), "Jeb"),
+                this.cache.hgetAll(ServerKeys.PLAYERS_BY_UUID));
+    }
+
+    @Test
+    void rebuildIndexCoversEveryBatch() {
+        for (int i = 0; i < 1200; i++) {
+            String name = "player-" + i;
+            this.cache.hsetDecoded(ServerKeys.PLAYERS, name, new Player(UUID.randomUUID(), name), Player.class);
+        }
+
+        this.playerCache.rebuildIndex();
+
+        assertEquals(1200, this.cache.hlen(ServerKeys.PLAYERS_BY_UUID));
+        this.playerCache.getPlayers().forEach((name, player) ->
+                assertEquals(name, this.playerCache.getPlayerName(player.getUUID())));
+    }
+}
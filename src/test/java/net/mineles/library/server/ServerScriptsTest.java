@@ -0,0 +1,136 @@
+package net.mineles.library.server;
+
+import net.mineles.library.connection.HostAndPort;
+import net.mineles.library.redis.RedisClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Runs against the in-memory backend, so this covers the local mirrors of
+// the Lua scripts.
+final class ServerScriptsTest {
+    private static final HostAndPort ADDRESS = HostAndPort.of("127.0.0.1:25565");
+
+    private RedisClient client;
+    private ServerManager serverManager;
+    private ServerScripts scripts;
+
+    @BeforeEach
+    void setUp() {
+        this.client = RedisClient.inMemory("scripts-test");
+        this.client.connect();
+        this.serverManager = new ServerManager(this.client);
+        this.scripts = this.serverManager.getServerScripts();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.serverManager.shutdown();
+        this.client.disconnect();
+    }
+
+    @Test
+    void registersOnlyKnownServers() {
+        assertFalse(this.scripts.registerServer("lobby-1", ADDRESS));
+
+        addServer("lobby-1");
+        assertTrue(this.scripts.registerServer("lobby-1", ADDRESS));
+
+        RegisteredServer server = this.serverManager.getServerCache().getRegisteredServer("lobby-1");
+        assertEquals(ADDRESS, server.getHostAndPort());
+        assertTrue(server.getPlayers().isEmpty());
+    }
+
+    @Test
+    void registeringClearsOldMembers() {
+        addServer("lobby-1");
+        this.scripts.registerServer("lobby-1", ADDRESS);
+        this.scripts.movePlayer("Notch", UUID.randomUUID(), "proxy-1", "lobby-1");
+
+        assertTrue(this.scripts.registerServer("lobby-1", ADDRESS));
+
+        assertEquals(0, this.serverManager.getServerCache().getPlayerCount("lobby-1"));
+    }
+
+    @Test
+    void movesPlayersBetweenServers() {
+        UUID uuid = UUID.randomUUID();
+        registerServer("lobby-1");
+        registerServer("lobby-2");
+
+        assertEquals(List.of("lobby-1"), this.scripts.movePlayer("Notch", uuid, "proxy-1", "lobby-1"));
+        assertEquals(List.of("lobby-1", "lobby-2"), this.scripts.movePlayer("Notch", uuid, "proxy-1", "lobby-2"));
+
+        ServerCache serverCache = this.serverManager.getServerCache();
+        assertTrue(serverCache.getPlayers("lobby-1").isEmpty());
+        assertEquals(Set.of(uuid), serverCache.getPlayers("lobby-2"));
+
+        Player player = this.serverManager.getPlayerCache().getPlayer("Notch");
+        assertEquals("lobby-2", player.getCurrentServer());
+        assertEquals("proxy-1", player.getCurrentProxy());
+        assertEquals("Notch", this.serverManager.getPlayerCache().getPlayerName(uuid));
+    }
+
+    @Test
+    void movingToAnUnregisteredServerOnlyLeavesTheOldOne() {
+        UUID uuid = UUID.randomUUID();
+        registerServer("lobby-1");
+        addServer("lobby-2");
+        this.scripts.movePlayer("Notch", uuid, "proxy-1", "lobby-1");
+
+        assertEquals(List.of("lobby-1"), this.scripts.movePlayer("Notch", uuid, "proxy-1", "lobby-2"));
+
+        assertTrue(this.serverManager.getServerCache().getPlayers("lobby-1").isEmpty());
+        assertTrue(this.serverManager.getServerCache().getPlayers("lobby-2").isEmpty());
+    }
+
+    @Test
+    void newUuidReplacesTheOldOne() {
+        UUID oldUuid = UUID.randomUUID();
+        UUID newUuid = UUID.randomUUID();
+        registerServer("lobby-1");
+        registerServer("lobby-2");
+        this.scripts.movePlayer("Notch", oldUuid, "proxy-1", "lobby-1");
+
+        this.scripts.movePlayer("Notch", newUuid, "proxy-1", "lobby-2");
+
+        PlayerCache playerCache = this.serverManager.getPlayerCache();
+        assertNull(playerCache.getPlayerName(oldUuid));
+        assertEquals("Notch", playerCache.getPlayerName(newUuid));
+        assertEquals(newUuid, playerCache.getPlayer("Notch").getUUID());
+        assertEquals(Set.of(newUuid), this.serverManager.getServerCache().getPlayers("lobby-2"));
+    }
+
+    @Test
+    void removesPlayersFromTheirServer() {
+        UUID uuid = UUID.randomUUID();
+        registerServer("lobby-1");
+        this.scripts.movePlayer("Notch", uuid, "proxy-1", "lobby-1");
+
+        assertEquals(List.of("lobby-1"), this.scripts.removePlayer("Notch"));
+
+        PlayerCache playerCache = this.serverManager.getPlayerCache();
+        assertNull(playerCache.getPlayer("Notch"));
+        assertNull(playerCache.getPlayerName(uuid));
+        assertTrue(this.serverManager.getServerCache().getPlayers("lobby-1").isEmpty());
+        assertTrue(this.scripts.removePlayer("Notch").isEmpty());
+    }
+
+    private void addServer(String name) {
+        this.serverManager.getServerCache().setServer(name, new Server(UUID.randomUUID().toString(), name, "lobby"));
+    }
+
+    private void registerServer(String name) {
+        addServer(name);
+        assertTrue(this.scripts.registerServer(name, ADDRESS));
+    }
+}
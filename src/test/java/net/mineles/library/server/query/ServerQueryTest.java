@@ -0,0 +1,195 @@
+package net.mineles.library.server.query;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import net.mineles.library.connection.HostAndPort;
+import net.mineles.library.redis.RedisClient;
+import net.mineles.library.server.RegisteredServer;
+import net.mineles.library.server.Server;
+import net.mineles.library.server.ServerCache;
+import net.mineles.library.server.ServerManager;
+import net.mineles.library.server.health.Heartbeat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class ServerQueryTest {
+    private static final Sort BY_NAME = (server1, server2) -> server1.getName().compareTo(server2.getName());
+
+    private RedisClient client;
+    private ServerCache serverCache;
+
+    @BeforeEach
+    void setUp() {
+        this.client = RedisClient.inMemory("query-test");
+        this.client.connect();
+        this.serverCache = new ServerManager(this.client).getServerCache();
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.client.disconnect();
+    }
+
+    @Test
+    void limitReturnsTheBestServersInOrder() {
+        Random random = new Random(7);
+        for (int i = 0; i < 50; i++) {
+            addServer("lobby-" + i, "lobby", random.nextInt(20));
+        }
+
+        Sort sort = Sorts.players().then(BY_NAME);
+        List<String> expected = this.serverCache.getRegisteredServers().values().stream()
+                .sorted(sort)
+                .limit(5)
+                .map(Server::getName)
+                .collect(Collectors.toList());
+
+        List<RegisteredServer> servers = ServerQuery.of(this.serverCache)
+                .sort(Sorts.players(), BY_NAME)
+                .limit(5)
+                .list();
+
+        assertEquals(expected, names(servers));
+    }
+
+    @Test
+    void limitAboveTheServerCountSortsEverything() {
+        addServer("lobby-1", "lobby", 3);
+        addServer("lobby-2", "lobby", 1);
+        addServer("lobby-3", "lobby", 2);
+
+        List<RegisteredServer> servers = ServerQuery.of(this.serverCache)
+                .sort(Sorts.players())
+                .limit(10)
+                .list();
+
+        assertEquals(List.of("lobby-2", "lobby-3", "lobby-1"), names(servers));
+    }
+
+    @Test
+    void firstMatchesTheHeadOfTheList() {
+        addServer("lobby-1", "lobby", 4);
+        addServer("lobby-2", "lobby", 0);
+        addServer("game-1", "game", 0);
+
+        ServerQuery query = ServerQuery.of(this.serverCache)
+                .filter(Filters.image("lobby"))
+                .sort(Sorts.players());
+
+        assertEquals("lobby-2", query.first().getName());
+        assertEquals(List.of("lobby-2", "lobby-1"), names(query.list()));
+    }
+
+    @Test
+    void emptyQueryHasNoResult() {
+        ServerQuery query = ServerQuery.of(this.serverCache).sort(Sorts.players());
+
+        assertTrue(query.list().isEmpty());
+        assertNull(query.first());
+        assertNull(query.pick());
+    }
+
+    @Test
+    void pickOnlyReturnsServersWithinTheLimit() {
+        for (int i = 0; i < 10; i++) {
+            addServer("lobby-" + i, "lobby", i);
+        }
+
+        ServerQuery query = ServerQuery.of(this.serverCache)
+                .sort(Sorts.players())
+                .limit(3);
+        for (int i = 0; i < 100; i++) {
+            assertTrue(query.pick().getPlayerCount() < 3);
+        }
+    }
+
+    @Test
+    void loadSortPutsServersWithoutHeartbeatLast() {
+        addServer("lobby-1", "lobby", 0);
+        addServer("lobby-2", "lobby", 0);
+        addServer("lobby-3", "lobby", 0);
+
+        long now = System.currentTimeMillis();
+        Map<String, Heartbeat> heartbeats = ImmutableMap.of(
+                "lobby-1", new Heartbeat(now, 0, 0.8, null),
+                "lobby-3", new Heartbeat(now, 0, 0.2, null));
+
+        List<RegisteredServer> servers = ServerQuery.of(this.serverCache)
+                .sort(Sorts.load(heartbeats))
+                .list();
+
+        assertEquals(List.of("lobby-3", "lobby-1", "lobby-2"), names(servers));
+    }
+
+    @Test
+    void combineBreaksTiesWithLaterSorts() {
+        RegisteredServer a = server("a", 2, 5);
+        RegisteredServer b = server("b", 2, 1);
+        RegisteredServer c = server("c", 1, 9);
+
+        Sort sort = Sort.combine(Sorts.players(), Sorts.entries());
+        List<RegisteredServer> servers = Sort.sort(new Sort[]{Sorts.players(), Sorts.entries()}, List.of(a, b, c).stream())
+                .collect(Collectors.toList());
+
+        assertTrue(sort.compare(c, a) < 0);
+        assertTrue(sort.compare(b, a) < 0);
+        assertEquals(0, sort.compare(a, server("d", 2, 5)));
+        assertEquals(List.of("c", "b", "a"), names(servers));
+    }
+
+    @Test
+    void combineOfOneSortIsThatSort() {
+        Sort players = Sorts.players();
+
+        assertSame(players, Sort.combine(players));
+    }
+
+    @Test
+    void descendingReversesTheOrder() {
+        RegisteredServer a = server("a", 1, 0);
+        RegisteredServer b = server("b", 2, 0);
+
+        Sort sort = Sorts.players().descending();
+
+        assertTrue(sort.compare(b, a) < 0);
+        assertTrue(sort.compare(a, b) > 0);
+    }
+
+    private void addServer(String name, String image, int players) {
+        this.serverCache.setServer(name, server(name, image, players, 0));
+    }
+
+    private static RegisteredServer server(String name, int players, int entries) {
+        return server(name, "lobby", players, entries);
+    }
+
+    private static RegisteredServer server(String name, String image, int players, int entries) {
+        return new Server(UUID.randomUUID().toString(), name, image)
+                .asRegisteredServer(HostAndPort.of("127.0.0.1:25565"), uuids(players), uuids(entries));
+    }
+
+    private static Set<UUID> uuids(int count) {
+        Set<UUID> uuids = Sets.newHashSet();
+        for (int i = 0; i < count; i++) {
+            uuids.add(UUID.randomUUID());
+        }
+        return uuids;
+    }
+
+    private static List<String> names(List<? extends Server> servers) {
+        return servers.stream().map(Server::getName).collect(Collectors.toList());
+    }
+}
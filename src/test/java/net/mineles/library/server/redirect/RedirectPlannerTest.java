@@ -0,0 +1,134 @@
+package net.mineles.library.server.redirect;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import net.mineles.library.connection.HostAndPort;
+import net.mineles.library.server.RegisteredServer;
+import net.mineles.library.server.Server;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class RedirectPlannerTest {
+    @Test
+    void fillsServersInTheGivenOrder() {
+        List<RegisteredServer> servers = List.of(server("lobby-1", 8), server("lobby-2", 0));
+
+        RedirectPlan plan = RedirectPlanner.plan(servers,
+                List.of(RedirectGroup.of("a"), RedirectGroup.of("b"), RedirectGroup.of("c")),
+                server -> 10);
+
+        assertTrue(plan.isComplete());
+        assertEquals("lobby-1", plan.getServer("a"));
+        assertEquals("lobby-1", plan.getServer("b"));
+        assertEquals("lobby-2", plan.getServer("c"));
+    }
+
+    @Test
+    void keepsGroupsTogether() {
+        List<RegisteredServer> servers = List.of(server("lobby-1", 7), server("lobby-2", 0));
+
+        RedirectPlan plan = RedirectPlanner.plan(servers,
+                List.of(RedirectGroup.of("solo"), RedirectGroup.of("p1", "p2", "p3", "p4")),
+                server -> 10);
+
+        assertTrue(plan.isComplete());
+        assertEquals("lobby-2", plan.getServer("p1"));
+        assertEquals("lobby-2", plan.getServer("p2"));
+        assertEquals("lobby-2", plan.getServer("p3"));
+        assertEquals("lobby-2", plan.getServer("p4"));
+        assertEquals("lobby-1", plan.getServer("solo"));
+    }
+
+    @Test
+    void placesLargestGroupsFirst() {
+        // singles placed first would split the server and leave no room for the party
+        List<RegisteredServer> servers = List.of(server("lobby-1", 0), server("lobby-2", 2));
+
+        RedirectPlan plan = RedirectPlanner.plan(servers,
+                List.of(RedirectGroup.of("a"), RedirectGroup.of("b"), RedirectGroup.of("p1", "p2", "p3")),
+                server -> 4);
+
+        assertTrue(plan.isComplete());
+        assertEquals("lobby-1", plan.getServer("p1"));
+        assertEquals("lobby-1", plan.getServer("a"));
+        assertEquals("lobby-2", plan.getServer("b"));
+    }
+
+    @Test
+    void reportsGroupsThatDoNotFit() {
+        List<RegisteredServer> servers = List.of(server("lobby-1", 1), server("lobby-2", 2));
+        RedirectGroup party = RedirectGroup.of("p1", "p2", "p3");
+
+        RedirectPlan plan = RedirectPlanner.plan(servers, List.of(party, RedirectGroup.of("a")), server -> 3);
+
+        assertFalse(plan.isComplete());
+        assertEquals(List.of(party), plan.getUnplaced());
+        assertNull(plan.getServer("p1"));
+        assertEquals("lobby-1", plan.getServer("a"));
+    }
+
+    @Test
+    void overfullServersTakeNoOne() {
+        List<RegisteredServer> servers = List.of(server("lobby-1", 12), server("lobby-2", 9));
+
+        RedirectPlan plan = RedirectPlanner.plan(servers,
+                List.of(RedirectGroup.of("a"), RedirectGroup.of("b")),
+                server -> 10);
+
+        assertEquals("lobby-2", plan.getServer("a"));
+        assertNull(plan.getServer("b"));
+        assertEquals(1, plan.getUnplaced().size());
+    }
+
+    @Test
+    void usesPerServerCapacity() {
+        List<RegisteredServer> servers = List.of(server("small", 0), server("large", 0));
+
+        RedirectPlan plan = RedirectPlanner.plan(servers,
+                List.of(RedirectGroup.of("p1", "p2", "p3")),
+                server -> server.getName().equals("small") ? 2 : 50);
+
+        assertEquals("large", plan.getServer("p1"));
+    }
+
+    @Test
+    void placesEveryoneInAMassTransfer() {
+        List<RegisteredServer> servers = List.of(server("lobby-1", 0), server("lobby-2", 0), server("lobby-3", 0));
+        List<RedirectGroup> groups = Lists.newArrayList();
+        for (int i = 0; i < 300; i++) {
+            groups.add(RedirectGroup.of("player-" + i));
+        }
+
+        RedirectPlan plan = RedirectPlanner.plan(servers, groups, server -> 100);
+
+        assertTrue(plan.isComplete());
+        assertEquals(300, plan.getAssignments().size());
+        for (RegisteredServer server : servers) {
+            assertEquals(100, plan.getAssignments().values().stream().filter(server.getName()::equals).count());
+        }
+    }
+
+    @Test
+    void emptyGroupsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> RedirectGroup.of(List.of()));
+    }
+
+    private static RegisteredServer server(String name, int players) {
+        Set<UUID> uuids = Sets.newHashSet();
+        for (int i = 0; i < players; i++) {
+            uuids.add(UUID.randomUUID());
+        }
+
+        return new Server(UUID.randomUUID().toString(), name, "lobby")
+                .asRegisteredServer(HostAndPort.of("127.0.0.1:25565"), uuids, Sets.newHashSet());
+    }
+}